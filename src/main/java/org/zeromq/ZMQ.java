@@ -187,6 +187,54 @@ public class ZMQ
     @Deprecated
     public static final int DOWNSTREAM = PUSH;
 
+    /**
+     * Fair queuing policy reading one message from each pipe in turn. This is the default.
+     * @see Socket#setFairQueuingPolicy(int)
+     */
+    public static final int FQ_ROUND_ROBIN = zmq.ZMQ.ZMQ_FQ_ROUND_ROBIN;
+    /**
+     * Fair queuing policy reading as many messages in a row from each pipe as its weight.
+     * @see Socket#setPipeWeight(int)
+     */
+    public static final int FQ_WEIGHTED    = zmq.ZMQ.ZMQ_FQ_WEIGHTED;
+    /**
+     * Fair queuing policy reading from the pipe of highest weight having messages,
+     * the pipes of the same weight being read in turn.
+     * @see Socket#setPipeWeight(int)
+     */
+    public static final int FQ_PRIORITY    = zmq.ZMQ.ZMQ_FQ_PRIORITY;
+
+    /**
+     * Load balancing policy sending one message to each pipe in turn. This is the default.
+     * @see Socket#setLoadBalancingPolicy(int)
+     */
+    public static final int LB_ROUND_ROBIN  = zmq.ZMQ.ZMQ_LB_ROUND_ROBIN;
+    /**
+     * Load balancing policy sending to the pipe with the fewest messages not read yet by the peer.
+     */
+    public static final int LB_LEAST_QUEUED = zmq.ZMQ.ZMQ_LB_LEAST_QUEUED;
+    /**
+     * Load balancing policy sending to the least queued of two pipes chosen at random,
+     * cheaper than {@link #LB_LEAST_QUEUED} with many peers.
+     */
+    public static final int LB_POWER_OF_TWO = zmq.ZMQ.ZMQ_LB_POWER_OF_TWO;
+    /**
+     * Load balancing policy sending as many messages in a row to each pipe as its weight.
+     * @see Socket#setPipeWeight(int)
+     */
+    public static final int LB_WEIGHTED     = zmq.ZMQ.ZMQ_LB_WEIGHTED;
+
+    /**
+     * Overflow policy of the socket type: when the high watermark is reached, the socket
+     * blocks or drops the new message. This is the default.
+     * @see Socket#setOverflowPolicy(int)
+     */
+    public static final int OVERFLOW_DEFAULT     = zmq.ZMQ.ZMQ_OVERFLOW_DEFAULT;
+    /**
+     * Overflow policy dropping the oldest queued message to make room for the new one.
+     */
+    public static final int OVERFLOW_DROP_OLDEST = zmq.ZMQ.ZMQ_OVERFLOW_DROP_OLDEST;
+
     /**
      * EVENT_CONNECTED: connection established.
      * The EVENT_CONNECTED event triggers when a connection has been
@@ -282,6 +330,14 @@ public class ZMQ
      * The EVENT_ALL constant can be used to set up a monitor for all known events.
      */
     public static final int EVENT_ALL                = zmq.ZMQ.ZMQ_EVENT_ALL;
+    /**
+     * EVENT_RATE_LIMITED: rate limit of a connection reached.
+     * The EVENT_RATE_LIMITED event triggers when a connection pauses its input or its output
+     * because of the rate limits set on the socket, at most once per second and per direction.
+     * Value is {@link ZMQ.Poller#POLLIN} for the input and {@link ZMQ.Poller#POLLOUT} for the output.
+     * This event is not part of {@link #EVENT_ALL} and has to be requested explicitly.
+     */
+    public static final int EVENT_RATE_LIMITED       = zmq.ZMQ.ZMQ_EVENT_RATE_LIMITED;
 
     /**
      * Unspecified system errors during handshake. Event value is an errno.
@@ -330,6 +386,25 @@ public class ZMQ
         return new Context(ioThreads);
     }
 
+    /**
+     * Attaches a forwarder moving the messages between two sockets from an I/O thread of their context.
+     * Messages are forwarded in both directions as they arrive, without involving any application thread,
+     * and only when the destination can take them, so that the high-water marks keep applying.
+     * The subscriptions received by a XPUB socket are forwarded by a XSUB one.
+     * <p>
+     * Once attached, the sockets must not be used until the forwarder is closed.
+     * Closing one of the sockets, or terminating the context, also detaches the forwarder.
+     *
+     * @param frontend ZMQ.Socket
+     * @param backend  ZMQ.Socket
+     * @return the forwarder, or null if one of the sockets is thread-safe or already forwarded,
+     * or if the context has no I/O thread.
+     */
+    public static zmq.Forwarder forwarder(Socket frontend, Socket backend)
+    {
+        return zmq.ZMQ.forwarder(frontend.base, backend.base);
+    }
+
     @Deprecated
     public static boolean device(int type, Socket frontend, Socket backend)
     {
@@ -625,6 +700,153 @@ public class ZMQ
             return ctx.set(zmq.ZMQ.ZMQ_IPV6, ipv6 ? 1 : 0);
         }
 
+        /**
+         * The default number of busy spins of the blocking operations of new sockets.
+         * @see Socket#setWaitSpin(int)
+         */
+        public int getWaitSpin()
+        {
+            return ctx.get(zmq.ZMQ.ZMQ_WAIT_SPIN);
+        }
+
+        /**
+         * Sets the default number of busy spins of the blocking operations of new sockets.
+         * @see Socket#setWaitSpin(int)
+         */
+        public boolean setWaitSpin(int spins)
+        {
+            return ctx.set(zmq.ZMQ.ZMQ_WAIT_SPIN, spins);
+        }
+
+        /**
+         * The default number of yields of the blocking operations of new sockets.
+         * @see Socket#setWaitYield(int)
+         */
+        public int getWaitYield()
+        {
+            return ctx.get(zmq.ZMQ.ZMQ_WAIT_YIELD);
+        }
+
+        /**
+         * Sets the default number of yields of the blocking operations of new sockets.
+         * @see Socket#setWaitYield(int)
+         */
+        public boolean setWaitYield(int yields)
+        {
+            return ctx.set(zmq.ZMQ.ZMQ_WAIT_YIELD, yields);
+        }
+
+        /**
+         * The default parking time, in microseconds, of the blocking operations of new sockets.
+         * @see Socket#setWaitPark(int)
+         */
+        public int getWaitPark()
+        {
+            return ctx.get(zmq.ZMQ.ZMQ_WAIT_PARK);
+        }
+
+        /**
+         * Sets the default parking time, in microseconds, of the blocking operations of new sockets.
+         * @see Socket#setWaitPark(int)
+         */
+        public boolean setWaitPark(int micros)
+        {
+            return ctx.set(zmq.ZMQ.ZMQ_WAIT_PARK, micros);
+        }
+
+        /**
+         * The time, in microseconds, the I/O threads busy-poll for events before blocking.
+         * @see #setIoSpin(int)
+         */
+        public int getIoSpin()
+        {
+            return ctx.get(zmq.ZMQ.ZMQ_IO_SPIN);
+        }
+
+        /**
+         * Sets the time, in microseconds, the I/O threads busy-poll for events before blocking.
+         * Busy-polling lowers the latency of network transports at the expense of a CPU core per spinning thread.
+         * The value 0, the default, means no busy-polling.
+         * This option shall be set before the first socket is created.
+         * @see #setIoSpinAffinity(int)
+         */
+        public boolean setIoSpin(int micros)
+        {
+            return ctx.set(zmq.ZMQ.ZMQ_IO_SPIN, micros);
+        }
+
+        /**
+         * The mask of the I/O threads that busy-poll.
+         * @see #setIoSpinAffinity(int)
+         */
+        public int getIoSpinAffinity()
+        {
+            return ctx.get(zmq.ZMQ.ZMQ_IO_SPIN_AFFINITY);
+        }
+
+        /**
+         * Sets the mask of the I/O threads that busy-poll, bit 0 standing for the first I/O thread.
+         * The value 0, the default, means all of them.
+         * Latency-sensitive sockets can be assigned to the spinning threads with {@link Socket#setAffinity(long)}.
+         * This option shall be set before the first socket is created.
+         * @see #setIoSpin(int)
+         */
+        public boolean setIoSpinAffinity(int mask)
+        {
+            return ctx.set(zmq.ZMQ.ZMQ_IO_SPIN_AFFINITY, mask);
+        }
+
+        /**
+         * The number of polls of the I/O threads that found events while busy-polling.
+         */
+        public long getIoSpinHits()
+        {
+            return ctx.getIoSpinHits();
+        }
+
+        /**
+         * The number of polls of the I/O threads that blocked waiting for events.
+         */
+        public long getIoBlockingSelects()
+        {
+            return ctx.getIoBlockingSelects();
+        }
+
+        /**
+         * Sets the maximum number of bytes queued in the pipes of all the sockets of the context.
+         * Once the budget is exceeded, the pipes holding messages are full until their peer reads some,
+         * and the sockets act as when their high water mark is reached, blocking or dropping messages
+         * depending on their type. Each pipe can still take a message when empty, so the budget may be
+         * exceeded by one message per pipe.
+         * The budget applies to the pipes created after it is set.
+         * The value 0, the default, means no budget.
+         *
+         * @param bytes the maximum number of bytes queued in the context.
+         * @see #getMemoryUsed()
+         */
+        public void setMemoryBudget(long bytes)
+        {
+            ctx.setMemoryBudget(bytes);
+        }
+
+        /**
+         * @return the maximum number of bytes queued in the pipes of the context, 0 if unlimited.
+         * @see #setMemoryBudget(long)
+         */
+        public long getMemoryBudget()
+        {
+            return ctx.getMemoryBudget();
+        }
+
+        /**
+         * @return the number of bytes queued in the pipes accounted for the memory budget.
+         * @see #setMemoryBudget(long)
+         */
+        public long getMemoryUsed()
+        {
+            return ctx.getMemoryUsed();
+        }
+
         /**
          * This is an explicit "destructor". It can be called to ensure the corresponding 0MQ
          * Context has been disposed of.
@@ -1469,6 +1691,56 @@ public class ZMQ
             return setSocketOpt(zmq.ZMQ.ZMQ_RCVHWM, value);
         }
 
+        /**
+         * Sets the high water mark for outbound messages in bytes, in addition to the count of messages
+         * limited by {@link #setSndHWM(int)}, so that large messages cannot exhaust the memory.
+         * The limit applies to the pipe of each peer, and is only checked between two messages:
+         * the message reaching it is queued as a whole.
+         * Once reached, the socket acts as for the high water mark in messages.
+         * A value of zero, the default, means no limit.
+         *
+         * @param bytes the maximum number of bytes queued for each peer.
+         * @return true if the option was set, otherwise false.
+         * @see #getSndHWMBytes()
+         */
+        public boolean setSndHWMBytes(long bytes)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_SNDHWM_BYTES, bytes);
+        }
+
+        /**
+         * @return the maximum number of bytes of the outbound messages queued for each peer, 0 if unlimited.
+         * @see #setSndHWMBytes(long)
+         */
+        public long getSndHWMBytes()
+        {
+            return (Long) base.getSocketOptx(zmq.ZMQ.ZMQ_SNDHWM_BYTES);
+        }
+
+        /**
+         * Sets the high water mark for inbound messages in bytes, in addition to the count of messages
+         * limited by {@link #setRcvHWM(int)}.
+         * Once reached, the messages of the peer are not read anymore until the application receives some.
+         * A value of zero, the default, means no limit.
+         *
+         * @param bytes the maximum number of bytes queued for each peer.
+         * @return true if the option was set, otherwise false.
+         * @see #getRcvHWMBytes()
+         */
+        public boolean setRcvHWMBytes(long bytes)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_RCVHWM_BYTES, bytes);
+        }
+
+        /**
+         * @return the maximum number of bytes of the inbound messages queued for each peer, 0 if unlimited.
+         * @see #setRcvHWMBytes(long)
+         */
+        public long getRcvHWMBytes()
+        {
+            return (Long) base.getSocketOptx(zmq.ZMQ.ZMQ_RCVHWM_BYTES);
+        }
+
         /**
          * @return the High Water Mark.
          * @see #setHWM(int)
@@ -2284,6 +2556,484 @@ public class ZMQ
             return (SelectorProviderChooser) base.getSocketOptx(zmq.ZMQ.ZMQ_SELECTOR_PROVIDERCHOOSER);
         }
 
+        /**
+         * Sets the number of times a shared memory connection (shm:// transport) polls its rings
+         * before sleeping until the peer wakes it up.
+         * Spinning lowers the latency at the expense of burning CPU in the I/O thread.
+         * The value 0, the default, means no spinning.
+         *
+         * @param spin the number of polls before sleeping.
+         * @return true if the option was set, otherwise false.
+         * @see #getShmSpin()
+         */
+        public boolean setShmSpin(int spin)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_SHM_SPIN, spin);
+        }
+
+        /**
+         * Returns the number of times a shared memory connection (shm:// transport) polls its rings
+         * before sleeping until the peer wakes it up.
+         *
+         * @return the number of polls before sleeping.
+         * @see #setShmSpin(int)
+         */
+        public int getShmSpin()
+        {
+            return base.getSocketOpt(zmq.ZMQ.ZMQ_SHM_SPIN);
+        }
+
+        /**
+         * Sets the number of busy spins of a blocking operation waiting for the socket to be ready,
+         * before it yields, then parks, then finally blocks.
+         * Waiting without blocking lowers the latency of blocking receives and sends,
+         * at the expense of burning CPU in the calling thread.
+         * The value 0, the default, means no spinning.
+         * This option has no effect on thread-safe sockets.
+         *
+         * @param spins the number of spins before yielding.
+         * @return true if the option was set, otherwise false.
+         * @see #getWaitSpin()
+         * @see #setWaitYield(int)
+         * @see #setWaitPark(int)
+         */
+        public boolean setWaitSpin(int spins)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_WAIT_SPIN, spins);
+        }
+
+        /**
+         * @return the number of busy spins of a blocking operation.
+         * @see #setWaitSpin(int)
+         */
+        public int getWaitSpin()
+        {
+            return base.getSocketOpt(zmq.ZMQ.ZMQ_WAIT_SPIN);
+        }
+
+        /**
+         * Sets the number of times a blocking operation waiting for the socket to be ready
+         * yields the CPU after spinning, before it parks, then finally blocks.
+         * The value 0, the default, means no yielding.
+         * This option has no effect on thread-safe sockets.
+         *
+         * @param yields the number of yields before parking.
+         * @return true if the option was set, otherwise false.
+         * @see #getWaitYield()
+         * @see #setWaitSpin(int)
+         */
+        public boolean setWaitYield(int yields)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_WAIT_YIELD, yields);
+        }
+
+        /**
+         * @return the number of yields of a blocking operation.
+         * @see #setWaitYield(int)
+         */
+        public int getWaitYield()
+        {
+            return base.getSocketOpt(zmq.ZMQ.ZMQ_WAIT_YIELD);
+        }
+
+        /**
+         * Sets the time, in microseconds, a blocking operation waiting for the socket to be ready
+         * spends parking after spinning and yielding, before it finally blocks.
+         * The value 0, the default, means no parking.
+         * This option has no effect on thread-safe sockets.
+         *
+         * @param micros the parking time in microseconds.
+         * @return true if the option was set, otherwise false.
+         * @see #getWaitPark()
+         * @see #setWaitSpin(int)
+         */
+        public boolean setWaitPark(int micros)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_WAIT_PARK, micros);
+        }
+
+        /**
+         * @return the parking time of a blocking operation, in microseconds.
+         * @see #setWaitPark(int)
+         */
+        public int getWaitPark()
+        {
+            return base.getSocketOpt(zmq.ZMQ.ZMQ_WAIT_PARK);
+        }
+
+        /**
+         * Sets the maximum number of bytes per second received from each peer connected over tcp or ipc.
+         * Once the limit is reached, the connection stops reading until the rate allows it again,
+         * without affecting the other connections of the socket.
+         * The limit applies to the connections of the following calls to connect() and bind(),
+         * so that different peers of the same socket can be given different limits.
+         * The value 0, the default, means no limit.
+         *
+         * @param rate the maximum number of bytes per second.
+         * @return true if the option was set, otherwise false.
+         * @see #getReceiveRateBytes()
+         * @see ZMQ#EVENT_RATE_LIMITED
+         */
+        public boolean setReceiveRateBytes(int rate)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_RCVRATE_BYTES, rate);
+        }
+
+        /**
+         * @return the maximum number of bytes per second received from each peer, 0 if unlimited.
+         * @see #setReceiveRateBytes(int)
+         */
+        public int getReceiveRateBytes()
+        {
+            return base.getSocketOpt(zmq.ZMQ.ZMQ_RCVRATE_BYTES);
+        }
+
+        /**
+         * Sets the maximum number of messages per second received from each peer connected over tcp or ipc.
+         * Once the limit is reached, the connection stops reading until the rate allows it again,
+         * without affecting the other connections of the socket.
+         * The limit applies to the connections of the following calls to connect() and bind(),
+         * so that different peers of the same socket can be given different limits.
+         * The value 0, the default, means no limit.
+         *
+         * @param rate the maximum number of messages per second.
+         * @return true if the option was set, otherwise false.
+         * @see #getReceiveRateMsgs()
+         * @see ZMQ#EVENT_RATE_LIMITED
+         */
+        public boolean setReceiveRateMsgs(int rate)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_RCVRATE_MSGS, rate);
+        }
+
+        /**
+         * @return the maximum number of messages per second received from each peer, 0 if unlimited.
+         * @see #setReceiveRateMsgs(int)
+         */
+        public int getReceiveRateMsgs()
+        {
+            return base.getSocketOpt(zmq.ZMQ.ZMQ_RCVRATE_MSGS);
+        }
+
+        /**
+         * Sets the maximum number of bytes per second sent to each peer connected over tcp or ipc.
+         * Once the limit is reached, the connection stops writing until the rate allows it again,
+         * without affecting the other connections of the socket.
+         * The limit applies to the connections of the following calls to connect() and bind(),
+         * so that different peers of the same socket can be given different limits.
+         * The value 0, the default, means no limit.
+         *
+         * @param rate the maximum number of bytes per second.
+         * @return true if the option was set, otherwise false.
+         * @see #getSendRateBytes()
+         * @see ZMQ#EVENT_RATE_LIMITED
+         */
+        public boolean setSendRateBytes(int rate)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_SNDRATE_BYTES, rate);
+        }
+
+        /**
+         * @return the maximum number of bytes per second sent to each peer, 0 if unlimited.
+         * @see #setSendRateBytes(int)
+         */
+        public int getSendRateBytes()
+        {
+            return base.getSocketOpt(zmq.ZMQ.ZMQ_SNDRATE_BYTES);
+        }
+
+        /**
+         * Sets the maximum number of messages per second sent to each peer connected over tcp or ipc.
+         * Once the limit is reached, the connection stops writing until the rate allows it again,
+         * without affecting the other connections of the socket.
+         * The limit applies to the connections of the following calls to connect() and bind(),
+         * so that different peers of the same socket can be given different limits.
+         * The value 0, the default, means no limit.
+         *
+         * @param rate the maximum number of messages per second.
+         * @return true if the option was set, otherwise false.
+         * @see #getSendRateMsgs()
+         * @see ZMQ#EVENT_RATE_LIMITED
+         */
+        public boolean setSendRateMsgs(int rate)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_SNDRATE_MSGS, rate);
+        }
+
+        /**
+         * @return the maximum number of messages per second sent to each peer, 0 if unlimited.
+         * @see #setSendRateMsgs(int)
+         */
+        public int getSendRateMsgs()
+        {
+            return base.getSocketOpt(zmq.ZMQ.ZMQ_SNDRATE_MSGS);
+        }
+
+        /**
+         * Sets the weight of the pipes of the connections made by the following calls
+         * to connect() and bind(), used by the weighted and priority policies of
+         * {@link #setFairQueuingPolicy(int)} and {@link #setLoadBalancingPolicy(int)}.
+         * The default weight is 1.
+         *
+         * @param weight the weight of the pipes, strictly positive.
+         * @return true if the option was set, otherwise false.
+         * @see #getPipeWeight()
+         */
+        public boolean setPipeWeight(int weight)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_PIPE_WEIGHT, weight);
+        }
+
+        /**
+         * @return the weight of the pipes of the next connections.
+         * @see #setPipeWeight(int)
+         */
+        public int getPipeWeight()
+        {
+            return base.getSocketOpt(zmq.ZMQ.ZMQ_PIPE_WEIGHT);
+        }
+
+        /**
+         * Sets the policy choosing the peer to receive the next message from,
+         * for the PULL, DEALER and GATHER sockets.
+         *
+         * @param policy one of {@link ZMQ#FQ_ROUND_ROBIN}, the default, {@link ZMQ#FQ_WEIGHTED}
+         *               or {@link ZMQ#FQ_PRIORITY}.
+         * @return true if the option was set, otherwise false.
+         */
+        public boolean setFairQueuingPolicy(int policy)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_FQ_POLICY, policy);
+        }
+
+        /**
+         * Sets the policy choosing the peer to send the next message to,
+         * for the PUSH, DEALER and SCATTER sockets.
+         *
+         * @param policy one of {@link ZMQ#LB_ROUND_ROBIN}, the default, {@link ZMQ#LB_LEAST_QUEUED},
+         *               {@link ZMQ#LB_POWER_OF_TWO} or {@link ZMQ#LB_WEIGHTED}.
+         * @return true if the option was set, otherwise false.
+         */
+        public boolean setLoadBalancingPolicy(int policy)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_LB_POLICY, policy);
+        }
+
+        /**
+         * Sets the directory of the queue the messages are spilled to, for the PUSH and DEALER sockets.
+         * Instead of blocking or failing when no peer can take a message, the socket appends it to
+         * memory-mapped segment files of the directory, and sends it once a peer is able to take it.
+         * The messages keep their order. The segments are deleted once read.
+         * The size of the segments and their persistence shall be set before the directory.
+         * The value null, the default, disables the spilling.
+         *
+         * @param dir the directory of the segment files, used by a single socket.
+         * @return true if the option was set, otherwise false.
+         * @see #setSpillSegmentSize(int)
+         * @see #setSpillPersistent(boolean)
+         */
+        public boolean setSpillDir(String dir)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_SPILL_DIR, dir);
+        }
+
+        /**
+         * @return the directory of the queue the messages are spilled to, null if disabled.
+         * @see #setSpillDir(String)
+         */
+        public String getSpillDir()
+        {
+            return (String) base.getSocketOptx(zmq.ZMQ.ZMQ_SPILL_DIR);
+        }
+
+        /**
+         * Sets the size in bytes of the segment files of the spill queue, 64 MB by default.
+         * A larger message gets a segment of its own.
+         *
+         * @param size the size of the segments.
+         * @return true if the option was set, otherwise false.
+         * @see #setSpillDir(String)
+         */
+        public boolean setSpillSegmentSize(int size)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_SPILL_SEGMENT_SIZE, size);
+        }
+
+        /**
+         * @return the size in bytes of the segment files of the spill queue.
+         * @see #setSpillSegmentSize(int)
+         */
+        public int getSpillSegmentSize()
+        {
+            return base.getSocketOpt(zmq.ZMQ.ZMQ_SPILL_SEGMENT_SIZE);
+        }
+
+        /**
+         * Sets whether the messages left in the spill queue survive the socket.
+         * When true, the segments are kept when the socket is closed, and the messages they hold
+         * are sent first by the next socket spilling to the same directory.
+         * When false, the default, the segments are deleted when the socket is closed.
+         *
+         * @param persistent true to keep the segments.
+         * @return true if the option was set, otherwise false.
+         * @see #setSpillDir(String)
+         */
+        public boolean setSpillPersistent(boolean persistent)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_SPILL_PERSISTENT, persistent);
+        }
+
+        /**
+         * @return true if the segments of the spill queue survive the socket.
+         * @see #setSpillPersistent(boolean)
+         */
+        public boolean isSpillPersistent()
+        {
+            return (Boolean) base.getSocketOptx(zmq.ZMQ.ZMQ_SPILL_PERSISTENT);
+        }
+
+        /**
+         * Sets the behaviour of the pipes of the connections made by the following calls
+         * to connect() and bind() when the send high watermark is reached.
+         * With {@link ZMQ#OVERFLOW_DROP_OLDEST}, the oldest message queued for the peer is dropped
+         * to make room for the new one, so that a slow peer always gets the freshest messages,
+         * which suits the PUB, PUSH and ROUTER sockets of latency-sensitive feeds.
+         * Multipart messages are dropped as a whole.
+         * If the peer does not read at all, the pipe still stops taking messages at twice the high watermark.
+         *
+         * @param policy {@link ZMQ#OVERFLOW_DEFAULT} or {@link ZMQ#OVERFLOW_DROP_OLDEST}.
+         * @return true if the option was set, otherwise false.
+         * @see #getDroppedMessages()
+         */
+        public boolean setOverflowPolicy(int policy)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_OVERFLOW_POLICY, policy);
+        }
+
+        /**
+         * @return the behaviour of the pipes of the next connections when the send high watermark is reached.
+         * @see #setOverflowPolicy(int)
+         */
+        public int getOverflowPolicy()
+        {
+            return base.getSocketOpt(zmq.ZMQ.ZMQ_OVERFLOW_POLICY);
+        }
+
+        /**
+         * @return the number of messages dropped by the {@link ZMQ#OVERFLOW_DROP_OLDEST} policy
+         * over all the pipes of the socket.
+         * @see #setOverflowPolicy(int)
+         */
+        public long getDroppedMessages()
+        {
+            return (Long) base.getSocketOptx(zmq.ZMQ.ZMQ_OVERFLOW_DROPPED);
+        }
+
+        /**
+         * Sets the latency budget of the output coalescing of the TCP and IPC connections
+         * made by the following calls to connect() and bind().
+         * Instead of writing each small message as soon as it is sent, the connection gathers
+         * the messages sent during the budget, and writes them at once, or as soon as they fill
+         * a batch. This trades a bounded latency for far fewer system calls on chatty connections.
+         * As the I/O threads have timers of a millisecond, a batch may stay open up to a millisecond
+         * when no message comes after the budget.
+         * The default value 0 writes the messages at once.
+         *
+         * @param micros the latency budget in microseconds.
+         * @return true if the option was set, otherwise false.
+         * @see #getSendCoalescing()
+         */
+        public boolean setSendCoalescing(int micros)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_SNDCOALESCE, micros);
+        }
+
+        /**
+         * @return the latency budget of the output coalescing in microseconds, 0 if disabled.
+         * @see #setSendCoalescing(int)
+         */
+        public int getSendCoalescing()
+        {
+            return base.getSocketOpt(zmq.ZMQ.ZMQ_SNDCOALESCE);
+        }
+
+        /**
+         * Sets the minimum size in bytes of the read and write buffers of the TCP and IPC connections
+         * made by the following calls to connect() and bind(), when their sizes adapt to the traffic.
+         * The default value is 1024.
+         *
+         * @param size the minimum size of the buffers.
+         * @return true if the option was set, otherwise false.
+         * @see #setBatchSizeMax(int)
+         */
+        public boolean setBatchSizeMin(int size)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_BATCH_SIZE_MIN, size);
+        }
+
+        /**
+         * @return the minimum size in bytes of the read and write buffers of the connections.
+         * @see #setBatchSizeMin(int)
+         */
+        public int getBatchSizeMin()
+        {
+            return base.getSocketOpt(zmq.ZMQ.ZMQ_BATCH_SIZE_MIN);
+        }
+
+        /**
+         * Sets the maximum size in bytes of the read and write buffers of the TCP and IPC connections
+         * made by the following calls to connect() and bind(), enabling the adaptation of their sizes.
+         * Each connection starts with buffers of the minimum size, doubles a buffer each time
+         * a read or a batch of messages fills it, and halves it after a series of reads or batches
+         * using less than a quarter of it. The free buffers are kept by each I/O thread for its connections.
+         * Busy connections get large buffers, and idle ones hold small ones.
+         * The default value 0 keeps buffers of the fixed size of the batches, at least 8 KB.
+         *
+         * @param size the maximum size of the buffers, 0 to disable the adaptation.
+         * @return true if the option was set, otherwise false.
+         * @see #setBatchSizeMin(int)
+         */
+        public boolean setBatchSizeMax(int size)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_BATCH_SIZE_MAX, size);
+        }
+
+        /**
+         * @return the maximum size in bytes of the read and write buffers of the connections,
+         * 0 if their sizes are fixed.
+         * @see #setBatchSizeMax(int)
+         */
+        public int getBatchSizeMax()
+        {
+            return base.getSocketOpt(zmq.ZMQ.ZMQ_BATCH_SIZE_MAX);
+        }
+
+        /**
+         * Sets the time after which the idle TCP and IPC connections made by the following calls
+         * to connect() and bind() give their read and write buffers back to their I/O thread.
+         * A connection without traffic during that time, heartbeats included, keeps no buffer,
+         * and takes buffers again when it reads or writes.
+         * This saves the memory of many mostly idle connections. The default value 0 keeps the buffers
+         * for the whole connection.
+         *
+         * @param millis the time without traffic in milliseconds, 0 to keep the buffers.
+         * @return true if the option was set, otherwise false.
+         */
+        public boolean setIdleRelease(int millis)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_IDLE_RELEASE, millis);
+        }
+
+        /**
+         * @return the time in milliseconds without traffic after which the connections
+         * give their buffers back, 0 if they keep them.
+         * @see #setIdleRelease(int)
+         */
+        public int getIdleRelease()
+        {
+            return base.getSocketOpt(zmq.ZMQ.ZMQ_IDLE_RELEASE);
+        }
+
         /**
          * The ZMQ_CONNECT_RID option sets the peer id of the next host connected via the connect() call,
          * and immediately readies that connection for data transfer with the named id.
@@ -2422,6 +3172,54 @@ public class ZMQ
             return setSocketOpt(zmq.ZMQ.ZMQ_XPUB_VERBOSER, verboser);
         }
 
+        /**
+         * Sets whether the PUB or XPUB socket keeps the latest message of each topic,
+         * and sends it to the subscribers when their subscription arrives.
+         * The topic of a message is its first part, single-part messages are not kept.
+         *
+         * @param lastValue true to keep the latest message of each topic, false by default.
+         * @return true if the option was set, otherwise false.
+         */
+        public boolean setXpubLastValue(boolean lastValue)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_XPUB_LAST_VALUE, lastValue);
+        }
+
+        /**
+         * Sets whether the PUB or XPUB socket conflates the messages per topic for the subscribers at their HWM.
+         * Instead of being dropped, the messages are kept until the subscriber can receive them again,
+         * only the latest message of each topic being kept. The topic of a message is its first part,
+         * single-part messages are still dropped. Sending a message never fails when conflating.
+         *
+         * @param conflate true to conflate the messages per topic, false by default.
+         * @return true if the option was set, otherwise false.
+         */
+        public boolean setXpubConflateTopics(boolean conflate)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_XPUB_CONFLATE_TOPICS, conflate);
+        }
+
+        /**
+         * Sets the size of the ring the PUB or XPUB socket publishes its messages to for its inproc SUB peers.
+         * Each message is then written once for all these subscribers, which filter it on their side,
+         * instead of being written to the pipe of each of them.
+         * <p>
+         * When the ring is full, the oldest messages are overwritten and the subscribers
+         * that did not read them skip them. With {@link #setXpubNoDrop(boolean)},
+         * sending fails with EAGAIN instead, until the slowest subscriber has read the oldest message.
+         * The ring shall be larger than the number of parts of the messages.
+         * <p>
+         * Only applies to the inproc connections made after the option is set, while both sockets exist;
+         * the other subscribers keep their own pipe. A value of 0, the default, disables the ring.
+         *
+         * @param size the number of message parts the ring can hold, rounded up to a power of 2.
+         * @return true if the option was set, otherwise false.
+         */
+        public boolean setInprocFanout(int size)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_INPROC_FANOUT, size);
+        }
+
         /**
          * @return the IPV4ONLY
          * @see #setIPv4Only (boolean)
@@ -3123,6 +3921,7 @@ public class ZMQ
          * <ul>
          * <li>tcp - unicast transport using TCP</li>
          * <li>ipc - local inter-process communication transport</li>
+         * <li>shm - local inter-process communication transport through shared memory</li>
          * <li>inproc - local in-process (inter-thread) communication transport</li>
          * </ul>
          * Every ØMQ socket type except ZMQ_PAIR supports one-to-many and many-to-one semantics.
@@ -3387,6 +4186,65 @@ public class ZMQ
             return -1;
         }
 
+        /**
+         * Queues a batch of messages created from data, so they can be sent.
+         * <p>
+         * The whole batch is handed to the socket at once, which is cheaper than sending each message separately,
+         * notably for thread-safe sockets.
+         * Only the first message may wait for room in the socket;
+         * the batch is then stopped at the first message that cannot be queued.
+         *
+         * @param data  the data of each message to send.
+         * @param off   the index of the first message to be sent.
+         * @param len   the number of messages to be sent.
+         * @param flags a combination (with + or |) of the flags defined below:
+         *              <ul>
+         *              <li>{@link org.zeromq.ZMQ#DONTWAIT DONTWAIT}:
+         *              For socket types ({@link org.zeromq.ZMQ#DEALER DEALER}, {@link org.zeromq.ZMQ#PUSH PUSH})
+         *              that block when there are no available peers (or all peers have full high-water mark),
+         *              specifies that the operation should be performed in non-blocking mode.
+         *              If no message can be queued on the socket, the method shall fail with errno set to EAGAIN.</li>
+         *              <li>{@link org.zeromq.ZMQ#SNDMORE SNDMORE}:
+         *              Specifies that the messages are the parts of a single multi-part message,
+         *              the last one being sent without the more flag.</li>
+         *              <li>0 : blocking send of single-part messages</li>
+         *              </ul>
+         * @return the number of messages queued, -1 on error
+         * @throws ZMQException with EINVAL if off and len are outside of the array or a message data is null,
+         *                      no message being sent.
+         */
+        public int sendMany(byte[][] data, int off, int len, int flags)
+        {
+            if (!checkMany(data, off, len)) {
+                base.errno.set(ZError.EINVAL);
+                mayRaise();
+                return -1;
+            }
+            zmq.Msg[] msgs = new zmq.Msg[data.length];
+            for (int idx = off; idx < off + len; ++idx) {
+                msgs[idx] = new zmq.Msg(data[idx]);
+            }
+            int sent = base.sendMany(msgs, off, len, flags);
+            if (sent < 0) {
+                mayRaise();
+            }
+            return sent;
+        }
+
+        //  Checks the range of the messages to send before creating them
+        private boolean checkMany(byte[][] data, int off, int len)
+        {
+            if (data == null || off < 0 || len <= 0 || off > data.length - len) {
+                return false;
+            }
+            for (int idx = off; idx < off + len; ++idx) {
+                if (data[idx] == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
         /**
          * Queues a 'picture' message to the socket (or actor), so it can be sent.
          *
@@ -3585,6 +4443,44 @@ public class ZMQ
             return -1;
         }
 
+        /**
+         * Receives a batch of messages.
+         * <p>
+         * The first message is waited for as with {@link #recv(int)},
+         * then the following ones are received as long as they are immediately available.
+         * Message parts are stored as they come, use {@link #hasReceiveMore()} to know
+         * whether the last received part is followed by another one.
+         * <p>
+         * @param data  the array to fill with the data of each received message.
+         * @param max   the maximum number of messages to receive.
+         * @param flags either:
+         *              <ul>
+         *              <li>{@link org.zeromq.ZMQ#DONTWAIT DONTWAIT}:
+         *              Specifies that the operation should be performed in non-blocking mode.
+         *              If there are no messages available on the specified socket,
+         *              the method shall fail with errno set to EAGAIN and return -1.</li>
+         *              <li>0 : receive operation blocks until one message is successfully retrieved,
+         *              or stops when timeout set by {@link #setReceiveTimeOut(int)} expires.</li>
+         *              </ul>
+         * @return the number of messages received, -1 on error
+         * @throws ZMQException with EINVAL if max is not between 1 and the length of the array,
+         *                      no message being received.
+         */
+        public int recvMany(byte[][] data, int max, int flags)
+        {
+            //  The socket checks the maximum against the array before receiving anything.
+            zmq.Msg[] msgs = new zmq.Msg[data == null ? 0 : data.length];
+            int received = base.recvMany(msgs, max, flags);
+            if (received < 0) {
+                mayRaise();
+                return -1;
+            }
+            for (int idx = 0; idx < received; ++idx) {
+                data[idx] = msgs[idx].data();
+            }
+            return received;
+        }
+
         /**
          * @return the message received, as a String object; null on no message.
          */
@@ -3778,6 +4674,11 @@ public class ZMQ
 
         private List<PollItem> items;
 
+        //  Registrations of the items, kept from one poll to the next.
+        private final zmq.poll.PollSet pollset;
+        //  Items to poll, rebuilt only when registering or unregistering.
+        private zmq.poll.PollItem[]    pollItems;
+
         private long timeout;
 
         /**
@@ -3795,6 +4696,7 @@ public class ZMQ
             assert (selector != null);
 
             items = new ArrayList<>(size);
+            pollset = new zmq.poll.PollSet(selector);
             timeout = -1L;
         }
 
@@ -3888,6 +4790,7 @@ public class ZMQ
         private int registerInternal(PollItem item)
         {
           items.add(item);
+          pollItems = null;
           return items.size() - 1;
         }
 
@@ -3922,6 +4825,7 @@ public class ZMQ
                 PollItem item = it.next();
                 if (item.socket == socket || item.getRawSocket() == socket) {
                     it.remove();
+                    pollItems = null;
                 }
             }
         }
@@ -4040,15 +4944,17 @@ public class ZMQ
             if (items.isEmpty()) {
                 return 0;
             }
-            zmq.poll.PollItem[] pollItems = new zmq.poll.PollItem[items.size()];
-            for (int i = 0, j = 0; i < items.size(); i++) {
-                if (items.get(i) != null) {
-                    pollItems[j++] = items.get(i).base;
+            if (pollItems == null) {
+                pollItems = new zmq.poll.PollItem[items.size()];
+                for (int i = 0, j = 0; i < items.size(); i++) {
+                    if (items.get(i) != null) {
+                        pollItems[j++] = items.get(i).base;
+                    }
                 }
             }
 
             try {
-                return zmq.ZMQ.poll(selector, pollItems, items.size(), tout);
+                return pollset.poll(pollItems, pollItems.length, tout);
             }
             catch (ZError.IOException e) {
                 if (context.isTerminated()) {
@@ -111,6 +111,7 @@ public class ZMonitor implements Closeable
         HANDSHAKE_FAILED_PROTOCOL(ZMQ.HANDSHAKE_FAILED_PROTOCOL),
         HANDSHAKE_FAILED_AUTH(ZMQ.HANDSHAKE_FAILED_AUTH),
         HANDSHAKE_PROTOCOL(ZMQ.EVENT_HANDSHAKE_PROTOCOL),
+        RATE_LIMITED(ZMQ.EVENT_RATE_LIMITED),
         ALL(ZMQ.EVENT_ALL);
 
         private static final Map<Integer, Event> MAP = new HashMap<>(Event.values().length);
@@ -4,10 +4,12 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.Selector;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -15,6 +17,7 @@ import org.zeromq.ZMQ.Poller;
 import org.zeromq.ZMQ.Socket;
 
 import zmq.poll.PollItem;
+import zmq.poll.PollSet;
 import zmq.util.Objects;
 import zmq.util.function.BiFunction;
 
@@ -301,6 +304,16 @@ public class ZPoller implements Closeable
             return ops;
         }
 
+        // forgets the item if the events of the holders changed since its creation
+        private boolean refresh()
+        {
+            if (item != null && item.zinterestOps() != ops()) {
+                item = null;
+                return true;
+            }
+            return false;
+        }
+
         @Override
         public Socket socket()
         {
@@ -470,6 +483,7 @@ public class ZPoller implements Closeable
         this.selector = selector;
         items = new HashMap<>();
         all = new HashSet<>();
+        pollset = new PollSet(selector);
     }
 
     // creates a new poll item
@@ -627,6 +641,7 @@ public class ZPoller implements Closeable
         boolean rc = items != null;
         if (rc) {
             all.remove(items);
+            pollItems = null;
         }
         return rc;
     }
@@ -664,10 +679,17 @@ public class ZPoller implements Closeable
      */
     protected int poll(final long timeout, final boolean dispatchEvents)
     {
-        // get all the raw items
-        final Set<PollItem> pollItems = new HashSet<>();
+        // get all the raw items, only gathered again when registrations or their events changed
         for (CompositePollItem it : all) {
-            pollItems.add(it.item());
+            if (it.refresh()) {
+                pollItems = null;
+            }
+        }
+        if (pollItems == null) {
+            pollItems = new ArrayList<>(all.size());
+            for (CompositePollItem it : all) {
+                pollItems.add(it.item());
+            }
         }
         // polling time
         final int rc = poll(selector, timeout, pollItems);
@@ -697,7 +719,13 @@ public class ZPoller implements Closeable
     protected int poll(final Selector selector, final long tout, final Collection<zmq.poll.PollItem> items)
     {
         final int size = items.size();
-        return zmq.ZMQ.poll(selector, items.toArray(new PollItem[size]), size, tout);
+        if (selector != this.selector) {
+            return zmq.ZMQ.poll(selector, items.toArray(new PollItem[size]), size, tout);
+        }
+        if (pollArray.length < size) {
+            pollArray = new PollItem[size];
+        }
+        return pollset.poll(items.toArray(pollArray), size, tout);
     }
 
     /**
@@ -940,6 +968,12 @@ public class ZPoller implements Closeable
     private final Map<Object, CompositePollItem> items;
     // all managed items to avoid penalty cost when dispatching
     private final Set<CompositePollItem> all;
+    // registrations of the polled items, kept from one poll to the next
+    private final PollSet pollset;
+    // raw items to poll, null when registrations changed since the last poll
+    private List<PollItem> pollItems;
+    // reusable array of the raw items handed to the poll set
+    private PollItem[] pollArray = new PollItem[0];
 
     // TODO set of handlers, each with its specified events?
     // optional global events handler
@@ -987,6 +1021,9 @@ public class ZPoller implements Closeable
         final boolean rc = aggregate.holders.add(holder);
         if (rc) {
             all.add(aggregate);
+            // the interest of the aggregate has to include the new holder
+            aggregate.item = null;
+            pollItems = null;
         }
         return rc;
     }
@@ -10,7 +10,6 @@ import org.zeromq.ZAgent.SelectorCreator;
 import org.zeromq.ZMQ.Socket;
 import org.zeromq.ZStar.Exit;
 
-import zmq.Msg;
 import zmq.SocketBase;
 
 /**
@@ -42,6 +41,7 @@ import zmq.SocketBase;
  *      <li>with built-in high-level  {@link org.zeromq.ZProxy.ZPump}  (ZeroMQ): useful for {@link org.zeromq.ZProxy.ZPump.Transformer message transformation}, lower performances
  *      <li>with your own-custom proxy pump implementing a {@link Pump 1-method interface}
  *    </ul>
+ * <li>{@link #newShardedProxy(ZContext, String, int, Proxy, String, Object...) Sharding}: <i>several threads pumping stateless relays, controlled as a single proxy</i>
  * </ul><p>
  * <br>
  * You can have all the above non-customizable features in about these lines of code:
@@ -301,6 +301,38 @@ public class ZProxy
         return new ZProxy(ctx, name, sockets, new ZmqPump(), motdelafin, args);
     }
 
+    /**
+     * Creates a new low-level proxy made of several shards, each one pumping messages in its own thread
+     * between its own frontend and backend sockets, to spread the load of stateless relays over several cores.
+     * <p>
+     * The provider of the sockets receives the {@link Shard} being created as the last argument,
+     * so that each shard binds or connects its sockets to its own endpoints.
+     * The commands sent to the proxy are performed by all the shards.
+     *
+     * @param ctx        the context used for the proxy.
+     * Possibly null, in this case a new context will be created and automatically destroyed afterwards.
+     * @param name       the name of the proxy. Possibly null.
+     * @param shards     the number of shards of the proxy. Strictly positive.
+     * @param sockets    the sockets creator of the proxy. Not null.
+     * @param motdelafin the final word used to mark the end of the proxy. Null to disable this mechanism.
+     * @param args       an optional array of arguments that will be passed at the creation.
+     *
+     * @return the created proxy.
+     */
+    public static ZProxy newShardedProxy(ZContext ctx, String name, int shards, Proxy sockets, String motdelafin,
+                                         Object... args)
+    {
+        Utils.checkArgument(shards > 0, "A proxy needs at least one shard");
+        ZProxy[] proxies = new ZProxy[shards];
+        for (int index = 0; index < shards; ++index) {
+            Object[] vars = Arrays.copyOf(args, args.length + 1);
+            vars[args.length] = new Shard(index, shards);
+            String shard = name == null ? null : name + "-" + index;
+            proxies[index] = new ZProxy(ctx, shard, sockets, new ZmqPump(), motdelafin, vars);
+        }
+        return new ZProxy(Arrays.asList(proxies));
+    }
+
     /**
      * Starts the proxy.
      *
@@ -361,6 +393,13 @@ public class ZProxy
         if (EXIT.equals(command)) {
             return exit();
         }
+        if (shards != null) {
+            String status = null;
+            for (ZProxy shard : shards) {
+                status = merge(status, shard.command(command, sync));
+            }
+            return status;
+        }
         // consume the status in the pipe
         String status = recvStatus();
 
@@ -416,10 +455,23 @@ public class ZProxy
      * The distant side has to send back one (1) mandatory response message.
      *
      * @param msg      the custom message sent as configuration tip
-     * @return the mandatory response message of the configuration.
+     * @return the mandatory response message of the configuration,
+     * or the responses of all the shards appended in their order for a sharded proxy.
      */
     public ZMsg configure(ZMsg msg)
     {
+        if (shards != null) {
+            // the replies of the shards are gathered in their order
+            ZMsg replies = new ZMsg();
+            for (ZProxy shard : shards) {
+                ZMsg reply = shard.configure(msg.duplicate());
+                if (reply != null) {
+                    replies.append(reply);
+                }
+            }
+            msg.destroy();
+            return replies;
+        }
         msg.addFirst(CONFIG);
 
         if (agent.send(msg)) {
@@ -444,6 +496,13 @@ public class ZProxy
      */
     public String restart(ZMsg hot)
     {
+        if (shards != null) {
+            String status = null;
+            for (ZProxy shard : shards) {
+                status = merge(status, shard.restart(hot == null ? null : hot.duplicate()));
+            }
+            return status;
+        }
         ZMsg msg = new ZMsg();
         msg.add(RESTART);
 
@@ -486,6 +545,12 @@ public class ZProxy
      */
     public String exit()
     {
+        if (shards != null) {
+            for (ZProxy shard : shards) {
+                shard.exit();
+            }
+            return EXITED;
+        }
         agent.send(EXIT);
         exit.awaitSilent();
         agent.close();
@@ -509,6 +574,13 @@ public class ZProxy
      */
     public String status(boolean sync)
     {
+        if (shards != null) {
+            String status = null;
+            for (ZProxy shard : shards) {
+                status = merge(status, shard.status(sync));
+            }
+            return status;
+        }
         if (exit.isExited()) {
             return EXITED;
         }
@@ -530,6 +602,15 @@ public class ZProxy
         }
     }
 
+    // a sharded proxy is started when all its shards are, otherwise it has the status of the first one which is not
+    private static String merge(String status, String shard)
+    {
+        if (status == null || STARTED.equals(status)) {
+            return shard;
+        }
+        return status;
+    }
+
     // receives the last known state of the proxy
     private String recvStatus()
     {
@@ -612,6 +693,9 @@ public class ZProxy
     // the synchronizer for exiting
     private final Exit exit;
 
+    // the shards of the proxy, null if not sharded
+    private final List<ZProxy> shards;
+
     /**
      * Creates a new unnamed proxy.
      *
@@ -750,6 +834,67 @@ public class ZProxy
         ZActor zactor = new ZActor(ctx, actor, motdelafin, vars);
         agent = zactor.agent(); // NB: the zactor is also its own agent
         exit = zactor.exit();
+        shards = null;
+    }
+
+    // creates a proxy controlling the given shards
+    private ZProxy(List<ZProxy> shards)
+    {
+        agent = null;
+        exit = null;
+        this.shards = shards;
+    }
+
+    /**
+     * Position of a shard in a {@link #newShardedProxy(ZContext, String, int, Proxy, String, Object...) sharded proxy},
+     * given as the last argument to the provider of the sockets of each shard.
+     */
+    public static final class Shard
+    {
+        private final int index;
+        private final int count;
+
+        private Shard(int index, int count)
+        {
+            this.index = index;
+            this.count = count;
+        }
+
+        /**
+         * Retrieves the shard from the arguments given to the provider of the sockets.
+         *
+         * @param args the arguments given to the provider.
+         * @return the shard being created, or null if the proxy is not sharded.
+         */
+        public static Shard of(Object... args)
+        {
+            if (args.length > 0 && args[args.length - 1] instanceof Shard) {
+                return (Shard) args[args.length - 1];
+            }
+            return null;
+        }
+
+        /**
+         * @return the index of the shard, from 0 to {@link #count()} excluded.
+         */
+        public int index()
+        {
+            return index;
+        }
+
+        /**
+         * @return the number of shards of the proxy.
+         */
+        public int count()
+        {
+            return count;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Shard [" + index + "/" + count + "]";
+        }
     }
 
     // defines a pump that will flow messages from one socket to another
@@ -1130,6 +1275,10 @@ public class ZProxy
         @Override
         public boolean flow(Plug splug, Socket source, Socket capture, Plug dplug, Socket destination)
         {
+            if (transformer == IDENTITY) {
+                // nothing to transform, the messages are moved as they are
+                return ZmqPump.transfer(source, capture, destination);
+            }
             boolean success;
 
             // we read the whole message
@@ -1169,51 +1318,19 @@ public class ZProxy
      */
     private static final class ZmqPump implements Pump
     {
-        // transfers each message as a whole by sending each packet received to the capture socket
+        // transfers the messages available as a whole by sending each packet received to the capture socket
         @Override
         public boolean flow(Plug splug, Socket source, Socket capture, Plug dplug, Socket destination)
         {
-            boolean rc;
+            return transfer(source, capture, destination);
+        }
 
-            SocketBase src = source.base();
-            SocketBase dst = destination.base();
+        // moves the messages without copying their payloads, nor polling again between them
+        static boolean transfer(Socket source, Socket capture, Socket destination)
+        {
             SocketBase cpt = capture == null ? null : capture.base();
-
-            // we transfer the whole message
-            while (true) {
-                // we read the packet
-                Msg msg = src.recv(0);
-
-                if (msg == null) {
-                    return false;
-                }
-
-                long more = src.getSocketOpt(zmq.ZMQ.ZMQ_RCVMORE);
-
-                if (more < 0) {
-                    return false;
-                }
-
-                //  Copy message to capture socket if any packet
-                if (cpt != null) {
-                    Msg ctrl = new Msg(msg);
-                    rc = cpt.send(ctrl, more > 0 ? zmq.ZMQ.ZMQ_SNDMORE : 0);
-                    if (!rc) {
-                        // not successful, but we can still try to send it to the destination
-                    }
-                }
-
-                // we send the packet
-                rc = dst.send(msg, more > 0 ? zmq.ZMQ.ZMQ_SNDMORE : 0);
-
-                if (!rc) {
-                    return false;
-                }
-                if (more == 0) {
-                    break;
-                }
-            }
-            return true;
+            int max = zmq.Config.PROXY_BATCH_SIZE.getValue();
+            return zmq.ZMQ.forward(source.base(), destination.base(), cpt, max) > 0;
         }
     }
 }
@@ -4,9 +4,18 @@ package zmq;
 public class Command
 {
     //  Object to process the command.
-    final ZObject destination;
-    final Type    type;
-    final Object  arg;
+    ZObject destination;
+    Type    type;
+    Object  arg;
+
+    //  Numeric argument, avoiding to box the number of messages read of activate_write.
+    long value;
+
+    //  Next command in the queue holding this command.
+    volatile Command next;
+
+    //  Pool the command is given back to once processed, if any.
+    private final CommandPool pool;
 
     public enum Type
     {
@@ -70,17 +79,43 @@ public class Command
         this.destination = destination;
         this.type = type;
         this.arg = arg;
+        this.pool = null;
+    }
+
+    //  Command recycled through the given pool.
+    Command(CommandPool pool)
+    {
+        this.pool = pool;
+    }
+
+    final Command init(ZObject destination, Type type, Object arg)
+    {
+        this.destination = destination;
+        this.type = type;
+        this.arg = arg;
+        return this;
     }
 
     public final void process()
     {
         destination.processCommand(this);
+        recycle();
+    }
+
+    //  Gives the command back to its pool once it has been handled.
+    final void recycle()
+    {
+        if (pool != null) {
+            destination = null;
+            arg = null;
+            pool.release(this);
+        }
     }
 
     @Override
     public String toString()
     {
         return "Cmd" + "[" + destination + ", " + (destination == null ? "Reaper" : destination.getTid() + ", ") + type
-                + (arg == null ? "" : ", " + arg) + "]";
+                + (arg == null ? "" : ", " + arg) + (type == Type.ACTIVATE_WRITE ? ", " + value : "") + "]";
     }
 }
@@ -0,0 +1,65 @@
+package zmq;
+
+//  Free list of the commands sent by a thread.
+//
+//  Each thread sending commands takes them from its own pool. Once a command has
+//  been processed by its destination, it is given back to the pool of the thread
+//  that sent it, through a lock-free queue read by this thread only when its
+//  free list runs out. In steady state, sending a command does not allocate.
+final class CommandPool
+{
+    private static final ThreadLocal<CommandPool> POOLS = new ThreadLocal<CommandPool>()
+    {
+        @Override
+        protected CommandPool initialValue()
+        {
+            return new CommandPool(Config.COMMAND_POOL_SIZE.getValue());
+        }
+    };
+
+    //  Commands ready to be reused, only accessed by the owner thread.
+    private final Command[] free;
+    private int             size;
+
+    //  Commands given back by the threads that processed them.
+    private final CommandQueue released;
+
+    private CommandPool(int capacity)
+    {
+        free = new Command[capacity];
+        released = new CommandQueue();
+    }
+
+    //  Returns a command from the pool of the calling thread.
+    static Command acquire(ZObject destination, Command.Type type, Object arg)
+    {
+        return POOLS.get().take().init(destination, type, arg);
+    }
+
+    private Command take()
+    {
+        if (size == 0) {
+            //  Collect the commands given back since the last time.
+            Command cmd = released.read();
+            while (cmd != null && size < free.length) {
+                free[size++] = cmd;
+                cmd = released.read();
+            }
+            if (cmd != null) {
+                return cmd;
+            }
+            if (size == 0) {
+                return new Command(this);
+            }
+        }
+        Command cmd = free[--size];
+        free[size] = null;
+        return cmd;
+    }
+
+    //  Gives a processed command back to the pool. Can be called from any thread.
+    void release(Command cmd)
+    {
+        released.write(cmd);
+    }
+}
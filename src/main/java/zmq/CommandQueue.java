@@ -0,0 +1,83 @@
+package zmq;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+//  Lock-free unbounded queue of commands with any number of writers and a single reader.
+//
+//  The queue is intrusive: commands are linked through their own next field, so that
+//  queuing a command does not allocate. A stub command stands for the empty queue.
+//
+//  Writers swap the tail of the list, then link the previous tail to their command.
+//  Between the two steps of a write, the command is not yet reachable from the head:
+//  the reader then waits for the link to appear rather than reporting an empty queue.
+//  Once read, a command is not referenced by the queue anymore and can be reused.
+final class CommandQueue
+{
+    //  Placeholder keeping the list non-empty when all the commands have been read.
+    private final Command stub;
+
+    //  Last command of the list, swapped by the writers.
+    private final AtomicReference<Command> tail;
+
+    //  First command of the list, only accessed by the reader.
+    private Command head;
+
+    CommandQueue()
+    {
+        stub = new Command(null, null);
+        head = stub;
+        tail = new AtomicReference<>(stub);
+    }
+
+    //  Writer side. Appends a command to the queue. Can be called from any thread.
+    void write(Command cmd)
+    {
+        assert (cmd != null && cmd != stub);
+        append(cmd);
+    }
+
+    //  Reader side. Retrieves the first command of the queue, or null if it is empty.
+    Command read()
+    {
+        Command first = head;
+        Command next = first.next;
+        if (first == stub) {
+            if (next == null) {
+                if (tail.get() == stub) {
+                    return null;
+                }
+                next = awaitNext(stub);
+            }
+            //  Skip the stub.
+            head = next;
+            first = next;
+            next = next.next;
+        }
+        if (next == null) {
+            if (first == tail.get()) {
+                //  The first command is the last one: the stub takes its place in the list.
+                append(stub);
+            }
+            next = awaitNext(first);
+        }
+        head = next;
+        return first;
+    }
+
+    private void append(Command cmd)
+    {
+        cmd.next = null;
+        Command prev = tail.getAndSet(cmd);
+        prev.next = cmd;
+    }
+
+    //  Waits for a writer to link the command following the given one.
+    private static Command awaitNext(Command cmd)
+    {
+        Command next;
+        while ((next = cmd.next) == null) {
+            Thread.yield();
+        }
+        return next;
+    }
+}
@@ -10,6 +10,9 @@ public enum Config
     //  Commands in pipe per allocation event.
     COMMAND_PIPE_GRANULARITY(16),
 
+    //  Maximum number of free commands kept by each thread sending commands.
+    COMMAND_POOL_SIZE(1024),
+
     //  Determines how often does socket poll for new commands when it
     //  still has unprocessed messages to handle. Thus, if it is set to 100,
     //  socket will process 100 inbound messages before doing the poll.
@@ -30,6 +33,15 @@ public enum Config
     //  unnecessary network stack traversals.
     OUT_BATCH_SIZE(8192),
 
+    //  Maximum number of bytes of free buffers kept by each I/O thread
+    //  for the engines adapting the size of their buffers.
+    BUFFER_POOL_SIZE(16 * 1024 * 1024),
+
+    //  Maximum number of messages a proxy moves from one socket to the other
+    //  before polling again, so that a continuous flow in one direction does
+    //  not starve the other one nor the control socket.
+    PROXY_BATCH_SIZE(256),
+
     //  Maximal delta between high and low watermark.
     MAX_WM_DELTA(1024),
 
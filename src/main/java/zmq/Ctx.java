@@ -16,8 +16,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -147,6 +149,24 @@ public class Ctx
 
     private boolean ipv6;
 
+    //  Default wait strategy of the sockets of this context.
+    private int waitSpin;
+    private int waitYield;
+    private int waitPark;
+
+    //  Time the I/O threads busy-poll for events before blocking, in microseconds.
+    private int ioSpin;
+
+    //  Mask of the I/O threads that busy-poll, bit 0 being the first one.
+    //  0 means all of them.
+    private int ioSpinAffinity;
+
+    //  Maximum number of bytes queued in the pipes of the context, 0 meaning no limit.
+    private volatile long memoryBudget;
+
+    //  Number of bytes queued in the pipes of the context accounted for the budget.
+    private final AtomicLong memoryUsed = new AtomicLong();
+
     private final Errno errno = new Errno();
 
     /**
@@ -377,6 +397,51 @@ public class Ctx
                 optSync.unlock();
             }
         }
+        else if (option == ZMQ.ZMQ_WAIT_SPIN && optval >= 0) {
+            optSync.lock();
+            try {
+                waitSpin = optval;
+            }
+            finally {
+                optSync.unlock();
+            }
+        }
+        else if (option == ZMQ.ZMQ_WAIT_YIELD && optval >= 0) {
+            optSync.lock();
+            try {
+                waitYield = optval;
+            }
+            finally {
+                optSync.unlock();
+            }
+        }
+        else if (option == ZMQ.ZMQ_WAIT_PARK && optval >= 0) {
+            optSync.lock();
+            try {
+                waitPark = optval;
+            }
+            finally {
+                optSync.unlock();
+            }
+        }
+        else if (option == ZMQ.ZMQ_IO_SPIN && optval >= 0) {
+            optSync.lock();
+            try {
+                ioSpin = optval;
+            }
+            finally {
+                optSync.unlock();
+            }
+        }
+        else if (option == ZMQ.ZMQ_IO_SPIN_AFFINITY) {
+            optSync.lock();
+            try {
+                ioSpinAffinity = optval;
+            }
+            finally {
+                optSync.unlock();
+            }
+        }
         else {
             return false;
         }
@@ -398,12 +463,94 @@ public class Ctx
         else if (option == ZMQ.ZMQ_IPV6) {
             rc = ipv6 ? 1 : 0;
         }
+        else if (option == ZMQ.ZMQ_WAIT_SPIN) {
+            rc = waitSpin;
+        }
+        else if (option == ZMQ.ZMQ_WAIT_YIELD) {
+            rc = waitYield;
+        }
+        else if (option == ZMQ.ZMQ_WAIT_PARK) {
+            rc = waitPark;
+        }
+        else if (option == ZMQ.ZMQ_IO_SPIN) {
+            rc = ioSpin;
+        }
+        else if (option == ZMQ.ZMQ_IO_SPIN_AFFINITY) {
+            rc = ioSpinAffinity;
+        }
         else {
             throw new IllegalArgumentException("option = " + option);
         }
         return rc;
     }
 
+    //  Returns the number of polls of the I/O threads that found events while busy-polling.
+    public long getIoSpinHits()
+    {
+        long hits = 0;
+        slotSync.lock();
+        try {
+            for (IOThread ioThread : ioThreads) {
+                hits += ioThread.getSpinHits();
+            }
+        }
+        finally {
+            slotSync.unlock();
+        }
+        return hits;
+    }
+
+    //  Sets the maximum number of bytes queued in the pipes of the context, 0 meaning no limit.
+    //  The budget applies to the pipes created after it is set. Once it is exceeded,
+    //  the pipes holding messages are considered full until their reader catches up:
+    //  depending on the socket type, the sender blocks or the messages are dropped.
+    public void setMemoryBudget(long budget)
+    {
+        if (budget < 0) {
+            throw new IllegalArgumentException("memoryBudget " + budget);
+        }
+        memoryBudget = budget;
+    }
+
+    public long getMemoryBudget()
+    {
+        return memoryBudget;
+    }
+
+    //  Returns the number of bytes queued in the pipes accounted for the memory budget.
+    public long getMemoryUsed()
+    {
+        return memoryUsed.get();
+    }
+
+    //  Accounts for bytes entering the pipes, or leaving them when negative.
+    public void useMemory(long bytes)
+    {
+        memoryUsed.addAndGet(bytes);
+    }
+
+    public boolean isOverBudget()
+    {
+        long budget = memoryBudget;
+        return budget > 0 && memoryUsed.get() >= budget;
+    }
+
+    //  Returns the number of polls of the I/O threads that blocked waiting for events.
+    public long getIoBlockingSelects()
+    {
+        long selects = 0;
+        slotSync.lock();
+        try {
+            for (IOThread ioThread : ioThreads) {
+                selects += ioThread.getBlockingSelects();
+            }
+        }
+        finally {
+            slotSync.unlock();
+        }
+        return selects;
+    }
+
     public SocketBase createSocket(int type)
     {
         SocketBase s = null;
@@ -452,10 +599,14 @@ public class Ctx
             //  Initialize the array of mailboxes. Additional two slots are for
             //  zmq_term thread and reaper thread.
             int ios;
+            int spin;
+            int spinAffinity;
             optSync.lock();
             try {
                 ios = ioThreadCount;
                 slotCount = maxSockets + ioThreadCount + 2;
+                spin = ioSpin;
+                spinAffinity = ioSpinAffinity;
             }
             finally {
                 optSync.unlock();
@@ -476,6 +627,10 @@ public class Ctx
                 //alloc_assert (io_thread);
                 ioThreads.add(ioThread);
                 slots[i] = ioThread.getMailbox();
+                int index = i - 2;
+                if (spin > 0 && (spinAffinity == 0 || (index < 32 && (spinAffinity & (1 << index)) != 0))) {
+                    ioThread.setSpin(TimeUnit.MICROSECONDS.toNanos(spin));
+                }
                 ioThread.start();
             }
 
@@ -722,6 +877,14 @@ public class Ctx
         if (pendingConnection.endpoint.options.recvHwm != 0 && bindOptions.sendHwm != 0) {
             rcvhwm = pendingConnection.endpoint.options.recvHwm + bindOptions.sendHwm;
         }
+        long sndhwmBytes = 0;
+        if (pendingConnection.endpoint.options.sendHwmBytes != 0 && bindOptions.recvHwmBytes != 0) {
+            sndhwmBytes = pendingConnection.endpoint.options.sendHwmBytes + bindOptions.recvHwmBytes;
+        }
+        long rcvhwmBytes = 0;
+        if (pendingConnection.endpoint.options.recvHwmBytes != 0 && bindOptions.sendHwmBytes != 0) {
+            rcvhwmBytes = pendingConnection.endpoint.options.recvHwmBytes + bindOptions.sendHwmBytes;
+        }
         boolean conflate = pendingConnection.endpoint.options.conflate
                 && (pendingConnection.endpoint.options.type == ZMQ.ZMQ_DEALER
                         || pendingConnection.endpoint.options.type == ZMQ.ZMQ_PULL
@@ -731,6 +894,12 @@ public class Ctx
         int[] hwms = { conflate ? -1 : sndhwm, conflate ? -1 : rcvhwm };
         pendingConnection.connectPipe.setHwms(hwms[1], hwms[0]);
         pendingConnection.bindPipe.setHwms(hwms[0], hwms[1]);
+        if (!conflate) {
+            pendingConnection.connectPipe.setHwmBytes(sndhwmBytes);
+            pendingConnection.bindPipe.setHwmBytes(rcvhwmBytes);
+        }
+        pendingConnection.bindPipe.setWeight(bindOptions.pipeWeight);
+        pendingConnection.bindPipe.setDropOldest(bindOptions.overflowPolicy == ZMQ.ZMQ_OVERFLOW_DROP_OLDEST);
 
         if (side == Side.BIND) {
             Command cmd = new Command(null, Command.Type.BIND, pendingConnection.bindPipe);
@@ -0,0 +1,255 @@
+package zmq;
+
+import java.nio.channels.SelectableChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import zmq.io.IOObject;
+import zmq.io.IOThread;
+import zmq.poll.IPollEvents;
+import zmq.poll.Poller;
+
+//  Forwards the messages between two sockets from an I/O thread, as they arrive in their pipes.
+//
+//  The sockets are driven by the I/O thread through the file descriptors of their mailboxes,
+//  the same way the reaper drives the sockets being closed, so that no application thread
+//  takes part in the transfer. A message is only moved when the destination can take it,
+//  so the high-water marks keep applying in both directions. Messages flow both ways,
+//  so that the subscriptions received by a XPUB socket are forwarded by a XSUB one.
+//
+//  Once attached to a forwarder, the sockets must not be used by the application anymore.
+//  The forwarder is detached when closed, when one of its sockets is closed, or when the
+//  context is terminated.
+public final class Forwarder extends Own implements IPollEvents
+{
+    //  Id of the timer resuming a forwarding interrupted to serve the other objects of the I/O thread.
+    private static final int RESUME_TIMER_ID = 0x40;
+
+    private final SocketBase frontend;
+    private final SocketBase backend;
+
+    //  Maximum number of messages moved in one direction before yielding the I/O thread.
+    private final int batch;
+
+    private final IOObject ioObject;
+
+    //  Handles of the mailboxes of the sockets.
+    private Poller.Handle frontendHandle;
+    private Poller.Handle backendHandle;
+
+    //  True once the forwarder is detached or being detached.
+    private final AtomicBoolean closed;
+
+    //  Released once the sockets are detached from the I/O thread.
+    private final CountDownLatch detached;
+
+    //  True while a resume timer is pending.
+    private boolean resuming;
+
+    //  Parts left of the message being sent to each socket, once the socket took its first part.
+    private final Deque<Msg> toFrontend;
+    private final Deque<Msg> toBackend;
+
+    //  Attaches a forwarder to the given sockets, in the I/O thread chosen for the frontend.
+    //  Returns null if one of the sockets is thread-safe or already forwarded, or if the context
+    //  has no I/O thread.
+    static Forwarder attach(SocketBase frontend, SocketBase backend)
+    {
+        if (frontend.isForwarded() || backend.isForwarded()) {
+            //  A socket is driven by a single forwarder at a time.
+            frontend.errno.set(ZError.EINVAL);
+            return null;
+        }
+        if (fd(frontend) == null || fd(backend) == null) {
+            return null;
+        }
+        IOThread ioThread = frontend.chooseIoThread(frontend.options.affinity);
+        if (ioThread == null) {
+            frontend.errno.set(ZError.EMTHREAD);
+            return null;
+        }
+        Forwarder forwarder = new Forwarder(ioThread, frontend, backend);
+        forwarder.start();
+        return forwarder;
+    }
+
+    private Forwarder(IOThread ioThread, SocketBase frontend, SocketBase backend)
+    {
+        super(ioThread, new Options());
+        this.frontend = frontend;
+        this.backend = backend;
+        this.batch = Config.PROXY_BATCH_SIZE.getValue();
+        this.ioObject = new IOObject(ioThread, this);
+        this.closed = new AtomicBoolean();
+        this.detached = new CountDownLatch(1);
+        this.toFrontend = new ArrayDeque<>();
+        this.toBackend = new ArrayDeque<>();
+    }
+
+    private void start()
+    {
+        frontend.forwardedBy(this);
+        backend.forwardedBy(this);
+        sendPlug(this, false);
+    }
+
+    //  Detaches the sockets from the I/O thread, and waits until they can be used again
+    //  by the application or closed.
+    public void close()
+    {
+        if (closed.compareAndSet(false, true)) {
+            sendStop();
+        }
+        try {
+            detached.await();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    protected void processPlug()
+    {
+        ioObject.plug();
+        frontendHandle = ioObject.addFd(fd(frontend));
+        ioObject.setPollIn(frontendHandle);
+        if (backend != frontend) {
+            backendHandle = ioObject.addFd(fd(backend));
+            ioObject.setPollIn(backendHandle);
+        }
+        //  Forward the messages already waiting in the pipes.
+        inEvent();
+    }
+
+    @Override
+    protected void processStop()
+    {
+        detach();
+    }
+
+    @Override
+    protected void destroy()
+    {
+    }
+
+    @Override
+    public void inEvent()
+    {
+        if (frontendHandle == null) {
+            return;
+        }
+        //  Process the commands of both sockets, notably the pipes being activated.
+        boolean alive = frontend.processPendingCommands();
+        alive &= backend.processPendingCommands();
+        if (!alive) {
+            closed.set(true);
+            detach();
+            return;
+        }
+
+        boolean more = forward(frontend, backend, toBackend);
+        if (backend != frontend) {
+            more |= forward(backend, frontend, toFrontend);
+        }
+        if (more && !resuming) {
+            //  Let the other objects of the I/O thread proceed before resuming.
+            resuming = true;
+            ioObject.addTimer(0, RESUME_TIMER_ID);
+        }
+    }
+
+    @Override
+    public void timerEvent(int id)
+    {
+        assert (id == RESUME_TIMER_ID);
+        resuming = false;
+        inEvent();
+    }
+
+    //  Moves the messages as long as the source has some and the destination can take them.
+    //  Returns true if the batch was exhausted before that.
+    private boolean forward(SocketBase from, SocketBase to, Deque<Msg> pending)
+    {
+        //  The destination cannot take another message before the end of the current one.
+        if (!resume(to, pending)) {
+            return false;
+        }
+        for (int count = 0; from.hasIn() && (from == to || to.hasOut()); ++count) {
+            if (count == batch) {
+                return true;
+            }
+            //  The parts of a message are always available together, they are all read
+            //  before the message is sent.
+            Msg msg;
+            do {
+                msg = from.xrecv();
+                if (msg == null) {
+                    pending.clear();
+                    return false;
+                }
+                msg.resetMetadata();
+                pending.add(msg);
+            } while (msg.hasMore());
+
+            if (!to.xsend(pending.peekFirst())) {
+                //  A message refused by the destination is dropped as a whole.
+                pending.clear();
+                continue;
+            }
+            pending.pollFirst();
+            if (!resume(to, pending)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    //  Sends the parts left of the message the destination has started to take.
+    //  Returns false if a part is refused, the parts being kept until the destination takes them.
+    private boolean resume(SocketBase to, Deque<Msg> pending)
+    {
+        while (!pending.isEmpty()) {
+            if (!to.xsend(pending.peekFirst())) {
+                return false;
+            }
+            pending.pollFirst();
+        }
+        return true;
+    }
+
+    private void detach()
+    {
+        if (frontendHandle != null) {
+            if (resuming) {
+                ioObject.cancelTimer(RESUME_TIMER_ID);
+                resuming = false;
+            }
+            ioObject.removeHandle(frontendHandle);
+            frontendHandle = null;
+            if (backendHandle != null) {
+                ioObject.removeHandle(backendHandle);
+                backendHandle = null;
+            }
+            ioObject.unplug();
+            toFrontend.clear();
+            toBackend.clear();
+            frontend.forwardedBy(null);
+            backend.forwardedBy(null);
+        }
+        detached.countDown();
+    }
+
+    private static SelectableChannel fd(SocketBase socket)
+    {
+        return (SelectableChannel) socket.getSocketOptx(ZMQ.ZMQ_FD);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Forwarder[" + frontend + " <-> " + backend + "]";
+    }
+}
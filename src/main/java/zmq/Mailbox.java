@@ -2,30 +2,32 @@ package zmq;
 
 import java.io.IOException;
 import java.nio.channels.SelectableChannel;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import zmq.pipe.YPipe;
 import zmq.util.Errno;
 
 public final class Mailbox implements IMailbox
 {
-    //  The pipe to store actual commands.
-    private final YPipe<Command> cpipe;
+    //  The queue to store actual commands.
+    //  There's only one thread receiving from the mailbox, but there
+    //  is arbitrary number of threads sending, without any lock.
+    private final CommandQueue cpipe;
 
     //  Signaler to pass signals from writer thread to reader thread.
     private final Signaler signaler;
 
-    //  There's only one thread receiving from the mailbox, but there
-    //  is arbitrary number of threads sending. Given that ypipe requires
-    //  synchronized access on both of its endpoints, we have to synchronize
-    //  the sending side.
-    private final Lock sync;
+    //  True if the reader is asleep, waiting for a signal before reading commands again.
+    //  The first writer to clear it sends the signal, so that a burst of commands
+    //  posted while the reader sleeps costs a single signal.
+    private final AtomicBoolean asleep;
 
     //  True if the underlying pipe is active, i.e. when we are allowed to
     //  read commands from it.
     private boolean active;
 
+    //  Command read while falling asleep, delivered once the pending signal is received.
+    private Command pending;
+
     // mailbox name, for better debugging
     private final String name;
 
@@ -34,16 +36,13 @@ public final class Mailbox implements IMailbox
     public Mailbox(Ctx ctx, String name, int tid)
     {
         this.errno = ctx.errno();
-        cpipe = new YPipe<>(Config.COMMAND_PIPE_GRANULARITY.getValue());
-        sync = new ReentrantLock();
+        cpipe = new CommandQueue();
         signaler = new Signaler(ctx, tid, errno);
 
         //  Get the pipe into passive state. That way, if the users starts by
         //  polling on the associated file descriptor it will get woken up when
         //  new command is posted.
-
-        Command cmd = cpipe.read();
-        assert (cmd == null);
+        asleep = new AtomicBoolean(true);
         active = false;
 
         this.name = name;
@@ -54,20 +53,19 @@ public final class Mailbox implements IMailbox
         return signaler.getFd();
     }
 
+    //  Sets how the owner thread waits for commands before blocking in the selector.
+    public void setWaitStrategy(int spins, int yields, long parkNanos)
+    {
+        signaler.setWaitStrategy(spins, yields, parkNanos);
+    }
+
     @Override
     public void send(final Command cmd)
     {
-        boolean ok = false;
-        sync.lock();
-        try {
-            cpipe.write(cmd, false);
-            ok = cpipe.flush();
-        }
-        finally {
-            sync.unlock();
-        }
+        cpipe.write(cmd);
 
-        if (!ok) {
+        //  Wake up the reader if it is asleep and nobody did it already.
+        if (asleep.get() && asleep.compareAndSet(true, false)) {
             signaler.send();
         }
     }
@@ -85,6 +83,18 @@ public final class Mailbox implements IMailbox
 
             //  If there are no more commands available, switch into passive state.
             active = false;
+            asleep.set(true);
+
+            //  A command may have been posted before the writers could see the reader asleep.
+            cmd = cpipe.read();
+            if (cmd != null) {
+                if (asleep.compareAndSet(true, false)) {
+                    active = true;
+                    return cmd;
+                }
+                //  A writer is signaling already, the command waits for the signal.
+                pending = cmd;
+            }
         }
 
         //  Wait for signal from the command sender.
@@ -104,7 +114,13 @@ public final class Mailbox implements IMailbox
         active = true;
 
         //  Get a command.
-        cmd = cpipe.read();
+        cmd = pending;
+        if (cmd == null) {
+            cmd = cpipe.read();
+        }
+        else {
+            pending = null;
+        }
         assert (cmd != null) : "command shall never be null when read";
 
         return cmd;
@@ -115,11 +131,6 @@ public final class Mailbox implements IMailbox
     {
         //  TODO: Retrieve and deallocate commands inside the cpipe.
 
-        // Work around problem that other threads might still be in our
-        // send() method, by waiting on the mutex before disappearing.
-        sync.lock();
-        sync.unlock();
-
         signaler.close();
     }
 
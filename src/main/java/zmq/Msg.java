@@ -7,6 +7,8 @@ import java.nio.channels.SocketChannel;
 import java.util.Arrays;
 
 import zmq.io.Metadata;
+import zmq.io.coder.v2.V2Protocol;
+import zmq.socket.radiodish.Group;
 import zmq.util.Utils;
 import zmq.util.Wire;
 
@@ -117,7 +119,10 @@ public class Msg
     private int readIndex = 0;
 
     private int routingId;
-    private String group;
+    private Group group;
+
+    //  Header of the ZMTP frame of the message, encoded once for all the engines it is sent to.
+    private volatile ByteBuffer frameHeader;
 
     public Msg()
     {
@@ -212,6 +217,50 @@ public class Msg
         return (flags & COMMAND) == COMMAND;
     }
 
+    //  Returns true if the message is sent to several pipes at once.
+    public boolean isShared()
+    {
+        return (flags & SHARED) == SHARED;
+    }
+
+    /**
+     * Returns the header of the ZMTP 2.0 / 3.x frame of the message, made of its flags and its size.
+     * The header is encoded once in a small heap buffer and shared by all the engines the message
+     * is sent to, each of them getting a view of its own, written along with the body of the message.
+     * @return a read-only view of the encoded header.
+     */
+    public ByteBuffer frameHeader()
+    {
+        byte protocolFlags = 0;
+        if (hasMore()) {
+            protocolFlags |= V2Protocol.MORE_FLAG;
+        }
+        if (size > 255) {
+            protocolFlags |= V2Protocol.LARGE_FLAG;
+        }
+        if (isCommand()) {
+            protocolFlags |= V2Protocol.COMMAND_FLAG;
+        }
+
+        ByteBuffer encoded = frameHeader;
+        //  Flags may have changed if the message is sent again.
+        if (encoded == null || encoded.get(0) != protocolFlags) {
+            //  Engines encoding the header concurrently produce identical ones.
+            encoded = ByteBuffer.allocate(size > 255 ? 9 : 2);
+            encoded.put(protocolFlags);
+            if (size > 255) {
+                Wire.putUInt64(encoded, size);
+            }
+            else {
+                encoded.put((byte) size);
+            }
+            encoded.flip();
+            encoded = encoded.asReadOnlyBuffer();
+            frameHeader = encoded;
+        }
+        return encoded.duplicate();
+    }
+
     public boolean isCredential()
     {
         return (flags & CREDENTIAL) == CREDENTIAL;
@@ -281,6 +330,14 @@ public class Msg
         return buf.duplicate();
     }
 
+    //  Returns a view of the body of the message, of its size, to write after the frame header.
+    public ByteBuffer frameBody()
+    {
+        ByteBuffer body = buf.duplicate();
+        body.limit(size).position(0);
+        return body;
+    }
+
     public int size()
     {
         return size;
@@ -501,7 +558,7 @@ public class Msg
      */
     public String getGroup()
     {
-        return group;
+        return group == null ? null : group.name();
     }
 
     /**
@@ -511,14 +568,33 @@ public class Msg
      */
     public boolean setGroup(String group)
     {
-        if (group.length() > MAX_GROUP_LENGTH) {
+        Group id = Group.of(group);
+        if (id == null) {
             return false;
         }
 
-        this.group = group;
+        this.group = id;
         return true;
     }
 
+    /**
+     * Retrieve the group for RADIO/DISH sockets, as its bytes.
+     * @return the group.
+     */
+    public Group group()
+    {
+        return group;
+    }
+
+    /**
+     * Set the group for RADIO/DISH sockets, as its bytes.
+     * @param group
+     */
+    public void setGroup(Group group)
+    {
+        this.group = group;
+    }
+
     public void resetRoutingId()
     {
         routingId = 0;
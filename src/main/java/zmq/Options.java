@@ -24,6 +24,10 @@ public class Options
     public int sendHwm;
     public int recvHwm;
 
+    //  High-water marks for message pipes, in bytes. 0 means no limit.
+    public long sendHwmBytes;
+    public long recvHwmBytes;
+
     //  I/O thread affinity.
     public long affinity;
 
@@ -41,7 +45,7 @@ public class Options
     int recoveryIvl;
 
     // Sets the time-to-live field in every multicast packet sent.
-    int multicastHops;
+    public int multicastHops;
 
     // SO_SNDBUF and SO_RCVBUF to be passed to underlying transport sockets.
     public int sndbuf;
@@ -167,6 +171,49 @@ public class Options
 
     public SelectorProviderChooser selectorChooser;
 
+    //  Number of polls of a shared memory ring before sleeping until the peer wakes us up.
+    public int shmSpin;
+
+    //  Wait strategy of blocking operations, before blocking in the selector:
+    //  number of busy spins, then of yields, then time spent parking, in microseconds.
+    public int waitSpin;
+    public int waitYield;
+    public int waitPark;
+
+    //  Limits of the traffic of each connection, per second, in bytes and in messages.
+    //  0 means no limit.
+    public int rcvRateBytes;
+    public int rcvRateMsgs;
+    public int sndRateBytes;
+    public int sndRateMsgs;
+
+    //  Weight of the pipes of the connections, used by the weighted and priority
+    //  fair queuing and load balancing policies.
+    public int pipeWeight;
+
+    //  Directory of the queue the messages are spilled to when no pipe can take them,
+    //  size of its segments, and whether they survive the socket.
+    public String  spillDir;
+    public int     spillSegmentSize;
+    public boolean spillPersistent;
+
+    //  Behaviour of the outbound pipes when the high watermark is reached.
+    public int overflowPolicy;
+
+    //  Latency budget during which the engines gather small messages before writing them,
+    //  in microseconds. 0 means the messages are written at once.
+    public int sndCoalesce;
+
+    //  Bounds of the sizes of the read and write buffers of the engines, in bytes.
+    //  When the maximum is 0, the buffers have the fixed sizes of the batches.
+    public static final int MAX_BATCH_SIZE = 1 << 30;
+    public int              batchSizeMin;
+    public int              batchSizeMax;
+
+    //  Time in milliseconds without traffic after which the engines give their buffers back
+    //  to the pool of their I/O thread. 0 means the buffers are kept for the whole connection.
+    public int idleRelease;
+
     // Hello msg to send to peer upon connecting
     public Msg helloMsg;
     public boolean canSendHelloMsg;
@@ -183,6 +230,8 @@ public class Options
     {
         sendHwm = 1000;
         recvHwm = 1000;
+        sendHwmBytes = 0;
+        recvHwmBytes = 0;
         affinity = 0;
         identitySize = 0;
         rate = 100;
@@ -231,6 +280,27 @@ public class Options
 
         selectorChooser = null;
 
+        shmSpin = 0;
+
+        waitSpin = 0;
+        waitYield = 0;
+        waitPark = 0;
+
+        rcvRateBytes = 0;
+        rcvRateMsgs = 0;
+        sndRateBytes = 0;
+        sndRateMsgs = 0;
+
+        pipeWeight = 1;
+        spillDir = null;
+        spillSegmentSize = 64 * 1024 * 1024;
+        spillPersistent = false;
+        overflowPolicy = ZMQ.ZMQ_OVERFLOW_DEFAULT;
+        sndCoalesce = 0;
+        batchSizeMin = 1024;
+        batchSizeMax = 0;
+        idleRelease = 0;
+
         canSendHelloMsg = false;
         helloMsg = null;
 
@@ -258,6 +328,20 @@ public class Options
             }
             return true;
 
+        case ZMQ.ZMQ_SNDHWM_BYTES:
+            sendHwmBytes = (Long) optval;
+            if (sendHwmBytes < 0) {
+                throw new IllegalArgumentException("sendHwmBytes " + optval);
+            }
+            return true;
+
+        case ZMQ.ZMQ_RCVHWM_BYTES:
+            recvHwmBytes = (Long) optval;
+            if (recvHwmBytes < 0) {
+                throw new IllegalArgumentException("recvHwmBytes " + optval);
+            }
+            return true;
+
         case ZMQ.ZMQ_AFFINITY:
             affinity = (Long) optval;
             return true;
@@ -561,6 +645,115 @@ public class Options
             allocator = new MsgAllocatorThreshold(allocationHeapThreshold);
             return true;
 
+        case ZMQ.ZMQ_RCVRATE_BYTES:
+            rcvRateBytes = (Integer) optval;
+            if (rcvRateBytes < 0) {
+                throw new IllegalArgumentException("rcvRateBytes only accept positive values " + optval);
+            }
+            return true;
+
+        case ZMQ.ZMQ_RCVRATE_MSGS:
+            rcvRateMsgs = (Integer) optval;
+            if (rcvRateMsgs < 0) {
+                throw new IllegalArgumentException("rcvRateMsgs only accept positive values " + optval);
+            }
+            return true;
+
+        case ZMQ.ZMQ_SNDRATE_BYTES:
+            sndRateBytes = (Integer) optval;
+            if (sndRateBytes < 0) {
+                throw new IllegalArgumentException("sndRateBytes only accept positive values " + optval);
+            }
+            return true;
+
+        case ZMQ.ZMQ_SNDRATE_MSGS:
+            sndRateMsgs = (Integer) optval;
+            if (sndRateMsgs < 0) {
+                throw new IllegalArgumentException("sndRateMsgs only accept positive values " + optval);
+            }
+            return true;
+
+        case ZMQ.ZMQ_PIPE_WEIGHT:
+            pipeWeight = (Integer) optval;
+            if (pipeWeight < 1) {
+                throw new IllegalArgumentException("pipeWeight only accept strictly positive values " + optval);
+            }
+            return true;
+
+        case ZMQ.ZMQ_SPILL_SEGMENT_SIZE:
+            spillSegmentSize = (Integer) optval;
+            if (spillSegmentSize < 1) {
+                throw new IllegalArgumentException("spillSegmentSize only accept strictly positive values " + optval);
+            }
+            return true;
+
+        case ZMQ.ZMQ_SPILL_PERSISTENT:
+            spillPersistent = parseBoolean(option, optval);
+            return true;
+
+        case ZMQ.ZMQ_OVERFLOW_POLICY:
+            overflowPolicy = (Integer) optval;
+            if (overflowPolicy != ZMQ.ZMQ_OVERFLOW_DEFAULT && overflowPolicy != ZMQ.ZMQ_OVERFLOW_DROP_OLDEST) {
+                throw new IllegalArgumentException("overflowPolicy " + optval);
+            }
+            return true;
+
+        case ZMQ.ZMQ_SNDCOALESCE:
+            sndCoalesce = (Integer) optval;
+            if (sndCoalesce < 0) {
+                throw new IllegalArgumentException("sndCoalesce only accept positive values " + optval);
+            }
+            return true;
+
+        case ZMQ.ZMQ_BATCH_SIZE_MIN:
+            batchSizeMin = (Integer) optval;
+            if (batchSizeMin < 1 || batchSizeMin > MAX_BATCH_SIZE) {
+                throw new IllegalArgumentException("batchSizeMin " + optval);
+            }
+            return true;
+
+        case ZMQ.ZMQ_BATCH_SIZE_MAX:
+            batchSizeMax = (Integer) optval;
+            if (batchSizeMax < 0 || batchSizeMax > MAX_BATCH_SIZE) {
+                throw new IllegalArgumentException("batchSizeMax " + optval);
+            }
+            return true;
+
+        case ZMQ.ZMQ_IDLE_RELEASE:
+            idleRelease = (Integer) optval;
+            if (idleRelease < 0) {
+                throw new IllegalArgumentException("idleRelease " + optval);
+            }
+            return true;
+
+        case ZMQ.ZMQ_SHM_SPIN:
+            shmSpin = (Integer) optval;
+            if (shmSpin < 0) {
+                throw new IllegalArgumentException("shmSpin only accept positive values " + optval);
+            }
+            return true;
+
+        case ZMQ.ZMQ_WAIT_SPIN:
+            waitSpin = (Integer) optval;
+            if (waitSpin < 0) {
+                throw new IllegalArgumentException("waitSpin only accept positive values " + optval);
+            }
+            return true;
+
+        case ZMQ.ZMQ_WAIT_YIELD:
+            waitYield = (Integer) optval;
+            if (waitYield < 0) {
+                throw new IllegalArgumentException("waitYield only accept positive values " + optval);
+            }
+            return true;
+
+        case ZMQ.ZMQ_WAIT_PARK:
+            waitPark = (Integer) optval;
+            if (waitPark < 0) {
+                throw new IllegalArgumentException("waitPark only accept positive values " + optval);
+            }
+            return true;
+
         case ZMQ.ZMQ_SELECTOR_PROVIDERCHOOSER:
             if (optval instanceof String) {
                 try {
@@ -702,6 +895,12 @@ public class Options
         case ZMQ.ZMQ_RCVHWM:
             return recvHwm;
 
+        case ZMQ.ZMQ_SNDHWM_BYTES:
+            return sendHwmBytes;
+
+        case ZMQ.ZMQ_RCVHWM_BYTES:
+            return recvHwmBytes;
+
         case ZMQ.ZMQ_AFFINITY:
             return affinity;
 
@@ -851,6 +1050,57 @@ public class Options
         case ZMQ.ZMQ_SELECTOR_PROVIDERCHOOSER:
             return selectorChooser;
 
+        case ZMQ.ZMQ_RCVRATE_BYTES:
+            return rcvRateBytes;
+
+        case ZMQ.ZMQ_RCVRATE_MSGS:
+            return rcvRateMsgs;
+
+        case ZMQ.ZMQ_SNDRATE_BYTES:
+            return sndRateBytes;
+
+        case ZMQ.ZMQ_SNDRATE_MSGS:
+            return sndRateMsgs;
+
+        case ZMQ.ZMQ_PIPE_WEIGHT:
+            return pipeWeight;
+
+        case ZMQ.ZMQ_SPILL_DIR:
+            return spillDir;
+
+        case ZMQ.ZMQ_SPILL_SEGMENT_SIZE:
+            return spillSegmentSize;
+
+        case ZMQ.ZMQ_SPILL_PERSISTENT:
+            return spillPersistent;
+
+        case ZMQ.ZMQ_OVERFLOW_POLICY:
+            return overflowPolicy;
+
+        case ZMQ.ZMQ_SNDCOALESCE:
+            return sndCoalesce;
+
+        case ZMQ.ZMQ_BATCH_SIZE_MIN:
+            return batchSizeMin;
+
+        case ZMQ.ZMQ_BATCH_SIZE_MAX:
+            return batchSizeMax;
+
+        case ZMQ.ZMQ_IDLE_RELEASE:
+            return idleRelease;
+
+        case ZMQ.ZMQ_SHM_SPIN:
+            return shmSpin;
+
+        case ZMQ.ZMQ_WAIT_SPIN:
+            return waitSpin;
+
+        case ZMQ.ZMQ_WAIT_YIELD:
+            return waitYield;
+
+        case ZMQ.ZMQ_WAIT_PARK:
+            return waitPark;
+
         case ZMQ.ZMQ_AS_TYPE:
             return asType;
 
@@ -4,6 +4,7 @@ import java.nio.channels.Selector;
 import java.util.Arrays;
 
 import zmq.poll.PollItem;
+import zmq.poll.PollSet;
 
 class Proxy
 {
@@ -43,6 +44,7 @@ class Proxy
         int more;
         Msg msg;
         int count = control == null ? 2 : 3;
+        int batch = Config.PROXY_BATCH_SIZE.getValue();
 
         PollItem[] items = new PollItem[count];
 
@@ -57,11 +59,14 @@ class Proxy
         itemsout[1] = new PollItem(backend, ZMQ.ZMQ_POLLOUT);
 
         Selector selector = frontend.getCtx().createSelector();
+        //  Registrations are kept between iterations.
+        PollSet pollin = new PollSet(selector);
+        PollSet pollout = new PollSet(selector);
 
         try {
             while (state != State.TERMINATED) {
                 //  Wait while there are either requests or replies to process.
-                rc = ZMQ.poll(selector, items, -1);
+                rc = pollin.poll(items, -1);
                 if (rc < 0) {
                     return false;
                 }
@@ -70,7 +75,7 @@ class Proxy
                 //  because pollout shall most of the time return directly.
                 //  POLLOUT is only checked when frontend and backend sockets are not the same.
                 if (frontend != backend) {
-                    rc = ZMQ.poll(selector, itemsout, 0L);
+                    rc = pollout.poll(itemsout, 0L);
                     if (rc < 0) {
                         return false;
                     }
@@ -113,13 +118,13 @@ class Proxy
                 }
                 //  Process a request.
                 if (process(items[0], itemsout[1], frontend, backend)) {
-                    if (!forward(frontend, backend, capture)) {
+                    if (forward(frontend, backend, capture, batch) < 0) {
                         return false;
                     }
                 }
                 //  Process a reply.
                 if (process(items[1], itemsout[0], frontend, backend)) {
-                    if (!forward(backend, frontend, capture)) {
+                    if (forward(backend, frontend, capture, batch) < 0) {
                         return false;
                     }
                 }
@@ -137,7 +142,27 @@ class Proxy
         return state == State.ACTIVE && read.isReadable() && (frontend == backend || write.isWritable());
     }
 
-    private boolean forward(SocketBase from, SocketBase to, SocketBase capture)
+    //  Moves whole messages from one socket to the other, as long as the source has
+    //  messages and the destination can take them, without polling between them.
+    //  Returns the number of messages moved, or -1 in case of error.
+    static int forward(SocketBase from, SocketBase to, SocketBase capture, int max)
+    {
+        int count = 0;
+        do {
+            if (!forward(from, to, capture)) {
+                return -1;
+            }
+        } while (++count < max && ready(from, to));
+        return count;
+    }
+
+    //  The pipes are checked as they are, pending commands are left to the next poll.
+    private static boolean ready(SocketBase from, SocketBase to)
+    {
+        return from.hasIn() && (from == to || to.hasOut());
+    }
+
+    private static boolean forward(SocketBase from, SocketBase to, SocketBase capture)
     {
         int more;
         boolean success;
@@ -167,9 +192,10 @@ class Proxy
         return true;
     }
 
-    private boolean capture(SocketBase capture, Msg msg, int more)
+    private static boolean capture(SocketBase capture, Msg msg, int more)
     {
         if (capture != null) {
+            //  The copy shares the payload of the message.
             Msg ctrl = new Msg(msg);
             boolean success = capture.send(ctrl, more > 0 ? ZMQ.ZMQ_SNDMORE : 0);
             if (!success) {
@@ -10,8 +10,11 @@ import java.nio.channels.Pipe;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
+import zmq.util.Clock;
 import zmq.util.Errno;
 import zmq.util.Utils;
 
@@ -37,6 +40,15 @@ final class Signaler implements Closeable
     private final AtomicLong wcursor = new AtomicLong(0);
     private long             rcursor = 0;
 
+    //  Wait strategy applied before blocking in the selector:
+    //  number of busy spins, then of yields, then time spent parking, in nanoseconds.
+    private int  spins;
+    private int  yields;
+    private long parkNanos;
+
+    //  Duration of a single park of the wait strategy, in nanoseconds.
+    private static final long PARK_STEP = TimeUnit.MICROSECONDS.toNanos(1);
+
     private final Errno errno;
     private final int   pid;
     private final Ctx   ctx;
@@ -125,6 +137,14 @@ final class Signaler implements Closeable
         return r;
     }
 
+    //  Sets the wait strategy of the reader thread.
+    void setWaitStrategy(int spins, int yields, long parkNanos)
+    {
+        this.spins = spins;
+        this.yields = yields;
+        this.parkNanos = parkNanos;
+    }
+
     void send()
     {
         int nbytes = 0;
@@ -134,6 +154,10 @@ final class Signaler implements Closeable
                 wdummy.clear();
                 nbytes = maksInterrupt(() -> w.write(wdummy));
             }
+            catch (ClosedChannelException e) {
+                //  The mailbox was closed while sending, there is nobody to wake up anymore.
+                return;
+            }
             catch (IOException e) {
                 throw new ZError.IOException(e);
             }
@@ -162,7 +186,21 @@ final class Signaler implements Closeable
                 return false;
 
             }
-            else if (timeout < 0) {
+            if (spins > 0 || yields > 0 || parkNanos > 0) {
+                long start = Clock.nowNS();
+                if (await(timeout)) {
+                    return true;
+                }
+                if (timeout > 0) {
+                    //  The time spent waiting is deducted from the timeout.
+                    timeout -= TimeUnit.NANOSECONDS.toMillis(Clock.nowNS() - start);
+                    if (timeout <= 0) {
+                        errno.set(ZError.EAGAIN);
+                        return false;
+                    }
+                }
+            }
+            if (timeout < 0) {
                 rc = selector.select(0);
             }
             else {
@@ -192,6 +230,39 @@ final class Signaler implements Closeable
         return true;
     }
 
+    //  Waits for a signal without blocking in the selector:
+    //  spins first, then yields, then parks, within the limit of the timeout.
+    //  Returns true if a signal was sent in the meantime.
+    private boolean await(long timeout)
+    {
+        for (int idx = 0; idx < spins; ++idx) {
+            if (rcursor < wcursor.get()) {
+                return true;
+            }
+        }
+        for (int idx = 0; idx < yields; ++idx) {
+            Thread.yield();
+            if (rcursor < wcursor.get()) {
+                return true;
+            }
+        }
+        if (parkNanos > 0) {
+            long park = parkNanos;
+            if (timeout > 0) {
+                park = Math.min(park, TimeUnit.MILLISECONDS.toNanos(timeout));
+            }
+            long end = Clock.nowNS() + park;
+            while (rcursor >= wcursor.get()) {
+                if (Thread.currentThread().isInterrupted() || Clock.nowNS() >= end) {
+                    return false;
+                }
+                LockSupport.parkNanos(PARK_STEP);
+            }
+            return true;
+        }
+        return rcursor < wcursor.get();
+    }
+
     void recv()
     {
         int nbytes = 0;
@@ -7,7 +7,9 @@ import java.nio.channels.SocketChannel;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 
 import zmq.io.IOThread;
@@ -16,6 +18,7 @@ import zmq.io.net.Address;
 import zmq.io.net.Address.IZAddress;
 import zmq.io.net.Listener;
 import zmq.io.net.NetProtocol;
+import zmq.pipe.FanoutRing;
 import zmq.pipe.Pipe;
 import zmq.poll.IPollEvents;
 import zmq.poll.Poller;
@@ -68,8 +71,14 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
     //  the attached pipes.
     private final Set<Pipe> pipes;
 
+    //  Number of messages dropped by the drop-oldest policy from the pipes already terminated.
+    private long dropped;
+
     //  Reaper's poller and handle of this socket within it.
     private Poller poller;
+
+    //  Forwarder driving the socket from an I/O thread, if any.
+    private volatile Forwarder forwarder;
     private Poller.Handle handle;
 
     //  Timestamp of when commands were processed the last time.
@@ -104,6 +113,40 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
     // Signaler to be used in the reaping stage
     private Signaler reaperSignaler;
 
+    //  Request of a thread waiting for the thread holding a thread-safe socket to send its message.
+    private static final class SendRequest
+    {
+        private static final int PENDING = 0;
+        private static final int SENT    = 1;
+        private static final int FAILED  = 2;
+        //  The message could not be sent without blocking, the thread has to send it itself.
+        private static final int RETRY   = 3;
+
+        private Msg           msg;
+        private int           flags;
+        private AtomicBoolean canceled;
+        private int           error;
+        private SendRequest   next;
+        private volatile int  status;
+    }
+
+    //  Each thread has at most one pending send at a time, its request is reused.
+    private static final ThreadLocal<SendRequest> SEND_REQUESTS = new ThreadLocal<SendRequest>()
+    {
+        @Override
+        protected SendRequest initialValue()
+        {
+            return new SendRequest();
+        }
+    };
+
+    //  Number of times a thread waiting for its send request yields before sleeping.
+    private static final int SEND_REQUEST_YIELDS = 16;
+
+    //  Stack of the send requests of the threads that found the thread-safe socket busy.
+    //  The thread holding the socket performs them all in a row before releasing it.
+    private final AtomicReference<SendRequest> sendRequests = new AtomicReference<>();
+
     protected SocketBase(Ctx parent, int tid, int sid)
     {
         this(parent, tid, sid, false);
@@ -124,6 +167,9 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
         options.socketId = sid;
         options.ipv6 = parent.get(ZMQ.ZMQ_IPV6) != 0;
         options.linger = parent.get(ZMQ.ZMQ_BLOCKY) != 0 ? -1 : 0;
+        options.waitSpin = parent.get(ZMQ.ZMQ_WAIT_SPIN);
+        options.waitYield = parent.get(ZMQ.ZMQ_WAIT_YIELD);
+        options.waitPark = parent.get(ZMQ.ZMQ_WAIT_PARK);
 
         endpoints = new MultiMap<>();
         inprocs = new MultiMap<>();
@@ -139,6 +185,7 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
         else {
             mailbox = new Mailbox(parent, "socket-" + sid, tid);
         }
+        applyWaitStrategy();
     }
 
     //  Concrete algorithms for the x- methods are to be defined by
@@ -273,6 +320,9 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
             rc = options.setSocketOpt(option, optval);
             if (rc) {
                 errno.set(0);
+                if (option == ZMQ.ZMQ_WAIT_SPIN || option == ZMQ.ZMQ_WAIT_YIELD || option == ZMQ.ZMQ_WAIT_PARK) {
+                    applyWaitStrategy();
+                }
             }
             return rc;
         }
@@ -281,6 +331,16 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
         }
     }
 
+    //  Thread-safe sockets wait on a condition of their mailbox,
+    //  the wait strategy only applies to the others.
+    private void applyWaitStrategy()
+    {
+        if (mailbox instanceof Mailbox) {
+            long parkNanos = TimeUnit.MICROSECONDS.toNanos(options.waitPark);
+            ((Mailbox) mailbox).setWaitStrategy(options.waitSpin, options.waitYield, parkNanos);
+        }
+    }
+
     public final int getSocketOpt(int option)
     {
         lock();
@@ -345,6 +405,14 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
             return ((Mailbox) mailbox).getFd();
         }
 
+        if (option == ZMQ.ZMQ_OVERFLOW_DROPPED) {
+            long count = dropped;
+            for (Pipe pipe : pipes) {
+                count += pipe.getDropped();
+            }
+            return count;
+        }
+
         if (option == ZMQ.ZMQ_EVENTS) {
             boolean rc = processCommands(0, false, null);
             if (!rc && (errno.get() == ZError.ETERM || errno.get() == ZError.EINTR)) {
@@ -413,10 +481,20 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
                 //  For convenience's sake, bind can be used interchangeable with
                 //  connect for PGM, EPGM and NORM transports.
                 return connect(addr);
+            case udp:
+                //  Only receivers bind to a datagram address, which is otherwise
+                //  handled as a connection.
+                if (options.type != ZMQ.ZMQ_DISH) {
+                    errno.set(ZError.ENOCOMPATPROTO);
+                    return false;
+                }
+                return connect(addr);
             case tcp:
                 // continue
             case ipc:
                 // continue
+            case shm:
+                // continue
             case tipc: {
                 //  Remaining transports require to be run in an I/O thread, so at this
                 //  point we'll choose one.
@@ -529,6 +607,20 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
             else if (options.recvHwm != 0 && peer.options.sendHwm != 0) {
                 rcvhwm = options.recvHwm + peer.options.sendHwm;
             }
+            long sndhwmBytes = 0;
+            if (peer.socket == null) {
+                sndhwmBytes = options.sendHwmBytes;
+            }
+            else if (options.sendHwmBytes != 0 && peer.options.recvHwmBytes != 0) {
+                sndhwmBytes = options.sendHwmBytes + peer.options.recvHwmBytes;
+            }
+            long rcvhwmBytes = 0;
+            if (peer.socket == null) {
+                rcvhwmBytes = options.recvHwmBytes;
+            }
+            else if (options.recvHwmBytes != 0 && peer.options.sendHwmBytes != 0) {
+                rcvhwmBytes = options.recvHwmBytes + peer.options.sendHwmBytes;
+            }
 
             //  Create a bi-directional pipe to connect the peers.
             ZObject[] parents = {this, peer.socket == null ? this : peer.socket};
@@ -538,7 +630,31 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
 
             int[] hwms = {conflate ? -1 : sndhwm, conflate ? -1 : rcvhwm};
             boolean[] conflates = {conflate, conflate};
-            Pipe[] pipes = Pipe.pair(parents, hwms, conflates);
+
+            //  A publisher with a fan-out ring publishes the messages once for all
+            //  the subscribers filtering them on their side.
+            FanoutRing[] rings = new FanoutRing[2];
+            if (peer.socket != null && !conflate) {
+                if (options.filter && !peer.options.filter) {
+                    rings[1] = peer.socket.fanoutRing();
+                }
+                else if (peer.options.filter && !options.filter && !peer.options.conflate) {
+                    rings[0] = fanoutRing();
+                }
+            }
+            for (int idx = 0; idx < rings.length; ++idx) {
+                if (rings[idx] != null) {
+                    //  The subscriber lets the publisher know when it has read half of the ring.
+                    hwms[idx] = rings[idx].capacity();
+                }
+            }
+            Pipe[] pipes = Pipe.pair(parents, hwms, conflates, rings);
+            if (!conflate) {
+                pipes[0].setHwmBytes(rings[0] == null ? sndhwmBytes : 0);
+                pipes[1].setHwmBytes(rings[1] == null ? rcvhwmBytes : 0);
+            }
+            pipes[0].setWeight(options.pipeWeight);
+            pipes[0].setDropOldest(options.overflowPolicy == ZMQ.ZMQ_OVERFLOW_DROP_OLDEST);
 
             //  Attach local end of the pipe to this socket object.
             attachPipe(pipes[0], true);
@@ -599,6 +715,9 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
                     pipes[1].flush();
                 }
 
+                pipes[1].setWeight(peer.options.pipeWeight);
+                pipes[1].setDropOldest(peer.options.overflowPolicy == ZMQ.ZMQ_OVERFLOW_DROP_OLDEST);
+
                 //  Attach remote end of the pipe to the peer socket. Note that peer's
                 //  seqnum was incremented in findEndpoint function. We don't need it
                 //  increased here.
@@ -656,6 +775,12 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
             int[] hwms = {conflate ? -1 : options.sendHwm, conflate ? -1 : options.recvHwm};
             boolean[] conflates = {conflate, conflate};
             Pipe[] pipes = Pipe.pair(parents, hwms, conflates);
+            if (!conflate) {
+                pipes[0].setHwmBytes(options.sendHwmBytes);
+                pipes[1].setHwmBytes(options.recvHwmBytes);
+            }
+            pipes[0].setWeight(options.pipeWeight);
+            pipes[0].setDropOldest(options.overflowPolicy == ZMQ.ZMQ_OVERFLOW_DROP_OLDEST);
 
             //  Attach local end of the pipe to the socket object.
             attachPipe(pipes[0], subscribe2all, true);
@@ -779,7 +904,17 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
 
     public final boolean send(Msg msg, int flags, AtomicBoolean canceled)
     {
-        lock();
+        if (threadSafe && !threadSafeSync.tryLock()) {
+            //  The socket is busy, hand the message over to the thread holding it.
+            int rc = sendThroughHolder(msg, flags, canceled);
+            if (rc != SendRequest.RETRY) {
+                return rc == SendRequest.SENT;
+            }
+            threadSafeSync.lock();
+        }
+        else if (!threadSafe) {
+            lock();
+        }
 
         try {
             //  Check whether the library haven't been shut down yet.
@@ -821,49 +956,250 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
                 return false;
             }
 
-            //  In case of non-blocking send we'll simply propagate
-            //  the error - including EAGAIN - up the stack.
-            if ((flags & ZMQ.ZMQ_DONTWAIT) > 0 || options.sendTimeout == 0) {
-                return false;
+            return waitAndSend(msg, flags, canceled);
+        }
+        finally {
+            unlock();
+        }
+    }
+
+    public final int sendMany(Msg[] msgs, int off, int len, int flags)
+    {
+        return sendMany(msgs, off, len, flags, null);
+    }
+
+    //  Sends len messages starting at index off under a single acquisition
+    //  of the socket, processing pending commands only once.
+    //  If flag ZMQ_SNDMORE is set, the messages are treated as the parts of
+    //  a single multi-part message, i.e. the last part has the flag switched off.
+    //  Otherwise each message is sent as a single-part message.
+    //  Only the first message may block; as soon as at least one message
+    //  has been sent, the batch stops at the first one that cannot be queued.
+    //  Returns the number of messages sent, or -1 if none could be sent.
+    public final int sendMany(Msg[] msgs, int off, int len, int flags, AtomicBoolean canceled)
+    {
+        lock();
+
+        try {
+            //  Check whether the library haven't been shut down yet.
+            if (ctxTerminated) {
+                errno.set(ZError.ETERM);
+                return -1;
             }
 
-            //  Compute the time when the timeout should occur.
-            //  If the timeout is infinite, don't care.
-            int timeout = options.sendTimeout;
-            long end = timeout < 0 ? 0 : (Clock.nowMS() + timeout);
+            //  Check whether the messages passed to the function are valid.
+            if (msgs == null || off < 0 || len <= 0 || off + len > msgs.length) {
+                errno.set(ZError.EINVAL);
+                return -1;
+            }
 
-            //  Oops, we couldn't send the message. Wait for the next
-            //  command, process it and try to send the message again.
-            //  If timeout is reached in the meantime, return EAGAIN.
-            while (true) {
-                if (!processCommands(timeout, false, canceled)) {
-                    return false;
-                }
+            //  Process pending commands, if any.
+            boolean brc = processCommands(0, true, canceled);
+            if (!brc) {
+                return -1;
+            }
 
-                rc = xsend(msg);
-                if (rc) {
+            final boolean multipart = (flags & ZMQ.ZMQ_SNDMORE) > 0;
+            final int last = off + len - 1;
+
+            int sent = 0;
+            for (int idx = off; idx <= last; ++idx) {
+                Msg msg = msgs[idx];
+                if (msg == null || !msg.check()) {
+                    errno.set(ZError.EFAULT);
                     break;
                 }
 
-                if (errno.get() != ZError.EAGAIN) {
-                    return false;
+                //  Clear any user-visible flags and impose the ones of the batch.
+                msg.resetFlags(Msg.MORE);
+                if (multipart && idx < last) {
+                    msg.setFlags(Msg.MORE);
                 }
 
-                if (timeout > 0) {
-                    timeout = (int) (end - Clock.nowMS());
-                    if (timeout <= 0) {
-                        errno.set(ZError.EAGAIN);
-                        return false;
+                msg.resetMetadata();
+
+                if (!xsend(msg)) {
+                    if (errno.get() != ZError.EAGAIN) {
+                        break;
+                    }
+                    //  Block only when nothing has been queued yet, so a partial
+                    //  batch is returned to the caller instead of waiting for room.
+                    if (sent > 0 || !waitAndSend(msg, flags & ~ZMQ.ZMQ_SNDMORE, canceled)) {
+                        break;
                     }
                 }
+                ++sent;
             }
-            return true;
+            return sent > 0 ? sent : -1;
         }
         finally {
             unlock();
         }
     }
 
+    //  Queues the message for the thread holding the socket, and waits until it has been processed.
+    //  If the socket is released in the meantime, the calling thread performs the queued sends itself.
+    //  Returns the final status of the request.
+    private int sendThroughHolder(Msg msg, int flags, AtomicBoolean canceled)
+    {
+        if (msg == null || !msg.check()) {
+            errno.set(ZError.EFAULT);
+            return SendRequest.FAILED;
+        }
+
+        SendRequest request = SEND_REQUESTS.get();
+        request.msg = msg;
+        request.flags = flags;
+        request.canceled = canceled;
+        request.status = SendRequest.PENDING;
+
+        SendRequest head;
+        do {
+            head = sendRequests.get();
+            request.next = head;
+        } while (!sendRequests.compareAndSet(head, request));
+
+        int status;
+        int spins = 0;
+        while ((status = request.status) == SendRequest.PENDING) {
+            if (++spins < SEND_REQUEST_YIELDS && !threadSafeSync.tryLock()) {
+                //  The holder usually performs the request in a short while.
+                Thread.yield();
+                continue;
+            }
+            if (!threadSafeSync.isHeldByCurrentThread()) {
+                threadSafeSync.lock();
+            }
+            //  The request may have been performed while acquiring the socket.
+            if (request.status == SendRequest.PENDING) {
+                performSendRequests();
+            }
+            unlock();
+        }
+        request.msg = null;
+        request.canceled = null;
+        if (status == SendRequest.FAILED) {
+            errno.set(request.error);
+        }
+        return status;
+    }
+
+    //  Sends the messages of the waiting threads, in the order of their requests.
+    //  The socket lock shall be held. The failures are only reported to the requesters,
+    //  the errno of the calling thread is left to the result of its own operation.
+    private void performSendRequests()
+    {
+        SendRequest request = sendRequests.getAndSet(null);
+        if (request == null) {
+            return;
+        }
+        final int callerErrno = errno.get();
+        try {
+            performSendRequests(request);
+        }
+        finally {
+            errno.set(callerErrno);
+        }
+    }
+
+    private void performSendRequests(SendRequest request)
+    {
+        //  Requests are stacked, reverse them.
+        SendRequest first = null;
+        while (request != null) {
+            SendRequest next = request.next;
+            request.next = first;
+            first = request;
+            request = next;
+        }
+
+        int error = 0;
+        if (ctxTerminated) {
+            error = ZError.ETERM;
+        }
+        else if (!processCommands(0, true, null)) {
+            error = errno.get();
+        }
+
+        while (first != null) {
+            request = first;
+            first = request.next;
+
+            int status;
+            if (error != 0) {
+                request.error = error;
+                status = SendRequest.FAILED;
+            }
+            else if (request.canceled != null && request.canceled.get()) {
+                request.error = ZError.ECANCELED;
+                status = SendRequest.FAILED;
+            }
+            else {
+                Msg msg = request.msg;
+                msg.resetFlags(Msg.MORE);
+                if ((request.flags & ZMQ.ZMQ_SNDMORE) > 0) {
+                    msg.setFlags(Msg.MORE);
+                }
+                msg.resetMetadata();
+
+                if (xsend(msg)) {
+                    status = SendRequest.SENT;
+                }
+                else if (errno.get() == ZError.EAGAIN) {
+                    status = SendRequest.RETRY;
+                }
+                else {
+                    request.error = errno.get();
+                    status = SendRequest.FAILED;
+                }
+            }
+            //  The request can be reused by its owner as soon as its status is set.
+            request.status = status;
+        }
+    }
+
+    //  The message could not be sent immediately: unless the send is
+    //  non-blocking, wait for the next commands, process them and try to
+    //  send the message again until it succeeds or the timeout expires.
+    private boolean waitAndSend(Msg msg, int flags, AtomicBoolean canceled)
+    {
+        //  In case of non-blocking send we'll simply propagate
+        //  the error - including EAGAIN - up the stack.
+        if ((flags & ZMQ.ZMQ_DONTWAIT) > 0 || options.sendTimeout == 0) {
+            return false;
+        }
+
+        //  Compute the time when the timeout should occur.
+        //  If the timeout is infinite, don't care.
+        int timeout = options.sendTimeout;
+        long end = timeout < 0 ? 0 : (Clock.nowMS() + timeout);
+
+        //  Oops, we couldn't send the message. Wait for the next
+        //  command, process it and try to send the message again.
+        //  If timeout is reached in the meantime, return EAGAIN.
+        while (true) {
+            if (!processCommands(timeout, false, canceled)) {
+                return false;
+            }
+
+            if (xsend(msg)) {
+                return true;
+            }
+
+            if (errno.get() != ZError.EAGAIN) {
+                return false;
+            }
+
+            if (timeout > 0) {
+                timeout = (int) (end - Clock.nowMS());
+                if (timeout <= 0) {
+                    errno.set(ZError.EAGAIN);
+                    return false;
+                }
+            }
+        }
+    }
+
     public final Msg recv(int flags)
     {
         return recv(flags, null);
@@ -874,101 +1210,154 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
         lock();
 
         try {
-            //  Check whether the library haven't been shut down yet.
-            if (ctxTerminated) {
-                errno.set(ZError.ETERM);
-                return null;
-            }
+            return recvOne(flags, canceled);
+        }
+        finally {
+            unlock();
+        }
+    }
 
-            //  Check whether message passed to the function is valid.: NOT APPLICABLE
+    public final int recvMany(Msg[] msgs, int max, int flags)
+    {
+        return recvMany(msgs, max, flags, null);
+    }
 
-            //  Once every inbound_poll_rate messages check for signals and process
-            //  incoming commands. This happens only if we are not polling altogether
-            //  because there are messages available all the time. If poll occurs,
-            //  ticks is set to zero and thus we avoid this code.
-            //
-            //  Note that 'recv' uses different command throttling algorithm (the one
-            //  described above) from the one used by 'send'. This is because counting
-            //  ticks is more efficient than doing RDTSC all the time.
-            if (++ticks == Config.INBOUND_POLL_RATE.getValue()) {
-                if (!processCommands(0, false, canceled)) {
-                    return null;
-                }
-                ticks = 0;
-            }
+    //  Receives up to max messages in the given array under a single
+    //  acquisition of the socket. Only the first message is waited for,
+    //  according to the flags and the receive timeout; the following ones
+    //  are taken as long as they are immediately available.
+    //  Message parts are stored as they come, the caller has to check
+    //  the MORE flag of each one to find the boundaries of multi-part messages.
+    //  Returns the number of messages received, or -1 if none could be received.
+    public final int recvMany(Msg[] msgs, int max, int flags, AtomicBoolean canceled)
+    {
+        lock();
 
-            //  Get the message.
-            Msg msg = xrecv();
-            if (msg == null && errno.get() != ZError.EAGAIN) {
-                return null;
+        try {
+            //  Check whether the array passed to the function is valid.
+            if (msgs == null || max <= 0 || max > msgs.length) {
+                errno.set(ZError.EINVAL);
+                return -1;
             }
 
-            //  If we have the message, return immediately.
-            if (msg != null) {
-                if (fileDesc != null) {
-                    msg.setFd(fileDesc);
-                }
-                extractFlags(msg);
-                return msg;
+            Msg msg = recvOne(flags, canceled);
+            if (msg == null) {
+                return -1;
             }
+            msgs[0] = msg;
 
-            //  If the message cannot be fetched immediately, there are two scenarios.
-            //  For non-blocking recv, commands are processed in case there's an
-            //  activate_reader command already waiting in a command pipe.
-            //  If it's not, return EAGAIN.
-            if ((flags & ZMQ.ZMQ_DONTWAIT) > 0 || options.recvTimeout == 0) {
-                if (!processCommands(0, false, canceled)) {
-                    return null;
-                }
-                ticks = 0;
-
+            int received = 1;
+            while (received < max) {
                 msg = xrecv();
                 if (msg == null) {
-                    return null;
+                    break;
+                }
+                if (fileDesc != null) {
+                    msg.setFd(fileDesc);
                 }
                 extractFlags(msg);
-                return msg;
+                msgs[received++] = msg;
             }
+            return received;
+        }
+        finally {
+            unlock();
+        }
+    }
 
-            //  Compute the time when the timeout should occur.
-            //  If the timeout is infinite, don't care.
-            int timeout = options.recvTimeout;
-            long end = timeout < 0 ? 0 : (Clock.nowMS() + timeout);
+    private Msg recvOne(int flags, AtomicBoolean canceled)
+    {
+        //  Check whether the library haven't been shut down yet.
+        if (ctxTerminated) {
+            errno.set(ZError.ETERM);
+            return null;
+        }
 
-            //  In blocking scenario, commands are processed over and over again until
-            //  we are able to fetch a message.
-            boolean block = (ticks != 0);
-            while (true) {
-                if (!processCommands(block ? timeout : 0, false, canceled)) {
-                    return null;
-                }
-                msg = xrecv();
+        //  Check whether message passed to the function is valid.: NOT APPLICABLE
 
-                if (msg != null) {
-                    ticks = 0;
-                    break;
-                }
+        //  Once every inbound_poll_rate messages check for signals and process
+        //  incoming commands. This happens only if we are not polling altogether
+        //  because there are messages available all the time. If poll occurs,
+        //  ticks is set to zero and thus we avoid this code.
+        //
+        //  Note that 'recv' uses different command throttling algorithm (the one
+        //  described above) from the one used by 'send'. This is because counting
+        //  ticks is more efficient than doing RDTSC all the time.
+        if (++ticks == Config.INBOUND_POLL_RATE.getValue()) {
+            if (!processCommands(0, false, canceled)) {
+                return null;
+            }
+            ticks = 0;
+        }
 
-                if (errno.get() != ZError.EAGAIN) {
-                    return null;
-                }
+        //  Get the message.
+        Msg msg = xrecv();
+        if (msg == null && errno.get() != ZError.EAGAIN) {
+            return null;
+        }
 
-                block = true;
-                if (timeout > 0) {
-                    timeout = (int) (end - Clock.nowMS());
-                    if (timeout <= 0) {
-                        errno.set(ZError.EAGAIN);
-                        return null;
-                    }
-                }
+        //  If we have the message, return immediately.
+        if (msg != null) {
+            if (fileDesc != null) {
+                msg.setFd(fileDesc);
+            }
+            extractFlags(msg);
+            return msg;
+        }
+
+        //  If the message cannot be fetched immediately, there are two scenarios.
+        //  For non-blocking recv, commands are processed in case there's an
+        //  activate_reader command already waiting in a command pipe.
+        //  If it's not, return EAGAIN.
+        if ((flags & ZMQ.ZMQ_DONTWAIT) > 0 || options.recvTimeout == 0) {
+            if (!processCommands(0, false, canceled)) {
+                return null;
             }
+            ticks = 0;
 
+            msg = xrecv();
+            if (msg == null) {
+                return null;
+            }
             extractFlags(msg);
             return msg;
         }
-        finally {
-            unlock();
+
+        //  Compute the time when the timeout should occur.
+        //  If the timeout is infinite, don't care.
+        int timeout = options.recvTimeout;
+        long end = timeout < 0 ? 0 : (Clock.nowMS() + timeout);
+
+        //  In blocking scenario, commands are processed over and over again until
+        //  we are able to fetch a message.
+        boolean block = (ticks != 0);
+        while (true) {
+            if (!processCommands(block ? timeout : 0, false, canceled)) {
+                return null;
+            }
+            msg = xrecv();
+
+            if (msg != null) {
+                ticks = 0;
+                break;
+            }
+
+            if (errno.get() != ZError.EAGAIN) {
+                return null;
+            }
+
+            block = true;
+            if (timeout > 0) {
+                timeout = (int) (end - Clock.nowMS());
+                if (timeout <= 0) {
+                    errno.set(ZError.EAGAIN);
+                    return null;
+                }
+            }
         }
+
+        extractFlags(msg);
+        return msg;
     }
 
     public final boolean join(String group)
@@ -1003,6 +1392,12 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
 
     public final void close()
     {
+        //  Take the socket back from the I/O thread forwarding it, if any.
+        Forwarder forwarding = forwarder;
+        if (forwarding != null) {
+            forwarding.close();
+        }
+
         lock();
 
         try {
@@ -1024,6 +1419,26 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
         }
     }
 
+    //  Sets the forwarder driving the socket from an I/O thread, or null when detached.
+    final void forwardedBy(Forwarder forwarder)
+    {
+        this.forwarder = forwarder;
+    }
+
+    //  Returns true if the socket is driven by a forwarder.
+    final boolean isForwarded()
+    {
+        return forwarder != null;
+    }
+
+    //  Processes the commands of a socket driven by a forwarder.
+    //  Returns false if the context was terminated.
+    final boolean processPendingCommands()
+    {
+        processCommands(0, false, null);
+        return !ctxTerminated;
+    }
+
     //  These functions are used by the polling mechanism to determine
     //  which events are to be reported from this socket.
     final boolean hasIn()
@@ -1192,6 +1607,14 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
         return false;
     }
 
+    //  Returns the ring the messages are published to for the filtering inproc peers,
+    //  or null if the messages are written to the pipe of each peer.
+    //  Called from the thread of the connecting peers.
+    protected FanoutRing fanoutRing()
+    {
+        return null;
+    }
+
     protected boolean xhasOut()
     {
         return false;
@@ -1321,6 +1744,8 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
         // Remove pipe from inproc pipes
         inprocs.remove(pipe);
 
+        dropped += pipe.getDropped();
+
         //  Remove the pipe from the list of attached pipes and confirm its
         //  termination if we are already shutting down.
         pipes.remove(pipe);
@@ -1488,6 +1913,11 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
         event(addr, errno, ZMQ.ZMQ_EVENT_HANDSHAKE_SUCCEEDED);
     }
 
+    public final void eventRateLimited(String addr, int direction)
+    {
+        event(addr, direction, ZMQ.ZMQ_EVENT_RATE_LIMITED);
+    }
+
     private void event(String addr, Object arg, int event)
     {
         try {
@@ -1565,6 +1995,16 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
     {
         if (threadSafe) {
             threadSafeSync.unlock();
+            //  Send the messages queued by the threads that found the socket busy meanwhile.
+            while (sendRequests.get() != null && !threadSafeSync.isHeldByCurrentThread()
+                    && threadSafeSync.tryLock()) {
+                try {
+                    performSendRequests();
+                }
+                finally {
+                    threadSafeSync.unlock();
+                }
+            }
         }
     }
 
@@ -149,6 +149,48 @@ public class ZMQ
     public static final int ZMQ_MSG_ALLOCATION_HEAP_THRESHOLD = ZMQ_CUSTOM_OPTION + 4;
     public static final int ZMQ_HEARTBEAT_CONTEXT             = ZMQ_CUSTOM_OPTION + 5;
     public static final int ZMQ_SELECTOR_PROVIDERCHOOSER      = ZMQ_CUSTOM_OPTION + 6;
+    public static final int ZMQ_SHM_SPIN                      = ZMQ_CUSTOM_OPTION + 7;
+    public static final int ZMQ_WAIT_SPIN                     = ZMQ_CUSTOM_OPTION + 8;
+    public static final int ZMQ_WAIT_YIELD                    = ZMQ_CUSTOM_OPTION + 9;
+    public static final int ZMQ_WAIT_PARK                     = ZMQ_CUSTOM_OPTION + 10;
+    public static final int ZMQ_IO_SPIN                       = ZMQ_CUSTOM_OPTION + 11;
+    public static final int ZMQ_IO_SPIN_AFFINITY              = ZMQ_CUSTOM_OPTION + 12;
+    public static final int ZMQ_INPROC_FANOUT                 = ZMQ_CUSTOM_OPTION + 13;
+    public static final int ZMQ_XPUB_LAST_VALUE               = ZMQ_CUSTOM_OPTION + 14;
+    public static final int ZMQ_XPUB_CONFLATE_TOPICS          = ZMQ_CUSTOM_OPTION + 15;
+    public static final int ZMQ_RCVRATE_BYTES                 = ZMQ_CUSTOM_OPTION + 16;
+    public static final int ZMQ_RCVRATE_MSGS                  = ZMQ_CUSTOM_OPTION + 17;
+    public static final int ZMQ_SNDRATE_BYTES                 = ZMQ_CUSTOM_OPTION + 18;
+    public static final int ZMQ_SNDRATE_MSGS                  = ZMQ_CUSTOM_OPTION + 19;
+    public static final int ZMQ_PIPE_WEIGHT                   = ZMQ_CUSTOM_OPTION + 20;
+    public static final int ZMQ_FQ_POLICY                     = ZMQ_CUSTOM_OPTION + 21;
+    public static final int ZMQ_LB_POLICY                     = ZMQ_CUSTOM_OPTION + 22;
+    public static final int ZMQ_SNDHWM_BYTES                  = ZMQ_CUSTOM_OPTION + 23;
+    public static final int ZMQ_RCVHWM_BYTES                  = ZMQ_CUSTOM_OPTION + 24;
+    public static final int ZMQ_SPILL_DIR                     = ZMQ_CUSTOM_OPTION + 25;
+    public static final int ZMQ_SPILL_SEGMENT_SIZE            = ZMQ_CUSTOM_OPTION + 26;
+    public static final int ZMQ_SPILL_PERSISTENT              = ZMQ_CUSTOM_OPTION + 27;
+    public static final int ZMQ_OVERFLOW_POLICY               = ZMQ_CUSTOM_OPTION + 28;
+    public static final int ZMQ_OVERFLOW_DROPPED              = ZMQ_CUSTOM_OPTION + 29;
+    public static final int ZMQ_SNDCOALESCE                   = ZMQ_CUSTOM_OPTION + 30;
+    public static final int ZMQ_BATCH_SIZE_MIN                = ZMQ_CUSTOM_OPTION + 31;
+    public static final int ZMQ_BATCH_SIZE_MAX                = ZMQ_CUSTOM_OPTION + 32;
+    public static final int ZMQ_IDLE_RELEASE                  = ZMQ_CUSTOM_OPTION + 33;
+
+    /*  Fair queuing policies of ZMQ_FQ_POLICY                                    */
+    public static final int ZMQ_FQ_ROUND_ROBIN = 0;
+    public static final int ZMQ_FQ_WEIGHTED    = 1;
+    public static final int ZMQ_FQ_PRIORITY    = 2;
+
+    /*  Load balancing policies of ZMQ_LB_POLICY                                  */
+    public static final int ZMQ_LB_ROUND_ROBIN  = 0;
+    public static final int ZMQ_LB_LEAST_QUEUED = 1;
+    public static final int ZMQ_LB_POWER_OF_TWO = 2;
+    public static final int ZMQ_LB_WEIGHTED     = 3;
+
+    /*  Overflow policies of ZMQ_OVERFLOW_POLICY                                  */
+    public static final int ZMQ_OVERFLOW_DEFAULT     = 0;
+    public static final int ZMQ_OVERFLOW_DROP_OLDEST = 1;
 
     /*  Message options                                                           */
     public static final int ZMQ_MORE = 1;
@@ -189,6 +231,9 @@ public class ZMQ
     public static final int ZMQ_EVENT_MONITOR_STOPPED    = 1 << 10;
     public static final int ZMQ_EVENT_HANDSHAKE_PROTOCOL = 1 << 15;
     public static final int ZMQ_EVENT_ALL                = 0xffff;
+    /*  Rate limit of a connection reached, its input or output is paused.        *
+     *  Event value is ZMQ_POLLIN or ZMQ_POLLOUT. Not part of ZMQ_EVENT_ALL.      */
+    public static final int ZMQ_EVENT_RATE_LIMITED       = 1 << 16;
     /*  Unspecified system errors during handshake. Event value is an errno.      */
     public static final int ZMQ_EVENT_HANDSHAKE_FAILED_NO_DETAIL   = 1 << 11;
 
@@ -587,6 +632,19 @@ public class ZMQ
         return sz;
     }
 
+    // Send a batch of messages under a single acquisition of the socket.
+    //
+    // If flag bit ZMQ_SNDMORE is set the batch is treated as
+    // a single multi-part message, i.e. the last message has
+    // ZMQ_SNDMORE bit switched off.
+    //
+    // Returns number of messages sent, or -1 on error.
+    public static int sendMany(SocketBase s, Msg[] msgs, int off, int len, int flags)
+    {
+        checkSocket(s);
+        return s.sendMany(msgs, off, len, flags);
+    }
+
     // Receiving functions.
     public static Msg recv(SocketBase s, int flags)
     {
@@ -653,6 +711,17 @@ public class ZMQ
         return s.recv(flags);
     }
 
+    // Receive a batch of messages under a single acquisition of the socket.
+    //
+    // Waits for the first message according to the flags, then receives
+    // up to max messages as long as they are immediately available.
+    // Returns number of messages received, or -1 on error.
+    public static int recvMany(SocketBase s, Msg[] msgs, int max, int flags)
+    {
+        checkSocket(s);
+        return s.recvMany(msgs, max, flags);
+    }
+
     public static boolean join(SocketBase s, String group)
     {
         checkSocket(s);
@@ -755,6 +824,9 @@ public class ZMQ
     /**
      * Polling on items with given selector
      * CAUTION: This could be affected by jdk epoll bug
+     * <p>
+     * The registrations of the selector are rebuilt at each call,
+     * use a {@link zmq.poll.PollSet} to keep them when polling the same items repeatedly.
      *
      * @param selector Open and reuse this selector and do not forget to close when it is not used.
      * @param items
@@ -927,6 +999,28 @@ public class ZMQ
         return Proxy.proxy(frontend, backend, capture, control);
     }
 
+    //  Moves up to max whole messages from one socket to the other, while the source has messages
+    //  and the destination can take them. Each part is also sent to the capture socket if any,
+    //  sharing its payload. Returns the number of messages moved, or -1 in case of error.
+    public static int forward(SocketBase from, SocketBase to, SocketBase capture, int max)
+    {
+        Utils.checkArgument(from != null, "Source socket has to be present for forward");
+        Utils.checkArgument(to != null, "Destination socket has to be present for forward");
+        Utils.checkArgument(max > 0, "At least one message has to be forwarded");
+        return Proxy.forward(from, to, capture, max);
+    }
+
+    //  Attaches a forwarder moving the messages between the sockets from an I/O thread.
+    //  The sockets are not to be used by the application until the forwarder is closed.
+    //  Returns null if one of the sockets is thread-safe or already forwarded, or if the context
+    //  has no I/O thread.
+    public static Forwarder forwarder(SocketBase frontend, SocketBase backend)
+    {
+        Utils.checkArgument(frontend != null, "Frontend socket has to be present for forwarder");
+        Utils.checkArgument(backend != null, "Backend socket has to be present for forwarder");
+        return Forwarder.attach(frontend, backend);
+    }
+
     public static boolean device(int device, SocketBase frontend, SocketBase backend)
     {
         Utils.checkArgument(frontend != null, "Frontend socket has to be present for proxy");
@@ -52,7 +52,7 @@ public abstract class ZObject
             break;
 
         case ACTIVATE_WRITE:
-            processActivateWrite((Long) cmd.arg);
+            processActivateWrite(cmd.value);
             break;
 
         case STOP:
@@ -170,7 +170,7 @@ public abstract class ZObject
     {
         //  'stop' command goes always from administrative thread to
         //  the current object.
-        Command cmd = new Command(this, Command.Type.STOP);
+        Command cmd = CommandPool.acquire(this, Command.Type.STOP, null);
         ctx.sendCommand(tid, cmd);
     }
 
@@ -185,14 +185,14 @@ public abstract class ZObject
             destination.incSeqnum();
         }
 
-        Command cmd = new Command(destination, Command.Type.PLUG);
+        Command cmd = CommandPool.acquire(destination, Command.Type.PLUG, null);
         sendCommand(cmd);
     }
 
     protected final void sendOwn(Own destination, Own object)
     {
         destination.incSeqnum();
-        Command cmd = new Command(destination, Command.Type.OWN, object);
+        Command cmd = CommandPool.acquire(destination, Command.Type.OWN, object);
         sendCommand(cmd);
     }
 
@@ -207,7 +207,7 @@ public abstract class ZObject
             destination.incSeqnum();
         }
 
-        Command cmd = new Command(destination, Command.Type.ATTACH, engine);
+        Command cmd = CommandPool.acquire(destination, Command.Type.ATTACH, engine);
         sendCommand(cmd);
     }
 
@@ -222,73 +222,74 @@ public abstract class ZObject
             destination.incSeqnum();
         }
 
-        Command cmd = new Command(destination, Command.Type.BIND, pipe);
+        Command cmd = CommandPool.acquire(destination, Command.Type.BIND, pipe);
         sendCommand(cmd);
     }
 
     protected final void sendActivateRead(Pipe destination)
     {
-        Command cmd = new Command(destination, Command.Type.ACTIVATE_READ);
+        Command cmd = CommandPool.acquire(destination, Command.Type.ACTIVATE_READ, null);
         sendCommand(cmd);
     }
 
     protected final void sendActivateWrite(Pipe destination, long msgsRead)
     {
-        Command cmd = new Command(destination, Command.Type.ACTIVATE_WRITE, msgsRead);
+        Command cmd = CommandPool.acquire(destination, Command.Type.ACTIVATE_WRITE, null);
+        cmd.value = msgsRead;
         sendCommand(cmd);
     }
 
     protected final void sendHiccup(Pipe destination, YPipeBase<Msg> pipe)
     {
-        Command cmd = new Command(destination, Command.Type.HICCUP, pipe);
+        Command cmd = CommandPool.acquire(destination, Command.Type.HICCUP, pipe);
         sendCommand(cmd);
     }
 
     protected final void sendPipeTerm(Pipe destination)
     {
-        Command cmd = new Command(destination, Command.Type.PIPE_TERM);
+        Command cmd = CommandPool.acquire(destination, Command.Type.PIPE_TERM, null);
         sendCommand(cmd);
     }
 
     protected final void sendPipeTermAck(Pipe destination)
     {
-        Command cmd = new Command(destination, Command.Type.PIPE_TERM_ACK);
+        Command cmd = CommandPool.acquire(destination, Command.Type.PIPE_TERM_ACK, null);
         sendCommand(cmd);
     }
 
     protected final void sendTermReq(Own destination, Own object)
     {
-        Command cmd = new Command(destination, Command.Type.TERM_REQ, object);
+        Command cmd = CommandPool.acquire(destination, Command.Type.TERM_REQ, object);
         sendCommand(cmd);
     }
 
     protected final void sendTerm(Own destination, int linger)
     {
-        Command cmd = new Command(destination, Command.Type.TERM, linger);
+        Command cmd = CommandPool.acquire(destination, Command.Type.TERM, linger);
         sendCommand(cmd);
     }
 
     protected final void sendTermAck(Own destination)
     {
-        Command cmd = new Command(destination, Command.Type.TERM_ACK);
+        Command cmd = CommandPool.acquire(destination, Command.Type.TERM_ACK, null);
         sendCommand(cmd);
     }
 
     protected final void sendReap(SocketBase socket)
     {
-        Command cmd = new Command(ctx.getReaper(), Command.Type.REAP, socket);
+        Command cmd = CommandPool.acquire(ctx.getReaper(), Command.Type.REAP, socket);
         sendCommand(cmd);
     }
 
     protected final void sendReaped()
     {
-        Command cmd = new Command(ctx.getReaper(), Command.Type.REAPED);
+        Command cmd = CommandPool.acquire(ctx.getReaper(), Command.Type.REAPED, null);
         sendCommand(cmd);
     }
 
     protected final void sendInprocConnected(SocketBase socket)
     {
-        Command cmd = new Command(socket, Command.Type.INPROC_CONNECTED);
+        Command cmd = CommandPool.acquire(socket, Command.Type.INPROC_CONNECTED, null);
         sendCommand(cmd);
     }
 
@@ -300,7 +301,7 @@ public abstract class ZObject
 
     protected final void sendCancel()
     {
-        Command cmd = new Command(this, Command.Type.CANCEL);
+        Command cmd = CommandPool.acquire(this, Command.Type.CANCEL, null);
         sendCommand(cmd);
     }
 
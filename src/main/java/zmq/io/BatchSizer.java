@@ -0,0 +1,67 @@
+package zmq.io;
+
+//  Size of the buffer of one direction of a connection, adapted to its traffic.
+//
+//  The size doubles each time a read or a batch fills the whole buffer, as more data are
+//  likely waiting, and halves after a series of reads or batches using less than a quarter
+//  of it. It stays within the bounds, rounded up to powers of two to match the buffer pool.
+final class BatchSizer
+{
+    //  Number of consecutive small reads or batches before the size shrinks.
+    private static final int SHRINK_AFTER = 16;
+
+    private final int min;
+    private final int max;
+
+    private int size;
+
+    //  Number of consecutive small reads or batches.
+    private int small;
+
+    BatchSizer(int min, int max)
+    {
+        assert (min > 0 && min <= max);
+        this.min = roundUp(min);
+        this.max = roundUp(max);
+        this.size = this.min;
+    }
+
+    //  Returns the size of the buffer for the next reads or batches.
+    int size()
+    {
+        return size;
+    }
+
+    //  Records the amount of data of a read or of a batch made with a buffer of the current size.
+    void update(int amount)
+    {
+        if (amount >= size) {
+            small = 0;
+            if (size < max) {
+                size <<= 1;
+            }
+        }
+        else if (amount <= size >> 2) {
+            if (++small >= SHRINK_AFTER) {
+                small = 0;
+                if (size > min) {
+                    size >>= 1;
+                }
+            }
+        }
+        else {
+            small = 0;
+        }
+    }
+
+    private static int roundUp(int value)
+    {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "BatchSizer [size=" + size + ", min=" + min + ", max=" + max + "]";
+    }
+}
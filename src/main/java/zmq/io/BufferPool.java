@@ -0,0 +1,81 @@
+package zmq.io;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+//  Pool of the direct buffers of the engines of an I/O thread.
+//
+//  The buffers are sorted by classes of power of two sizes. As the pool is only used
+//  by its I/O thread, it needs no synchronization. It keeps up to a given number of bytes
+//  of free buffers, the buffers released beyond are left to the garbage collector.
+final class BufferPool
+{
+    //  Largest size class, 1 GB.
+    private static final int MAX_CLASS = 30;
+
+    private final List<Deque<ByteBuffer>> classes;
+
+    //  Maximum number of bytes of free buffers kept.
+    private final long capacity;
+
+    //  Number of bytes of free buffers kept.
+    private long pooled;
+
+    BufferPool(long capacity)
+    {
+        assert (capacity >= 0);
+        this.capacity = capacity;
+        classes = new ArrayList<>(MAX_CLASS + 1);
+        for (int idx = 0; idx <= MAX_CLASS; ++idx) {
+            classes.add(new ArrayDeque<>());
+        }
+    }
+
+    //  Returns a cleared buffer of the given size rounded up to a power of two.
+    ByteBuffer acquire(int size)
+    {
+        int index = index(size);
+        //  The last buffer released is reused first, as it is most likely in the caches.
+        ByteBuffer buffer = classes.get(index).pollFirst();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(1 << index);
+        }
+        pooled -= buffer.capacity();
+        buffer.clear();
+        return buffer;
+    }
+
+    //  Gives a buffer back to the pool. The buffers not allocated by a pool are ignored.
+    void release(ByteBuffer buffer)
+    {
+        if (buffer == null || !buffer.isDirect() || Integer.bitCount(buffer.capacity()) != 1) {
+            return;
+        }
+        if (pooled + buffer.capacity() > capacity) {
+            return;
+        }
+        pooled += buffer.capacity();
+        classes.get(index(buffer.capacity())).addFirst(buffer);
+    }
+
+    //  Returns the number of bytes of free buffers kept.
+    long pooled()
+    {
+        return pooled;
+    }
+
+    private static int index(int size)
+    {
+        assert (size > 0 && size <= 1 << MAX_CLASS);
+        return 32 - Integer.numberOfLeadingZeros(size - 1);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "BufferPool [pooled=" + pooled + ", capacity=" + capacity + "]";
+    }
+}
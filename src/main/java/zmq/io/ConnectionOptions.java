@@ -0,0 +1,40 @@
+package zmq.io;
+
+import zmq.Options;
+import zmq.ZMQ;
+
+//  Options of a connection captured from the options of the socket when the connection
+//  is requested, by connect or bind, so that the connections of a socket can be given
+//  different settings. The engines and pipes of the connection are created later on.
+public final class ConnectionOptions
+{
+    //  Rate limits of the connection, in units per second, 0 meaning no limit.
+    final int rcvRateBytes;
+    final int rcvRateMsgs;
+    final int sndRateBytes;
+    final int sndRateMsgs;
+
+    //  Weight of the pipe of the connection in the socket.
+    final int pipeWeight;
+
+    //  True if the pipe of the connection drops its oldest message when full.
+    final boolean dropOldest;
+
+    public ConnectionOptions(Options options)
+    {
+        rcvRateBytes = options.rcvRateBytes;
+        rcvRateMsgs = options.rcvRateMsgs;
+        sndRateBytes = options.sndRateBytes;
+        sndRateMsgs = options.sndRateMsgs;
+        pipeWeight = options.pipeWeight;
+        dropOldest = options.overflowPolicy == ZMQ.ZMQ_OVERFLOW_DROP_OLDEST;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ConnectionOptions [rcvRateBytes=" + rcvRateBytes + ", rcvRateMsgs=" + rcvRateMsgs
+                + ", sndRateBytes=" + sndRateBytes + ", sndRateMsgs=" + sndRateMsgs + ", pipeWeight=" + pipeWeight
+                + ", dropOldest=" + dropOldest + "]";
+    }
+}
@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.nio.channels.SelectableChannel;
 
 import zmq.Command;
+import zmq.Config;
 import zmq.Ctx;
 import zmq.Mailbox;
 import zmq.ZObject;
@@ -24,11 +25,15 @@ public class IOThread extends ZObject implements IPollEvents, Closeable
 
     private final String name;
 
+    //  Buffers of the engines of the thread.
+    private final BufferPool bufferPool;
+
     public IOThread(Ctx ctx, int tid)
     {
         super(ctx, tid);
         name = "iothread-" + tid;
         poller = new Poller(ctx, name);
+        bufferPool = new BufferPool(Config.BUFFER_POOL_SIZE.getValue());
 
         mailbox = new Mailbox(ctx, name, tid);
         SelectableChannel fd = mailbox.getFd();
@@ -41,6 +46,25 @@ public class IOThread extends ZObject implements IPollEvents, Closeable
         poller.start();
     }
 
+    //  Sets the time the thread busy-polls for events before blocking, in nanoseconds.
+    //  Shall be called before the thread is started.
+    public void setSpin(long spinNanos)
+    {
+        poller.setSpin(spinNanos);
+    }
+
+    //  Returns the number of polls that found events while busy-polling.
+    public long getSpinHits()
+    {
+        return poller.getSpinHits();
+    }
+
+    //  Returns the number of polls that blocked waiting for events.
+    public long getBlockingSelects()
+    {
+        return poller.getBlockingSelects();
+    }
+
     @Override
     public void close() throws IOException
     {
@@ -63,6 +87,12 @@ public class IOThread extends ZObject implements IPollEvents, Closeable
         return poller.getLoad();
     }
 
+    //  Returns the pool of buffers of the engines, only used by the thread.
+    BufferPool getBufferPool()
+    {
+        return bufferPool;
+    }
+
     @Override
     public void inEvent()
     {
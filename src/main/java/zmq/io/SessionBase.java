@@ -16,6 +16,7 @@ import zmq.io.mechanism.Mechanisms;
 import zmq.io.net.Address;
 import zmq.io.net.NetProtocol;
 import zmq.io.net.ipc.IpcConnecter;
+import zmq.io.net.shm.ShmConnecter;
 import zmq.io.net.norm.NormEngine;
 import zmq.io.net.pgm.PgmReceiver;
 import zmq.io.net.pgm.PgmSender;
@@ -69,6 +70,9 @@ public class SessionBase extends Own implements Pipe.IPipeEvents, IPollEvents
 
     private final IOObject ioObject;
 
+    //  Options of the connections of the session.
+    private ConnectionOptions connectionOptions;
+
     public SessionBase(IOThread ioThread, boolean connect, SocketBase socket, Options options, Address addr)
     {
         super(ioThread, options);
@@ -84,10 +88,23 @@ public class SessionBase extends Own implements Pipe.IPipeEvents, IPollEvents
         this.ioThread = ioThread;
         hasLingerTimer = false;
         this.addr = addr;
+        connectionOptions = new ConnectionOptions(options);
 
         terminatingPipes = new HashSet<>();
     }
 
+    //  Sets the options of the connection accepted by a listener, captured when it was bound.
+    public final void setConnectionOptions(ConnectionOptions connectionOptions)
+    {
+        assert (connectionOptions != null);
+        this.connectionOptions = connectionOptions;
+    }
+
+    final ConnectionOptions connectionOptions()
+    {
+        return connectionOptions;
+    }
+
     @Override
     public void destroy()
     {
@@ -358,9 +375,15 @@ public class SessionBase extends Own implements Pipe.IPipeEvents, IPollEvents
             int[] hwms = { conflate ? -1 : options.recvHwm, conflate ? -1 : options.sendHwm };
             boolean[] conflates = { conflate, conflate };
             Pipe[] pipes = Pipe.pair(parents, hwms, conflates);
+            if (!conflate) {
+                pipes[0].setHwmBytes(options.recvHwmBytes);
+                pipes[1].setHwmBytes(options.sendHwmBytes);
+            }
 
             //  Plug the local end of the pipe.
             pipes[0].setEventSink(this);
+            pipes[1].setWeight(connectionOptions.pipeWeight);
+            pipes[1].setDropOldest(connectionOptions.dropOldest);
 
             //  Remember the local end of the pipe.
             assert (pipe == null);
@@ -530,6 +553,21 @@ public class SessionBase extends Own implements Pipe.IPipeEvents, IPollEvents
         }
             break;
 
+        case shm: {
+            ShmConnecter connecter = new ShmConnecter(ioThread, this, options, addr, wait);
+            launchChild(connecter);
+        }
+            break;
+
+        case udp: {
+            //  There is no concept of connection with datagrams,
+            //  the engine is attached straight away.
+            UdpEngine engine = new UdpEngine(options, addr, options.type == ZMQ.ZMQ_RADIO,
+                    options.type == ZMQ.ZMQ_DISH);
+            sendAttach(this, engine);
+        }
+            break;
+
         case tipc: {
             TipcConnecter connecter = new TipcConnecter(ioThread, this, options, addr, wait);
             launchChild(connecter);
@@ -5,6 +5,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 import zmq.Config;
 import zmq.Msg;
@@ -12,6 +13,8 @@ import zmq.Options;
 import zmq.SocketBase;
 import zmq.ZError;
 import zmq.ZMQ;
+import zmq.io.coder.DecoderBase;
+import zmq.io.coder.EncoderBase;
 import zmq.io.coder.IDecoder;
 import zmq.io.coder.IDecoder.Step;
 import zmq.io.coder.IEncoder;
@@ -27,6 +30,7 @@ import zmq.io.net.Address;
 import zmq.poll.IPollEvents;
 import zmq.poll.Poller;
 import zmq.util.Blob;
+import zmq.util.Clock;
 import zmq.util.Errno;
 import zmq.util.Utils;
 import zmq.util.ValueReference;
@@ -98,6 +102,22 @@ public class StreamEngine implements IEngine, IPollEvents
     private int                              outsize;
     private IEncoder                         encoder;
 
+    //  Maximum number of shared frames written at once.
+    private static final int MAX_SHARED_FRAMES = 64;
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    //  True if the frames of the messages shared with other engines can be written as they are.
+    private boolean sharedFrames;
+
+    //  Buffers of a gathering write, the output of the encoder followed by the header
+    //  and the body of each shared frame.
+    private final ByteBuffer[] gather;
+    private int                gatherOffset;
+    private int                gatherCount;
+
+    //  Message to send after the shared frames being written.
+    private Msg pendingMsg;
+
     private Metadata metadata;
 
     //  When true, we are still trying to determine whether
@@ -154,6 +174,14 @@ public class StreamEngine implements IEngine, IPollEvents
     private static final int HEARTBEAT_TTL_TIMER_ID     = 0x80;
     private static final int HEARTBEAT_IVL_TIMER_ID     = 0x81;
     private static final int HEARTBEAT_TIMEOUT_TIMER_ID = 0x82;
+    private static final int RATE_IN_TIMER_ID           = 0x83;
+    private static final int RATE_OUT_TIMER_ID          = 0x84;
+    private static final int COALESCE_TIMER_ID          = 0x85;
+    private static final int IDLE_TIMER_ID              = 0x86;
+    private static final int RESUME_IN_TIMER_ID         = 0x87;
+
+    //  Minimum interval between two rate limited events reported for a direction, in nanoseconds.
+    private static final long RATE_REPORT_IVL = 1000000000L;
 
     //  True is linger timer is running.
     private boolean hasHandshakeTimer;
@@ -164,12 +192,52 @@ public class StreamEngine implements IEngine, IPollEvents
     private final int    heartbeatTimeout;
     private final byte[] heartbeatContext;
 
+    //  Rate limits of the connection, in bytes and in messages, null when unlimited.
+    private TokenBucket rcvRateBytes;
+    private TokenBucket rcvRateMsgs;
+    private TokenBucket sndRateBytes;
+    private TokenBucket sndRateMsgs;
+
+    //  True while the input or the output is paused until the rate limits allow it again.
+    private boolean hasRateInTimer;
+    private boolean hasRateOutTimer;
+
+    //  Time of the last rate limited events reported, in nanoseconds.
+    private long rateInReported;
+    private long rateOutReported;
+
+    //  Latency budget of the output coalescing, in nanoseconds, 0 to write the messages at once.
+    private final long coalesceDelay;
+
+    //  True while a batch smaller than the batch size is kept open for the next messages,
+    //  until the deadline in nanoseconds.
+    private boolean coalescing;
+    private long    coalesceDeadline;
+    private boolean hasCoalesceTimer;
+
+    //  Pool of the buffers of the I/O thread, and sizes of the read and write buffers adapted
+    //  to the traffic of the connection, null when the buffers have the fixed sizes of the batches.
+    private BufferPool bufferPool;
+    private BatchSizer inSizer;
+    private BatchSizer outSizer;
+
+    //  Buffers of the decoder and of the encoder, taken from the pool.
+    private ByteBuffer inBuffer;
+    private ByteBuffer outBuffer;
+
+    //  True if the connection read or wrote since the last check of the idle timer.
+    private boolean active;
+    private boolean hasIdleTimer;
+
+    //  True while the input given back to the I/O thread waits to be processed again.
+    private boolean hasResumeInTimer;
+
     // Socket
     private SocketBase socket;
 
     private final Address peerAddress;
 
-    private final Errno errno;
+    protected final Errno errno;
 
     public StreamEngine(SocketChannel fd, final Options options, final String endpoint)
     {
@@ -183,6 +251,7 @@ public class StreamEngine implements IEngine, IPollEvents
         processMsg = processIdentity;
 
         outpos = new ValueReference<>();
+        gather = new ByteBuffer[2 * MAX_SHARED_FRAMES + 1];
 
         greetingRecv = ByteBuffer.allocate(V3_GREETING_SIZE);
         greetingSend = ByteBuffer.allocate(V3_GREETING_SIZE);
@@ -199,6 +268,7 @@ public class StreamEngine implements IEngine, IPollEvents
 
         heartbeatTimeout = heartbeatTimeout();
         heartbeatContext = Arrays.copyOf(options.heartbeatContext, options.heartbeatContext.length);
+        coalesceDelay = TimeUnit.MICROSECONDS.toNanos(options.sndCoalesce);
     }
 
     private int heartbeatTimeout()
@@ -255,6 +325,28 @@ public class StreamEngine implements IEngine, IPollEvents
         handle = ioObject.addFd(fd);
         ioError = false;
 
+        //  Each connection gets its own rate limits.
+        final ConnectionOptions limits = session.connectionOptions();
+        final long now = Clock.nowNS();
+        rcvRateBytes = limits.rcvRateBytes > 0 ? new TokenBucket(limits.rcvRateBytes, now) : null;
+        rcvRateMsgs = limits.rcvRateMsgs > 0 ? new TokenBucket(limits.rcvRateMsgs, now) : null;
+        sndRateBytes = limits.sndRateBytes > 0 ? new TokenBucket(limits.sndRateBytes, now) : null;
+        sndRateMsgs = limits.sndRateMsgs > 0 ? new TokenBucket(limits.sndRateMsgs, now) : null;
+        rateInReported = now - RATE_REPORT_IVL;
+        rateOutReported = now - RATE_REPORT_IVL;
+
+        //  The buffers of idle connections are given back to the pool.
+        if (options.batchSizeMax > 0 || options.idleRelease > 0) {
+            bufferPool = ioThread.getBufferPool();
+        }
+
+        //  The buffers start small, and grow with the traffic up to the maximum.
+        if (options.batchSizeMax > 0) {
+            final int min = Math.min(options.batchSizeMin, options.batchSizeMax);
+            inSizer = new BatchSizer(min, options.batchSizeMax);
+            outSizer = new BatchSizer(min, options.batchSizeMax);
+        }
+
         //  Make sure batch sizes match large buffer sizes
         final int inBatchSize = Math.max(options.rcvbuf, Config.IN_BATCH_SIZE.getValue());
         final int outBatchSize = Math.max(options.sndbuf, Config.OUT_BATCH_SIZE.getValue());
@@ -351,6 +443,39 @@ public class StreamEngine implements IEngine, IPollEvents
             hasHeartbeatTimer = false;
         }
 
+        if (hasRateInTimer) {
+            ioObject.cancelTimer(RATE_IN_TIMER_ID);
+            hasRateInTimer = false;
+        }
+
+        if (hasRateOutTimer) {
+            ioObject.cancelTimer(RATE_OUT_TIMER_ID);
+            hasRateOutTimer = false;
+        }
+
+        if (hasCoalesceTimer) {
+            ioObject.cancelTimer(COALESCE_TIMER_ID);
+            hasCoalesceTimer = false;
+        }
+
+        if (hasIdleTimer) {
+            ioObject.cancelTimer(IDLE_TIMER_ID);
+            hasIdleTimer = false;
+        }
+
+        if (hasResumeInTimer) {
+            ioObject.cancelTimer(RESUME_IN_TIMER_ID);
+            hasResumeInTimer = false;
+        }
+
+        //  Give the buffers back to the pool of the I/O thread.
+        if (bufferPool != null) {
+            bufferPool.release(inBuffer);
+            bufferPool.release(outBuffer);
+            inBuffer = null;
+            outBuffer = null;
+        }
+
         if (!ioError) {
             //  Cancel all fd subscriptions.
             ioObject.removeHandle(handle);
@@ -366,6 +491,12 @@ public class StreamEngine implements IEngine, IPollEvents
     @Override
     public void terminate()
     {
+        //  Write the batch kept open by the output coalescing.
+        if (coalescing && !ioError) {
+            coalescing = false;
+            encoder.encoded();
+            write(outpos.get());
+        }
         unplug();
         destroy();
     }
@@ -392,6 +523,11 @@ public class StreamEngine implements IEngine, IPollEvents
             return;
         }
 
+        //  Wait for the rate limits of the connection to allow more input.
+        if (pauseInput()) {
+            return;
+        }
+
         //  If there's no data to process in the buffer...
         if (insize == 0) {
             //  Retrieve the buffer and read as much data as possible.
@@ -399,6 +535,7 @@ public class StreamEngine implements IEngine, IPollEvents
             //  the underlying TCP layer has fixed buffer size and thus the
             //  number of bytes read will be always limited.
 
+            prepareInput();
             inpos = decoder.getBuffer();
             int rc = read(inpos);
 
@@ -415,6 +552,12 @@ public class StreamEngine implements IEngine, IPollEvents
             //  Adjust input size
             inpos.flip();
             insize = rc;
+            if (inSizer != null && inpos == inBuffer) {
+                inSizer.update(rc);
+            }
+            if (rcvRateBytes != null) {
+                rcvRateBytes.consume(rc, Clock.nowNS());
+            }
         }
 
         boolean rc = false;
@@ -440,6 +583,10 @@ public class StreamEngine implements IEngine, IPollEvents
             if (!rc) {
                 break;
             }
+            //  Keep the rest of the input until the rate limits allow decoding it.
+            if (rcvRateMsgs != null && countInput(msg) && pauseInput()) {
+                break;
+            }
         }
 
         // Tear down the connection if we have failed to decode input data
@@ -464,26 +611,66 @@ public class StreamEngine implements IEngine, IPollEvents
         assert (!ioError);
 
         //  If write buffer is empty, try to read new data from the encoder.
-        if (outsize == 0) {
-            //  Even when we stop polling as soon as there is no
-            //  data to send, the poller may invoke outEvent one
-            //  more time due to 'speculative write' optimization.
-            if (encoder == null) {
-                assert (handshaking);
-                return;
+        //  A batch kept open by the output coalescing is completed with the next messages.
+        if (outsize == 0 || coalescing) {
+            if (!coalescing) {
+                //  Even when we stop polling as soon as there is no
+                //  data to send, the poller may invoke outEvent one
+                //  more time due to 'speculative write' optimization.
+                if (encoder == null) {
+                    assert (handshaking);
+                    return;
+                }
+                //  Wait for the rate limits of the connection to allow more output.
+                if (!handshaking && pauseOutput()) {
+                    return;
+                }
+                prepareOutput();
+                outpos.set(null);
+                outsize = encoder.encode(outpos, 0);
+                gatherCount = 0;
             }
-            outpos.set(null);
-            outsize = encoder.encode(outpos, 0);
 
             //  Make sure batch sizes match large buffer sizes
-            final int outBatchSize = Math.max(options.sndbuf, Config.OUT_BATCH_SIZE.getValue());
+            final int outBatchSize = outBuffer != null ? outBuffer.capacity()
+                    : Math.max(options.sndbuf, Config.OUT_BATCH_SIZE.getValue());
 
             while (outsize < outBatchSize) {
-                Msg msg = nextMsg.get();
+                //  Keep the next messages until the rate limits allow sending them.
+                if (sndRateMsgs != null && outsize > 0 && !handshaking && sndRateMsgs.delay(Clock.nowNS()) > 0) {
+                    break;
+                }
+                Msg msg = pendingMsg;
                 if (msg == null) {
+                    msg = nextMsg.get();
+                    if (msg == null) {
+                        break;
+                    }
+                }
+                else {
+                    pendingMsg = null;
+                }
+                if (sharedFrames && msg.isShared()) {
+                    //  The header encoded once for all the engines and the body are written
+                    //  as they are, after the data produced so far by the encoder.
+                    ByteBuffer header = msg.frameHeader();
+                    ByteBuffer body = msg.frameBody();
+                    gather[++gatherCount] = header;
+                    gather[++gatherCount] = body;
+                    outsize += header.remaining() + body.remaining();
+                    countOutput(msg);
+                    if (gatherCount == gather.length - 1) {
+                        break;
+                    }
+                    continue;
+                }
+                if (gatherCount > 0) {
+                    //  The message has to follow the shared frames, it is encoded for the next batch.
+                    pendingMsg = msg;
                     break;
                 }
                 encoder.loadMsg(msg);
+                countOutput(msg);
                 int n = encoder.encode(outpos, outBatchSize - outsize);
                 assert (n > 0);
                 outsize += n;
@@ -497,9 +684,27 @@ public class StreamEngine implements IEngine, IPollEvents
                 return;
             }
 
+            //  Wait for more messages while the batch is small and the latency budget allows it.
+            if (deferOutput(outBatchSize)) {
+                return;
+            }
+
             // slight difference with libzmq:
             // encoder is notified of the end of the loading
             encoder.encoded();
+
+            if (outSizer != null && outpos.get() == outBuffer) {
+                outSizer.update(outsize);
+            }
+
+            if (sndRateBytes != null) {
+                sndRateBytes.consume(outsize, Clock.nowNS());
+            }
+
+            if (gatherCount > 0) {
+                gather[0] = outpos.get() == null ? EMPTY : outpos.get();
+                gatherOffset = 0;
+            }
         }
 
         //  If there are any data to write in write buffer, write as much as
@@ -507,7 +712,16 @@ public class StreamEngine implements IEngine, IPollEvents
         //  arbitrarily large. However, we assume that underlying TCP layer has
         //  limited transmission buffer and thus the actual number of bytes
         //  written should be reasonably modest.
-        int nbytes = write(outpos.get());
+        int nbytes;
+        if (gatherCount > 0) {
+            nbytes = (int) write(gather, gatherOffset, gatherCount + 1 - gatherOffset);
+            while (gatherOffset <= gatherCount && !gather[gatherOffset].hasRemaining()) {
+                gather[gatherOffset++] = null;
+            }
+        }
+        else {
+            nbytes = write(outpos.get());
+        }
 
         //  IO error has occurred. We stop waiting for output events.
         //  The engine is not terminated until we detect input error;
@@ -564,6 +778,7 @@ public class StreamEngine implements IEngine, IPollEvents
             }
             return;
         }
+        countInput(msg);
         boolean decodingSuccess = decodeCurrentInputs();
         if (!decodingSuccess && errno.is(ZError.EAGAIN)) {
             session.flush();
@@ -597,13 +812,191 @@ public class StreamEngine implements IEngine, IPollEvents
             if (result == Step.Result.ERROR) {
                 return false;
             }
-            if (!processMsg.apply(decoder.msg())) {
+            Msg msg = decoder.msg();
+            if (!processMsg.apply(msg)) {
                 return false;
             }
+            countInput(msg);
+        }
+        return true;
+    }
+
+    //  Stops polling for input until the rate limits of the connection allow reading again.
+    //  Returns true if the input is paused.
+    private boolean pauseInput()
+    {
+        if (rcvRateBytes == null && rcvRateMsgs == null) {
+            return false;
+        }
+        final long now = Clock.nowNS();
+        final long delay = rateDelay(rcvRateBytes, rcvRateMsgs, now);
+        if (delay == 0) {
+            return false;
+        }
+        ioObject.resetPollIn(handle);
+        if (!hasRateInTimer) {
+            ioObject.addTimer(delay, RATE_IN_TIMER_ID);
+            hasRateInTimer = true;
+        }
+        if (now - rateInReported >= RATE_REPORT_IVL) {
+            rateInReported = now;
+            socket.eventRateLimited(endpoint, ZMQ.ZMQ_POLLIN);
+        }
+        return true;
+    }
+
+    //  Stops polling for output until the rate limits of the connection allow writing again.
+    //  Returns true if the output is paused.
+    private boolean pauseOutput()
+    {
+        if (sndRateBytes == null && sndRateMsgs == null) {
+            return false;
+        }
+        final long now = Clock.nowNS();
+        final long delay = rateDelay(sndRateBytes, sndRateMsgs, now);
+        if (delay == 0) {
+            return false;
+        }
+        ioObject.resetPollOut(handle);
+        if (!hasRateOutTimer) {
+            ioObject.addTimer(delay, RATE_OUT_TIMER_ID);
+            hasRateOutTimer = true;
+        }
+        if (now - rateOutReported >= RATE_REPORT_IVL) {
+            rateOutReported = now;
+            socket.eventRateLimited(endpoint, ZMQ.ZMQ_POLLOUT);
+        }
+        return true;
+    }
+
+    //  Gives the decoder a buffer from the pool, of the size adapted to the traffic
+    //  or of the fixed size of the batches, before reading into it.
+    private void prepareInput()
+    {
+        if (bufferPool == null || !(decoder instanceof DecoderBase)) {
+            return;
+        }
+        final DecoderBase base = (DecoderBase) decoder;
+        final int size = inSizer != null ? inSizer.size() : base.bufferSize();
+        if (inBuffer == null || inBuffer.capacity() != size) {
+            inBuffer = bufferPool.acquire(size);
+            bufferPool.release(base.replaceBuffer(inBuffer));
+        }
+        markActive();
+    }
+
+    //  Gives the encoder a buffer from the pool, of the size adapted to the traffic
+    //  or of the fixed size of the batches, before starting a batch.
+    private void prepareOutput()
+    {
+        if (bufferPool == null || !(encoder instanceof EncoderBase)) {
+            return;
+        }
+        final EncoderBase base = (EncoderBase) encoder;
+        final int size = outSizer != null ? outSizer.size() : base.bufferSize();
+        if (outBuffer == null || outBuffer.capacity() != size) {
+            outBuffer = bufferPool.acquire(size);
+            bufferPool.release(base.replaceBuffer(outBuffer));
+        }
+        markActive();
+    }
+
+    //  Records the traffic of the connection, and starts checking whether it becomes idle.
+    private void markActive()
+    {
+        if (options.idleRelease > 0) {
+            active = true;
+            if (!hasIdleTimer) {
+                ioObject.addTimer(options.idleRelease, IDLE_TIMER_ID);
+                hasIdleTimer = true;
+            }
+        }
+    }
+
+    //  Gives the buffers of an idle connection back to the pool, they are taken again
+    //  on the next read or batch. Returns false if the buffers still hold data.
+    private boolean releaseIdleBuffers()
+    {
+        if (handshaking || insize > 0 || inputStopped || outsize > 0 || coalescing) {
+            return false;
+        }
+        if (decoder instanceof DecoderBase) {
+            bufferPool.release(((DecoderBase) decoder).replaceBuffer(null));
+            inBuffer = null;
+        }
+        if (encoder instanceof EncoderBase) {
+            bufferPool.release(((EncoderBase) encoder).replaceBuffer(null));
+            outBuffer = null;
+        }
+        return true;
+    }
+
+    //  Keeps a batch smaller than the batch size open for the next messages, until the latency
+    //  budget of the output coalescing expires. Returns true if the output is deferred.
+    //  The next messages restart the output, and the timer writes the batch if none come.
+    //  As the timers of the I/O thread have a resolution of a millisecond, a batch
+    //  may stay open up to a millisecond when no message comes after the budget.
+    private boolean deferOutput(int outBatchSize)
+    {
+        //  The handshake is written at once, not to delay the connection.
+        if (coalesceDelay == 0 || handshaking || nextMsg == nextHandshakeCommand || gatherCount > 0) {
+            return false;
+        }
+        final long now = Clock.nowNS();
+        if (!coalescing) {
+            coalescing = true;
+            coalesceDeadline = now + coalesceDelay;
+        }
+        if (outsize < outBatchSize && now < coalesceDeadline) {
+            outputStopped = true;
+            ioObject.resetPollOut(handle);
+            if (!hasCoalesceTimer) {
+                long delay = TimeUnit.NANOSECONDS.toMillis(coalesceDeadline - now + 999999);
+                ioObject.addTimer(Math.max(1, delay), COALESCE_TIMER_ID);
+                hasCoalesceTimer = true;
+            }
+            return true;
+        }
+        coalescing = false;
+        if (hasCoalesceTimer) {
+            ioObject.cancelTimer(COALESCE_TIMER_ID);
+            hasCoalesceTimer = false;
         }
+        return false;
+    }
+
+    //  Takes a token of the input message rate limit once the last part of a message is decoded.
+    //  Returns true if a token was taken.
+    private boolean countInput(Msg msg)
+    {
+        if (rcvRateMsgs == null || msg.hasMore()) {
+            return false;
+        }
+        rcvRateMsgs.consume(1, Clock.nowNS());
         return true;
     }
 
+    //  Takes a token of the output message rate limit once the last part of a message is encoded.
+    private void countOutput(Msg msg)
+    {
+        if (sndRateMsgs != null && !msg.hasMore()) {
+            sndRateMsgs.consume(1, Clock.nowNS());
+        }
+    }
+
+    //  Returns the delay in milliseconds before the traffic can resume, 0 if it is not limited.
+    private static long rateDelay(TokenBucket bytes, TokenBucket msgs, long now)
+    {
+        long delay = 0;
+        if (bytes != null) {
+            delay = bytes.delay(now);
+        }
+        if (msgs != null) {
+            delay = Math.max(delay, msgs.delay(now));
+        }
+        return delay;
+    }
+
     //  Detects the protocol used by the peer.
     private boolean handshake()
     {
@@ -789,6 +1182,8 @@ public class StreamEngine implements IEngine, IPollEvents
             }
             encoder = new V2Encoder(errno, outBatchSize);
             decoder = new V2Decoder(errno, inBatchSize, options.maxMsgSize, options.allocator);
+            //  Messages are written unmodified, their shared frames can be used.
+            sharedFrames = true;
 
             decodeDataAfterHandshake(V2_GREETING_SIZE);
         }
@@ -797,6 +1192,8 @@ public class StreamEngine implements IEngine, IPollEvents
 
             encoder = new V2Encoder(errno, outBatchSize);
             decoder = new V2Decoder(errno, inBatchSize, options.maxMsgSize, options.allocator);
+            //  Unless the security mechanism transforms the messages, their shared frames can be used.
+            sharedFrames = mechanism == Mechanisms.NULL;
 
             greetingRecv.position(V2_GREETING_SIZE);
             if (mechanism.isMechanism(greetingRecv)) {
@@ -1150,6 +1547,45 @@ public class StreamEngine implements IEngine, IPollEvents
             hasTimeoutTimer = false;
             error(ErrorReason.TIMEOUT);
         }
+        else if (id == RATE_IN_TIMER_ID) {
+            hasRateInTimer = false;
+            //  A stopped input is resumed by the session.
+            if (!inputStopped && !ioError) {
+                ioObject.setPollIn(handle);
+                inEvent();
+            }
+        }
+        else if (id == RATE_OUT_TIMER_ID) {
+            hasRateOutTimer = false;
+            if (!ioError) {
+                ioObject.setPollOut(handle);
+                outEvent();
+            }
+        }
+        else if (id == COALESCE_TIMER_ID) {
+            hasCoalesceTimer = false;
+            //  The latency budget expired, write the open batch.
+            if (coalescing && !ioError) {
+                coalesceDeadline = Clock.nowNS();
+                restartOutput();
+            }
+        }
+        else if (id == IDLE_TIMER_ID) {
+            hasIdleTimer = false;
+            //  The timer is started again by the next traffic once the buffers are released,
+            //  so that an idle connection costs nothing to the I/O thread.
+            if (active || !releaseIdleBuffers()) {
+                active = false;
+                ioObject.addTimer(options.idleRelease, IDLE_TIMER_ID);
+                hasIdleTimer = true;
+            }
+        }
+        else if (id == RESUME_IN_TIMER_ID) {
+            hasResumeInTimer = false;
+            if (!isInputStopped()) {
+                inEvent();
+            }
+        }
         else {
             // There are no other valid timer ids!
             assert (false);
@@ -1234,10 +1670,62 @@ public class StreamEngine implements IEngine, IPollEvents
         return true;
     }
 
+    //  Returns true if no more input is processed until the session restarts it,
+    //  or if an I/O error occurred.
+    protected final boolean isInputStopped()
+    {
+        return inputStopped || ioError || !plugged;
+    }
+
+    //  Processes the input again once the other objects of the I/O thread had their turn,
+    //  for engines not woken up by the socket while more input is available.
+    protected final void resumeInput()
+    {
+        if (!hasResumeInTimer && !isInputStopped()) {
+            ioObject.addTimer(0, RESUME_IN_TIMER_ID);
+            hasResumeInTimer = true;
+        }
+    }
+
+    //  Starts polling the socket for output, for engines not writing their data to the socket itself.
+    protected final void setPollOut()
+    {
+        if (!ioError) {
+            ioObject.setPollOut(handle);
+        }
+    }
+
+    //  Stops polling the socket for output, for engines not writing their data to the socket itself.
+    protected final void resetPollOut()
+    {
+        if (!ioError) {
+            ioObject.resetPollOut(handle);
+        }
+    }
+
     //  Writes data to the socket. Returns the number of bytes actually
     //  written (even zero is to be considered to be a success). In case
     //  of error or orderly shutdown by the other peer -1 is returned.
-    private int write(ByteBuffer outbuf)
+    //  Writes the buffers with a single gathering write.
+    //  Returns the number of bytes written, or -1 in case of error.
+    protected long write(ByteBuffer[] outbufs, int offset, int length)
+    {
+        long nbytes;
+        try {
+            nbytes = fd.write(outbufs, offset, length);
+            if (nbytes == 0) {
+                errno.set(ZError.EAGAIN);
+            }
+        }
+        catch (IOException e) {
+            errno.set(ZError.ENOTCONN);
+            nbytes = -1;
+        }
+
+        return nbytes;
+    }
+
+    protected int write(ByteBuffer outbuf)
     {
         int nbytes;
         try {
@@ -1257,7 +1745,7 @@ public class StreamEngine implements IEngine, IPollEvents
     //  Reads data from the socket (up to 'size' bytes).
     //  Returns the number of bytes actually read or -1 on error.
     //  Zero indicates the peer has closed the connection.
-    private int read(ByteBuffer buf)
+    protected int read(ByteBuffer buf)
     {
         int nbytes;
         try {
@@ -0,0 +1,68 @@
+package zmq.io;
+
+//  Token bucket limiting the rate of a flow, in units per second.
+//
+//  The tokens are refilled continuously, up to a burst of 100 milliseconds of traffic.
+//  A flow may take more tokens than available, as the amount of data read or written at once
+//  is only known afterwards: the bucket is then in debt, and the flow is limited until
+//  the debt is paid back, so that the mean rate is kept.
+final class TokenBucket
+{
+    private static final long NS_PER_SECOND = 1000000000L;
+
+    //  Duration of the traffic that may be sent in a burst, in milliseconds.
+    private static final int BURST_MS = 100;
+
+    //  Number of tokens refilled per second.
+    private final double rate;
+
+    //  Maximum number of tokens in the bucket.
+    private final double capacity;
+
+    private double tokens;
+
+    //  Time of the last refill, in nanoseconds.
+    private long last;
+
+    TokenBucket(int rate, long now)
+    {
+        assert (rate > 0);
+        this.rate = rate;
+        this.capacity = Math.max(1, (double) rate * BURST_MS / 1000);
+        this.tokens = capacity;
+        this.last = now;
+    }
+
+    //  Takes the given number of tokens, possibly more than available.
+    void consume(long amount, long now)
+    {
+        refill(now);
+        tokens -= amount;
+    }
+
+    //  Returns the delay in milliseconds before the flow can take tokens again.
+    long delay(long now)
+    {
+        refill(now);
+        if (tokens > 0) {
+            return 0;
+        }
+        return (long) (-tokens * 1000 / rate) + 1;
+    }
+
+    private void refill(long now)
+    {
+        long elapsed = now - last;
+        if (elapsed <= 0) {
+            return;
+        }
+        last = now;
+        tokens = Math.min(capacity, tokens + elapsed * rate / NS_PER_SECOND);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TokenBucket [rate=" + rate + ", tokens=" + tokens + "]";
+    }
+}
@@ -0,0 +1,366 @@
+package zmq.io;
+
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.PortUnreachableException;
+import java.net.SocketException;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Enumeration;
+
+import zmq.Msg;
+import zmq.Options;
+import zmq.SocketBase;
+import zmq.ZError;
+import zmq.io.net.Address;
+import zmq.io.net.udp.UdpAddress;
+import zmq.poll.IPollEvents;
+import zmq.poll.Poller;
+
+//  Engine exchanging the messages of RADIO and DISH sockets as UDP datagrams.
+//
+//  Each message is sent as one datagram, made of the size of the group on one byte,
+//  the group and the body. Datagrams are lost when the receiver cannot keep up,
+//  as there is no flow control between the peers.
+public class UdpEngine implements IEngine, IPollEvents
+{
+    //  Maximum size of a datagram, larger messages are dropped.
+    public static final int MAX_UDP_MSG = 8192;
+
+    private final Options    options;
+    private final UdpAddress address;
+    private final String     endpoint;
+
+    //  True for a RADIO, sending the messages to the address.
+    private final boolean send;
+    //  True for a DISH, receiving the messages sent to the address.
+    private final boolean recv;
+
+    private final ByteBuffer outBuffer;
+    private final ByteBuffer inBuffer;
+
+    private DatagramChannel fd;
+    private Poller.Handle   handle;
+    private IOObject        ioObject;
+    private SessionBase     session;
+    private SocketBase      socket;
+    private boolean         plugged;
+
+    //  True if a datagram could not be sent and is waiting in the output buffer.
+    private boolean pendingOut;
+
+    public UdpEngine(Options options, Address addr, boolean send, boolean recv)
+    {
+        assert (send != recv);
+        assert (addr.resolved() instanceof UdpAddress);
+        this.options = options;
+        this.address = (UdpAddress) addr.resolved();
+        this.endpoint = addr.toString();
+        this.send = send;
+        this.recv = recv;
+        this.outBuffer = ByteBuffer.allocate(MAX_UDP_MSG);
+        this.inBuffer = ByteBuffer.allocate(MAX_UDP_MSG);
+    }
+
+    @Override
+    public void plug(IOThread ioThread, SessionBase session)
+    {
+        assert (!plugged);
+        plugged = true;
+
+        //  Connect to session object.
+        assert (this.session == null);
+        assert (session != null);
+        this.session = session;
+        socket = session.getSocket();
+
+        //  Connect to I/O threads poller object.
+        ioObject = new IOObject(ioThread, this);
+        ioObject.plug();
+
+        try {
+            fd = open();
+        }
+        catch (IOException e) {
+            //  There is no connection to retry, the engine stays idle.
+            socket.eventBindFailed(endpoint, ZError.exccode(e));
+            return;
+        }
+        handle = ioObject.addFd(fd);
+        if (send) {
+            ioObject.setPollOut(handle);
+        }
+        else {
+            ioObject.setPollIn(handle);
+            socket.eventListening(endpoint, fd);
+            //  Discard the subscriptions sent before the engine was attached.
+            restartOutput();
+        }
+    }
+
+    private DatagramChannel open() throws IOException
+    {
+        InetSocketAddress target = (InetSocketAddress) address.address();
+        DatagramChannel channel = DatagramChannel.open(
+                target.getAddress() instanceof Inet6Address ? StandardProtocolFamily.INET6
+                        : StandardProtocolFamily.INET);
+        try {
+            channel.configureBlocking(false);
+            if (recv) {
+                if (options.rcvbuf != 0) {
+                    channel.setOption(StandardSocketOptions.SO_RCVBUF, options.rcvbuf);
+                }
+                if (address.isMulticast()) {
+                    //  Several receivers of the same host can join the group.
+                    channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+                    channel.bind(new InetSocketAddress(target.getPort()));
+                    channel.join(target.getAddress(), multicastInterface());
+                }
+                else {
+                    channel.bind(target);
+                }
+            }
+            else {
+                if (options.sndbuf != 0) {
+                    channel.setOption(StandardSocketOptions.SO_SNDBUF, options.sndbuf);
+                }
+                if (address.isMulticast()) {
+                    channel.setOption(StandardSocketOptions.IP_MULTICAST_TTL, options.multicastHops);
+                    //  Receivers of the same host get the datagrams as well.
+                    channel.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+                    if (address.networkInterface() != null) {
+                        channel.setOption(StandardSocketOptions.IP_MULTICAST_IF, address.networkInterface());
+                    }
+                }
+            }
+            return channel;
+        }
+        catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    //  Returns the interface of the address, or the first one able to receive multicast.
+    private NetworkInterface multicastInterface() throws SocketException
+    {
+        if (address.networkInterface() != null) {
+            return address.networkInterface();
+        }
+        NetworkInterface loopback = null;
+        Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+        while (interfaces.hasMoreElements()) {
+            NetworkInterface net = interfaces.nextElement();
+            if (!net.isUp()) {
+                continue;
+            }
+            if (net.isLoopback()) {
+                loopback = net;
+            }
+            else if (net.supportsMulticast()) {
+                return net;
+            }
+        }
+        if (loopback == null) {
+            throw new SocketException("No interface for multicast");
+        }
+        return loopback;
+    }
+
+    private void unplug()
+    {
+        assert (plugged);
+        plugged = false;
+
+        if (handle != null) {
+            //  Cancel all fd subscriptions.
+            ioObject.removeHandle(handle);
+            handle = null;
+        }
+
+        //  Disconnect from I/O threads poller object.
+        ioObject.unplug();
+
+        session = null;
+    }
+
+    //  Reports the failure of the socket to the session, that opens a new one
+    //  after the reconnection interval.
+    private void error()
+    {
+        assert (session != null);
+        socket.eventDisconnected(endpoint, fd);
+        session.engineError(StreamEngine.ErrorReason.CONNECTION);
+        unplug();
+        try {
+            fd.close();
+        }
+        catch (IOException e) {
+            //  The socket is dropped anyway.
+        }
+        fd = null;
+    }
+
+    @Override
+    public void terminate()
+    {
+        unplug();
+        if (fd != null) {
+            try {
+                fd.close();
+                socket.eventClosed(endpoint, fd);
+            }
+            catch (IOException e) {
+                socket.eventCloseFailed(endpoint, ZError.exccode(e));
+            }
+            fd = null;
+        }
+    }
+
+    @Override
+    public void restartInput()
+    {
+        if (recv && handle != null) {
+            ioObject.setPollIn(handle);
+            inEvent();
+        }
+    }
+
+    @Override
+    public void restartOutput()
+    {
+        if (send) {
+            if (handle != null) {
+                ioObject.setPollOut(handle);
+                outEvent();
+            }
+        }
+        else {
+            //  A receiver does not forward the subscriptions, they are filtered locally.
+            while (session.pullMsg() != null) {
+                //  discard
+            }
+        }
+    }
+
+    @Override
+    public void zapMsgAvailable()
+    {
+        //  No security mechanism is applied to the datagrams.
+    }
+
+    @Override
+    public String getEndPoint()
+    {
+        return endpoint;
+    }
+
+    @Override
+    public void outEvent()
+    {
+        while (true) {
+            if (!pendingOut) {
+                Msg group = session.pullMsg();
+                if (group == null) {
+                    ioObject.resetPollOut(handle);
+                    return;
+                }
+                Msg body = session.pullMsg();
+                assert (body != null);
+                if (!encode(group, body)) {
+                    //  Too large to fit in one datagram.
+                    continue;
+                }
+            }
+            try {
+                pendingOut = fd.send(outBuffer, address.address()) == 0;
+            }
+            catch (IOException e) {
+                //  The datagram is lost, as if the network had dropped it.
+                pendingOut = false;
+            }
+            if (pendingOut) {
+                //  The socket buffer is full, wait for it to be writable again.
+                return;
+            }
+        }
+    }
+
+    //  Fills the output buffer with the datagram of the message.
+    private boolean encode(Msg group, Msg body)
+    {
+        int size = 1 + group.size() + body.size();
+        if (group.size() > Msg.MAX_GROUP_LENGTH || size > MAX_UDP_MSG) {
+            return false;
+        }
+        outBuffer.clear();
+        outBuffer.put((byte) group.size());
+        outBuffer.put(group.buf());
+        outBuffer.put(body.buf());
+        outBuffer.flip();
+        return true;
+    }
+
+    @Override
+    public void inEvent()
+    {
+        while (true) {
+            inBuffer.clear();
+            try {
+                if (fd.receive(inBuffer) == null) {
+                    break;
+                }
+            }
+            catch (PortUnreachableException e) {
+                //  The error reported for a previous datagram, the next ones are received on next poll.
+                break;
+            }
+            catch (IOException e) {
+                //  The socket cannot receive anymore, retrying would spin the I/O thread.
+                error();
+                return;
+            }
+            inBuffer.flip();
+            if (!inBuffer.hasRemaining()) {
+                continue;
+            }
+            int groupSize = inBuffer.get() & 0xff;
+            if (inBuffer.remaining() < groupSize) {
+                //  Malformed datagram.
+                continue;
+            }
+            Msg group = new Msg(groupSize);
+            group.put(inBuffer.array(), inBuffer.position(), groupSize);
+            group.setFlags(Msg.MORE);
+            inBuffer.position(inBuffer.position() + groupSize);
+
+            boolean rc = session.pushMsg(group);
+            if (!rc) {
+                //  Malformed datagram.
+                session.reset();
+                continue;
+            }
+            Msg body = new Msg(inBuffer.remaining());
+            body.put(inBuffer);
+            rc = session.pushMsg(body);
+            if (!rc) {
+                //  The pipe is full, the datagram is dropped and the next ones
+                //  are left in the socket buffer until the pipe has room again.
+                session.reset();
+                ioObject.resetPollIn(handle);
+                break;
+            }
+        }
+        session.flush();
+    }
+
+    @Override
+    public String toString()
+    {
+        return getClass().getSimpleName() + "[" + endpoint + "]";
+    }
+}
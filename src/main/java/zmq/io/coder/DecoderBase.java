@@ -27,7 +27,7 @@ public abstract class DecoderBase implements IDecoder
     //  How much data to read before taking next step.
     private int toRead;
 
-    //  The buffer for data to decode.
+    //  The buffer for data to decode, allocated on first use unless provided.
     private int bufsize;
 
     private ByteBuffer buf;
@@ -43,7 +43,7 @@ public abstract class DecoderBase implements IDecoder
         toRead = 0;
         this.bufsize = bufsize;
         assert (bufsize > 0);
-        buf = ByteBuffer.allocateDirect(bufsize);
+        buf = null;
         this.errno = errno;
     }
 
@@ -65,11 +65,32 @@ public abstract class DecoderBase implements IDecoder
         }
         else {
             zeroCopy = false;
+            if (buf == null) {
+                buf = ByteBuffer.allocateDirect(bufsize);
+            }
             buf.clear();
             return buf;
         }
     }
 
+    //  Returns the size of the buffer for data to decode.
+    public final int bufferSize()
+    {
+        return bufsize;
+    }
+
+    //  Replaces the buffer for data to decode, returning the previous one, null if not allocated.
+    //  A null buffer is allocated again on next use. The buffer shall hold no data left to decode.
+    public final ByteBuffer replaceBuffer(ByteBuffer buffer)
+    {
+        ByteBuffer previous = buf;
+        buf = buffer;
+        if (buffer != null) {
+            bufsize = buffer.capacity();
+        }
+        return previous;
+    }
+
     //  Processes the data in the buffer previously allocated using
     //  get_buffer function. size_ argument specifies number of bytes
     //  actually filled into the buffer. Function returns number of
@@ -21,10 +21,10 @@ public abstract class EncoderBase implements IEncoder
     //  How much data to write before next step should be executed.
     private int toWrite;
 
-    //  The buffer for encoded data.
-    private final ByteBuffer buffer;
+    //  The buffer for encoded data, allocated on first use unless provided.
+    private ByteBuffer buffer;
 
-    private final int bufferSize;
+    private int bufferSize;
 
     private boolean error;
 
@@ -36,7 +36,7 @@ public abstract class EncoderBase implements IEncoder
     {
         this.errno = errno;
         this.bufferSize = bufferSize;
-        buffer = ByteBuffer.allocateDirect(bufferSize);
+        buffer = null;
         error = false;
     }
 
@@ -58,6 +58,9 @@ public abstract class EncoderBase implements IEncoder
         int bufferSize = size;
         ByteBuffer buf = data.get();
         if (buf == null) {
+            if (buffer == null) {
+                buffer = ByteBuffer.allocateDirect(this.bufferSize);
+            }
             buf = this.buffer;
             bufferSize = this.bufferSize;
             buffer.clear();
@@ -121,7 +124,27 @@ public abstract class EncoderBase implements IEncoder
     @Override
     public void encoded()
     {
-        buffer.flip();
+        if (buffer != null) {
+            buffer.flip();
+        }
+    }
+
+    //  Returns the size of the buffer for encoded data.
+    public final int bufferSize()
+    {
+        return bufferSize;
+    }
+
+    //  Replaces the buffer for encoded data, returning the previous one, null if not allocated.
+    //  A null buffer is allocated again on next use. The buffer shall hold no data left to write.
+    public final ByteBuffer replaceBuffer(ByteBuffer buffer)
+    {
+        ByteBuffer previous = this.buffer;
+        this.buffer = buffer;
+        if (buffer != null) {
+            bufferSize = buffer.capacity();
+        }
+        return previous;
     }
 
     protected void encodingError()
@@ -10,9 +10,11 @@ import zmq.io.IOThread;
 import zmq.io.net.Address.IZAddress;
 import zmq.io.net.ipc.IpcAddress;
 import zmq.io.net.ipc.IpcListener;
+import zmq.io.net.shm.ShmListener;
 import zmq.io.net.tcp.TcpAddress;
 import zmq.io.net.tcp.TcpListener;
 import zmq.io.net.tipc.TipcListener;
+import zmq.io.net.udp.UdpAddress;
 import zmq.socket.Sockets;
 
 public enum NetProtocol
@@ -39,6 +41,29 @@ public enum NetProtocol
             return new IpcAddress(addr);
         }
 
+    },
+    //  Shared memory between processes of the same host, with an ipc connection as doorbell.
+    shm(ShmListener.isSupported(), false, false)
+    {
+        @Override
+        public Listener getListener(IOThread ioThread, SocketBase socket,
+                                    Options options)
+        {
+            return new ShmListener(ioThread, socket, options);
+        }
+
+        @Override
+        public void resolve(Address paddr, boolean ipv6)
+        {
+            paddr.resolve(ipv6);
+        }
+
+        @Override
+        public IZAddress zresolve(String addr, boolean ipv6)
+        {
+            return new IpcAddress(addr, this);
+        }
+
     },
     tcp(true, false, false)
     {
@@ -82,7 +107,23 @@ public enum NetProtocol
         }
 
     },
-    norm(false, true, true);
+    norm(false, true, true),
+    //  Datagrams do not support subscription forwarding either, groups are filtered by the DISH.
+    udp(true, true, true, Sockets.RADIO, Sockets.DISH)
+    {
+        @Override
+        public void resolve(Address paddr, boolean ipv6)
+        {
+            paddr.resolve(ipv6);
+        }
+
+        @Override
+        public IZAddress zresolve(String addr, boolean ipv6)
+        {
+            return new UdpAddress(addr, ipv6);
+        }
+
+    };
 
     public final boolean  valid;
     public final boolean  subscribe2all;
@@ -1,5 +1,7 @@
 package zmq.io.net.ipc;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.Inet4Address;
 import java.net.Inet6Address;
 import java.net.InetAddress;
@@ -11,6 +13,7 @@ import java.util.Enumeration;
 
 import zmq.ZMQ;
 import zmq.io.net.Address;
+import zmq.io.net.NetProtocol;
 import zmq.io.net.ProtocolFamily;
 import zmq.io.net.StandardProtocolFamily;
 import zmq.io.net.tcp.TcpAddress;
@@ -31,20 +34,36 @@ public class IpcAddress implements Address.IZAddress
         }
     }
 
-    private String                  name;
-    private final InetSocketAddress address;
-    private final SocketAddress     sourceAddress;
+    private String              name;
+    private final SocketAddress address;
+    private final SocketAddress sourceAddress;
+    private final boolean       unixDomain;
+    private final NetProtocol   protocol;
 
     public IpcAddress(String addr)
     {
+        this(addr, NetProtocol.ipc);
+    }
+
+    //  Address of a transport relying on ipc for its connections, shm for instance.
+    public IpcAddress(String addr, NetProtocol protocol)
+    {
+        this.protocol = protocol;
         String[] strings = addr.split(";");
 
-        address = resolve(strings[0], ZMQ.PREFER_IPV6, true);
-        if (strings.length == 2 && !"".equals(strings[1])) {
-            sourceAddress = resolve(strings[1], ZMQ.PREFER_IPV6, true);
+        unixDomain = IpcUtils.isUnixDomainEnabled();
+        if (unixDomain) {
+            address = resolveUnixDomain(strings[0]);
+            sourceAddress = null;
         }
         else {
-            sourceAddress = null;
+            address = resolve(strings[0], ZMQ.PREFER_IPV6, true);
+            if (strings.length == 2 && !"".equals(strings[1])) {
+                sourceAddress = resolve(strings[1], ZMQ.PREFER_IPV6, true);
+            }
+            else {
+                sourceAddress = null;
+            }
         }
     }
 
@@ -55,7 +74,7 @@ public class IpcAddress implements Address.IZAddress
             return "";
         }
 
-        return "ipc://" + name;
+        return protocol.name() + "://" + name;
     }
 
     @Override
@@ -63,7 +82,7 @@ public class IpcAddress implements Address.IZAddress
     {
         if ("*".equals(name)) {
             String suffix = Utils.unhash(port - 10000);
-            return "ipc://" + suffix;
+            return protocol.name() + "://" + suffix;
         }
         return toString();
     }
@@ -88,16 +107,41 @@ public class IpcAddress implements Address.IZAddress
         return new InetSocketAddress(findAddress(ipv6, loopback), hash);
     }
 
+    //  The name is the path of the socket file, a wildcard being replaced by a temporary file.
+    private SocketAddress resolveUnixDomain(String name)
+    {
+        if ("*".equals(name)) {
+            try {
+                File file = File.createTempFile("zmq-", ".ipc");
+                // only the name is needed, the file is created when binding
+                file.delete();
+                name = file.getAbsolutePath();
+            }
+            catch (IOException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+        this.name = name;
+        return IpcUtils.unixDomainAddress(name);
+    }
+
     @Override
     public SocketAddress address()
     {
         return address;
     }
 
+    //  Returns true if the address is a native Unix domain socket one,
+    //  false if it is emulated over loopback TCP.
+    public boolean isUnixDomain()
+    {
+        return unixDomain;
+    }
+
     @Override
     public ProtocolFamily family()
     {
-        return StandardProtocolFamily.INET;
+        return unixDomain ? StandardProtocolFamily.UNIX : StandardProtocolFamily.INET;
     }
 
     @Override
@@ -1,5 +1,8 @@
 package zmq.io.net.ipc;
 
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+
 import zmq.Options;
 import zmq.io.IOThread;
 import zmq.io.SessionBase;
@@ -12,4 +15,22 @@ public class IpcConnecter extends TcpConnecter
     {
         super(ioThread, session, options, addr, wait);
     }
+
+    @Override
+    protected SocketChannel open(Address.IZAddress resolved) throws IOException
+    {
+        if (IpcUtils.isUnixDomain(resolved.address())) {
+            return IpcUtils.openSocketChannel();
+        }
+        return super.open(resolved);
+    }
+
+    @Override
+    protected void tuneConnected(SocketChannel channel) throws IOException
+    {
+        //  TCP options do not apply to Unix domain sockets.
+        if (!IpcUtils.isUnixDomain(channel.getRemoteAddress())) {
+            super.tuneConnected(channel);
+        }
+    }
 }
@@ -1,28 +1,42 @@
 package zmq.io.net.ipc;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 
 import zmq.Options;
 import zmq.SocketBase;
 import zmq.io.IOThread;
+import zmq.io.net.Address.IZAddress;
+import zmq.io.net.NetProtocol;
 import zmq.io.net.tcp.TcpListener;
 
-// fake Unix domain socket
+// Unix domain socket when available, emulated over loopback TCP otherwise
 public class IpcListener extends TcpListener
 {
     private IpcAddress address;
 
+    private final NetProtocol protocol;
+
     public IpcListener(IOThread ioThread, SocketBase socket, final Options options)
     {
-        super(ioThread, socket, options);
+        this(ioThread, socket, options, NetProtocol.ipc);
+    }
 
+    //  Listener of a transport relying on ipc for its connections, shm for instance.
+    protected IpcListener(IOThread ioThread, SocketBase socket, final Options options, NetProtocol protocol)
+    {
+        super(ioThread, socket, options);
+        this.protocol = protocol;
     }
 
     // Get the bound address for use with wildcards
     @Override
     public String getAddress()
     {
-        if (((InetSocketAddress) address.address()).getPort() == 0) {
+        if (!address.isUnixDomain() && ((InetSocketAddress) address.address()).getPort() == 0) {
             return address(address);
         }
         return address.toString();
@@ -32,9 +46,57 @@ public class IpcListener extends TcpListener
     @Override
     public boolean setAddress(String addr)
     {
-        address = new IpcAddress(addr);
+        address = new IpcAddress(addr, protocol);
 
+        if (address.isUnixDomain()) {
+            return super.setAddress(address);
+        }
         InetSocketAddress sock = (InetSocketAddress) address.address();
         return super.setAddress(sock);
     }
+
+    @Override
+    protected void processTerm(int linger)
+    {
+        super.processTerm(linger);
+        if (address.isUnixDomain()) {
+            //  Get rid of the file associated with the socket.
+            new File(IpcUtils.path(address.address())).delete();
+        }
+    }
+
+    @Override
+    protected ServerSocketChannel open(IZAddress address) throws IOException
+    {
+        if (this.address.isUnixDomain()) {
+            return IpcUtils.openServerSocketChannel();
+        }
+        return super.open(address);
+    }
+
+    @Override
+    protected void bind(ServerSocketChannel fd, IZAddress address) throws IOException
+    {
+        if (this.address.isUnixDomain()) {
+            File file = new File(IpcUtils.path(address.address()));
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
+            }
+            //  Get rid of the file that may have been left behind by a previous run of the application.
+            file.delete();
+            fd.bind(address.address(), options.backlog);
+            return;
+        }
+        super.bind(fd, address);
+    }
+
+    @Override
+    protected void tuneAccepted(SocketChannel channel) throws IOException
+    {
+        //  TCP options do not apply to Unix domain sockets.
+        if (!address.isUnixDomain()) {
+            super.tuneAccepted(channel);
+        }
+    }
 }
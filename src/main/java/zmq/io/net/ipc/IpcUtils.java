@@ -0,0 +1,141 @@
+package zmq.io.net.ipc;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.SocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import zmq.io.net.Address;
+import zmq.io.net.NetProtocol;
+
+// Access to native Unix domain sockets, available as of Java 16.
+// They are looked up by reflection, so that ipc:// keeps being emulated over
+// loopback TCP on older JVMs or when the system property zmq.ipc.emulated is true.
+public final class IpcUtils
+{
+    private static final Class<?>               UNIX_ADDRESS;
+    private static final Method                 ADDRESS_OF;
+    private static final Method                 ADDRESS_PATH;
+    private static final Method                 OPEN_SERVER;
+    private static final Method                 OPEN_CHANNEL;
+    private static final java.net.ProtocolFamily UNIX;
+
+    private static final boolean ENABLED;
+
+    static {
+        Class<?> unixAddress = null;
+        Method addressOf = null;
+        Method addressPath = null;
+        Method openServer = null;
+        Method openChannel = null;
+        java.net.ProtocolFamily unix = null;
+        try {
+            unixAddress = Class.forName("java.net.UnixDomainSocketAddress");
+            addressOf = unixAddress.getMethod("of", String.class);
+            addressPath = unixAddress.getMethod("getPath");
+            openServer = ServerSocketChannel.class.getMethod("open", java.net.ProtocolFamily.class);
+            openChannel = SocketChannel.class.getMethod("open", java.net.ProtocolFamily.class);
+            unix = Enum.valueOf(java.net.StandardProtocolFamily.class, "UNIX");
+        }
+        catch (ClassNotFoundException | NoSuchMethodException | IllegalArgumentException e) {
+            unixAddress = null;
+        }
+        UNIX_ADDRESS = unixAddress;
+        ADDRESS_OF = addressOf;
+        ADDRESS_PATH = addressPath;
+        OPEN_SERVER = openServer;
+        OPEN_CHANNEL = openChannel;
+        UNIX = unix;
+
+        ENABLED = UNIX_ADDRESS != null && !Boolean.getBoolean("zmq.ipc.emulated");
+    }
+
+    private IpcUtils()
+    {
+    }
+
+    //  Returns true if ipc:// is implemented with native Unix domain sockets.
+    public static boolean isUnixDomainEnabled()
+    {
+        return ENABLED;
+    }
+
+    public static boolean isUnixDomain(SocketAddress address)
+    {
+        return UNIX_ADDRESS != null && UNIX_ADDRESS.isInstance(address);
+    }
+
+    //  Returns the address of the peer of a Unix domain socket,
+    //  or null if the channel is not a Unix domain socket.
+    public static Address getPeerAddress(SocketChannel channel)
+    {
+        if (!ENABLED) {
+            return null;
+        }
+        try {
+            if (!isUnixDomain(channel.getLocalAddress())) {
+                return null;
+            }
+            SocketAddress remote = channel.getRemoteAddress();
+            return new Address(NetProtocol.ipc, remote == null ? "" : path(remote));
+        }
+        catch (IOException e) {
+            return null;
+        }
+    }
+
+    static SocketAddress unixDomainAddress(String path)
+    {
+        assert (UNIX_ADDRESS != null);
+        try {
+            return (SocketAddress) ADDRESS_OF.invoke(null, path);
+        }
+        catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        catch (InvocationTargetException e) {
+            throw new IllegalArgumentException(e.getCause());
+        }
+    }
+
+    public static String path(SocketAddress address)
+    {
+        assert (isUnixDomain(address));
+        try {
+            return ADDRESS_PATH.invoke(address).toString();
+        }
+        catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static ServerSocketChannel openServerSocketChannel() throws IOException
+    {
+        return (ServerSocketChannel) open(OPEN_SERVER);
+    }
+
+    static SocketChannel openSocketChannel() throws IOException
+    {
+        return (SocketChannel) open(OPEN_CHANNEL);
+    }
+
+    private static Object open(Method method) throws IOException
+    {
+        assert (UNIX != null);
+        try {
+            return method.invoke(null, UNIX);
+        }
+        catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package zmq.io.net.shm;
+
+import java.nio.channels.SocketChannel;
+
+import zmq.Options;
+import zmq.io.IOThread;
+import zmq.io.SessionBase;
+import zmq.io.StreamEngine;
+import zmq.io.net.Address;
+import zmq.io.net.ipc.IpcConnecter;
+
+//  Connects to a shared memory listener, that creates the rings of the connection.
+public class ShmConnecter extends IpcConnecter
+{
+    public ShmConnecter(IOThread ioThread, SessionBase session, final Options options, final Address addr,
+            boolean wait)
+    {
+        super(ioThread, session, options, addr, wait);
+    }
+
+    @Override
+    protected StreamEngine createEngine(SocketChannel channel, String endpoint)
+    {
+        return new ShmEngine(channel, options, endpoint);
+    }
+}
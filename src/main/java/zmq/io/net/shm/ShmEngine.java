@@ -0,0 +1,321 @@
+package zmq.io.net.shm;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import zmq.Options;
+import zmq.ZError;
+import zmq.ZMQ;
+import zmq.io.StreamEngine;
+
+//  Stream engine exchanging the ZMTP stream through a pair of shared memory rings,
+//  one per direction. The socket of the connection is only used as a doorbell,
+//  to wake up a side sleeping on an empty or full ring.
+//
+//  The accepting side creates the rings in a directory only accessible to its user,
+//  and sends their location over the socket before anything else. The connecting side
+//  maps them when it receives it, and rings the doorbell once mapped, after which
+//  the accepting side removes their files. The accepting side never opens a file
+//  named by the peer.
+public class ShmEngine extends StreamEngine
+{
+    //  Suffix of the file of the ring from the connecting side to the accepting side.
+    static final String CONNECTER_RING = ".0";
+    //  Suffix of the file of the ring from the accepting side to the connecting side.
+    static final String LISTENER_RING  = ".1";
+
+    //  Maximum number of rounds of input processed in one event, before giving the I/O thread back.
+    private static final int MAX_ROUNDS = 16;
+
+    //  Socket of the connection used as a doorbell.
+    private final SocketChannel doorbell;
+
+    private final ByteBuffer bell;
+    private final ByteBuffer drain;
+
+    //  Location of the rings, while receiving it on the connecting side.
+    private ByteBuffer setup;
+
+    private ShmRing in;
+    private ShmRing out;
+
+    //  Files of the rings created by the accepting side, removed once the peer mapped them.
+    private File[] files;
+
+    //  Number of polls of a ring before sleeping on the doorbell.
+    private final int spin;
+
+    //  True if the output waits for the doorbell to write again.
+    private boolean outputBlocked;
+
+    //  True if the peer closed the connection.
+    private boolean peerClosed;
+
+    //  Engine of the connecting side, waiting for the location of the rings.
+    ShmEngine(SocketChannel fd, Options options, String endpoint)
+    {
+        super(fd, options, endpoint);
+        this.doorbell = fd;
+        this.spin = options.shmSpin;
+        this.bell = ByteBuffer.allocate(1);
+        this.drain = ByteBuffer.allocate(64);
+        this.setup = ByteBuffer.allocate(4);
+    }
+
+    //  Engine of the accepting side, that created the rings.
+    ShmEngine(SocketChannel fd, Options options, String endpoint, ShmRing in, ShmRing out, File... files)
+    {
+        super(fd, options, endpoint);
+        this.doorbell = fd;
+        this.spin = options.shmSpin;
+        this.bell = ByteBuffer.allocate(1);
+        this.drain = ByteBuffer.allocate(64);
+        this.in = in;
+        this.out = out;
+        this.files = files;
+    }
+
+    //  Sends the location of the rings to the connecting side.
+    static void sendSetup(SocketChannel fd, String base) throws IOException
+    {
+        byte[] path = base.getBytes(ZMQ.CHARSET);
+        ByteBuffer buf = ByteBuffer.allocate(4 + path.length);
+        buf.putInt(path.length).put(path).flip();
+        //  The socket has just been connected, its buffer is empty.
+        while (buf.hasRemaining()) {
+            if (fd.write(buf) < 0) {
+                throw new IOException("Unable to send the location of the rings");
+            }
+        }
+    }
+
+    @Override
+    public void destroy()
+    {
+        super.destroy();
+        deleteFiles();
+        if (in != null) {
+            in.close();
+            in = null;
+        }
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    @Override
+    public void inEvent()
+    {
+        ringing();
+        if (outputBlocked && out != null) {
+            //  The peer may have consumed bytes of a full ring.
+            outputBlocked = false;
+            setPollOut();
+        }
+
+        //  No doorbell will come until the ring has been found empty,
+        //  so the input is processed as long as it progresses.
+        long consumed;
+        int rounds = 0;
+        do {
+            if (rounds++ == MAX_ROUNDS) {
+                //  Let the other objects of the I/O thread proceed before resuming.
+                resumeInput();
+                return;
+            }
+            consumed = in == null ? 0 : in.consumed();
+            super.inEvent();
+        } while (!isInputStopped() && in != null && in.consumed() != consumed);
+    }
+
+    @Override
+    protected int read(ByteBuffer buf)
+    {
+        if (in == null) {
+            //  Still waiting for the location of the rings.
+            if (peerClosed) {
+                errno.set(ZError.ENOTCONN);
+                return -1;
+            }
+            errno.set(ZError.EAGAIN);
+            return -1;
+        }
+        int nbytes = in.read(buf);
+        for (int idx = 0; nbytes == 0 && idx < spin; ++idx) {
+            nbytes = in.read(buf);
+        }
+        if (nbytes == 0) {
+            if (peerClosed) {
+                errno.set(ZError.ENOTCONN);
+                return -1;
+            }
+            if (in.awaitData()) {
+                errno.set(ZError.EAGAIN);
+                return -1;
+            }
+            nbytes = in.read(buf);
+        }
+        if (in.wakeProducer()) {
+            ring();
+        }
+        return nbytes;
+    }
+
+    @Override
+    protected int write(ByteBuffer buf)
+    {
+        if (peerClosed) {
+            errno.set(ZError.ENOTCONN);
+            return -1;
+        }
+        if (out == null) {
+            //  Still waiting for the location of the rings.
+            block();
+            return 0;
+        }
+        int nbytes = out.write(buf);
+        for (int idx = 0; nbytes == 0 && idx < spin; ++idx) {
+            nbytes = out.write(buf);
+        }
+        if (nbytes == 0) {
+            if (out.awaitSpace()) {
+                block();
+                return 0;
+            }
+            nbytes = out.write(buf);
+        }
+        if (out.wakeConsumer()) {
+            ring();
+        }
+        return nbytes;
+    }
+
+    @Override
+    protected long write(ByteBuffer[] bufs, int offset, int length)
+    {
+        //  The buffers are copied into the ring one after the other.
+        long written = 0;
+        for (int idx = offset; idx < offset + length; ++idx) {
+            if (!bufs[idx].hasRemaining()) {
+                continue;
+            }
+            int remaining = bufs[idx].remaining();
+            int nbytes = write(bufs[idx]);
+            if (nbytes < 0) {
+                return written == 0 ? -1 : written;
+            }
+            written += nbytes;
+            if (nbytes < remaining) {
+                break;
+            }
+        }
+        if (written == 0) {
+            errno.set(ZError.EAGAIN);
+        }
+        return written;
+    }
+
+    //  Stops polling for output until the doorbell rings.
+    private void block()
+    {
+        errno.set(ZError.EAGAIN);
+        //  The doorbell is not listened to while the input is stopped,
+        //  in that case the output keeps being polled.
+        if (!isInputStopped()) {
+            outputBlocked = true;
+            resetPollOut();
+        }
+    }
+
+    //  Wakes up the peer.
+    private void ring()
+    {
+        bell.clear();
+        try {
+            //  If the socket is full, the peer has pending wakeups anyway.
+            doorbell.write(bell);
+        }
+        catch (IOException e) {
+            //  The closure of the connection is detected when reading.
+        }
+    }
+
+    //  Consumes the pending wakeups, and the location of the rings on the connecting side.
+    private void ringing()
+    {
+        try {
+            if (setup != null && !receiveSetup()) {
+                return;
+            }
+            int nbytes;
+            boolean rung = false;
+            do {
+                drain.clear();
+                nbytes = doorbell.read(drain);
+                rung |= nbytes > 0;
+            } while (nbytes > 0);
+            if (nbytes < 0) {
+                peerClosed = true;
+            }
+            //  The peer rings only once it has mapped the rings, their files are not needed anymore.
+            if (rung) {
+                deleteFiles();
+            }
+        }
+        catch (IOException e) {
+            peerClosed = true;
+        }
+    }
+
+    //  Returns true when the location of the rings has been received and the rings mapped.
+    private boolean receiveSetup() throws IOException
+    {
+        if (doorbell.read(setup) < 0) {
+            peerClosed = true;
+            return false;
+        }
+        if (setup.hasRemaining()) {
+            return false;
+        }
+        if (setup.capacity() == 4) {
+            int length = setup.getInt(0);
+            if (length <= 0 || length > 4096) {
+                throw new IOException("Invalid location of the rings");
+            }
+            setup = ByteBuffer.allocate(4 + length);
+            setup.putInt(length);
+            return receiveSetup();
+        }
+        String base = new String(setup.array(), 4, setup.capacity() - 4, ZMQ.CHARSET);
+        setup = null;
+
+        //  The files belong to the accepting side, that removes them.
+        ShmRing ring = ShmRing.open(new File(base + LISTENER_RING));
+        try {
+            out = ShmRing.open(new File(base + CONNECTER_RING));
+        }
+        catch (IOException e) {
+            ring.close();
+            throw e;
+        }
+        in = ring;
+
+        //  Tell the accepting side that the rings are mapped.
+        ring();
+        return true;
+    }
+
+    //  Removes the files of the rings, then their directory.
+    private void deleteFiles()
+    {
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+            files = null;
+        }
+    }
+}
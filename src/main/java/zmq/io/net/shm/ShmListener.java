@@ -0,0 +1,89 @@
+package zmq.io.net.shm;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import zmq.Options;
+import zmq.SocketBase;
+import zmq.ZError;
+import zmq.io.IOThread;
+import zmq.io.StreamEngine;
+import zmq.io.net.NetProtocol;
+import zmq.io.net.ipc.IpcListener;
+
+//  Accepts shared memory connections on an ipc socket, used afterwards as doorbell.
+//  The rings of each connection are created in a directory only accessible to the user.
+public class ShmListener extends IpcListener
+{
+    //  Default size of a ring, for each direction.
+    private static final int RING_SIZE = 1024 * 1024;
+
+    public ShmListener(IOThread ioThread, SocketBase socket, final Options options)
+    {
+        super(ioThread, socket, options, NetProtocol.shm);
+    }
+
+    //  Returns true if shared memory connections are supported by this JVM.
+    public static boolean isSupported()
+    {
+        return ShmRing.isSupported();
+    }
+
+    @Override
+    protected StreamEngine createEngine(SocketChannel channel, String endpoint)
+    {
+        File dir = null;
+        File out = null;
+        File in = null;
+        ShmRing inRing = null;
+        try {
+            dir = createDirectory().toFile();
+            File base = new File(dir, "ring");
+            in = new File(base.getPath() + ShmEngine.CONNECTER_RING);
+            out = new File(base.getPath() + ShmEngine.LISTENER_RING);
+
+            inRing = ShmRing.create(in, Math.max(options.rcvbuf, RING_SIZE));
+            ShmRing outRing = ShmRing.create(out, Math.max(options.sndbuf, RING_SIZE));
+
+            ShmEngine.sendSetup(channel, base.getPath());
+            return new ShmEngine(channel, options, endpoint, inRing, outRing, out, in, dir);
+        }
+        catch (IOException e) {
+            if (inRing != null) {
+                inRing.close();
+            }
+            if (out != null) {
+                out.delete();
+            }
+            if (in != null) {
+                in.delete();
+            }
+            if (dir != null) {
+                dir.delete();
+            }
+            throw new ZError.InstantiationException(e);
+        }
+    }
+
+    private static Path createDirectory() throws IOException
+    {
+        //  Prefer a memory-backed file system when available.
+        Path parent = Paths.get("/dev/shm");
+        if (!Files.isDirectory(parent) || !Files.isWritable(parent)) {
+            parent = Paths.get(System.getProperty("java.io.tmpdir"));
+        }
+        try {
+            return Files.createTempDirectory(parent, "zmq-shm-",
+                                             PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        }
+        catch (UnsupportedOperationException e) {
+            //  Not a POSIX file system, the directory gets the permissions of the temporary files.
+            return Files.createTempDirectory(parent, "zmq-shm-");
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package zmq.io.net.shm;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.StandardOpenOption;
+
+import zmq.util.Utils;
+
+//  Single-producer single-consumer byte ring living in a memory-mapped file,
+//  shared by two processes of the same host.
+//
+//  The producer and the consumer only share their cursors, each of them being
+//  written by one side only. Cursors are accessed with volatile semantics through
+//  var handles, looked up by reflection as they are available as of Java 9 only.
+//
+//  The waiting flags allow each side to tell the other one it is about to sleep,
+//  so that the other side knows when it has to ring the doorbell to wake it up.
+final class ShmRing
+{
+    //  Layout of the header, each field on its own pair of cache lines.
+    private static final int CAPACITY         = 0;
+    private static final int WRITE_CURSOR     = 128;
+    private static final int READ_CURSOR      = 256;
+    private static final int CONSUMER_WAITING = 384;
+    private static final int PRODUCER_WAITING = 512;
+    private static final int HEADER           = 640;
+
+    private static final MethodHandle GET_LONG;
+    private static final MethodHandle SET_LONG;
+    private static final MethodHandle GET_INT;
+    private static final MethodHandle SET_INT;
+    private static final MethodHandle CAS_INT;
+
+    static {
+        MethodHandle getLong = null;
+        MethodHandle setLong = null;
+        MethodHandle getInt = null;
+        MethodHandle setInt = null;
+        MethodHandle casInt = null;
+        try {
+            Class<?> varHandle = Class.forName("java.lang.invoke.VarHandle");
+            Class<?> accessMode = Class.forName("java.lang.invoke.VarHandle$AccessMode");
+            Method view = MethodHandles.class.getMethod("byteBufferViewVarHandle", Class.class, ByteOrder.class);
+            Method toMethodHandle = varHandle.getMethod("toMethodHandle", accessMode);
+
+            Object longs = view.invoke(null, long[].class, ByteOrder.nativeOrder());
+            Object ints = view.invoke(null, int[].class, ByteOrder.nativeOrder());
+
+            getLong = (MethodHandle) toMethodHandle.invoke(longs, accessMode.getField("GET_VOLATILE").get(null));
+            setLong = (MethodHandle) toMethodHandle.invoke(longs, accessMode.getField("SET_VOLATILE").get(null));
+            getInt = (MethodHandle) toMethodHandle.invoke(ints, accessMode.getField("GET_VOLATILE").get(null));
+            setInt = (MethodHandle) toMethodHandle.invoke(ints, accessMode.getField("SET_VOLATILE").get(null));
+            casInt = (MethodHandle) toMethodHandle.invoke(ints, accessMode.getField("COMPARE_AND_SET").get(null));
+        }
+        catch (ClassNotFoundException | NoSuchMethodException | NoSuchFieldException | IllegalAccessException
+                | InvocationTargetException e) {
+            getLong = null;
+        }
+        GET_LONG = getLong;
+        SET_LONG = setLong;
+        GET_INT = getInt;
+        SET_INT = setInt;
+        CAS_INT = casInt;
+    }
+
+    private final MappedByteBuffer mapped;
+    private final ByteBuffer header;
+    private final ByteBuffer data;
+    private final int        capacity;
+    private final int        mask;
+
+    //  Local copy of the cursor owned by this side of the ring.
+    private long cursor;
+
+    private ShmRing(MappedByteBuffer mapped)
+    {
+        mapped.order(ByteOrder.nativeOrder());
+        this.mapped = mapped;
+        this.header = mapped;
+        this.capacity = mapped.getInt(CAPACITY);
+        this.mask = capacity - 1;
+        mapped.position(HEADER);
+        this.data = mapped.slice();
+        mapped.position(0);
+    }
+
+    //  Returns true if shared memory rings can be used in this JVM.
+    static boolean isSupported()
+    {
+        return GET_LONG != null;
+    }
+
+    //  Creates the file of a ring able to hold at least the given number of bytes.
+    static ShmRing create(File file, int size) throws IOException
+    {
+        int capacity = Integer.highestOneBit(Math.max(size, 1024) - 1) << 1;
+        MappedByteBuffer mapped = map(file, HEADER + capacity, true);
+        mapped.order(ByteOrder.nativeOrder());
+        mapped.putInt(CAPACITY, capacity);
+
+        ShmRing ring = new ShmRing(mapped);
+        ring.setLong(WRITE_CURSOR, 0);
+        ring.setLong(READ_CURSOR, 0);
+        return ring;
+    }
+
+    //  Maps the file of a ring created by the peer. Symbolic links are refused.
+    static ShmRing open(File file) throws IOException
+    {
+        if (!Files.isRegularFile(file.toPath(), LinkOption.NOFOLLOW_LINKS) || file.length() <= HEADER) {
+            throw new IOException("Invalid shared memory ring " + file);
+        }
+        MappedByteBuffer mapped = map(file, file.length(), false);
+        ShmRing ring = new ShmRing(mapped);
+        if (ring.capacity <= 0 || Integer.bitCount(ring.capacity) != 1 || HEADER + ring.capacity != file.length()) {
+            ring.close();
+            throw new IOException("Invalid shared memory ring " + file);
+        }
+        return ring;
+    }
+
+    //  Releases the mapping of the ring, that shall not be used anymore.
+    void close()
+    {
+        Utils.unmap(mapped);
+    }
+
+    private static MappedByteBuffer map(File file, long size, boolean create) throws IOException
+    {
+        try (FileChannel channel = create
+                ? FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                                   StandardOpenOption.WRITE)
+                : FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE,
+                                   LinkOption.NOFOLLOW_LINKS)) {
+            //  The mapping stays valid once the channel is closed.
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    int capacity()
+    {
+        return capacity;
+    }
+
+    //  Producer side. Copies as many bytes as possible from the buffer into the ring.
+    //  Returns the number of bytes written, 0 when the ring is full.
+    int write(ByteBuffer src)
+    {
+        long read = getLong(READ_CURSOR);
+        int length = Math.min(capacity - (int) (cursor - read), src.remaining());
+        if (length <= 0) {
+            return 0;
+        }
+        int offset = (int) cursor & mask;
+        int first = Math.min(length, capacity - offset);
+
+        int limit = src.limit();
+        src.limit(src.position() + first);
+        put(offset, src);
+        src.limit(src.position() + length - first);
+        put(0, src);
+        src.limit(limit);
+
+        cursor += length;
+        setLong(WRITE_CURSOR, cursor);
+        return length;
+    }
+
+    //  Consumer side. Copies as many bytes as possible from the ring into the buffer.
+    //  Returns the number of bytes read, 0 when the ring is empty.
+    int read(ByteBuffer dst)
+    {
+        long written = getLong(WRITE_CURSOR);
+        int length = Math.min((int) (written - cursor), dst.remaining());
+        if (length <= 0) {
+            return 0;
+        }
+        int offset = (int) cursor & mask;
+        int first = Math.min(length, capacity - offset);
+
+        get(offset, first, dst);
+        get(0, length - first, dst);
+
+        cursor += length;
+        setLong(READ_CURSOR, cursor);
+        return length;
+    }
+
+    //  Consumer side. Returns the number of bytes consumed so far.
+    long consumed()
+    {
+        return cursor;
+    }
+
+    //  Consumer side. Declares that the consumer is about to sleep until the doorbell rings.
+    //  Returns false if data arrived in the meantime and the consumer shall not sleep.
+    boolean awaitData()
+    {
+        setInt(CONSUMER_WAITING, 1);
+        if (getLong(WRITE_CURSOR) != cursor) {
+            setInt(CONSUMER_WAITING, 0);
+            return false;
+        }
+        return true;
+    }
+
+    //  Producer side. Declares that the producer is about to sleep until the doorbell rings.
+    //  Returns false if space was freed in the meantime and the producer shall not sleep.
+    boolean awaitSpace()
+    {
+        setInt(PRODUCER_WAITING, 1);
+        if (cursor - getLong(READ_CURSOR) < capacity) {
+            setInt(PRODUCER_WAITING, 0);
+            return false;
+        }
+        return true;
+    }
+
+    //  Producer side. Returns true if the consumer was sleeping and has to be woken up.
+    boolean wakeConsumer()
+    {
+        return getInt(CONSUMER_WAITING) != 0 && casInt(CONSUMER_WAITING, 1, 0);
+    }
+
+    //  Consumer side. Returns true if the producer was sleeping and has to be woken up.
+    boolean wakeProducer()
+    {
+        return getInt(PRODUCER_WAITING) != 0 && casInt(PRODUCER_WAITING, 1, 0);
+    }
+
+    //  The data buffer is only used by the side of the ring owned by this process.
+    private void put(int offset, ByteBuffer src)
+    {
+        if (!src.hasRemaining()) {
+            return;
+        }
+        data.limit(capacity).position(offset);
+        data.put(src);
+    }
+
+    private void get(int offset, int length, ByteBuffer dst)
+    {
+        if (length == 0) {
+            return;
+        }
+        data.limit(offset + length).position(offset);
+        dst.put(data);
+    }
+
+    private long getLong(int index)
+    {
+        try {
+            return (long) GET_LONG.invokeExact(header, index);
+        }
+        catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void setLong(int index, long value)
+    {
+        try {
+            SET_LONG.invokeExact(header, index, value);
+        }
+        catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int getInt(int index)
+    {
+        try {
+            return (int) GET_INT.invokeExact(header, index);
+        }
+        catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void setInt(int index, int value)
+    {
+        try {
+            SET_INT.invokeExact(header, index, value);
+        }
+        catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean casInt(int index, int expected, int value)
+    {
+        try {
+            return (boolean) CAS_INT.invokeExact(header, index, expected, value);
+        }
+        catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
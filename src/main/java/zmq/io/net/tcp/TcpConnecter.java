@@ -124,13 +124,7 @@ public class TcpConnecter extends Own implements IPollEvents
         }
 
         try {
-            TcpUtils.tuneTcpSocket(channel);
-            TcpUtils.tuneTcpKeepalives(
-                                       channel,
-                                       options.tcpKeepAlive,
-                                       options.tcpKeepAliveCnt,
-                                       options.tcpKeepAliveIdle,
-                                       options.tcpKeepAliveIntvl);
+            tuneConnected(channel);
         }
         catch (IOException e) {
             throw new ZError.IOException(e);
@@ -142,10 +136,12 @@ public class TcpConnecter extends Own implements IPollEvents
         //  Create the engine object for this connection.
         StreamEngine engine;
         try {
-            engine = new StreamEngine(channel, options, addr.toString());
+            engine = createEngine(channel, addr.toString());
         }
         catch (ZError.InstantiationException e) {
             // TODO V4 socket.eventConnectDelayed(addr.toString(), -1);
+            close();
+            addReconnectTimer();
             return;
         }
 
@@ -260,36 +256,11 @@ public class TcpConnecter extends Own implements IPollEvents
         }
 
         //  Create the socket.
-        if (options.selectorChooser == null) {
-            fd = SocketChannel.open();
-        }
-        else {
-            fd = options.selectorChooser.choose(resolved, options).openSocketChannel();
-        }
-
-        // On some systems, IPv4 mapping in IPv6 sockets is disabled by default.
-        // Switch it on in such cases.
-        // The method enableIpv4Mapping is empty. Still to be written
-        if (resolved.family() == StandardProtocolFamily.INET6) {
-            TcpUtils.enableIpv4Mapping(fd);
-        }
+        fd = open(resolved);
 
         // Set the socket to non-blocking mode so that we get async connect().
         TcpUtils.unblockSocket(fd);
 
-        //  Set the socket buffer limits for the underlying socket.
-        if (options.sndbuf != 0) {
-            TcpUtils.setTcpSendBuffer(fd, options.sndbuf);
-        }
-        if (options.rcvbuf != 0) {
-            TcpUtils.setTcpReceiveBuffer(fd, options.rcvbuf);
-        }
-
-        // Set the IP Type-Of-Service priority for this socket
-        if (options.tos != 0) {
-            TcpUtils.setIpTypeOfService(fd, options.tos);
-        }
-
         // TODO V4 Set a source address for conversations
         if (resolved.sourceAddress() != null) {
             //            SocketChannel bind = channel.bind(resolved.sourceAddress());
@@ -321,6 +292,57 @@ public class TcpConnecter extends Own implements IPollEvents
 
     }
 
+    //  Creates the connecting socket and applies the socket options to it.
+    protected SocketChannel open(Address.IZAddress resolved) throws IOException
+    {
+        SocketChannel channel;
+        if (options.selectorChooser == null) {
+            channel = SocketChannel.open();
+        }
+        else {
+            channel = options.selectorChooser.choose(resolved, options).openSocketChannel();
+        }
+
+        // On some systems, IPv4 mapping in IPv6 sockets is disabled by default.
+        // Switch it on in such cases.
+        // The method enableIpv4Mapping is empty. Still to be written
+        if (resolved.family() == StandardProtocolFamily.INET6) {
+            TcpUtils.enableIpv4Mapping(channel);
+        }
+
+        //  Set the socket buffer limits for the underlying socket.
+        if (options.sndbuf != 0) {
+            TcpUtils.setTcpSendBuffer(channel, options.sndbuf);
+        }
+        if (options.rcvbuf != 0) {
+            TcpUtils.setTcpReceiveBuffer(channel, options.rcvbuf);
+        }
+
+        // Set the IP Type-Of-Service priority for this socket
+        if (options.tos != 0) {
+            TcpUtils.setIpTypeOfService(channel, options.tos);
+        }
+        return channel;
+    }
+
+    //  Applies the socket options to a newly established connection.
+    protected void tuneConnected(SocketChannel channel) throws IOException
+    {
+        TcpUtils.tuneTcpSocket(channel);
+        TcpUtils.tuneTcpKeepalives(
+                                   channel,
+                                   options.tcpKeepAlive,
+                                   options.tcpKeepAliveCnt,
+                                   options.tcpKeepAliveIdle,
+                                   options.tcpKeepAliveIntvl);
+    }
+
+    //  Creates the engine handling a newly established connection.
+    protected StreamEngine createEngine(SocketChannel channel, String endpoint)
+    {
+        return new StreamEngine(channel, options, endpoint);
+    }
+
     //  Get the file descriptor of newly created connection. Returns
     //  null if the connection was unsuccessful.
     private SocketChannel connect()
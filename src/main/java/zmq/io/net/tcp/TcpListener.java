@@ -10,6 +10,7 @@ import zmq.Options;
 import zmq.SocketBase;
 import zmq.ZError;
 import zmq.io.IOObject;
+import zmq.io.ConnectionOptions;
 import zmq.io.IOThread;
 import zmq.io.SessionBase;
 import zmq.io.StreamEngine;
@@ -28,7 +29,7 @@ public class TcpListener extends Listener
     }
 
     //  Address to listen on.
-    private TcpAddress address;
+    private IZAddress address;
 
     //  Underlying socket.
     private ServerSocketChannel fd;
@@ -39,12 +40,16 @@ public class TcpListener extends Listener
 
     private final IOObject ioObject;
 
+    //  Options of the accepted connections.
+    private final ConnectionOptions connectionOptions;
+
     public TcpListener(IOThread ioThread, SocketBase socket, final Options options)
     {
         super(ioThread, socket, options);
 
         ioObject = new IOObject(ioThread, this);
         fd = null;
+        connectionOptions = new ConnectionOptions(options);
     }
 
     @Override
@@ -86,13 +91,7 @@ public class TcpListener extends Listener
                 socket.eventAcceptFailed(endpoint, ZError.EADDRNOTAVAIL);
                 return;
             }
-            TcpUtils.tuneTcpSocket(channel);
-            TcpUtils.tuneTcpKeepalives(
-                                       channel,
-                                       options.tcpKeepAlive,
-                                       options.tcpKeepAliveCnt,
-                                       options.tcpKeepAliveIdle,
-                                       options.tcpKeepAliveIntvl);
+            tuneAccepted(channel);
         }
         catch (IOException e) {
             //  If connection was reset by the peer in the meantime, just ignore it.
@@ -107,7 +106,7 @@ public class TcpListener extends Listener
         //  Create the engine object for this connection.
         StreamEngine engine = null;
         try {
-            engine = new StreamEngine(channel, options, endpoint);
+            engine = createEngine(channel, endpoint);
         }
         catch (ZError.InstantiationException e) {
             socket.eventAcceptFailed(endpoint, ZError.EINVAL);
@@ -122,6 +121,7 @@ public class TcpListener extends Listener
         //  Create and launch a session object.
         SessionBase session = Sockets.createSession(ioThread, false, socket, options, null);
         assert (session != null);
+        session.setConnectionOptions(connectionOptions);
 
         session.incSeqnum();
         launchChild(session);
@@ -129,6 +129,12 @@ public class TcpListener extends Listener
         socket.eventAccepted(endpoint, channel);
     }
 
+    //  Creates the engine handling a newly accepted connection.
+    protected StreamEngine createEngine(SocketChannel channel, String endpoint)
+    {
+        return new StreamEngine(channel, options, endpoint);
+    }
+
     //  Close the listening socket.
     private void close()
     {
@@ -167,7 +173,13 @@ public class TcpListener extends Listener
     protected boolean setAddress(InetSocketAddress addr)
     {
         //  Convert the textual address into address structure.
-        address = new TcpAddress(addr);
+        return setAddress(new TcpAddress(addr));
+    }
+
+    //  Set address to listen on, used by IpcListener for native Unix domain sockets.
+    protected boolean setAddress(IZAddress addr)
+    {
+        address = addr;
         return setAddress();
     }
 
@@ -177,37 +189,11 @@ public class TcpListener extends Listener
 
         //  Create a listening socket.
         try {
-            if (options.selectorChooser == null) {
-                fd = ServerSocketChannel.open();
-            }
-            else {
-                fd = options.selectorChooser.choose(address, options).openServerSocketChannel();
-            }
-
-            // On some systems, IPv4 mapping in IPv6 sockets is disabled by default.
-            // Switch it on in such cases.
-            // The method enableIpv4Mapping is empty. Still to be written
-            if (address.family() == StandardProtocolFamily.INET6) {
-                TcpUtils.enableIpv4Mapping(fd);
-            }
+            fd = open(address);
 
             TcpUtils.unblockSocket(fd);
 
-            //  Set the socket buffer limits for the underlying socket.
-            if (options.sndbuf != 0) {
-                TcpUtils.setTcpSendBuffer(fd, options.sndbuf);
-            }
-            if (options.rcvbuf != 0) {
-                TcpUtils.setTcpReceiveBuffer(fd, options.rcvbuf);
-            }
-
-            if (!isWindows) {
-                TcpUtils.setReuseAddress(fd, true);
-            }
-
-            //  Bind the socket to the network interface and port.
-            // NB: fd.socket().bind(...) for Android environments
-            fd.socket().bind(address.address(), options.backlog);
+            bind(fd, address);
             // find the address in case of wildcard
             endpoint = getAddress();
         }
@@ -220,6 +206,71 @@ public class TcpListener extends Listener
         return true;
     }
 
+    //  Creates the listening socket.
+    protected ServerSocketChannel open(IZAddress address) throws IOException
+    {
+        if (options.selectorChooser == null) {
+            return ServerSocketChannel.open();
+        }
+        else {
+            return options.selectorChooser.choose(address, options).openServerSocketChannel();
+        }
+    }
+
+    //  Binds the listening socket to the network interface and port.
+    protected void bind(ServerSocketChannel fd, IZAddress address) throws IOException
+    {
+        // On some systems, IPv4 mapping in IPv6 sockets is disabled by default.
+        // Switch it on in such cases.
+        // The method enableIpv4Mapping is empty. Still to be written
+        if (address.family() == StandardProtocolFamily.INET6) {
+            TcpUtils.enableIpv4Mapping(fd);
+        }
+
+        //  Set the socket buffer limits for the underlying socket.
+        if (options.sndbuf != 0) {
+            TcpUtils.setTcpSendBuffer(fd, options.sndbuf);
+        }
+        if (options.rcvbuf != 0) {
+            TcpUtils.setTcpReceiveBuffer(fd, options.rcvbuf);
+        }
+
+        if (!isWindows) {
+            TcpUtils.setReuseAddress(fd, true);
+        }
+
+        //  Bind the socket to the network interface and port.
+        // NB: fd.socket().bind(...) for Android environments
+        fd.socket().bind(address.address(), options.backlog);
+    }
+
+    //  Applies the socket options to a newly accepted connection.
+    protected void tuneAccepted(SocketChannel channel) throws IOException
+    {
+        if (options.tos != 0) {
+            TcpUtils.setIpTypeOfService(channel, options.tos);
+        }
+        //  Set the socket buffer limits for the underlying socket.
+        if (options.sndbuf != 0) {
+            TcpUtils.setTcpSendBuffer(channel, options.sndbuf);
+        }
+        if (options.rcvbuf != 0) {
+            TcpUtils.setTcpReceiveBuffer(channel, options.rcvbuf);
+        }
+
+        if (!isWindows) {
+            TcpUtils.setReuseAddress(channel, true);
+        }
+
+        TcpUtils.tuneTcpSocket(channel);
+        TcpUtils.tuneTcpKeepalives(
+                                   channel,
+                                   options.tcpKeepAlive,
+                                   options.tcpKeepAliveCnt,
+                                   options.tcpKeepAliveIdle,
+                                   options.tcpKeepAliveIntvl);
+    }
+
     //  Accept the new connection. Returns the file descriptor of the
     //  newly created connection. The function may throw IOException
     //  if the connection was dropped while waiting in the listen backlog
@@ -233,7 +284,7 @@ public class TcpListener extends Listener
 
         SocketChannel sock = fd.accept();
 
-        if (!options.tcpAcceptFilters.isEmpty()) {
+        if (!options.tcpAcceptFilters.isEmpty() && address.address() instanceof InetSocketAddress) {
             boolean matched = false;
             for (TcpAddress.TcpAddressMask am : options.tcpAcceptFilters) {
                 if (am.matchAddress(address.address())) {
@@ -250,21 +301,6 @@ public class TcpListener extends Listener
                 return null;
             }
         }
-        if (options.tos != 0) {
-            TcpUtils.setIpTypeOfService(sock, options.tos);
-        }
-        //  Set the socket buffer limits for the underlying socket.
-        if (options.sndbuf != 0) {
-            TcpUtils.setTcpSendBuffer(sock, options.sndbuf);
-        }
-        if (options.rcvbuf != 0) {
-            TcpUtils.setTcpReceiveBuffer(sock, options.rcvbuf);
-        }
-
-        if (!isWindows) {
-            TcpUtils.setReuseAddress(sock, true);
-        }
-
         return sock;
     }
 
@@ -13,6 +13,7 @@ import java.nio.channels.SocketChannel;
 import zmq.Options;
 import zmq.ZError;
 import zmq.io.net.Address;
+import zmq.io.net.ipc.IpcUtils;
 
 public class TcpUtils
 {
@@ -148,6 +149,10 @@ public class TcpUtils
 
     public static Address getPeerIpAddress(SocketChannel channel)
     {
+        Address ipc = IpcUtils.getPeerAddress(channel);
+        if (ipc != null) {
+            return ipc;
+        }
         SocketAddress address = channel.socket().getRemoteSocketAddress();
 
         return new Address(address);
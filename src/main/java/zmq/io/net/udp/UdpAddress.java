@@ -0,0 +1,116 @@
+package zmq.io.net.udp;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+
+import org.zeromq.ZMQException;
+
+import zmq.ZError;
+import zmq.io.net.Address;
+import zmq.io.net.ProtocolFamily;
+import zmq.io.net.StandardProtocolFamily;
+import zmq.io.net.tcp.TcpAddress;
+
+//  Address of the udp:// transport, in the form [interface;]address:port.
+//
+//  The address is the destination of the datagrams for a sender, and the address
+//  to bind for a receiver, '*' standing for any address. When the address is a
+//  multicast group, a receiver binds any address and joins the group.
+//  The optional interface, given by name or by address, is the one used
+//  to send or receive multicast datagrams.
+public class UdpAddress implements Address.IZAddress
+{
+    private final InetSocketAddress address;
+    private final NetworkInterface  networkInterface;
+
+    public UdpAddress(String addr, boolean ipv6)
+    {
+        int delimiter = addr.indexOf(';');
+        String iface = delimiter < 0 ? null : addr.substring(0, delimiter);
+
+        address = resolve(addr.substring(delimiter + 1), ipv6, false);
+        networkInterface = iface == null || "*".equals(iface) ? null : findInterface(iface);
+    }
+
+    private static NetworkInterface findInterface(String iface)
+    {
+        try {
+            NetworkInterface net = NetworkInterface.getByName(iface);
+            if (net == null) {
+                net = NetworkInterface.getByInetAddress(InetAddress.getByName(iface));
+            }
+            if (net == null) {
+                throw new ZMQException("No network interface " + iface, ZError.EADDRNOTAVAIL);
+            }
+            return net;
+        }
+        catch (SocketException | UnknownHostException e) {
+            throw new ZMQException(e.getMessage(), ZError.EADDRNOTAVAIL, e);
+        }
+    }
+
+    @Override
+    public ProtocolFamily family()
+    {
+        if (address.getAddress() instanceof Inet6Address) {
+            return StandardProtocolFamily.INET6;
+        }
+        return StandardProtocolFamily.INET;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toString(address.getPort());
+    }
+
+    @Override
+    public String toString(int port)
+    {
+        String host = address.getAddress().getHostAddress();
+        if (address.getAddress() instanceof Inet6Address) {
+            host = "[" + host + "]";
+        }
+        String prefix = networkInterface == null ? "" : networkInterface.getName() + ";";
+        return "udp://" + prefix + host + ":" + port;
+    }
+
+    @Override
+    public InetSocketAddress resolve(String name, boolean ipv6, boolean local)
+    {
+        InetSocketAddress resolved = (InetSocketAddress) new TcpAddress(name, ipv6).address();
+        if (resolved.getPort() == 0) {
+            //  Datagrams need a known port on both sides.
+            throw new IllegalArgumentException(name);
+        }
+        return resolved;
+    }
+
+    @Override
+    public SocketAddress address()
+    {
+        return address;
+    }
+
+    @Override
+    public SocketAddress sourceAddress()
+    {
+        return null;
+    }
+
+    public boolean isMulticast()
+    {
+        return address.getAddress().isMulticastAddress();
+    }
+
+    //  Returns the interface for multicast, or null for the default one.
+    public NetworkInterface networkInterface()
+    {
+        return networkInterface;
+    }
+}
@@ -1,81 +1,108 @@
 package zmq.pipe;
 
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import zmq.Msg;
 
+//  Holds the latest complete message written to a conflating pipe.
+//
+//  The writer gathers the parts of a message and swaps the whole message in at once,
+//  replacing the previous one if it was not read yet. The reader takes the message
+//  out with the same atomic swap, and returns its parts one after the other, so the
+//  parts of different messages are never mixed. Neither side ever waits for the other.
 class DBuffer<T extends Msg>
 {
-    private T back;
-    private T front;
+    //  Latest complete message, either a single part or an array of parts,
+    //  or null if it was taken by the reader.
+    private final AtomicReference<Object> front = new AtomicReference<>();
 
-    private final Lock sync = new ReentrantLock();
+    //  Parts of the message being written. Only used by the writer.
+    private final List<T> back = new ArrayList<>();
 
-    private boolean hasMsg;
+    //  Message being read, either a single part or an array of parts,
+    //  and index of the next part to read. Only used by the reader.
+    private Object current;
+    private int    index;
 
-    public T back()
+    //  Writes a part of a message. The message replaces the previous one once complete.
+    void write(T msg, boolean incomplete)
     {
-        return back;
+        assert (msg.check());
+        if (incomplete) {
+            back.add(msg);
+        }
+        else if (back.isEmpty()) {
+            //  Single-part messages are swapped in as they are.
+            front.set(msg);
+        }
+        else {
+            back.add(msg);
+            front.set(back.toArray());
+            back.clear();
+        }
     }
 
-    public T front()
+    //  Removes the last part of the incomplete message, if any.
+    T unwrite()
     {
-        return front;
+        if (back.isEmpty()) {
+            return null;
+        }
+        return back.remove(back.size() - 1);
     }
 
-    void write(T msg)
+    T read()
     {
-        assert (msg.check());
-        sync.lock();
-        try {
-            back = front;
-            front = msg;
-            hasMsg = true;
+        if (!fetch()) {
+            return null;
+        }
+        T msg;
+        if (current instanceof Msg) {
+            msg = cast(current);
+            current = null;
         }
-        finally {
-            sync.unlock();
+        else {
+            Object[] parts = (Object[]) current;
+            msg = cast(parts[index++]);
+            if (index == parts.length) {
+                current = null;
+            }
         }
+        return msg;
     }
 
-    T read()
+    boolean checkRead()
     {
-        sync.lock();
-        try {
-            if (!hasMsg) {
-                return null;
-            }
-
-            assert (front.check());
-            // TODO front->init ();     // avoid double free
-            hasMsg = false;
+        return current != null || front.get() != null;
+    }
 
-            return front;
+    //  Returns the next part to read, without reading it.
+    T probe()
+    {
+        if (!fetch()) {
+            return null;
         }
-        finally {
-            sync.unlock();
+        if (current instanceof Msg) {
+            return cast(current);
         }
+        return cast(((Object[]) current)[index]);
     }
 
-    boolean checkRead()
+    //  Takes the latest message if none is being read.
+    private boolean fetch()
     {
-        sync.lock();
-        try {
-            return hasMsg;
-        }
-        finally {
-            sync.unlock();
+        if (current == null) {
+            current = front.getAndSet(null);
+            index = 0;
         }
+        return current != null;
     }
 
-    T probe()
+    @SuppressWarnings("unchecked")
+    private T cast(Object msg)
     {
-        sync.lock();
-        try {
-            return front;
-        }
-        finally {
-            sync.unlock();
-        }
+        return (T) msg;
     }
 }
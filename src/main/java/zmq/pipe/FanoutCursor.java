@@ -0,0 +1,218 @@
+package zmq.pipe;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import zmq.Msg;
+
+//  Read end of a fan-out ring for one subscriber, standing for the ypipe from
+//  the publisher to the subscriber.
+//
+//  The messages published to the ring are read from it. The few messages
+//  written to the pipe itself, such as the delimiter, are queued aside and
+//  read once the messages published before them have been read.
+//  A message is read from the ring as a whole before its first part is
+//  returned, so that overwritten messages are skipped entirely.
+public class FanoutCursor implements YPipeBase<Msg>
+{
+    private static final class Entry
+    {
+        private final Msg  msg;
+        //  Sequence of the ring the message follows.
+        private final long seq;
+
+        private Entry(Msg msg, long seq)
+        {
+            this.msg = msg;
+            this.seq = seq;
+        }
+    }
+
+    final FanoutRing ring;
+
+    //  Messages written to the pipe itself.
+    private final Queue<Entry> entries;
+
+    //  Sequence of the next message to read, negative until attached to the ring.
+    private volatile long position;
+
+    //  True when detached from the ring.
+    private volatile boolean stopped;
+
+    //  True when the reader is sleeping and shall be woken up.
+    private final AtomicBoolean waiting;
+
+    //  Parts of the message being read.
+    private Msg[] parts;
+    private int   index;
+    private int   count;
+
+    FanoutCursor(FanoutRing ring)
+    {
+        this.ring = ring;
+        this.entries = new ConcurrentLinkedQueue<>();
+        this.position = -1;
+        this.waiting = new AtomicBoolean();
+        this.parts = new Msg[4];
+    }
+
+    void start(long seq)
+    {
+        position = seq;
+    }
+
+    void stop()
+    {
+        stopped = true;
+        wake();
+    }
+
+    long position()
+    {
+        return position;
+    }
+
+    @Override
+    public void write(Msg value, boolean incomplete)
+    {
+        entries.add(new Entry(value, ring.published()));
+    }
+
+    @Override
+    public Msg unwrite()
+    {
+        //  Incomplete messages of the ring are never visible.
+        return null;
+    }
+
+    //  Returns false if the reader was sleeping, in which case the caller shall wake it up.
+    @Override
+    public boolean flush()
+    {
+        return !wake();
+    }
+
+    @Override
+    public boolean checkRead()
+    {
+        if (fetch()) {
+            return true;
+        }
+        //  The reader goes to sleep, unless a message arrived in the meantime.
+        if (waiting.compareAndSet(false, true)) {
+            ring.sleeping();
+        }
+        if (fetch() || stopped) {
+            wake();
+            return count > index;
+        }
+        return false;
+    }
+
+    @Override
+    public Msg read()
+    {
+        if (!checkRead()) {
+            return null;
+        }
+        Msg msg = parts[index];
+        parts[index++] = null;
+        return msg;
+    }
+
+    @Override
+    public Msg probe()
+    {
+        return parts[index];
+    }
+
+    //  Returns true if the reader was sleeping.
+    private boolean wake()
+    {
+        if (waiting.get() && waiting.compareAndSet(true, false)) {
+            ring.awoken();
+            return true;
+        }
+        return false;
+    }
+
+    //  Loads the next message if there is none being read.
+    private boolean fetch()
+    {
+        if (index < count) {
+            return true;
+        }
+        index = 0;
+        count = 0;
+        long seq = position;
+        if (seq < 0) {
+            return false;
+        }
+        Entry entry = entries.peek();
+        long end = ring.published();
+        if (entry != null && entry.seq < end) {
+            end = entry.seq;
+        }
+        while (seq < end) {
+            if (load(seq)) {
+                position = seq + count;
+                return true;
+            }
+            //  The reader is lagging behind, the overwritten messages are lost.
+            seq = oldest();
+            if (entry != null && entry.seq < seq) {
+                seq = entry.seq;
+            }
+            position = seq;
+        }
+        if (entry != null && seq >= entry.seq) {
+            entries.poll();
+            parts[0] = entry.msg;
+            count = 1;
+            return true;
+        }
+        return false;
+    }
+
+    //  Returns the sequence of the first message whose parts are all in the ring.
+    private long oldest()
+    {
+        long seq = ring.oldest();
+        long end = ring.published();
+        while (seq < end) {
+            Msg msg = ring.read(seq);
+            if (msg == null) {
+                seq = ring.oldest();
+                continue;
+            }
+            //  The message following the end of a message is complete.
+            seq++;
+            if (!msg.hasMore()) {
+                return seq;
+            }
+        }
+        return end;
+    }
+
+    //  Copies the parts of the message starting at the given sequence.
+    private boolean load(long seq)
+    {
+        count = 0;
+        Msg msg;
+        do {
+            msg = ring.read(seq + count);
+            if (msg == null) {
+                count = 0;
+                return false;
+            }
+            if (count == parts.length) {
+                Msg[] grown = new Msg[count * 2];
+                System.arraycopy(parts, 0, grown, 0, count);
+                parts = grown;
+            }
+            parts[count++] = msg;
+        } while (msg.hasMore());
+        return true;
+    }
+}
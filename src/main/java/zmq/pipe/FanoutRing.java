@@ -0,0 +1,151 @@
+package zmq.pipe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import zmq.Msg;
+
+//  Ring of messages shared by the inproc subscribers of a publisher.
+//
+//  Each message is written once to the ring, whatever the number of subscribers,
+//  and every subscriber reads it through its own cursor. The messages are only
+//  visible once complete, hence a subscriber never sees part of a message.
+//
+//  The writer is the thread of the publisher, it is the only one to write the ring
+//  and to attach or detach the cursors. To gate on the slowest cursor, the writer
+//  checks that the ring has room before writing. Otherwise the oldest messages are
+//  overwritten, and a cursor lagging more than the size of the ring skips the
+//  lost messages up to the oldest one still complete in the ring.
+public class FanoutRing
+{
+    private final int                        mask;
+    private final AtomicReferenceArray<Msg> msgs;
+
+    //  Sequence of the next part to write.
+    private final AtomicLong claimed;
+    //  Sequence following the last complete message.
+    private final AtomicLong published;
+
+    //  Number of cursors whose reader is sleeping.
+    private final AtomicInteger sleepers;
+
+    //  Cursors attached to the ring. Only used by the writer.
+    private final List<FanoutCursor> cursors;
+
+    //  Lowest position of the cursors when last computed. Only used by the writer.
+    private long gate;
+
+    public FanoutRing(int size)
+    {
+        assert (size > 0);
+        int capacity = Integer.highestOneBit(size);
+        if (capacity < size) {
+            capacity <<= 1;
+        }
+        this.mask = capacity - 1;
+        this.msgs = new AtomicReferenceArray<>(capacity);
+        this.claimed = new AtomicLong();
+        this.published = new AtomicLong();
+        this.sleepers = new AtomicInteger();
+        this.cursors = new ArrayList<>();
+    }
+
+    public int capacity()
+    {
+        return mask + 1;
+    }
+
+    //  Creates a cursor that reads nothing until attached.
+    public FanoutCursor cursor()
+    {
+        return new FanoutCursor(this);
+    }
+
+    //  Starts the reading of the cursor from the next published message.
+    public void attach(FanoutCursor cursor)
+    {
+        assert (cursor.ring == this);
+        cursors.add(cursor);
+        cursor.start(published.get());
+    }
+
+    public void detach(FanoutCursor cursor)
+    {
+        if (cursors.remove(cursor)) {
+            cursor.stop();
+        }
+    }
+
+    //  Returns false if the slowest cursor has not read the part the next write would overwrite.
+    public boolean hasRoom()
+    {
+        long next = claimed.get();
+        if (next - gate < capacity()) {
+            return true;
+        }
+        //  A message larger than the ring would never be read, it overwrites the ring.
+        if (next - published.get() >= capacity()) {
+            return true;
+        }
+        long min = next;
+        for (FanoutCursor cursor : cursors) {
+            min = Math.min(min, cursor.position());
+        }
+        gate = min;
+        return next - gate < capacity();
+    }
+
+    //  Writes a part of a message. The message is visible to the cursors
+    //  once its last part is written.
+    public void write(Msg msg)
+    {
+        long seq = claimed.get();
+        //  The sequence is claimed before the slot is overwritten, for the readers
+        //  to detect that the part they read may not be the expected one.
+        claimed.lazySet(seq + 1);
+        msgs.lazySet((int) seq & mask, msg);
+        if (!msg.hasMore()) {
+            published.set(seq + 1);
+        }
+    }
+
+    //  Returns true if at least one reader is sleeping and needs to be woken up.
+    public boolean hasSleepers()
+    {
+        return sleepers.get() > 0;
+    }
+
+    long published()
+    {
+        return published.get();
+    }
+
+    //  Returns the sequence of the oldest part that was not overwritten.
+    long oldest()
+    {
+        return Math.max(0, claimed.get() - capacity());
+    }
+
+    //  Returns the part of the given sequence, or null if it was overwritten.
+    Msg read(long seq)
+    {
+        Msg msg = msgs.get((int) seq & mask);
+        if (claimed.get() - seq > capacity()) {
+            return null;
+        }
+        return msg;
+    }
+
+    void sleeping()
+    {
+        sleepers.incrementAndGet();
+    }
+
+    void awoken()
+    {
+        sleepers.decrementAndGet();
+    }
+}
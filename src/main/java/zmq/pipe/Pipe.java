@@ -1,6 +1,9 @@
 package zmq.pipe;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import zmq.Config;
+import zmq.Ctx;
 import zmq.Msg;
 import zmq.ZObject;
 import zmq.util.Blob;
@@ -36,13 +39,48 @@ public class Pipe extends ZObject
     private int lwm;
 
     //  Number of messages read and written so far.
-    private long msgsRead;
+    //  Published to the writer of the peer to let it know the depth of the queue.
+    private final AtomicLong msgsRead;
     private long msgsWritten;
 
     //  Last received peer's msgsRead. The actual number in the peer
     //  can be higher at the moment.
     private long peersMsgsRead;
 
+    //  High watermark for the outbound pipe, in bytes. 0 means no limit.
+    private long hwmBytes;
+
+    //  Number of bytes read and written so far.
+    //  Published to the writer of the peer to let it know the size of the queue.
+    private final AtomicLong bytesRead;
+    private long bytesWritten;
+
+    //  Number of bytes the peer has to read before reactivating the outbound pipe,
+    //  when it was stopped by the high watermark in bytes or by the memory budget.
+    private final AtomicLong resumeAt;
+
+    //  Is the last message written to the outbound pipe incomplete?
+    private boolean outMore;
+
+    //  Context accounting for the bytes queued in the pipes, if it has a memory budget.
+    private Ctx memory;
+
+    //  Are the oldest messages of the outbound pipe dropped when the high watermark is reached?
+    private boolean dropOldest;
+
+    //  Number of messages the writer asked the peer to drop from the outbound pipe,
+    //  and number of messages dropped so far from the inbound pipe by this reader.
+    //  Each count is updated by a single thread and read by the other side.
+    private final AtomicLong evictions;
+    private final AtomicLong evicted;
+
+    //  Number of messages dropped from the outbound pipe.
+    private long dropped;
+
+    //  Is the last message read incomplete, and are its remaining parts dropped?
+    private boolean inMore;
+    private boolean dropping;
+
     //  The pipe object on the other side of the pipepair.
     private Pipe peer;
 
@@ -83,11 +121,17 @@ public class Pipe extends ZObject
     //  Routing id of the writer. Used uniquely by the reader side.
     private int routingId;
 
+    //  Weight of the pipe in the socket.
+    private int weight;
+
     //  Pipe's credential.
     private Blob credential;
 
     private final boolean conflate;
 
+    //  Cursor of the fan-out ring the messages are published to, if any.
+    private final FanoutCursor fanout;
+
     // JeroMQ only
     private final ZObject parent;
 
@@ -102,14 +146,22 @@ public class Pipe extends ZObject
         outActive = true;
         hwm = outhwm;
         lwm = computeLwm(inhwm);
-        msgsRead = 0;
+        msgsRead = new AtomicLong();
         msgsWritten = 0;
         peersMsgsRead = 0;
+        hwmBytes = 0;
+        bytesRead = new AtomicLong();
+        bytesWritten = 0;
+        resumeAt = new AtomicLong(Long.MAX_VALUE);
+        evictions = new AtomicLong();
+        evicted = new AtomicLong();
+        weight = 1;
         peer = null;
         sink = null;
         state = State.ACTIVE;
         this.delay = true;
         this.conflate = conflate;
+        this.fanout = outpipe instanceof FanoutCursor ? (FanoutCursor) outpipe : null;
 
         this.parent = parent;
     }
@@ -122,15 +174,22 @@ public class Pipe extends ZObject
     //  pipe receives all the pending messages before terminating, otherwise it
     //  terminates straight away.
     public static Pipe[] pair(ZObject[] parents, int[] hwms, boolean[] conflates)
+    {
+        return pair(parents, hwms, conflates, new FanoutRing[2]);
+    }
+
+    //  Same as above, except that the messages sent by a pipe with a fan-out
+    //  ring are published to the ring, and read from it by the other pipe.
+    public static Pipe[] pair(ZObject[] parents, int[] hwms, boolean[] conflates, FanoutRing[] rings)
     {
         Pipe[] pipes = new Pipe[2];
         //   Creates two pipe objects. These objects are connected by two ypipes,
         //   each to pass messages in one direction.
 
-        YPipeBase<Msg> upipe1 = conflates[0] ? new YPipeConflate<>()
-                : new YPipe<Msg>(Config.MESSAGE_PIPE_GRANULARITY.getValue());
-        YPipeBase<Msg> upipe2 = conflates[1] ? new YPipeConflate<>()
-                : new YPipe<Msg>(Config.MESSAGE_PIPE_GRANULARITY.getValue());
+        YPipeBase<Msg> upipe1 = rings[1] != null ? rings[1].cursor()
+                : conflates[0] ? new YPipeConflate<>() : new YPipe<Msg>(Config.MESSAGE_PIPE_GRANULARITY.getValue());
+        YPipeBase<Msg> upipe2 = rings[0] != null ? rings[0].cursor()
+                : conflates[1] ? new YPipeConflate<>() : new YPipe<Msg>(Config.MESSAGE_PIPE_GRANULARITY.getValue());
 
         pipes[0] = new Pipe(parents[0], upipe1, upipe2, hwms[1], hwms[0], conflates[0]);
         pipes[1] = new Pipe(parents[1], upipe2, upipe1, hwms[0], hwms[1], conflates[1]);
@@ -138,6 +197,14 @@ public class Pipe extends ZObject
         pipes[0].setPeer(pipes[1]);
         pipes[1].setPeer(pipes[0]);
 
+        //  The messages of the pipes are accounted for the memory budget of the context,
+        //  unless they are conflated or published to a fan-out ring.
+        Ctx ctx = pipes[0].getCtx();
+        if (ctx != null && ctx.getMemoryBudget() > 0 && upipe1 instanceof YPipe && upipe2 instanceof YPipe) {
+            pipes[0].memory = ctx;
+            pipes[1].memory = ctx;
+        }
+
         return pipes;
     }
 
@@ -179,11 +246,43 @@ public class Pipe extends ZObject
         return routingId;
     }
 
+    //  Weight of the pipe in the socket, used by the weighted and priority policies.
+    public void setWeight(int weight)
+    {
+        assert (weight > 0);
+        this.weight = weight;
+    }
+
+    public int getWeight()
+    {
+        return weight;
+    }
+
+    //  Returns the number of messages written to the pipe and not read yet by the peer.
+    //  The count of messages read is updated by the thread of the peer, and may be slightly late.
+    public long queueDepth()
+    {
+        return msgsWritten - evictions.get() - peer.msgsRead.get();
+    }
+
+    //  Returns the number of messages dropped from the outbound pipe by the drop-oldest policy.
+    public long getDropped()
+    {
+        return dropped;
+    }
+
     public Blob getCredential()
     {
         return credential;
     }
 
+    //  Returns the cursor of the fan-out ring the messages of the pipe are
+    //  published to, or null if they are written to the pipe.
+    public FanoutCursor getFanoutCursor()
+    {
+        return fanout;
+    }
+
     //  Returns true if there is at least one message to read in the pipe.
     public boolean checkRead()
     {
@@ -230,6 +329,7 @@ public class Pipe extends ZObject
                 inActive = false;
                 return null;
             }
+            readBytes(msg.size());
 
             //  If this is a credential, save a copy and receive next message.
             if (msg.isCredential()) {
@@ -243,17 +343,51 @@ public class Pipe extends ZObject
                 return null;
             }
 
+            //  Drop the oldest messages the writer asked for, whole messages at a time.
+            if (dropping || (!inMore && !msg.isIdentity() && evicted.get() < peer.evictions.get())) {
+                dropping = msg.hasMore();
+                if (!dropping) {
+                    //  Only this thread updates the count, the writer of the peer reads it.
+                    evicted.lazySet(evicted.get() + 1);
+                }
+                continue;
+            }
+            inMore = msg.hasMore();
+
+            long read = msgsRead.get();
             if (!msg.hasMore() && !msg.isIdentity()) {
-                msgsRead++;
+                //  Only this thread updates the count, the writer of the peer reads it.
+                msgsRead.lazySet(++read);
             }
 
-            if (lwm > 0 && msgsRead % lwm == 0) {
-                sendActivateWrite(peer, msgsRead);
+            if (lwm > 0 && read % lwm == 0) {
+                sendActivateWrite(peer, read);
             }
             return msg;
         }
     }
 
+    //  Counts the bytes read, and reactivates the writer of the peer if it waits for them.
+    private void readBytes(long size)
+    {
+        long bytes = bytesRead.get() + size;
+        if (memory == null && peer.hwmBytes == 0) {
+            //  Only this thread updates the count, the writer of the peer reads it.
+            bytesRead.lazySet(bytes);
+            return;
+        }
+        if (memory != null) {
+            memory.useMemory(-size);
+        }
+        //  The count is published before checking the request of the writer,
+        //  that checks the count after publishing its request.
+        bytesRead.set(bytes);
+        long resume = peer.resumeAt.get();
+        if (bytes >= resume && peer.resumeAt.compareAndSet(resume, Long.MAX_VALUE)) {
+            sendActivateWrite(peer, msgsRead.get());
+        }
+    }
+
     //  Checks whether messages can be written to the pipe. If writing
     //  the message would cause high watermark the function returns false.
     public boolean checkWrite()
@@ -283,11 +417,23 @@ public class Pipe extends ZObject
 
         boolean more = msg.hasMore();
         boolean identity = msg.isIdentity();
+        if (dropOldest && !outMore && !identity && isFull()) {
+            //  Make room by asking the reader to drop the oldest message, as it is the only one
+            //  allowed to remove messages from the pipe.
+            //  Only this thread updates the count, the peer reads it.
+            evictions.lazySet(evictions.get() + 1);
+            dropped++;
+        }
         outpipe.write(msg, more);
 
         if (!more && !identity) {
             msgsWritten++;
         }
+        outMore = more;
+        bytesWritten += msg.size();
+        if (memory != null) {
+            memory.useMemory(msg.size());
+        }
 
         return true;
     }
@@ -300,7 +446,9 @@ public class Pipe extends ZObject
         if (outpipe != null) {
             while ((msg = outpipe.unwrite()) != null) {
                 assert (msg.hasMore());
+                unwrite(msg);
             }
+            outMore = false;
         }
     }
 
@@ -350,7 +498,10 @@ public class Pipe extends ZObject
             if (!msg.hasMore()) {
                 msgsWritten--;
             }
+            unwrite(msg);
         }
+        //  The messages left to drop were in the old pipe.
+        evictions.set(peer.evicted.get());
 
         //  Plug in the new outpipe.
         assert (pipe != null);
@@ -433,8 +584,11 @@ public class Pipe extends ZObject
         //  hand because msg_t doesn't have automatic destructor. Then deallocate
         //  the ypipe itself.
         if (!conflate) {
-            while (inpipe.read() != null) {
-                // do nothing
+            Msg msg;
+            while ((msg = inpipe.read()) != null) {
+                if (memory != null) {
+                    memory.useMemory(-msg.size());
+                }
             }
         }
 
@@ -581,6 +735,8 @@ public class Pipe extends ZObject
             inpipe = new YPipe<>(Config.MESSAGE_PIPE_GRANULARITY.getValue());
         }
         inActive = true;
+        inMore = false;
+        dropping = false;
 
         //  Notify the peer about the hiccup.
         sendHiccup(peer, inpipe);
@@ -592,13 +748,75 @@ public class Pipe extends ZObject
         hwm = outhwm;
     }
 
+    //  Sets the high watermark of the outbound pipe in bytes, 0 meaning no limit.
+    public void setHwmBytes(long hwmBytes)
+    {
+        this.hwmBytes = hwmBytes;
+    }
+
+    //  Sets whether the oldest messages of the outbound pipe are dropped when the high watermark
+    //  is reached, instead of refusing the new ones. Conflated pipes and fan-out rings keep their
+    //  own behaviour.
+    public void setDropOldest(boolean dropOldest)
+    {
+        this.dropOldest = dropOldest && outpipe instanceof YPipe;
+    }
+
     public boolean checkHwm()
     {
-        // TODO DIFF V4 small change, it is done like this in 4.2.2
-        boolean full = hwm > 0 && (msgsWritten - peersMsgsRead) >= hwm;
+        boolean full;
+        if (dropOldest) {
+            //  The oldest messages are dropped to make room for the new ones, unless the reader
+            //  lags so far behind that the messages left to drop reach the high watermark as well.
+            //  The new messages are then refused, bounding the pipe to twice the high watermark.
+            full = hwm > 0 && evictions.get() - peer.evicted.get() >= hwm;
+        }
+        else {
+            // TODO DIFF V4 small change, it is done like this in 4.2.2
+            full = hwm > 0 && (msgsWritten - peersMsgsRead) >= hwm;
+        }
+        //  Like the count of messages, the bytes only stop the pipe between two messages.
+        if (!full && !outMore && (hwmBytes > 0 || memory != null)) {
+            full = checkHwmBytes();
+        }
         return !full;
     }
 
+    //  Returns true if the messages not read nor dropped yet reach the high watermark.
+    private boolean isFull()
+    {
+        return hwm > 0 && msgsWritten - evictions.get() - peer.msgsRead.get() >= hwm;
+    }
+
+    //  Returns true if the bytes queued in the outbound pipe reach the high watermark
+    //  in bytes, or if they exceed the memory budget of the context. A pipe holding no message
+    //  can always take one, as there would be no reader to reactivate it.
+    //  When full, the peer reactivates the pipe once it has read half of the queued bytes.
+    private boolean checkHwmBytes()
+    {
+        long queued = bytesWritten - peer.bytesRead.get();
+        boolean full = hwmBytes > 0 && queued >= hwmBytes;
+        if (!full && queued > 0 && memory != null) {
+            full = memory.isOverBudget();
+        }
+        if (!full) {
+            return false;
+        }
+        long resume = bytesWritten - queued / 2;
+        resumeAt.set(resume);
+        //  The peer may have read the bytes before noticing the request.
+        return peer.bytesRead.get() < resume || !resumeAt.compareAndSet(resume, Long.MAX_VALUE);
+    }
+
+    //  Forgets a message written to the outbound pipe and taken back.
+    private void unwrite(Msg msg)
+    {
+        bytesWritten -= msg.size();
+        if (memory != null) {
+            memory.useMemory(-msg.size());
+        }
+    }
+
     @Override
     public String toString()
     {
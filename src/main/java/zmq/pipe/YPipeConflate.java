@@ -1,34 +1,38 @@
 package zmq.pipe;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import zmq.Msg;
 
 // Adapter for dbuffer, to plug it in instead of a queue for the sake
 //  of implementing the conflate socket option, which, if set, makes
 //  the receiving side to discard all incoming messages but the last one.
 //
-//  reader_awake flag is needed here to mimic ypipe delicate behaviour
-//  around the reader being asleep (see 'c' pointer being NULL in ypipe.hpp)
+//  sleeping flag is needed here to mimic ypipe delicate behaviour
+//  around the reader being asleep (see 'c' pointer being NULL in ypipe.hpp).
+//  The writer only has to wake the reader up once per sleep, not for every message.
 
 public class YPipeConflate<T extends Msg> implements YPipeBase<T>
 {
-    private boolean readerAwake;
+    private final AtomicBoolean sleeping = new AtomicBoolean();
 
     private final DBuffer<T> dbuffer = new DBuffer<>();
 
     //  Following function (write) deliberately copies uninitialised data
     //  when used with zmq_msg. Initialising the VSM body for
     //  non-VSM messages won't be good for performance.
+    //  The parts of a multi-part message replace the previous message together.
     @Override
     public void write(final T value, boolean incomplete)
     {
-        dbuffer.write(value);
+        dbuffer.write(value, incomplete);
     }
 
-    // There are no incomplete items for conflate ypipe
+    //  Pop a part of the incomplete message.
     @Override
     public T unwrite()
     {
-        return null;
+        return dbuffer.unwrite();
     }
 
     //  Flush is no-op for conflate ypipe. Reader asleep behaviour
@@ -38,18 +42,24 @@ public class YPipeConflate<T extends Msg> implements YPipeBase<T>
     @Override
     public boolean flush()
     {
-        return readerAwake;
+        return !(sleeping.get() && sleeping.compareAndSet(true, false));
     }
 
     //  Check whether item is available for reading.
     @Override
     public boolean checkRead()
     {
-        boolean rc = dbuffer.checkRead();
-        if (!rc) {
-            readerAwake = false;
+        if (dbuffer.checkRead()) {
+            return true;
+        }
+        //  Go to sleep, unless a message was written in the meantime.
+        sleeping.set(true);
+        if (dbuffer.checkRead()) {
+            //  If the writer already woke the reader up, the wake up is simply ignored.
+            sleeping.set(false);
+            return true;
         }
-        return rc;
+        return false;
     }
 
     //  Reads an item from the pipe. Returns false if there is no value.
@@ -0,0 +1,320 @@
+package zmq.poll;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import zmq.ZError;
+import zmq.util.Clock;
+import zmq.util.Utils;
+
+//  Set of poll items whose registrations in the selector are kept from one poll to the next.
+//  Unlike ZMQ.poll(Selector, PollItem[], int, long), which rebuilds the whole registration
+//  state at each call, a poll set only touches the items that changed since the previous poll,
+//  compared by identity, position and interest. When the same items are polled again,
+//  no registration work and no allocation are performed.
+//
+//  The selector is not owned by the poll set and shall be closed by the caller.
+//  A poll set is not thread-safe and shall be used by one thread only.
+public final class PollSet
+{
+    //  The selector where the items are registered.
+    private final Selector selector;
+
+    //  Items of the last poll, their respective selection keys and interests, at the same index.
+    private PollItem[]     items;
+    private SelectionKey[] keys;
+    private int[]          ops;
+    private int            size;
+
+    //  Spare arrays used to compute the new registrations when items change.
+    private PollItem[]     nextItems;
+    private SelectionKey[] nextKeys;
+    private int[]          nextOps;
+
+    public PollSet(Selector selector)
+    {
+        Utils.checkArgument(selector != null, "A selector has to be supplied for polling");
+        this.selector = selector;
+        this.items = new PollItem[0];
+        this.keys = new SelectionKey[0];
+        this.ops = new int[0];
+        this.nextItems = items;
+        this.nextKeys = keys;
+        this.nextOps = ops;
+    }
+
+    public int poll(PollItem[] items, long timeout)
+    {
+        return poll(items, items.length, timeout);
+    }
+
+    //  Polls the first count items for the given timeout, in milliseconds.
+    //  Returns the number of items with events, or -1 if the selector was closed.
+    public int poll(PollItem[] items, int count, long timeout)
+    {
+        Utils.checkArgument(items != null, "items have to be supplied for polling");
+        try {
+            update(items, count);
+        }
+        catch (ClosedSelectorException e) {
+            // context was closed asynchronously, exit gracefully
+            return -1;
+        }
+
+        if (count == 0) {
+            if (timeout <= 0) {
+                return 0;
+            }
+            LockSupport.parkNanos(TimeUnit.NANOSECONDS.convert(timeout, TimeUnit.MILLISECONDS));
+            return 0;
+        }
+        long now = 0L;
+        long end = 0L;
+
+        boolean firstPass = true;
+        int nevents = 0;
+
+        while (true) {
+            //  Compute the timeout for the subsequent poll.
+            long waitMillis;
+            if (firstPass) {
+                waitMillis = 0L;
+            }
+            else if (timeout < 0L) {
+                waitMillis = -1L;
+            }
+            else {
+                waitMillis = TimeUnit.NANOSECONDS.toMillis(end - now);
+                if (waitMillis == 0) {
+                    waitMillis = 1L;
+                }
+            }
+
+            //  Wait for events.
+            try {
+                if (waitMillis < 0) {
+                    selector.select(0);
+                }
+                else if (waitMillis == 0) {
+                    selector.selectNow();
+                }
+                else {
+                    selector.select(waitMillis);
+                }
+
+                nevents = collect();
+                if (nevents < 0) {
+                    return -1;
+                }
+            }
+            catch (ClosedSelectorException e) {
+                // context was closed asynchronously, exit gracefully
+                return -1;
+            }
+            catch (IOException e) {
+                throw new ZError.IOException(e);
+            }
+            //  If timeout is zero, exit immediately whether there are events or not.
+            if (timeout == 0) {
+                break;
+            }
+
+            if (nevents > 0) {
+                break;
+            }
+
+            //  At this point we are meant to wait for events but there are none.
+            //  If timeout is infinite we can just loop until we get some events.
+            if (timeout < 0) {
+                if (firstPass) {
+                    firstPass = false;
+                }
+                continue;
+            }
+
+            //  The timeout is finite and there are no events. In the first pass
+            //  we get a timestamp of when the polling have begun. (We assume that
+            //  first pass have taken negligible time). We also compute the time
+            //  when the polling should time out.
+            if (firstPass) {
+                now = Clock.nowNS();
+                end = now + TimeUnit.MILLISECONDS.toNanos(timeout);
+                if (now == end) {
+                    break;
+                }
+                firstPass = false;
+                continue;
+            }
+
+            //  Find out whether timeout have expired.
+            now = Clock.nowNS();
+            if (now >= end) {
+                break;
+            }
+        }
+        return nevents;
+    }
+
+    //  Cancels the registrations of all the items of the last poll.
+    public void clear()
+    {
+        update(items, 0);
+    }
+
+    //  Computes the ready operations of every polled item.
+    private int collect()
+    {
+        final Set<SelectionKey> selectedKeys = selector.selectedKeys();
+        int nevents = 0;
+        for (int idx = 0; idx < size; ++idx) {
+            PollItem item = items[idx];
+            if (item == null) {
+                continue;
+            }
+            SelectionKey key = keys[idx];
+            //  Ready operations of a key are only meaningful when it has just been selected.
+            int ready = item.readyOps(key, selectedKeys.contains(key) ? 1 : 0);
+            if (ready < 0) {
+                return -1;
+            }
+
+            if (ready > 0) {
+                nevents++;
+            }
+        }
+        selectedKeys.clear();
+        return nevents;
+    }
+
+    //  Brings the registrations of the selector in line with the given items.
+    private void update(PollItem[] polled, int count)
+    {
+        if (!changed(polled, count)) {
+            return;
+        }
+        if (nextItems.length < count) {
+            nextItems = new PollItem[count];
+            nextKeys = new SelectionKey[count];
+            nextOps = new int[count];
+        }
+
+        //  Register the new items, keeping the keys of the items already known.
+        for (int idx = 0; idx < count; ++idx) {
+            PollItem item = polled[idx];
+            nextItems[idx] = item;
+            nextOps[idx] = item == null ? 0 : item.interestOps();
+            if (item == null) {
+                nextKeys[idx] = null;
+            }
+            else if (idx < size && item == items[idx] && keys[idx].isValid()) {
+                nextKeys[idx] = keys[idx];
+            }
+            else {
+                nextKeys[idx] = register(item);
+            }
+        }
+
+        //  Cancel the keys not used anymore.
+        for (int idx = 0; idx < size; ++idx) {
+            SelectionKey key = keys[idx];
+            if (key != null && key.isValid() && indexOf(nextKeys, count, key) < 0) {
+                key.cancel();
+            }
+        }
+
+        //  A channel can be polled by several items, its interest is the sum of theirs.
+        for (int idx = 0; idx < count; ++idx) {
+            SelectionKey key = nextKeys[idx];
+            if (key == null || indexOf(nextKeys, idx, key) >= 0) {
+                continue;
+            }
+            int interest = 0;
+            for (int other = idx; other < count; ++other) {
+                if (nextKeys[other] == key) {
+                    interest |= nextOps[other];
+                }
+            }
+            if (key.interestOps() != interest) {
+                key.interestOps(interest);
+            }
+        }
+
+        PollItem[] previousItems = items;
+        SelectionKey[] previousKeys = keys;
+        int[] previousOps = ops;
+        items = nextItems;
+        keys = nextKeys;
+        ops = nextOps;
+        nextItems = previousItems;
+        nextKeys = previousKeys;
+        nextOps = previousOps;
+
+        //  Release the references of the previous poll.
+        Arrays.fill(nextItems, 0, Math.min(size, nextItems.length), null);
+        Arrays.fill(nextKeys, 0, Math.min(size, nextKeys.length), null);
+        size = count;
+    }
+
+    //  Checks whether the given items differ from the ones of the last poll.
+    private boolean changed(PollItem[] polled, int count)
+    {
+        if (count != size) {
+            return true;
+        }
+        for (int idx = 0; idx < count; ++idx) {
+            PollItem item = polled[idx];
+            if (item != items[idx]) {
+                return true;
+            }
+            if (item != null && !keys[idx].isValid()) {
+                //  the key was cancelled behind our back, typically by closing its channel
+                return true;
+            }
+            if (item != null && item.interestOps() != ops[idx]) {
+                //  the events of the item changed since it was registered
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private SelectionKey register(PollItem item)
+    {
+        SelectableChannel channel = item.getChannel(); // mailbox channel if ZMQ socket
+        try {
+            SelectionKey key = channel.keyFor(selector);
+            if (key != null && !key.isValid()) {
+                //  A cancelled key is deregistered only at the next selection
+                selector.selectNow();
+                key = null;
+            }
+            if (key == null) {
+                key = channel.register(selector, item.interestOps(), item);
+            }
+            else {
+                key.attach(item);
+            }
+            return key;
+        }
+        catch (IOException e) {
+            throw new ZError.IOException(e);
+        }
+    }
+
+    private static int indexOf(SelectionKey[] keys, int count, SelectionKey key)
+    {
+        for (int idx = 0; idx < count; ++idx) {
+            if (keys[idx] == key) {
+                return idx;
+            }
+        }
+        return -1;
+    }
+}
@@ -12,9 +12,11 @@ import java.util.Iterator;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import zmq.Ctx;
 import zmq.ZError;
+import zmq.util.Clock;
 
 public final class Poller extends PollerBase implements Runnable
 {
@@ -84,6 +86,16 @@ public final class Poller extends PollerBase implements Runnable
 
     private Selector selector;
 
+    //  Time spent busy-polling the selector before blocking, in nanoseconds.
+    //  0 means the selector is never busy-polled.
+    private long spinNanos;
+
+    //  Number of polls that found events while busy-polling.
+    private final AtomicLong spinHits = new AtomicLong();
+
+    //  Number of polls that blocked in the selector.
+    private final AtomicLong blockingSelects = new AtomicLong();
+
     public Poller(Ctx ctx, String name)
     {
         super(name);
@@ -176,6 +188,28 @@ public final class Poller extends PollerBase implements Runnable
         retired = true;
     }
 
+    //  Sets the time spent busy-polling the selector before blocking, in nanoseconds.
+    //  Shall be called before the poller is started.
+    public void setSpin(long spinNanos)
+    {
+        assert (!worker.isAlive());
+        this.spinNanos = spinNanos;
+    }
+
+    //  Returns the number of polls that found events while busy-polling.
+    //  Note that this function can be invoked from a different thread!
+    public long getSpinHits()
+    {
+        return spinHits.get();
+    }
+
+    //  Returns the number of polls that blocked in the selector.
+    //  Note that this function can be invoked from a different thread!
+    public long getBlockingSelects()
+    {
+        return blockingSelects.get();
+    }
+
     public void start()
     {
         worker.start();
@@ -231,7 +265,21 @@ public final class Poller extends PollerBase implements Runnable
             int rc;
             long start = System.currentTimeMillis();
             try {
-                rc = selector.select(timeout);
+                rc = 0;
+                if (spinNanos > 0) {
+                    rc = spin();
+                    if (rc == 0) {
+                        if (retired || stopping.get()) {
+                            //  Timers changed the registrations while spinning.
+                            continue;
+                        }
+                        timeout = executeTimers();
+                    }
+                }
+                if (rc == 0) {
+                    blockingSelects.incrementAndGet();
+                    rc = selector.select(timeout);
+                }
             }
             catch (ClosedSelectorException e) {
                 rebuildSelector();
@@ -286,6 +334,27 @@ public final class Poller extends PollerBase implements Runnable
         stopped.countDown();
     }
 
+    //  Busy-polls the selector for the spin duration, executing the due timers meanwhile.
+    //  Commands are handled as well, as the mailbox of the thread is one of the polled channels.
+    //  Returns the number of selected keys, 0 if the duration expired without events,
+    //  or if the timers changed the registrations.
+    private int spin() throws IOException
+    {
+        final long end = Clock.nowNS() + spinNanos;
+        do {
+            int rc = selector.selectNow();
+            if (rc > 0) {
+                spinHits.incrementAndGet();
+                return rc;
+            }
+            executeTimers();
+            if (retired) {
+                return 0;
+            }
+        } while (!stopping.get() && Clock.nowNS() - end < 0);
+        return 0;
+    }
+
     private int maybeRebuildSelector(int returnsImmediately, long timeout, long start)
     {
         //  Guess JDK epoll bug
@@ -6,6 +6,7 @@ import java.util.List;
 
 import zmq.Msg;
 import zmq.ZError;
+import zmq.ZMQ;
 import zmq.pipe.Pipe;
 import zmq.util.Blob;
 import zmq.util.Errno;
@@ -14,6 +15,11 @@ import zmq.util.ValueReference;
 //  Class manages a set of inbound pipes. On receive it performs fair
 //  queuing so that senders gone berserk won't cause denial of
 //  service for decent senders.
+//
+//  By default the pipes are served in turn, one message each. The weighted
+//  policy reads as many messages in a row from a pipe as its weight, and the
+//  priority policy always reads from the pipe of highest weight having messages,
+//  the pipes of the same weight being served in turn.
 public class FQ
 {
     //  Inbound pipes.
@@ -38,15 +44,32 @@ public class FQ
     //  Holds credential after the last_acive_pipe has terminated.
     private Blob savedCredential;
 
+    //  Policy choosing the pipe to read the next message from, one of ZMQ_FQ_*.
+    private int policy;
+
+    //  Number of messages read in a row from the current pipe, for the weighted policy.
+    private int served;
+
     public FQ()
     {
         active = 0;
         current = 0;
         more = false;
+        policy = ZMQ.ZMQ_FQ_ROUND_ROBIN;
 
         pipes = new ArrayList<>();
     }
 
+    //  Sets the policy choosing the pipe to read the next message from.
+    public void setPolicy(int policy)
+    {
+        if (policy != ZMQ.ZMQ_FQ_ROUND_ROBIN && policy != ZMQ.ZMQ_FQ_WEIGHTED && policy != ZMQ.ZMQ_FQ_PRIORITY) {
+            throw new IllegalArgumentException("fq_policy " + policy);
+        }
+        this.policy = policy;
+        served = 0;
+    }
+
     public void attach(Pipe pipe)
     {
         pipes.add(pipe);
@@ -66,6 +89,9 @@ public class FQ
             if (current == active) {
                 current = 0;
             }
+            if (index == current) {
+                served = 0;
+            }
         }
         pipes.remove(pipe);
 
@@ -91,6 +117,9 @@ public class FQ
     {
         //  Round-robin over the pipes to get the next message.
         while (active > 0) {
+            if (!more && policy == ZMQ.ZMQ_FQ_PRIORITY) {
+                current = highest();
+            }
             //  Try to fetch new message. If we've already read part of the message
             //  subsequent part should be immediately available.
             final Pipe currentPipe = pipes.get(current);
@@ -108,7 +137,10 @@ public class FQ
                 if (!more) {
                     lastIn = currentPipe;
                     assert (active > 0); // happens when multiple threads receive messages
-                    current = (current + 1) % active;
+                    if (policy != ZMQ.ZMQ_FQ_WEIGHTED || ++served >= currentPipe.getWeight()) {
+                        served = 0;
+                        current = (current + 1) % active;
+                    }
                 }
                 return msg;
             }
@@ -123,6 +155,7 @@ public class FQ
             if (current == active) {
                 current = 0;
             }
+            served = 0;
         }
 
         //  No message is available. Initialize the output parameter
@@ -153,11 +186,29 @@ public class FQ
             if (current == active) {
                 current = 0;
             }
+            served = 0;
         }
 
         return false;
     }
 
+    //  Returns the index of the first active pipe of highest weight, starting from
+    //  the current one so that the pipes of the same weight are served in turn.
+    private int highest()
+    {
+        int index = current;
+        int weight = pipes.get(current).getWeight();
+        for (int idx = 1; idx < active; ++idx) {
+            final int candidate = (current + idx) % active;
+            final int candidateWeight = pipes.get(candidate).getWeight();
+            if (candidateWeight > weight) {
+                index = candidate;
+                weight = candidateWeight;
+            }
+        }
+        return index;
+    }
+
     public Blob getCredential()
     {
         return lastIn != null ? lastIn.getCredential() : savedCredential;
@@ -3,13 +3,26 @@ package zmq.socket;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 import zmq.Msg;
 import zmq.ZError;
+import zmq.ZMQ;
 import zmq.pipe.Pipe;
 import zmq.util.Errno;
 import zmq.util.ValueReference;
 
+//  Class manages a set of outbound pipes. On send it load balances
+//  the messages among the pipes able to take them.
+//
+//  By default the pipes take one message each in turn. The least queued policy
+//  sends to the pipe with the fewest messages not read yet by the peer, the power
+//  of two choices policy to the least queued of two pipes chosen at random, and the
+//  weighted policy sends as many messages in a row to a pipe as its weight.
+//
+//  With a spill queue, the messages no pipe can take are appended to the queue
+//  instead of being refused, and sent once pipes are available again. The messages
+//  keep their order: the new messages are spilled as long as the queue is not empty.
 public class LB
 {
     //  List of outbound pipes.
@@ -28,16 +41,75 @@ public class LB
     //  True if we are dropping current message.
     private boolean dropping;
 
+    //  Policy choosing the pipe to send the next message to, one of ZMQ_LB_*.
+    private int policy;
+
+    //  Number of messages sent in a row to the current pipe, for the weighted policy.
+    private int served;
+
+    //  Queue the messages are spilled to when no pipe can take them, if any.
+    private SpillQueue spill;
+
+    //  True if we are spilling current message.
+    private boolean spilling;
+
+    //  True if we are sending a spilled message.
+    private boolean replaying;
+
+    //  Part of a spilled message read back from the queue but refused by the pipes,
+    //  sent first once a pipe is activated.
+    private Msg unsent;
+
     public LB()
     {
         active = 0;
         current = 0;
         more = false;
         dropping = false;
+        policy = ZMQ.ZMQ_LB_ROUND_ROBIN;
 
         pipes = new ArrayList<>();
     }
 
+    //  Sets the policy choosing the pipe to send the next message to.
+    public void setPolicy(int policy)
+    {
+        if (policy != ZMQ.ZMQ_LB_ROUND_ROBIN && policy != ZMQ.ZMQ_LB_LEAST_QUEUED
+                && policy != ZMQ.ZMQ_LB_POWER_OF_TWO && policy != ZMQ.ZMQ_LB_WEIGHTED) {
+            throw new IllegalArgumentException("lb_policy " + policy);
+        }
+        this.policy = policy;
+        served = 0;
+    }
+
+    //  Sets the queue the messages are spilled to, or null to refuse them when no pipe can take them.
+    public void setSpill(SpillQueue spill)
+    {
+        close();
+        this.spill = spill;
+        replay();
+    }
+
+    //  Closes the spill queue, if any.
+    public void close()
+    {
+        if (replaying) {
+            //  Take back the parts of the spilled message already written, if any.
+            if (!dropping) {
+                pipes.get(current).rollback();
+            }
+            more = false;
+            dropping = false;
+        }
+        if (spill != null) {
+            spill.close();
+            spill = null;
+        }
+        spilling = false;
+        replaying = false;
+        unsent = null;
+    }
+
     public void attach(Pipe pipe)
     {
         pipes.add(pipe);
@@ -62,6 +134,9 @@ public class LB
             if (current == active) {
                 current = 0;
             }
+            if (index == current) {
+                served = 0;
+            }
         }
         pipes.remove(pipe);
     }
@@ -71,9 +146,49 @@ public class LB
         //  Move the pipe to the list of active pipes.
         Collections.swap(pipes, pipes.indexOf(pipe), active);
         active++;
+
+        replay();
     }
 
     public boolean sendpipe(Msg msg, Errno errno, ValueReference<Pipe> pipe)
+    {
+        if (spill != null) {
+            //  Spill the message if no pipe can take it, or if older ones are still waiting.
+            if (!spilling && (!more || replaying)) {
+                replay();
+                spilling = replaying || unsent != null || spill.hasMessage() || !writable();
+            }
+            if (spilling) {
+                spill.write(msg);
+                spilling = msg.hasMore();
+                return true;
+            }
+        }
+        return send(msg, errno, pipe);
+    }
+
+    //  Sends the spilled messages as long as pipes can take them.
+    private void replay()
+    {
+        if (spill == null || spilling || (more && !replaying)) {
+            return;
+        }
+        while (replaying || ((unsent != null || spill.hasMessage()) && writable())) {
+            Msg msg = unsent != null ? unsent : spill.read();
+            unsent = null;
+            if (msg == null) {
+                return;
+            }
+            if (!send(msg, null, null)) {
+                //  No pipe took the part, it is sent first once a pipe is activated.
+                unsent = msg;
+                return;
+            }
+            replaying = msg.hasMore();
+        }
+    }
+
+    private boolean send(Msg msg, Errno errno, ValueReference<Pipe> pipe)
     {
         //  Drop the message if required. If we are at the end of the message
         //  switch back to non-dropping mode.
@@ -85,6 +200,11 @@ public class LB
             return true;
         }
 
+        //  Choose the pipe of a new message.
+        if (!more && active > 1 && (policy == ZMQ.ZMQ_LB_LEAST_QUEUED || policy == ZMQ.ZMQ_LB_POWER_OF_TWO)) {
+            current = policy == ZMQ.ZMQ_LB_LEAST_QUEUED ? leastQueued() : powerOfTwo();
+        }
+
         while (active > 0) {
             if (pipes.get(current).write(msg)) {
                 if (pipe != null) {
@@ -101,11 +221,14 @@ public class LB
             else {
                 current = 0;
             }
+            served = 0;
         }
 
         //  If there are no pipes we cannot send the message.
         if (active == 0) {
-            errno.set(ZError.EAGAIN);
+            if (errno != null) {
+                errno.set(ZError.EAGAIN);
+            }
             return false;
         }
 
@@ -113,16 +236,56 @@ public class LB
         //  continue round-robining (load balance).
         more = msg.hasMore();
         if (!more) {
-            pipes.get(current).flush();
-            if (++current >= active) {
-                current = 0;
+            final Pipe currentPipe = pipes.get(current);
+            currentPipe.flush();
+            if (policy != ZMQ.ZMQ_LB_WEIGHTED || ++served >= currentPipe.getWeight()) {
+                served = 0;
+                if (++current >= active) {
+                    current = 0;
+                }
             }
         }
 
         return true;
     }
 
+    //  Returns the index of the first active pipe with the fewest messages queued, starting from
+    //  the current one so that the pipes with the same number of queued messages are used in turn.
+    private int leastQueued()
+    {
+        int index = current;
+        long depth = pipes.get(current).queueDepth();
+        for (int idx = 1; idx < active && depth > 0; ++idx) {
+            final int candidate = (current + idx) % active;
+            final long candidateDepth = pipes.get(candidate).queueDepth();
+            if (candidateDepth < depth) {
+                index = candidate;
+                depth = candidateDepth;
+            }
+        }
+        return index;
+    }
+
+    //  Returns the index of the least queued of two different active pipes chosen at random.
+    private int powerOfTwo()
+    {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final int first = random.nextInt(active);
+        int second = random.nextInt(active - 1);
+        if (second >= first) {
+            second++;
+        }
+        return pipes.get(second).queueDepth() < pipes.get(first).queueDepth() ? second : first;
+    }
+
     public boolean hasOut()
+    {
+        //  The messages no pipe can take are spilled.
+        return spill != null || writable();
+    }
+
+    //  Returns true if a pipe can take a message.
+    private boolean writable()
     {
         //  If one part of the message was already written we can definitely
         //  write the rest of the message.
@@ -142,6 +305,7 @@ public class LB
             if (current == active) {
                 current = 0;
             }
+            served = 0;
         }
 
         return false;
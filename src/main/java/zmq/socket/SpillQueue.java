@@ -0,0 +1,320 @@
+package zmq.socket;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+import zmq.Msg;
+import zmq.ZError;
+import zmq.util.Utils;
+
+//  Queue of the messages that could not be sent, spilled to memory-mapped segment
+//  files of a directory and read back in the same order.
+//
+//  Each segment starts with the position of the next record to read, followed by the
+//  records, made of the size of the message plus one, its flags and its content. A size
+//  of 0, written after each record, marks the end of the records of the segment.
+//  Segments are deleted once read. When persistent, the segments left by a previous run
+//  are read first and the segments are kept on close, otherwise they are deleted.
+//  Only the segments being read and written are mapped, the others are mapped again
+//  when their turn to be read comes.
+public final class SpillQueue
+{
+    private static final String SUFFIX = ".spill";
+
+    //  Size of the header of a segment, holding the position of the next record to read.
+    private static final int HEADER = 4;
+
+    //  Size of the header of a record, holding the size and the flags of the message.
+    private static final int RECORD = 5;
+
+    private static final class Segment
+    {
+        private final long seq;
+        private final Path path;
+
+        //  Mapped content of the segment, null while neither read nor written.
+        private MappedByteBuffer buffer;
+
+        private Segment(long seq, Path path, MappedByteBuffer buffer)
+        {
+            this.seq = seq;
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+
+    private final Path    dir;
+    private final int     segmentSize;
+    private final boolean persistent;
+
+    //  Segments not read yet, the first one being read and the last one written.
+    private final Deque<Segment> segments;
+
+    //  Positions of the next record to read in the first segment,
+    //  and of the next record to write in the last one.
+    private int readPos;
+    private int writePos;
+
+    //  Number of complete messages in the queue.
+    private long messages;
+
+    public SpillQueue(String dir, int segmentSize, boolean persistent)
+    {
+        this.dir = Paths.get(dir);
+        this.segmentSize = segmentSize;
+        this.persistent = persistent;
+        this.segments = new ArrayDeque<>();
+        try {
+            Files.createDirectories(this.dir);
+            recover();
+        }
+        catch (IOException e) {
+            throw new ZError.IOException(e);
+        }
+    }
+
+    //  Appends a part of a message to the queue.
+    public void write(Msg msg)
+    {
+        int size = msg.size();
+        try {
+            Segment segment = segments.peekLast();
+            if (segment == null || segment.buffer.capacity() - writePos < RECORD + size) {
+                segment = roll(size);
+            }
+            ByteBuffer buffer = segment.buffer.duplicate();
+            buffer.position(writePos + RECORD);
+            buffer.put(msg.buf());
+            //  Mark the end of the records, the segment may hold the records of an incomplete
+            //  message dropped on recovery past this one.
+            int end = writePos + RECORD + size;
+            if (segment.buffer.capacity() - end >= RECORD) {
+                segment.buffer.putInt(end, 0);
+            }
+            //  The size is written last, so that the record is only visible once complete.
+            segment.buffer.put(writePos + 4, (byte) (msg.hasMore() ? Msg.MORE : 0));
+            segment.buffer.putInt(writePos, size + 1);
+            writePos += RECORD + size;
+        }
+        catch (IOException e) {
+            throw new ZError.IOException(e);
+        }
+        if (!msg.hasMore()) {
+            messages++;
+        }
+    }
+
+    //  Returns true if the queue holds at least one complete message.
+    public boolean hasMessage()
+    {
+        return messages > 0;
+    }
+
+    public long messages()
+    {
+        return messages;
+    }
+
+    //  Reads the next part of a message, or returns null if the queue is empty.
+    public Msg read()
+    {
+        Segment segment = segments.peekFirst();
+        while (segment != null) {
+            int length = length(segment, readPos);
+            if (length > 0) {
+                int size = length - 1;
+                boolean more = (segment.buffer.get(readPos + 4) & Msg.MORE) != 0;
+                byte[] data = new byte[size];
+                ByteBuffer buffer = segment.buffer.duplicate();
+                buffer.position(readPos + RECORD);
+                buffer.get(data);
+                readPos += RECORD + size;
+                segment.buffer.putInt(0, readPos);
+
+                Msg msg = new Msg(data);
+                if (more) {
+                    msg.setFlags(Msg.MORE);
+                }
+                else {
+                    messages--;
+                }
+                return msg;
+            }
+            if (segments.size() == 1) {
+                return null;
+            }
+            //  The segment is read, reclaim it.
+            segments.removeFirst();
+            delete(segment);
+            segment = segments.peekFirst();
+            open(segment);
+            readPos = segment.buffer.getInt(0);
+        }
+        return null;
+    }
+
+    //  Closes the queue, keeping its segments if persistent.
+    public void close()
+    {
+        for (Segment segment : segments) {
+            if (persistent) {
+                if (segment.buffer != null) {
+                    segment.buffer.force();
+                }
+                unmap(segment);
+            }
+            else {
+                delete(segment);
+            }
+        }
+        segments.clear();
+        messages = 0;
+    }
+
+    //  Starts a new segment, large enough for a record of the given size.
+    private Segment roll(int size) throws IOException
+    {
+        Segment last = segments.peekLast();
+        long seq = last == null ? 0 : last.seq + 1;
+        int capacity = Math.max(segmentSize, HEADER + RECORD + size);
+        Path path = dir.resolve(String.format("%019d%s", seq, SUFFIX));
+        Segment segment = new Segment(seq, path, map(path, capacity));
+        segment.buffer.putInt(0, HEADER);
+        if (last == null) {
+            readPos = HEADER;
+        }
+        else if (last != segments.peekFirst()) {
+            //  The segment written so far is read later.
+            unmap(last);
+        }
+        segments.addLast(segment);
+        writePos = HEADER;
+        return segment;
+    }
+
+    //  Opens the segments left in the directory, or deletes them if not persistent.
+    private void recover() throws IOException
+    {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path path : stream) {
+                paths.add(path);
+            }
+        }
+        Collections.sort(paths);
+        for (Path path : paths) {
+            if (persistent) {
+                String name = path.getFileName().toString();
+                long seq = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+                segments.addLast(new Segment(seq, path, map(path, (int) Files.size(path))));
+            }
+            else {
+                Files.delete(path);
+            }
+        }
+        if (segments.isEmpty()) {
+            return;
+        }
+
+        //  Count the messages left, and drop the last one if incomplete.
+        readPos = segments.peekFirst().buffer.getInt(0);
+        Segment incomplete = null;
+        int incompletePos = 0;
+        for (Segment segment : segments) {
+            int pos = segment == segments.peekFirst() ? readPos : HEADER;
+            int length;
+            while ((length = length(segment, pos)) > 0) {
+                boolean more = (segment.buffer.get(pos + 4) & Msg.MORE) != 0;
+                if (more && incomplete == null) {
+                    incomplete = segment;
+                    incompletePos = pos;
+                }
+                else if (!more) {
+                    incomplete = null;
+                    messages++;
+                }
+                pos += RECORD + length - 1;
+            }
+            writePos = pos;
+        }
+        if (incomplete != null) {
+            while (segments.peekLast() != incomplete) {
+                delete(segments.removeLast());
+            }
+            incomplete.buffer.putInt(incompletePos, 0);
+            writePos = incompletePos;
+        }
+        for (Segment segment : segments) {
+            if (segment != segments.peekFirst() && segment != segments.peekLast()) {
+                unmap(segment);
+            }
+        }
+    }
+
+    //  Returns the length of the record at the given position, 0 at the end of the segment.
+    private static int length(Segment segment, int pos)
+    {
+        if (segment.buffer.capacity() - pos < RECORD) {
+            return 0;
+        }
+        return segment.buffer.getInt(pos);
+    }
+
+    private static MappedByteBuffer map(Path path, int capacity) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+    }
+
+    //  Maps the segment again once it is the one being read.
+    private static void open(Segment segment)
+    {
+        if (segment.buffer != null) {
+            return;
+        }
+        try {
+            segment.buffer = map(segment.path, (int) Files.size(segment.path));
+        }
+        catch (IOException e) {
+            throw new ZError.IOException(e);
+        }
+    }
+
+    //  Unmaps the segment right away rather than when its buffer is collected.
+    private static void unmap(Segment segment)
+    {
+        Utils.unmap(segment.buffer);
+        segment.buffer = null;
+    }
+
+    private static void delete(Segment segment)
+    {
+        unmap(segment);
+        try {
+            Files.deleteIfExists(segment.path);
+        }
+        catch (IOException e) {
+            throw new ZError.IOException(e);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SpillQueue [dir=" + dir + ", segments=" + segments.size() + ", messages=" + messages + "]";
+    }
+}
@@ -3,9 +3,11 @@ package zmq.socket.pipeline;
 import zmq.Ctx;
 import zmq.Msg;
 import zmq.SocketBase;
+import zmq.ZError;
 import zmq.ZMQ;
 import zmq.pipe.Pipe;
 import zmq.socket.LB;
+import zmq.socket.SpillQueue;
 
 public class Push extends SocketBase
 {
@@ -20,6 +22,13 @@ public class Push extends SocketBase
         lb = new LB();
     }
 
+    @Override
+    protected void destroy()
+    {
+        lb.close();
+        super.destroy();
+    }
+
     @Override
     protected void xattachPipe(Pipe pipe, boolean subscribe2all, boolean isLocallyInitiated)
     {
@@ -32,6 +41,23 @@ public class Push extends SocketBase
         lb.attach(pipe);
     }
 
+    @Override
+    protected boolean xsetsockopt(int option, Object optval)
+    {
+        if (option == ZMQ.ZMQ_LB_POLICY) {
+            lb.setPolicy((Integer) optval);
+            return true;
+        }
+        if (option == ZMQ.ZMQ_SPILL_DIR) {
+            options.spillDir = (String) optval;
+            lb.setSpill(options.spillDir == null ? null
+                    : new SpillQueue(options.spillDir, options.spillSegmentSize, options.spillPersistent));
+            return true;
+        }
+        errno.set(ZError.EINVAL);
+        return false;
+    }
+
     @Override
     protected void xwriteActivated(Pipe pipe)
     {
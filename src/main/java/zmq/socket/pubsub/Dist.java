@@ -107,6 +107,11 @@ public class Dist
     //  Activates pipe that have previously reached high watermark.
     public void activated(Pipe pipe)
     {
+        //  The pipe may have been written to directly, without being deactivated here.
+        if (pipes.indexOf(pipe) < eligible) {
+            return;
+        }
+
         //  Move the pipe from passive to eligible state.
         if (eligible < pipes.size()) {
             Collections.swap(pipes, pipes.indexOf(pipe), eligible);
@@ -157,6 +162,11 @@ public class Dist
 
         // TODO isVsm
 
+        //  The message is shared by the pipes, the engines will share its encoded frame as well.
+        if (matching > 1) {
+            msg.setFlags(Msg.SHARED);
+        }
+
         //  Push copy of the message to each matching pipe.
         for (int idx = 0; idx < matching; ++idx) {
             if (!write(pipes.get(idx), msg)) {
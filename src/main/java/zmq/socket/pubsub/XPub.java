@@ -1,7 +1,15 @@
 package zmq.socket.pubsub;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import zmq.Ctx;
 import zmq.Msg;
@@ -9,6 +17,8 @@ import zmq.Options;
 import zmq.SocketBase;
 import zmq.ZError;
 import zmq.ZMQ;
+import zmq.pipe.FanoutCursor;
+import zmq.pipe.FanoutRing;
 import zmq.pipe.Pipe;
 import zmq.socket.pubsub.Mtrie.IMtrieHandler;
 import zmq.util.Blob;
@@ -70,6 +80,35 @@ public class XPub extends SocketBase
     private final Deque<Blob>    pendingData;
     private final Deque<Integer> pendingFlags;
 
+    //  Ring the messages are published to for the inproc subscribers, if any.
+    //  Read by the thread of the subscribers connecting to this socket.
+    private volatile FanoutRing ring;
+
+    //  Pipes reading the messages from the ring.
+    private final List<Pipe> fanouts;
+
+    //  If true, the latest message of each topic is kept and sent to the new subscribers.
+    private boolean lastValue;
+
+    //  If true, the messages for a subscriber at its HWM are conflated per topic
+    //  instead of being dropped.
+    private boolean conflateTopics;
+
+    //  Latest message of each topic, the topic being the first part of a multi-part message.
+    private final Map<Blob, Msg[]> lastValues;
+
+    //  Latest message of each topic not sent yet to the subscribers at their HWM.
+    private final Map<Pipe, Map<Blob, Msg[]>> conflated;
+
+    //  Parts of the message being sent, when the messages are kept by topic.
+    private final List<Msg> parts;
+
+    //  Pipes matching the message being sent, when conflating.
+    private final Set<Pipe> matching;
+
+    //  Last values to send to new subscribers once the message being sent is complete.
+    private final Map<Pipe, List<Msg[]>> pendingReplays;
+
     private static final IMtrieHandler markAsMatching     = new MarkAsMatching();
     private static final IMtrieHandler sendUnsubscription = new SendUnsubscription();
 
@@ -91,18 +130,39 @@ public class XPub extends SocketBase
         pendingPipes = new ArrayDeque<>();
         pendingData = new ArrayDeque<>();
         pendingFlags = new ArrayDeque<>();
+        fanouts = new ArrayList<>();
+        lastValues = new HashMap<>();
+        conflated = new HashMap<>();
+        parts = new ArrayList<>();
+        matching = new HashSet<>();
+        pendingReplays = new LinkedHashMap<>();
+    }
+
+    @Override
+    protected FanoutRing fanoutRing()
+    {
+        return ring;
     }
 
     @Override
     protected void xattachPipe(Pipe pipe, boolean subscribeToAll, boolean isLocallyInitiated)
     {
         assert (pipe != null);
-        dist.attach(pipe);
+        FanoutCursor cursor = pipe.getFanoutCursor();
+        if (cursor != null) {
+            //  The messages are read from the ring, they are not distributed to the pipe.
+            ring.attach(cursor);
+            fanouts.add(pipe);
+        }
+        else {
+            dist.attach(pipe);
+        }
 
         //  If subscribe_to_all_ is specified, the caller would like to subscribe
         //  to all data on this pipe, implicitly.
         if (subscribeToAll) {
             subscriptions.addOnTop(pipe);
+            replay(pipe, new byte[0], 0);
         }
 
         //  The pipe is active when attached. Let's read the subscriptions from
@@ -154,6 +214,7 @@ public class XPub extends SocketBase
                 }
                 else {
                     notify = subscriptions.add(sub, pipe) || verboseSubs;
+                    replay(pipe, sub.data(), 1);
                 }
 
                 //  If the request was a new subscription, or the subscription
@@ -170,6 +231,22 @@ public class XPub extends SocketBase
     @Override
     protected void xwriteActivated(Pipe pipe)
     {
+        Map<Blob, Msg[]> pending = conflated.get(pipe);
+        if (pending != null) {
+            //  Send the latest message of each topic the subscriber missed.
+            Iterator<Msg[]> it = pending.values().iterator();
+            while (it.hasNext()) {
+                if (!write(pipe, it.next())) {
+                    return;
+                }
+                it.remove();
+            }
+            conflated.remove(pipe);
+        }
+        if (pipe.getFanoutCursor() != null) {
+            //  The subscriber has read messages from the ring, a gated send can be retried.
+            return;
+        }
         dist.activated(pipe);
     }
 
@@ -193,16 +270,42 @@ public class XPub extends SocketBase
                 manual = Options.parseBoolean(option, optval);
             }
         }
+        else if (option == ZMQ.ZMQ_XPUB_LAST_VALUE) {
+            lastValue = Options.parseBoolean(option, optval);
+            if (!lastValue) {
+                lastValues.clear();
+            }
+        }
+        else if (option == ZMQ.ZMQ_XPUB_CONFLATE_TOPICS) {
+            if (more) {
+                //  The pipes matching the message being sent are known by a single mechanism.
+                errno.set(ZError.EFSM);
+                return false;
+            }
+            conflateTopics = Options.parseBoolean(option, optval);
+        }
+        else if (option == ZMQ.ZMQ_INPROC_FANOUT) {
+            int size = (Integer) optval;
+            if (size < 0 || ring != null) {
+                //  The ring cannot be replaced once created.
+                throw new IllegalArgumentException("inproc_fanout " + optval);
+            }
+            if (size > 0) {
+                ring = new FanoutRing(size);
+            }
+        }
         else if (option == ZMQ.ZMQ_SUBSCRIBE && manual) {
             if (null != lastPipe) {
-                String val = Options.parseString(option, optval);
-                subscriptions.add(new Msg(val.getBytes()), lastPipe);
+                //  The subscription keeps its leading byte, as received from the subscriber.
+                byte[] sub = Options.parseString(option, optval).getBytes(ZMQ.CHARSET);
+                subscriptions.add(new Msg(sub), lastPipe);
+                replay(lastPipe, sub, 1);
             }
         }
         else if (option == ZMQ.ZMQ_UNSUBSCRIBE && manual) {
             if (null != lastPipe) {
-                String val = Options.parseString(option, optval);
-                subscriptions.rm(new Msg(val.getBytes()), lastPipe);
+                byte[] sub = Options.parseString(option, optval).getBytes(ZMQ.CHARSET);
+                subscriptions.rm(new Msg(sub), lastPipe);
             }
         }
         else {
@@ -229,12 +332,27 @@ public class XPub extends SocketBase
             subscriptions.rm(pipe, sendUnsubscription, this);
         }
 
-        dist.terminated(pipe);
+        FanoutCursor cursor = pipe.getFanoutCursor();
+        if (cursor != null) {
+            ring.detach(cursor);
+            fanouts.remove(pipe);
+        }
+        else {
+            dist.terminated(pipe);
+        }
+        conflated.remove(pipe);
+        matching.remove(pipe);
+        pendingReplays.remove(pipe);
     }
 
     private void markAsMatching(Pipe pipe)
     {
-        dist.match(pipe);
+        if (conflateTopics) {
+            matching.add(pipe);
+        }
+        else {
+            dist.match(pipe);
+        }
     }
 
     @Override
@@ -247,16 +365,55 @@ public class XPub extends SocketBase
             subscriptions.match(msg.buf(), msg.size(), markAsMatching, this);
         }
 
+        if (conflateTopics) {
+            //  The message is sent as a whole once complete, conflated for the slow
+            //  subscribers, hence it is never dropped nor refused.
+            parts.add(msg);
+            if (ring != null) {
+                publish(msg);
+            }
+            more = msgMore;
+            if (!msgMore) {
+                Msg[] message = parts.toArray(new Msg[0]);
+                parts.clear();
+                for (Pipe pipe : matching) {
+                    if (pipe.getFanoutCursor() == null) {
+                        deliver(pipe, message);
+                    }
+                }
+                matching.clear();
+                completed(message);
+            }
+            return true;
+        }
+
+        if (!lossy && ring != null && !ring.hasRoom()) {
+            //  The slowest inproc subscriber has not read the oldest message of the ring.
+            errno.set(ZError.EAGAIN);
+            return false;
+        }
+
         if (lossy || dist.checkHwm()) {
             //  Send the message to all the pipes that were marked as matching
             //  in the previous step.
             if (dist.sendToMatching(msg)) {
+                if (ring != null) {
+                    publish(msg);
+                }
                 //  If we are at the end of multi-part message we can mark all the pipes
                 //  as non-matching.
                 if (!msgMore) {
                     dist.unmatch();
                 }
                 more = msgMore;
+                if (lastValue) {
+                    parts.add(msg);
+                    if (!msgMore) {
+                        Msg[] message = parts.toArray(new Msg[0]);
+                        parts.clear();
+                        completed(message);
+                    }
+                }
                 return true; //  Yay, sent successfully
             }
         }
@@ -267,9 +424,107 @@ public class XPub extends SocketBase
         return false;
     }
 
+    //  Keeps the message sent as the last value of its topic, and sends the last
+    //  values that were waiting for the end of the message.
+    private void completed(Msg[] message)
+    {
+        if (lastValue && message.length > 1) {
+            lastValues.put(Blob.createBlob(message[0]), message);
+        }
+        if (!pendingReplays.isEmpty()) {
+            for (Map.Entry<Pipe, List<Msg[]>> entry : pendingReplays.entrySet()) {
+                for (Msg[] value : entry.getValue()) {
+                    deliver(entry.getKey(), value);
+                }
+            }
+            pendingReplays.clear();
+        }
+    }
+
+    //  Sends the last value of each topic matching the subscription to the pipe.
+    private void replay(Pipe pipe, byte[] prefix, int offset)
+    {
+        if (lastValues.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<Blob, Msg[]> entry : lastValues.entrySet()) {
+            byte[] topic = entry.getKey().data();
+            if (topic.length < prefix.length - offset) {
+                continue;
+            }
+            boolean matches = true;
+            for (int idx = offset; matches && idx < prefix.length; ++idx) {
+                matches = topic[idx - offset] == prefix[idx];
+            }
+            if (!matches) {
+                continue;
+            }
+            if (more) {
+                //  The pipe may be in the middle of the message being sent.
+                pendingReplays.computeIfAbsent(pipe, key -> new ArrayList<>()).add(entry.getValue());
+            }
+            else {
+                deliver(pipe, entry.getValue());
+            }
+        }
+    }
+
+    //  Sends a whole message to the pipe, conflating it with the previous messages of
+    //  its topic if the pipe is at its HWM and the topics are conflated.
+    private void deliver(Pipe pipe, Msg[] message)
+    {
+        Map<Blob, Msg[]> pending = conflated.get(pipe);
+        if (pending == null && write(pipe, message)) {
+            return;
+        }
+        if (!conflateTopics || message.length < 2) {
+            //  Dropped, as a message without topic cannot be conflated.
+            return;
+        }
+        if (pending == null) {
+            pending = new LinkedHashMap<>();
+            conflated.put(pipe, pending);
+        }
+        pending.put(Blob.createBlob(message[0]), message);
+    }
+
+    //  Writes all the parts of the message to the pipe, returns false if the pipe is full.
+    //  A message is written whole or not at all.
+    private boolean write(Pipe pipe, Msg[] message)
+    {
+        if (!pipe.checkWrite()) {
+            return false;
+        }
+        for (Msg part : message) {
+            if (!pipe.write(part)) {
+                //  The pipe only stops between two messages, but should a part be refused
+                //  the message is taken back rather than left cut.
+                pipe.rollback();
+                return false;
+            }
+        }
+        pipe.flush();
+        return true;
+    }
+
+    //  Publishes the message once to the ring, for all the inproc subscribers
+    //  to read it and filter it on their side.
+    private void publish(Msg msg)
+    {
+        ring.write(msg);
+        if (!msg.hasMore() && ring.hasSleepers()) {
+            for (Pipe pipe : fanouts) {
+                pipe.flush();
+            }
+        }
+    }
+
     @Override
     protected boolean xhasOut()
     {
+        if (!lossy && ring != null && !ring.hasRoom()) {
+            return false;
+        }
         return dist.hasOut();
     }
 
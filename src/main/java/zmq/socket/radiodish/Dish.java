@@ -1,8 +1,8 @@
 package zmq.socket.radiodish;
 
 import java.nio.charset.StandardCharsets;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.HashMap;
+import java.util.Map;
 
 import zmq.Ctx;
 import zmq.Msg;
@@ -25,8 +25,8 @@ public class Dish extends SocketBase
     // Object for distributing the subscriptions upstream.
     private final Dist dist;
 
-    // The repository of subscriptions.
-    private final Set<String> subscriptions;
+    // The repository of subscriptions, with the instances of the groups interned when joined.
+    private final Map<Group, Group> subscriptions;
 
     // If true, 'message' contains a matching message to return on the
     // next recv call.
@@ -45,7 +45,16 @@ public class Dish extends SocketBase
 
         fq = new FQ();
         dist = new Dist();
-        subscriptions = new HashSet<>();
+        subscriptions = new HashMap<>();
+    }
+
+    @Override
+    protected void destroy()
+    {
+        //  The groups are not joined by this socket anymore.
+        subscriptions.values().forEach(Group::release);
+        subscriptions.clear();
+        super.destroy();
     }
 
     @Override
@@ -87,18 +96,21 @@ public class Dish extends SocketBase
     }
 
     @Override
-    protected boolean xjoin(String group)
+    protected boolean xjoin(String name)
     {
-        if (group.length() > Msg.MAX_GROUP_LENGTH) {
+        Group group = Group.of(name);
+        if (group == null) {
             errno.set(ZError.EINVAL);
             return false;
         }
-
         // User cannot join same group twice
-        if (!subscriptions.add(group)) {
+        if (subscriptions.containsKey(group)) {
             errno.set(ZError.EINVAL);
             return false;
         }
+        //  Joined groups are interned, so that the messages of the group are matched by identity
+        group = Group.intern(group);
+        subscriptions.put(group, group);
 
         Msg msg = new Msg();
         msg.initJoin();
@@ -110,17 +122,20 @@ public class Dish extends SocketBase
     }
 
     @Override
-    protected boolean xleave(String group)
+    protected boolean xleave(String name)
     {
-        if (group.length() > Msg.MAX_GROUP_LENGTH) {
+        Group group = Group.of(name);
+        if (group == null) {
             errno.set(ZError.EINVAL);
             return false;
         }
 
-        if (!subscriptions.remove(group)) {
+        Group joined = subscriptions.remove(group);
+        if (joined == null) {
             errno.set(ZError.EINVAL);
             return false;
         }
+        Group.release(joined);
 
         Msg msg = new Msg();
         msg.initLeave();
@@ -165,7 +180,7 @@ public class Dish extends SocketBase
         }
 
         // Skip non matching messages
-        while (!subscriptions.contains(msg.getGroup())) {
+        while (msg.group() == null || !subscriptions.containsKey(msg.group())) {
             msg = fq.recv(errno);
             if (msg == null) {
                 return null;
@@ -204,7 +219,7 @@ public class Dish extends SocketBase
 
     private void sendSubscriptions(Pipe pipe)
     {
-        subscriptions.forEach(s -> {
+        subscriptions.keySet().forEach(s -> {
             Msg msg = new Msg();
             msg.initJoin();
             msg.setGroup(s);
@@ -226,7 +241,7 @@ public class Dish extends SocketBase
         }
 
         private State state;
-        private String group;
+        private Group group;
 
         public DishSession(IOThread ioThread, boolean connect, SocketBase socket, final Options options,
                            final Address addr)
@@ -234,7 +249,7 @@ public class Dish extends SocketBase
             super(ioThread, connect, socket, options, addr);
 
             state = State.GROUP;
-            group = "";
+            group = null;
         }
 
         @Override
@@ -252,7 +267,7 @@ public class Dish extends SocketBase
                     return false;
                 }
 
-                group = new String(msg.data(), StandardCharsets.US_ASCII);
+                group = Group.of(msg.data(), 0, msg.size());
                 state = State.BODY;
 
                 return true;
@@ -292,21 +307,17 @@ public class Dish extends SocketBase
 
             Msg command;
 
-            byte[] groupBytes = msg.getGroup().getBytes(StandardCharsets.US_ASCII);
+            Group group = msg.group();
+            byte[] prefix = msg.isJoin() ? JOIN_BYTES : LEAVE_BYTES;
 
-            if (msg.isJoin()) {
-                command = new Msg(groupBytes.length + 5);
-                command.put(JOIN_BYTES);
-            }
-            else {
-                command = new Msg(groupBytes.length + 6);
-                command.put(LEAVE_BYTES);
-            }
-
-            command.setFlags(Msg.COMMAND);
+            byte[] data = new byte[prefix.length + group.size()];
+            System.arraycopy(prefix, 0, data, 0, prefix.length);
 
             //  Copy the group
-            command.put(groupBytes);
+            group.copy(data, prefix.length);
+
+            command = new Msg(data);
+            command.setFlags(Msg.COMMAND);
 
             return command;
         }
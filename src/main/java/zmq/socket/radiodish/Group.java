@@ -0,0 +1,196 @@
+package zmq.socket.radiodish;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import zmq.Msg;
+import zmq.ZMQ;
+
+//  Group of RADIO/DISH messages, identified by its bytes.
+//
+//  Groups are interned when joined by a local DISH, so that the group of a message
+//  received for a joined group is found without allocation and compared by identity.
+//  The groups sent by remote peers are never interned. An interned group is counted
+//  once per join, and removed when the last DISH leaves it.
+//  Other groups are created on demand and compared by content, hence matching never
+//  relies on interning. The number of interned groups is bounded, the groups beyond
+//  the bound are simply not interned.
+public final class Group
+{
+    //  Maximum number of interned groups.
+    private static final int MAX_INTERNED = 1 << 16;
+
+    private static final ConcurrentMap<Group, Group>  INTERNED = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Group> NAMES    = new ConcurrentHashMap<>();
+
+    //  Mutable group used to look up the interned groups without allocation.
+    private static final ThreadLocal<Group> PROBE = ThreadLocal.withInitial(Group::new);
+
+    private byte[] data;
+    private int    offset;
+    private int    length;
+    private int    hash;
+
+    //  Decoded name of the group, computed lazily.
+    private String name;
+
+    //  Number of joins of an interned group, guarded by the class.
+    private int joins;
+
+    private Group()
+    {
+    }
+
+    private Group(byte[] data, String name)
+    {
+        this.data = data;
+        this.length = data.length;
+        this.hash = hash(data, 0, data.length);
+        this.name = name;
+    }
+
+    //  Returns the group of the given name, or null if it is longer than Msg.MAX_GROUP_LENGTH.
+    public static Group of(String name)
+    {
+        Group group = NAMES.get(name);
+        if (group != null) {
+            return group;
+        }
+        byte[] bytes = name.getBytes(ZMQ.CHARSET);
+        if (bytes.length > Msg.MAX_GROUP_LENGTH) {
+            return null;
+        }
+        group = interned(bytes, 0, bytes.length);
+        return group == null ? new Group(bytes, name) : group;
+    }
+
+    //  Returns the group of the given bytes, without allocation if the group is interned.
+    public static Group of(byte[] data, int offset, int length)
+    {
+        Group group = interned(data, offset, length);
+        return group == null ? new Group(Arrays.copyOfRange(data, offset, offset + length), null) : group;
+    }
+
+    //  Returns the interned instance of a group joined locally, interning it if possible.
+    //  The returned instance shall be given back to release once the group is left.
+    public static synchronized Group intern(Group group)
+    {
+        Group interned = INTERNED.get(group);
+        if (interned == null) {
+            if (INTERNED.size() >= MAX_INTERNED) {
+                return group;
+            }
+            interned = group;
+            INTERNED.put(interned, interned);
+            //  Only the groups whose name round-trips can be found by name.
+            if (Arrays.equals(interned.name().getBytes(ZMQ.CHARSET), interned.data())) {
+                NAMES.put(interned.name(), interned);
+            }
+        }
+        interned.joins++;
+        return interned;
+    }
+
+    //  Releases a group returned by intern, removing it from the interned groups
+    //  when it is not joined anymore.
+    public static synchronized void release(Group group)
+    {
+        if (INTERNED.get(group) != group) {
+            //  The group could not be interned.
+            return;
+        }
+        if (--group.joins == 0) {
+            INTERNED.remove(group);
+            NAMES.remove(group.name(), group);
+        }
+    }
+
+    //  Returns the interned group of the given bytes, or null if there is none.
+    private static Group interned(byte[] data, int offset, int length)
+    {
+        Group probe = PROBE.get().reset(data, offset, length);
+        Group interned = INTERNED.get(probe);
+        probe.reset(null, 0, 0);
+        return interned;
+    }
+
+    private Group reset(byte[] data, int offset, int length)
+    {
+        this.data = data;
+        this.offset = offset;
+        this.length = length;
+        this.hash = data == null ? 0 : hash(data, offset, length);
+        return this;
+    }
+
+    private static int hash(byte[] data, int offset, int length)
+    {
+        int hash = 1;
+        for (int idx = offset; idx < offset + length; ++idx) {
+            hash = 31 * hash + data[idx];
+        }
+        return hash;
+    }
+
+    public int size()
+    {
+        return length;
+    }
+
+    //  Copies the bytes of the group into the given array.
+    public void copy(byte[] dest, int destOffset)
+    {
+        System.arraycopy(data, offset, dest, destOffset, length);
+    }
+
+    //  Returns the bytes of the group. They shall not be modified.
+    public byte[] data()
+    {
+        if (offset == 0 && data.length == length) {
+            return data;
+        }
+        return Arrays.copyOfRange(data, offset, offset + length);
+    }
+
+    public String name()
+    {
+        if (name == null) {
+            name = new String(data, offset, length, ZMQ.CHARSET);
+        }
+        return name;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Group)) {
+            return false;
+        }
+        Group group = (Group) other;
+        if (hash != group.hash || length != group.length) {
+            return false;
+        }
+        for (int idx = 0; idx < length; ++idx) {
+            if (data[offset + idx] != group.data[group.offset + idx]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString()
+    {
+        return name();
+    }
+}
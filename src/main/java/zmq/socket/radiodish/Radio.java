@@ -12,7 +12,6 @@ import zmq.io.net.Address;
 import zmq.pipe.Pipe;
 import zmq.socket.pubsub.Dist;
 
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -20,7 +19,8 @@ import java.util.Map;
 
 public class Radio extends SocketBase
 {
-    private final Map<String, List<Pipe>> subscriptions;
+    private final Map<Group, List<Pipe>> subscriptions;
+    private final List<Pipe> udpPipes;
     private final Dist dist;
 
     public Radio(Ctx parent, int tid, int sid)
@@ -30,6 +30,7 @@ public class Radio extends SocketBase
         options.type = ZMQ.ZMQ_RADIO;
 
         subscriptions = new HashMap<>();
+        udpPipes = new ArrayList<>();
         dist = new Dist();
     }
 
@@ -40,7 +41,16 @@ public class Radio extends SocketBase
 
         pipe.setNoDelay();
         dist.attach(pipe);
-        xreadActivated(pipe);
+
+        //  Datagram transports do not forward subscriptions, all the groups are sent to them.
+        if (subscribe2all) {
+            udpPipes.add(pipe);
+        }
+        //  The pipe is active when attached. Let's read the subscriptions from
+        //  it, if any.
+        else {
+            xreadActivated(pipe);
+        }
     }
 
     @Override
@@ -49,15 +59,15 @@ public class Radio extends SocketBase
         Msg msg = pipe.read();
         while (msg != null) {
             if (msg.isJoin()) {
-                List<Pipe> pipes = subscriptions.computeIfAbsent(msg.getGroup(), k -> new ArrayList<>());
+                List<Pipe> pipes = subscriptions.computeIfAbsent(msg.group(), k -> new ArrayList<>());
                 pipes.add(pipe);
             }
             else if (msg.isLeave()) {
-                List<Pipe> pipes = subscriptions.get(msg.getGroup());
+                List<Pipe> pipes = subscriptions.get(msg.group());
                 if (pipes != null) {
                     pipes.remove(pipe);
                     if (pipes.isEmpty()) {
-                        subscriptions.remove(msg.getGroup());
+                        subscriptions.remove(msg.group());
                     }
                 }
             }
@@ -79,6 +89,7 @@ public class Radio extends SocketBase
             entry.getValue().remove(pipe);
             return entry.getValue().isEmpty();
         });
+        udpPipes.remove(pipe);
 
         dist.terminated(pipe);
     }
@@ -94,10 +105,16 @@ public class Radio extends SocketBase
 
         dist.unmatch();
 
-        List<Pipe> range = subscriptions.get(msg.getGroup());
-        if (range != null) {
-            for (int i = 0; i < range.size(); i++) {
-                dist.match(range.get(i));
+        Group group = msg.group();
+        if (group != null) {
+            List<Pipe> range = subscriptions.get(group);
+            if (range != null) {
+                for (int i = 0; i < range.size(); i++) {
+                    dist.match(range.get(i));
+                }
+            }
+            for (int i = 0; i < udpPipes.size(); i++) {
+                dist.match(udpPipes.get(i));
             }
         }
 
@@ -150,29 +167,18 @@ public class Radio extends SocketBase
         public boolean pushMsg(Msg msg)
         {
             if (msg.isCommand()) {
-                byte commandNameSize = msg.get(0);
-
-                if (msg.size() < commandNameSize + 1) {
-                    return super.pushMsg(msg);
-                }
-
                 byte[] data = msg.data();
 
-                String commandName = new String(data, 1, commandNameSize, StandardCharsets.US_ASCII);
-
-                int groupLength;
-                String group;
+                int prefix;
                 Msg joinLeaveMsg = new Msg();
 
                 // Set the msg type to either JOIN or LEAVE
-                if (commandName.equals("JOIN")) {
-                    groupLength = msg.size() - 5;
-                    group = new String(data, 5, groupLength, StandardCharsets.US_ASCII);
+                if (startsWith(data, msg.size(), Dish.DishSession.JOIN_BYTES)) {
+                    prefix = Dish.DishSession.JOIN_BYTES.length;
                     joinLeaveMsg.initJoin();
                 }
-                else if (commandName.equals("LEAVE")) {
-                    groupLength = msg.size() - 6;
-                    group = new String(data, 6, groupLength, StandardCharsets.US_ASCII);
+                else if (startsWith(data, msg.size(), Dish.DishSession.LEAVE_BYTES)) {
+                    prefix = Dish.DishSession.LEAVE_BYTES.length;
                     joinLeaveMsg.initLeave();
                 }
                 // If it is not a JOIN or LEAVE just push the message
@@ -180,8 +186,13 @@ public class Radio extends SocketBase
                     return super.pushMsg(msg);
                 }
 
-                //  Set the group
-                joinLeaveMsg.setGroup(group);
+                if (msg.size() - prefix > Msg.MAX_GROUP_LENGTH) {
+                    errno.set(ZError.EFAULT);
+                    return false;
+                }
+
+                //  Set the group, compared by content as it comes from a peer
+                joinLeaveMsg.setGroup(Group.of(data, prefix, msg.size() - prefix));
 
                 //  Push the join or leave command
                 msg = joinLeaveMsg;
@@ -204,7 +215,7 @@ public class Radio extends SocketBase
                     }
 
                     //  First frame is the group
-                    msg = new Msg(pending.getGroup().getBytes(StandardCharsets.US_ASCII));
+                    msg = new Msg(pending.group().data());
                     msg.setFlags(Msg.MORE);
 
                     //  Next status is the body
@@ -221,6 +232,19 @@ public class Radio extends SocketBase
             return msg;
         }
 
+        private static boolean startsWith(byte[] data, int size, byte[] prefix)
+        {
+            if (size < prefix.length) {
+                return false;
+            }
+            for (int idx = 0; idx < prefix.length; ++idx) {
+                if (data[idx] != prefix[idx]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
         @Override
         protected void reset()
         {
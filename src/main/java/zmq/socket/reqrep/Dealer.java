@@ -9,6 +9,7 @@ import zmq.ZMQ;
 import zmq.pipe.Pipe;
 import zmq.socket.FQ;
 import zmq.socket.LB;
+import zmq.socket.SpillQueue;
 import zmq.util.Blob;
 import zmq.util.ValueReference;
 
@@ -34,6 +35,13 @@ public class Dealer extends SocketBase
         lb = new LB();
     }
 
+    @Override
+    protected void destroy()
+    {
+        lb.close();
+        super.destroy();
+    }
+
     @Override
     protected void xattachPipe(Pipe pipe, boolean subscribe2all, boolean isLocallyInitiated)
     {
@@ -56,6 +64,20 @@ public class Dealer extends SocketBase
             probeRouter = Options.parseBoolean(option, optval);
             return true;
         }
+        if (option == ZMQ.ZMQ_FQ_POLICY) {
+            fq.setPolicy((Integer) optval);
+            return true;
+        }
+        if (option == ZMQ.ZMQ_LB_POLICY) {
+            lb.setPolicy((Integer) optval);
+            return true;
+        }
+        if (option == ZMQ.ZMQ_SPILL_DIR && options.type == ZMQ.ZMQ_DEALER) {
+            options.spillDir = (String) optval;
+            lb.setSpill(options.spillDir == null ? null
+                    : new SpillQueue(options.spillDir, options.spillSegmentSize, options.spillPersistent));
+            return true;
+        }
         errno.set(ZError.EINVAL);
         return false;
     }
@@ -3,6 +3,7 @@ package zmq.socket.scattergather;
 import zmq.Ctx;
 import zmq.Msg;
 import zmq.SocketBase;
+import zmq.ZError;
 import zmq.ZMQ;
 import zmq.pipe.Pipe;
 import zmq.socket.FQ;
@@ -66,6 +67,17 @@ public class Gather extends SocketBase
         return fq.getCredential();
     }
 
+    @Override
+    protected boolean xsetsockopt(int option, Object optval)
+    {
+        if (option == ZMQ.ZMQ_FQ_POLICY) {
+            fq.setPolicy((Integer) optval);
+            return true;
+        }
+        errno.set(ZError.EINVAL);
+        return false;
+    }
+
     @Override
     protected void xreadActivated(Pipe pipe)
     {
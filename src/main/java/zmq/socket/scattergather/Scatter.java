@@ -35,6 +35,17 @@ public class Scatter extends SocketBase
         lb.attach(pipe);
     }
 
+    @Override
+    protected boolean xsetsockopt(int option, Object optval)
+    {
+        if (option == ZMQ.ZMQ_LB_POLICY) {
+            lb.setPolicy((Integer) optval);
+            return true;
+        }
+        errno.set(ZError.EINVAL);
+        return false;
+    }
+
     @Override
     protected boolean xsend(Msg msg)
     {
@@ -3,14 +3,18 @@ package zmq.util;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.net.ServerSocket;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SocketChannel;
 import java.security.SecureRandom;
 
 import zmq.io.net.Address;
+import zmq.io.net.ipc.IpcUtils;
 import zmq.io.net.tcp.TcpUtils;
 import zmq.util.function.Supplier;
 
@@ -136,8 +140,49 @@ public class Utils
         return ret && path.delete();
     }
 
+    //  Releases the mapping of a memory-mapped buffer at once, instead of when the buffer
+    //  is garbage collected. The buffer and its slices shall not be used anymore.
+    //  Returns false if the mapping could not be released.
+    public static boolean unmap(MappedByteBuffer buffer)
+    {
+        if (buffer == null) {
+            return false;
+        }
+        try {
+            //  Java 9 and later.
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            return true;
+        }
+        catch (ReflectiveOperationException | RuntimeException e) {
+            //  Java 8.
+            try {
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner == null) {
+                    return false;
+                }
+                Method clean = cleaner.getClass().getMethod("clean");
+                clean.setAccessible(true);
+                clean.invoke(cleaner);
+                return true;
+            }
+            catch (ReflectiveOperationException | RuntimeException ex) {
+                return false;
+            }
+        }
+    }
+
     public static Address getPeerIpAddress(SocketChannel fd)
     {
+        Address ipc = IpcUtils.getPeerAddress(fd);
+        if (ipc != null) {
+            return ipc;
+        }
         SocketAddress address = fd.socket().getRemoteSocketAddress();
 
         return new Address(address);
@@ -96,6 +96,101 @@ public class TestZMQ
         context.term();
     }
 
+    @Test
+    public void testSendRecvMany()
+    {
+        Context context = ZMQ.context(1);
+
+        Socket push = context.socket(SocketType.PUSH);
+        Socket pull = context.socket(SocketType.PULL);
+
+        boolean rc = pull.bind("inproc://many");
+        assertThat(rc, is(true));
+        rc = push.connect("inproc://many");
+        assertThat(rc, is(true));
+
+        byte[][] data = new byte[][] { "A".getBytes(ZMQ.CHARSET), "B".getBytes(ZMQ.CHARSET), "C".getBytes(ZMQ.CHARSET) };
+        int sent = push.sendMany(data, 0, data.length, 0);
+        assertThat(sent, is(3));
+
+        byte[][] received = new byte[5][];
+        int count = pull.recvMany(received, received.length, 0);
+        assertThat(count, is(3));
+        assertThat(new String(received[0], ZMQ.CHARSET), is("A"));
+        assertThat(new String(received[2], ZMQ.CHARSET), is("C"));
+        assertThat(pull.hasReceiveMore(), is(false));
+
+        push.close();
+        pull.close();
+        context.term();
+    }
+
+    @Test
+    public void testRecvManyRejectsMaxLargerThanArray()
+    {
+        Context context = ZMQ.context(1);
+
+        Socket push = context.socket(SocketType.PUSH);
+        Socket pull = context.socket(SocketType.PULL);
+        assertThat(pull.bind("inproc://many-invalid"), is(true));
+        assertThat(push.connect("inproc://many-invalid"), is(true));
+        assertThat(push.send("A"), is(true));
+
+        try {
+            pull.recvMany(new byte[1][], 2, 0);
+            fail("recvMany should have failed");
+        }
+        catch (ZMQException e) {
+            assertThat(e.getErrorCode(), is(ZError.EINVAL));
+        }
+
+        //  The message was left in the socket.
+        assertThat(pull.recvStr(), is("A"));
+
+        push.close();
+        pull.close();
+        context.term();
+    }
+
+    @Test
+    public void testSendManyRejectsInvalidRange()
+    {
+        Context context = ZMQ.context(1);
+
+        Socket push = context.socket(SocketType.PUSH);
+        Socket pull = context.socket(SocketType.PULL);
+        assertThat(pull.bind("inproc://many-range"), is(true));
+        assertThat(push.connect("inproc://many-range"), is(true));
+
+        byte[][] data = new byte[][] { "A".getBytes(ZMQ.CHARSET), null, "C".getBytes(ZMQ.CHARSET) };
+        int[][] ranges = new int[][] { { -1, 1 }, { 0, 4 }, { 3, 1 }, { 2, Integer.MAX_VALUE }, { 0, 2 } };
+        for (int[] range : ranges) {
+            try {
+                push.sendMany(data, range[0], range[1], ZMQ.DONTWAIT);
+                fail("sendMany should have failed");
+            }
+            catch (ZMQException e) {
+                assertThat(e.getErrorCode(), is(ZError.EINVAL));
+            }
+        }
+        try {
+            push.sendMany(null, 0, 1, ZMQ.DONTWAIT);
+            fail("sendMany should have failed");
+        }
+        catch (ZMQException e) {
+            assertThat(e.getErrorCode(), is(ZError.EINVAL));
+        }
+
+        //  No message was sent.
+        assertNull(pull.recv(ZMQ.DONTWAIT));
+        assertThat(push.sendMany(data, 2, 1, 0), is(1));
+        assertThat(pull.recvStr(), is("C"));
+
+        push.close();
+        pull.close();
+        context.term();
+    }
+
     @Test
     public void testSocketUnbind()
     {
@@ -236,6 +236,34 @@ public class TestZPoller
         }
     }
 
+    @Test(timeout = 5000)
+    public void testChangedEventsOfRegisteredItem() throws IOException
+    {
+        ZContext ctx = new ZContext();
+        ZPoller poller = new ZPoller(ctx);
+        try {
+            Socket pull = ctx.createSocket(SocketType.PULL);
+            int port = pull.bindToRandomPort("tcp://127.0.0.1");
+            Socket push = ctx.createSocket(SocketType.PUSH);
+            assertTrue(push.connect("tcp://127.0.0.1:" + port));
+
+            ItemHolder holder = new ZPoller.ZPollItem(push, null, ZPoller.IN);
+            assertTrue(poller.register(holder));
+            poller.poll(0);
+            assertThat(poller.isWritable(push), is(false));
+
+            // the new events of the registered item are polled
+            holder.item().interestOps(ZPoller.OUT);
+            int rc = poller.poll(1000);
+            assertThat(rc, is(1));
+            assertThat(poller.isWritable(push), is(true));
+        }
+        finally {
+            poller.close();
+            ctx.close();
+        }
+    }
+
     @Test(timeout = 5000)
     public void testGlobalHandler() throws IOException
     {
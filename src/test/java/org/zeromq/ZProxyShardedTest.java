@@ -0,0 +1,108 @@
+package org.zeromq;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.zeromq.ZMQ.Socket;
+
+public class ZProxyShardedTest
+{
+    private static final class ShardedProvider extends ZProxy.Proxy.SimpleProxy
+    {
+        @Override
+        public Socket create(ZContext ctx, ZProxy.Plug place, Object... args)
+        {
+            if (place == ZProxy.Plug.FRONT) {
+                return ctx.createSocket(SocketType.PULL);
+            }
+            if (place == ZProxy.Plug.BACK) {
+                return ctx.createSocket(SocketType.PUSH);
+            }
+            return null;
+        }
+
+        @Override
+        public boolean configure(Socket socket, ZProxy.Plug place, Object... args)
+        {
+            ZProxy.Shard shard = ZProxy.Shard.of(args);
+            assertThat(shard, notNullValue());
+            assertThat(args[0], is("ARG"));
+            if (place == ZProxy.Plug.FRONT) {
+                return socket.bind("inproc://sharded-front-" + shard.index());
+            }
+            if (place == ZProxy.Plug.BACK) {
+                return socket.bind("inproc://sharded-back-" + shard.index());
+            }
+            return true;
+        }
+
+        @Override
+        public boolean configure(Socket pipe, ZMsg cfg, Socket frontend, Socket backend, Socket capture,
+                                 Object... args)
+        {
+            assertThat(cfg.popString(), is("CONFIG"));
+            ZMsg reply = new ZMsg();
+            reply.add("SHARD-" + ZProxy.Shard.of(args).index());
+            return reply.send(pipe);
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testShardsRelayMessages()
+    {
+        final int shards = 3;
+        try (ZContext ctx = new ZContext()) {
+            ZProxy proxy = ZProxy.newShardedProxy(ctx, "Sharded", shards, new ShardedProvider(), null, "ARG");
+            assertThat(proxy.start(true), is(ZProxy.STARTED));
+
+            Socket worker = ctx.createSocket(SocketType.PULL);
+            Socket[] clients = new Socket[shards];
+            for (int index = 0; index < shards; ++index) {
+                assertThat(worker.connect("inproc://sharded-back-" + index), is(true));
+                clients[index] = ctx.createSocket(SocketType.PUSH);
+                assertThat(clients[index].connect("inproc://sharded-front-" + index), is(true));
+            }
+
+            Set<String> expected = new HashSet<>();
+            for (int index = 0; index < shards; ++index) {
+                for (int idx = 0; idx < 10; ++idx) {
+                    String msg = index + ":" + idx;
+                    assertThat(clients[index].send(msg), is(true));
+                    expected.add(msg);
+                }
+            }
+            Set<String> received = new HashSet<>();
+            for (int idx = 0; idx < expected.size(); ++idx) {
+                received.add(worker.recvStr());
+            }
+            assertThat(received, is(expected));
+
+            //  The commands are performed by all the shards.
+            assertThat(proxy.pause(true), is(ZProxy.PAUSED));
+            assertThat(clients[1].send("paused"), is(true));
+            worker.setReceiveTimeOut(100);
+            assertThat(worker.recvStr(), nullValue());
+            assertThat(proxy.start(true), is(ZProxy.STARTED));
+            worker.setReceiveTimeOut(-1);
+            assertThat(worker.recvStr(), is("paused"));
+
+            ZMsg cfg = new ZMsg();
+            cfg.add("CONFIG");
+            ZMsg replies = proxy.configure(cfg);
+            assertThat(replies.size(), is(shards));
+            for (int index = 0; index < shards; ++index) {
+                assertThat(replies.popString(), is("SHARD-" + index));
+            }
+            assertThat(proxy.status(), is(ZProxy.STARTED));
+
+            assertThat(proxy.exit(), is(ZProxy.EXITED));
+            assertThat(proxy.status(), is(ZProxy.EXITED));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package perf;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+//  Measures the rate of gauge updates a conflating PULL socket absorbs from its I/O thread,
+//  while a consumer keeps reading the latest value.
+public class ConflateThr
+{
+    private ConflateThr()
+    {
+    }
+
+    public static void main(String[] argv) throws InterruptedException
+    {
+        if (argv.length != 2) {
+            printf("usage: conflate_thr <part-count> <update-count>\n");
+            return;
+        }
+
+        int partCount = atoi(argv[0]);
+        long updateCount = atoi(argv[1]);
+
+        Ctx ctx = ZMQ.init(1);
+
+        final SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        ZMQ.setSocketOption(pull, ZMQ.ZMQ_CONFLATE, true);
+        boolean rc = ZMQ.bind(pull, "tcp://127.0.0.1:*");
+        if (!rc) {
+            printf("error in bind: %s\n", pull.errno());
+            return;
+        }
+        String endpoint = (String) ZMQ.getSocketOptionExt(pull, ZMQ.ZMQ_LAST_ENDPOINT);
+
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        rc = ZMQ.connect(push, endpoint);
+        if (!rc) {
+            printf("error in connect: %s\n", push.errno());
+            return;
+        }
+
+        final long last = updateCount - 1;
+        final AtomicLong reads = new AtomicLong();
+        Thread consumer = new Thread(() -> {
+            long value = -1;
+            while (value != last) {
+                Msg msg = ZMQ.recv(pull, 0);
+                while (msg.hasMore()) {
+                    msg = ZMQ.recv(pull, 0);
+                }
+                value = ByteBuffer.wrap(msg.data()).getLong();
+                reads.incrementAndGet();
+            }
+        });
+        consumer.start();
+
+        long watch = ZMQ.startStopwatch();
+        for (long update = 0; update < updateCount; ++update) {
+            for (int part = 1; part < partCount; ++part) {
+                ZMQ.send(push, new Msg(8), ZMQ.ZMQ_SNDMORE);
+            }
+            Msg msg = new Msg(8);
+            msg.buf().putLong(0, update);
+            ZMQ.send(push, msg, 0);
+        }
+        long sent = ZMQ.stopStopwatch(watch);
+        consumer.join();
+        long elapsed = ZMQ.stopStopwatch(watch);
+
+        printf("part count: %d\n", partCount);
+        printf("update count: %d\n", updateCount);
+        printf("mean send rate: %d [update/s]\n", updateCount * 1000000 / Math.max(sent, 1));
+        printf("latest value read after: %d [ms]\n", elapsed / 1000);
+        printf("values read: %d\n", reads.get());
+
+        ZMQ.close(push);
+        ZMQ.close(pull);
+        ZMQ.term(ctx);
+    }
+
+    private static int atoi(String string)
+    {
+        return Integer.parseInt(string);
+    }
+
+    private static void printf(String string, Object... args)
+    {
+        System.out.print(String.format(string, args));
+    }
+}
@@ -0,0 +1,108 @@
+package perf;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+//  Measures the direct memory held by the engines of idle TCP connections,
+//  with the buffers kept for the whole connection or given back after an idle time.
+//  The released buffers kept by the pool of the I/O thread are counted.
+public class IdleMem
+{
+    private IdleMem()
+    {
+    }
+
+    public static void main(String[] argv) throws InterruptedException
+    {
+        if (argv.length != 2) {
+            printf("usage: idle_mem <connection-count> <idle-release-ms>\n");
+            return;
+        }
+
+        int connectionCount = atoi(argv[0]);
+        int idleRelease = atoi(argv[1]);
+
+        Ctx ctx = ZMQ.init(1);
+        ctx.set(ZMQ.ZMQ_MAX_SOCKETS, connectionCount + 1);
+
+        long before = directMemory();
+
+        SocketBase router = ZMQ.socket(ctx, ZMQ.ZMQ_ROUTER);
+        ZMQ.setSocketOption(router, ZMQ.ZMQ_IDLE_RELEASE, idleRelease);
+        boolean rc = ZMQ.bind(router, "tcp://127.0.0.1:*");
+        if (!rc) {
+            printf("error in bind: %s\n", router.errno());
+            return;
+        }
+        String endpoint = (String) ZMQ.getSocketOptionExt(router, ZMQ.ZMQ_LAST_ENDPOINT);
+
+        SocketBase[] dealers = new SocketBase[connectionCount];
+        for (int idx = 0; idx < connectionCount; ++idx) {
+            dealers[idx] = ZMQ.socket(ctx, ZMQ.ZMQ_DEALER);
+            ZMQ.setSocketOption(dealers[idx], ZMQ.ZMQ_IDLE_RELEASE, idleRelease);
+            rc = ZMQ.connect(dealers[idx], endpoint);
+            if (!rc) {
+                printf("error in connect: %s\n", dealers[idx].errno());
+                return;
+            }
+        }
+
+        //  Each connection carries a message and its reply, then stays idle.
+        for (SocketBase dealer : dealers) {
+            ZMQ.send(dealer, "hello", 0);
+        }
+        for (int idx = 0; idx < connectionCount; ++idx) {
+            Msg identity = ZMQ.recv(router, 0);
+            Msg msg = ZMQ.recv(router, 0);
+            ZMQ.send(router, identity, ZMQ.ZMQ_SNDMORE);
+            ZMQ.send(router, msg, 0);
+        }
+        for (SocketBase dealer : dealers) {
+            ZMQ.recv(dealer, 0);
+        }
+
+        //  Wait for the engines to notice they are idle.
+        Thread.sleep(Math.max(1000, 3L * idleRelease));
+        long idle = directMemory();
+
+        printf("connection count: %d\n", connectionCount);
+        printf("idle release: %d [ms]\n", idleRelease);
+        printf("direct memory: %d [B/connection]\n", (idle - before) / connectionCount);
+
+        for (SocketBase dealer : dealers) {
+            ZMQ.close(dealer);
+        }
+        ZMQ.close(router);
+        ZMQ.term(ctx);
+    }
+
+    //  Returns the direct memory in use once the unreachable buffers are collected.
+    private static long directMemory() throws InterruptedException
+    {
+        for (int idx = 0; idx < 3; ++idx) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+
+    private static int atoi(String string)
+    {
+        return Integer.parseInt(string);
+    }
+
+    private static void printf(String string, Object... args)
+    {
+        System.out.print(String.format(string, args));
+    }
+}
@@ -0,0 +1,115 @@
+package perf;
+
+import zmq.Ctx;
+import zmq.Forwarder;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+//  Measures the rate of messages moved between a PULL frontend and a PUSH backend,
+//  by a proxy with or without capture socket, or by a forwarder in an I/O thread.
+public class ProxyThr
+{
+    private ProxyThr()
+    {
+    }
+
+    public static void main(String[] argv) throws InterruptedException
+    {
+        if (argv.length != 3) {
+            printf("usage: proxy_thr <message-size> <message-count> <proxy|capture|forwarder>\n");
+            return;
+        }
+
+        int messageSize = atoi(argv[0]);
+        long messageCount = atoi(argv[1]);
+        String mode = argv[2];
+        boolean withCapture = "capture".equals(mode);
+        boolean forwarded = "forwarder".equals(mode);
+
+        Ctx ctx = ZMQ.init(1);
+
+        final SocketBase frontend = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        ZMQ.bind(frontend, "inproc://frontend");
+        final SocketBase backend = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        ZMQ.bind(backend, "inproc://backend");
+        final SocketBase capture = withCapture ? ZMQ.socket(ctx, ZMQ.ZMQ_PUSH) : null;
+        SocketBase monitor = null;
+        if (capture != null) {
+            ZMQ.bind(capture, "inproc://capture");
+            monitor = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+            ZMQ.connect(monitor, "inproc://capture");
+        }
+        SocketBase control = ZMQ.socket(ctx, ZMQ.ZMQ_PAIR);
+        ZMQ.bind(control, "inproc://control");
+        final SocketBase proxyControl = ZMQ.socket(ctx, ZMQ.ZMQ_PAIR);
+        ZMQ.connect(proxyControl, "inproc://control");
+
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        ZMQ.connect(push, "inproc://frontend");
+        final SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        ZMQ.connect(pull, "inproc://backend");
+
+        Thread proxy = new Thread(() -> ZMQ.proxy(frontend, backend, capture, proxyControl));
+        Forwarder forwarder = null;
+        if (forwarded) {
+            forwarder = ZMQ.forwarder(frontend, backend);
+        }
+        else {
+            proxy.start();
+        }
+
+        final SocketBase captured = monitor;
+        Thread consumer = new Thread(() -> {
+            for (long idx = 0; idx < messageCount; ++idx) {
+                ZMQ.recv(pull, 0);
+                if (captured != null) {
+                    ZMQ.recv(captured, 0);
+                }
+            }
+        });
+        consumer.start();
+
+        long watch = ZMQ.startStopwatch();
+        for (long idx = 0; idx < messageCount; ++idx) {
+            ZMQ.send(push, new Msg(messageSize), 0);
+        }
+        consumer.join();
+        long elapsed = ZMQ.stopStopwatch(watch);
+
+        if (forwarder != null) {
+            forwarder.close();
+        }
+        else {
+            ZMQ.send(control, ZMQ.PROXY_TERMINATE, 0);
+            proxy.join();
+        }
+
+        printf("message size: %d [B]\n", messageSize);
+        printf("message count: %d\n", messageCount);
+        printf("mode: %s\n", mode);
+        printf("mean throughput: %d [msg/s]\n", messageCount * 1000000 / Math.max(elapsed, 1));
+
+        ZMQ.close(push);
+        ZMQ.close(pull);
+        if (monitor != null) {
+            ZMQ.close(monitor);
+            ZMQ.close(capture);
+        }
+        ZMQ.close(control);
+        ZMQ.close(proxyControl);
+        ZMQ.close(frontend);
+        ZMQ.close(backend);
+        ZMQ.term(ctx);
+    }
+
+    private static int atoi(String string)
+    {
+        return Integer.parseInt(string);
+    }
+
+    private static void printf(String string, Object... args)
+    {
+        System.out.print(String.format(string, args));
+    }
+}
@@ -0,0 +1,100 @@
+package perf;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+public class RemoteLat
+{
+    private RemoteLat()
+    {
+    }
+
+    public static void main(String[] args)
+    {
+        String connectTo;
+        int roundtripCount;
+        int messageSize;
+        Ctx ctx;
+        SocketBase s;
+        boolean rc;
+        int n;
+        int i;
+        Msg msg;
+
+        if (args.length != 3) {
+            printf("usage: remote_lat <connect-to> <message-size> " + "<roundtrip-count>\n");
+            return;
+        }
+        connectTo = args[0];
+        messageSize = atoi(args[1]);
+        roundtripCount = atoi(args[2]);
+
+        ctx = ZMQ.init(1);
+        if (ctx == null) {
+            printf("error in init: %s\n");
+            return;
+        }
+
+        s = ZMQ.socket(ctx, ZMQ.ZMQ_REQ);
+        if (s == null) {
+            printf("error in socket: %s\n", ZMQ.strerror(ctx.errno().get()));
+            return;
+        }
+
+        rc = ZMQ.connect(s, connectTo);
+        if (!rc) {
+            printf("error in connect: %s\n", ZMQ.strerror(s.errno()));
+            return;
+        }
+
+        msg = ZMQ.msgInitWithSize(messageSize);
+
+        long watch = ZMQ.startStopwatch();
+
+        for (i = 0; i != roundtripCount; i++) {
+            n = ZMQ.sendMsg(s, msg, 0);
+            if (n < 0) {
+                printf("error in sendmsg: %s\n", ZMQ.strerror(s.errno()));
+                return;
+            }
+            msg = ZMQ.recvMsg(s, 0);
+            if (msg == null) {
+                printf("error in recvmsg: %s\n", ZMQ.strerror(s.errno()));
+                return;
+            }
+            if (ZMQ.msgSize(msg) != messageSize) {
+                printf("message of incorrect size received\n");
+                return;
+            }
+        }
+
+        long elapsed = ZMQ.stopStopwatch(watch);
+
+        double latency = (double) elapsed / (roundtripCount * 2);
+
+        printf("message size: %d [B]\n", messageSize);
+        printf("roundtrip count: %d\n", roundtripCount);
+        printf("average latency: %.3f [us]\n", latency);
+
+        ZMQ.close(s);
+
+        ZMQ.term(ctx);
+    }
+
+    private static int atoi(String string)
+    {
+        return Integer.parseInt(string);
+    }
+
+    private static void printf(String string)
+    {
+        System.out.println(string);
+    }
+
+    private static void printf(String string, Object... args)
+    {
+        System.out.println(String.format(string, args));
+    }
+}
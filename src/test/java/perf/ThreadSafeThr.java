@@ -0,0 +1,111 @@
+package perf;
+
+import java.util.concurrent.CountDownLatch;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+//  Measures the throughput of a thread-safe CLIENT socket shared by an increasing number of sending threads.
+public class ThreadSafeThr
+{
+    private ThreadSafeThr()
+    {
+    }
+
+    public static void main(String[] argv) throws InterruptedException
+    {
+        if (argv.length != 3) {
+            printf("usage: thread_safe_thr <max-thread-count> <message-size> <message-count>\n");
+            return;
+        }
+
+        int maxThreadCount = atoi(argv[0]);
+        int messageSize = atoi(argv[1]);
+        int messageCount = atoi(argv[2]);
+
+        printf("message size: %d [B]\n", messageSize);
+        printf("message count: %d\n", messageCount);
+
+        for (int threadCount = 1; threadCount <= maxThreadCount; threadCount *= 2) {
+            long throughput = measure(threadCount, messageSize, messageCount);
+            printf("threads: %d, mean throughput: %d [msg/s]\n", threadCount, throughput);
+        }
+    }
+
+    private static long measure(int threadCount, final int messageSize, int messageCount) throws InterruptedException
+    {
+        Ctx ctx = ZMQ.init(1);
+
+        SocketBase server = ZMQ.socket(ctx, ZMQ.ZMQ_SERVER);
+        ZMQ.setSocketOption(server, ZMQ.ZMQ_RCVHWM, 0);
+        boolean rc = ZMQ.bind(server, "inproc://thread_safe_thr");
+        if (!rc) {
+            printf("error in bind: %s\n", server.errno());
+            return -1;
+        }
+
+        final SocketBase client = ZMQ.socket(ctx, ZMQ.ZMQ_CLIENT);
+        ZMQ.setSocketOption(client, ZMQ.ZMQ_SNDHWM, 0);
+        rc = ZMQ.connect(client, "inproc://thread_safe_thr");
+        if (!rc) {
+            printf("error in connect: %s\n", client.errno());
+            return -1;
+        }
+
+        final int count = messageCount / threadCount;
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] senders = new Thread[threadCount];
+        for (int idx = 0; idx < threadCount; ++idx) {
+            senders[idx] = new Thread(() -> {
+                try {
+                    start.await();
+                }
+                catch (InterruptedException e) {
+                    return;
+                }
+                for (int sent = 0; sent < count; ++sent) {
+                    ZMQ.send(client, new Msg(messageSize), 0);
+                }
+            });
+            senders[idx].start();
+        }
+
+        long total = (long) count * threadCount;
+        long watch = ZMQ.startStopwatch();
+        start.countDown();
+
+        for (long received = 0; received < total; ++received) {
+            Msg msg = ZMQ.recv(server, 0);
+            if (msg == null) {
+                printf("error in recv: %s\n", server.errno());
+                return -1;
+            }
+        }
+
+        long elapsed = ZMQ.stopStopwatch(watch);
+        if (elapsed == 0) {
+            elapsed = 1;
+        }
+        for (Thread sender : senders) {
+            sender.join();
+        }
+
+        ZMQ.close(client);
+        ZMQ.close(server);
+        ZMQ.term(ctx);
+
+        return total * 1000000L / elapsed;
+    }
+
+    private static int atoi(String string)
+    {
+        return Integer.parseInt(string);
+    }
+
+    private static void printf(String string, Object... args)
+    {
+        System.out.print(String.format(string, args));
+    }
+}
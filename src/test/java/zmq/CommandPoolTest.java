@@ -0,0 +1,86 @@
+package zmq;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class CommandPoolTest
+{
+    //  Pools are per thread, each test starts with an empty one.
+    private static void inNewThread(Runnable test) throws InterruptedException
+    {
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try {
+                test.run();
+            }
+            catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        thread.start();
+        thread.join();
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+
+    private static Command acquireInNewThread() throws InterruptedException
+    {
+        final AtomicReference<Command> acquired = new AtomicReference<>();
+        inNewThread(() -> acquired.set(CommandPool.acquire(null, Command.Type.ACTIVATE_READ, null)));
+        assertThat(acquired.get(), notNullValue());
+        return acquired.get();
+    }
+
+    @Test
+    public void testCommandIsReusedOnceRecycled() throws InterruptedException
+    {
+        inNewThread(() -> {
+            final Command cmd = CommandPool.acquire(null, Command.Type.BIND, "pipe");
+            assertThat(cmd.type, is(Command.Type.BIND));
+            assertThat(cmd.arg, is((Object) "pipe"));
+
+            //  While the command is in flight, another one is provided.
+            Command other = CommandPool.acquire(null, Command.Type.ACTIVATE_READ, null);
+            assertThat(other, not(sameInstance(cmd)));
+
+            //  Commands are given back by the threads that processed them.
+            try {
+                inNewThread(cmd::recycle);
+            }
+            catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            assertThat(cmd.arg, nullValue());
+
+            Command reused = CommandPool.acquire(null, Command.Type.ACTIVATE_WRITE, null);
+            assertThat(reused, sameInstance(cmd));
+            assertThat(reused.type, is(Command.Type.ACTIVATE_WRITE));
+        });
+    }
+
+    @Test
+    public void testCommandsOfOtherThreadsAreNotShared() throws InterruptedException
+    {
+        Command cmd = acquireInNewThread();
+        cmd.recycle();
+
+        assertThat(acquireInNewThread(), not(sameInstance(cmd)));
+    }
+
+    @Test
+    public void testUnpooledCommandIsNotRecycled()
+    {
+        Command cmd = new Command(null, Command.Type.ACTIVATE_READ, "arg");
+        cmd.recycle();
+        assertThat(cmd.arg, is((Object) "arg"));
+    }
+}
@@ -0,0 +1,168 @@
+package zmq;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+public class ForwarderTest
+{
+    @Test(timeout = 10000)
+    public void testForwardMultipartMessages()
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase frontend = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(ZMQ.bind(frontend, "inproc://frontend"), is(true));
+        SocketBase backend = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(ZMQ.bind(backend, "tcp://127.0.0.1:*"), is(true));
+        String endpoint = (String) ZMQ.getSocketOptionExt(backend, ZMQ.ZMQ_LAST_ENDPOINT);
+
+        Forwarder forwarder = ZMQ.forwarder(frontend, backend);
+        assertThat(forwarder, notNullValue());
+
+        SocketBase client = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(ZMQ.connect(client, "inproc://frontend"), is(true));
+        SocketBase worker = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(ZMQ.connect(worker, endpoint), is(true));
+
+        for (int idx = 0; idx < 1000; ++idx) {
+            ZMQ.send(client, "head" + idx, ZMQ.ZMQ_SNDMORE);
+            ZMQ.send(client, "body" + idx, 0);
+        }
+        for (int idx = 0; idx < 1000; ++idx) {
+            Msg msg = ZMQ.recv(worker, 0);
+            assertThat(new String(msg.data(), ZMQ.CHARSET), is("head" + idx));
+            assertThat(msg.hasMore(), is(true));
+            msg = ZMQ.recv(worker, 0);
+            assertThat(new String(msg.data(), ZMQ.CHARSET), is("body" + idx));
+            assertThat(msg.hasMore(), is(false));
+        }
+
+        //  Once closed, the sockets are given back to the application.
+        forwarder.close();
+        assertThat(ZMQ.send(client, "direct", 0), is(6));
+        Msg msg = ZMQ.recv(frontend, 0);
+        assertThat(new String(msg.data(), ZMQ.CHARSET), is("direct"));
+
+        ZMQ.close(client);
+        ZMQ.close(worker);
+        ZMQ.close(frontend);
+        ZMQ.close(backend);
+        ZMQ.term(ctx);
+    }
+
+    @Test(timeout = 10000)
+    public void testForwardSubscriptions()
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase xsub = ZMQ.socket(ctx, ZMQ.ZMQ_XSUB);
+        assertThat(ZMQ.bind(xsub, "inproc://xsub"), is(true));
+        SocketBase xpub = ZMQ.socket(ctx, ZMQ.ZMQ_XPUB);
+        assertThat(ZMQ.bind(xpub, "inproc://xpub"), is(true));
+        assertThat(ZMQ.forwarder(xsub, xpub), notNullValue());
+
+        SocketBase pub = ZMQ.socket(ctx, ZMQ.ZMQ_PUB);
+        assertThat(ZMQ.connect(pub, "inproc://xsub"), is(true));
+        SocketBase sub = ZMQ.socket(ctx, ZMQ.ZMQ_SUB);
+        ZMQ.setSocketOption(sub, ZMQ.ZMQ_SUBSCRIBE, "a");
+        assertThat(ZMQ.connect(sub, "inproc://xpub"), is(true));
+
+        //  The publisher only sends the messages once the subscription went through the forwarder.
+        ZMQ.setSocketOption(sub, ZMQ.ZMQ_RCVTIMEO, 50);
+        Msg msg = null;
+        while (msg == null) {
+            ZMQ.send(pub, "b", 0);
+            ZMQ.send(pub, "a", 0);
+            msg = ZMQ.recv(sub, 0);
+        }
+        assertThat(new String(msg.data(), ZMQ.CHARSET), is("a"));
+
+        //  Closing the sockets detaches the forwarder.
+        ZMQ.close(sub);
+        ZMQ.close(pub);
+        ZMQ.close(xsub);
+        ZMQ.close(xpub);
+        ZMQ.term(ctx);
+    }
+
+    @Test(timeout = 10000)
+    public void testForwardRespectsHighWaterMarks()
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase frontend = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        ZMQ.setSocketOption(frontend, ZMQ.ZMQ_RCVHWM, 10);
+        assertThat(ZMQ.bind(frontend, "inproc://frontend"), is(true));
+        SocketBase backend = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        ZMQ.setSocketOption(backend, ZMQ.ZMQ_SNDHWM, 10);
+        assertThat(ZMQ.bind(backend, "inproc://backend"), is(true));
+
+        SocketBase client = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        ZMQ.setSocketOption(client, ZMQ.ZMQ_SNDHWM, 10);
+        assertThat(ZMQ.connect(client, "inproc://frontend"), is(true));
+        SocketBase worker = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        ZMQ.setSocketOption(worker, ZMQ.ZMQ_RCVHWM, 10);
+        assertThat(ZMQ.connect(worker, "inproc://backend"), is(true));
+
+        Forwarder forwarder = ZMQ.forwarder(frontend, backend);
+        assertThat(forwarder, notNullValue());
+
+        //  The worker does not read, the pipes fill up to their limits.
+        ZMQ.setSocketOption(client, ZMQ.ZMQ_SNDTIMEO, 200);
+        int sent = 0;
+        while (ZMQ.send(client, Integer.toString(sent), 0) >= 0) {
+            sent++;
+        }
+        assertThat(client.errno(), is(ZError.EAGAIN));
+        assertThat(sent < 100, is(true));
+
+        //  All the messages accepted are delivered in order once the worker reads.
+        for (int idx = 0; idx < sent; ++idx) {
+            Msg msg = ZMQ.recv(worker, 0);
+            assertThat(new String(msg.data(), ZMQ.CHARSET), is(Integer.toString(idx)));
+        }
+        ZMQ.setSocketOption(worker, ZMQ.ZMQ_RCVTIMEO, 100);
+        assertThat(ZMQ.recv(worker, 0), nullValue());
+
+        forwarder.close();
+        ZMQ.close(client);
+        ZMQ.close(worker);
+        ZMQ.close(frontend);
+        ZMQ.close(backend);
+        ZMQ.term(ctx);
+    }
+
+    @Test(timeout = 10000)
+    public void testSocketIsForwardedOnce()
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase frontend = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        SocketBase backend = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        SocketBase other = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+
+        Forwarder forwarder = ZMQ.forwarder(frontend, backend);
+        assertThat(forwarder, notNullValue());
+
+        //  A socket already driven by a forwarder cannot be attached to another one.
+        assertThat(ZMQ.forwarder(frontend, other), nullValue());
+        assertThat(frontend.errno(), is(ZError.EINVAL));
+        assertThat(ZMQ.forwarder(other, backend), nullValue());
+        assertThat(other.errno(), is(ZError.EINVAL));
+
+        //  Once detached, the sockets can be forwarded again.
+        forwarder.close();
+        forwarder = ZMQ.forwarder(frontend, other);
+        assertThat(forwarder, notNullValue());
+
+        forwarder.close();
+        ZMQ.close(other);
+        ZMQ.close(frontend);
+        ZMQ.close(backend);
+        ZMQ.term(ctx);
+    }
+}
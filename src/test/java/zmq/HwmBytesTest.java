@@ -0,0 +1,121 @@
+package zmq;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+public class HwmBytesTest
+{
+    @Test
+    public void testHwmBytesInproc()
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        ZMQ.setSocketOption(pull, ZMQ.ZMQ_RCVHWM_BYTES, 1000L);
+        assertThat(ZMQ.bind(pull, "inproc://hwm-bytes"), is(true));
+
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        ZMQ.setSocketOption(push, ZMQ.ZMQ_SNDHWM_BYTES, 1000L);
+        assertThat(ZMQ.connect(push, "inproc://hwm-bytes"), is(true));
+
+        //  The limits of both sides add up to 2000 bytes, far below the 1000 messages of the default.
+        for (int idx = 0; idx < 10; ++idx) {
+            int rc = ZMQ.send(push, new Msg(500), ZMQ.ZMQ_DONTWAIT);
+            assertThat(rc, is(idx < 4 ? 500 : -1));
+        }
+
+        //  Reading half of the queued bytes reactivates the pipe.
+        assertThat(ZMQ.recv(pull, 0).size(), is(500));
+        assertThat(ZMQ.send(push, new Msg(500), ZMQ.ZMQ_DONTWAIT), is(-1));
+        assertThat(ZMQ.recv(pull, 0).size(), is(500));
+        assertThat(ZMQ.send(push, new Msg(500), ZMQ.ZMQ_DONTWAIT), is(500));
+
+        ZMQ.close(push);
+        ZMQ.close(pull);
+        ZMQ.term(ctx);
+    }
+
+    @Test(timeout = 10000)
+    public void testHwmBytesTcp()
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        ZMQ.setSocketOption(pull, ZMQ.ZMQ_RCVHWM_BYTES, 1000000L);
+        assertThat(ZMQ.bind(pull, "tcp://127.0.0.1:*"), is(true));
+        String endpoint = (String) ZMQ.getSocketOptionExt(pull, ZMQ.ZMQ_LAST_ENDPOINT);
+
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        ZMQ.setSocketOption(push, ZMQ.ZMQ_SNDHWM_BYTES, 1000000L);
+        ZMQ.setSocketOption(push, ZMQ.ZMQ_SNDTIMEO, 500);
+        assertThat(ZMQ.connect(push, endpoint), is(true));
+
+        //  The receiver does not read: the sender stops once both pipes and the network buffers are full.
+        int size = 256 * 1024;
+        int sent = 0;
+        while (ZMQ.send(push, new Msg(size), 0) == size) {
+            sent++;
+        }
+        assertThat(push.errno(), is(ZError.EAGAIN));
+        assertThat("Sent " + sent + " messages", sent < 100, is(true));
+
+        for (int idx = 0; idx < sent; ++idx) {
+            Msg msg = ZMQ.recv(pull, 0);
+            assertThat(msg, notNullValue());
+            assertThat(msg.size(), is(size));
+        }
+
+        ZMQ.close(push);
+        ZMQ.close(pull);
+        ZMQ.term(ctx);
+    }
+
+    @Test
+    public void testMemoryBudget()
+    {
+        Ctx ctx = ZMQ.createContext();
+        ctx.setMemoryBudget(10000);
+
+        SocketBase pull1 = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(ZMQ.bind(pull1, "inproc://budget-1"), is(true));
+        SocketBase push1 = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(ZMQ.connect(push1, "inproc://budget-1"), is(true));
+
+        SocketBase pull2 = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(ZMQ.bind(pull2, "inproc://budget-2"), is(true));
+        SocketBase push2 = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(ZMQ.connect(push2, "inproc://budget-2"), is(true));
+
+        //  The first pair uses the whole budget.
+        int sent = 0;
+        while (ZMQ.send(push1, new Msg(1000), ZMQ.ZMQ_DONTWAIT) == 1000) {
+            sent++;
+        }
+        assertThat(sent, is(10));
+        assertThat(ctx.getMemoryUsed(), is(10000L));
+
+        //  The second pair can only queue a single message while the budget is exceeded.
+        assertThat(ZMQ.send(push2, new Msg(1000), ZMQ.ZMQ_DONTWAIT), is(1000));
+        assertThat(ZMQ.send(push2, new Msg(1000), ZMQ.ZMQ_DONTWAIT), is(-1));
+
+        for (int idx = 0; idx < sent; ++idx) {
+            assertThat(ZMQ.recv(pull1, 0).size(), is(1000));
+        }
+        assertThat(ctx.getMemoryUsed(), is(1000L));
+
+        //  A pipe stopped by the budget resumes once its reader catches up.
+        assertThat(ZMQ.recv(pull2, 0).size(), is(1000));
+        assertThat(ZMQ.send(push2, new Msg(1000), ZMQ.ZMQ_DONTWAIT), is(1000));
+        assertThat(ZMQ.recv(pull2, 0).size(), is(1000));
+        assertThat(ctx.getMemoryUsed(), is(0L));
+
+        ZMQ.close(push1);
+        ZMQ.close(pull1);
+        ZMQ.close(push2);
+        ZMQ.close(pull2);
+        ZMQ.term(ctx);
+    }
+}
@@ -0,0 +1,100 @@
+package zmq;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MailboxTest
+{
+    private Ctx     ctx;
+    private Mailbox mailbox;
+
+    @Before
+    public void setUp()
+    {
+        ctx = ZMQ.createContext();
+        mailbox = new Mailbox(ctx, "test", -1);
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        mailbox.close();
+        ZMQ.term(ctx);
+    }
+
+    @Test
+    public void testBurstIsSignaledOnce() throws IOException
+    {
+        for (int idx = 0; idx < 100; ++idx) {
+            mailbox.send(new Command(null, Command.Type.ACTIVATE_READ, idx));
+        }
+        Selector selector = ctx.createSelector();
+        try {
+            mailbox.getFd().register(selector, SelectionKey.OP_READ);
+            assertThat(selector.selectNow(), is(1));
+            selector.selectedKeys().clear();
+
+            for (int idx = 0; idx < 100; ++idx) {
+                Command cmd = mailbox.recv(0);
+                assertThat(cmd, notNullValue());
+                assertThat(cmd.arg, is((Object) idx));
+            }
+            assertThat(mailbox.recv(0), nullValue());
+
+            //  The single signal of the burst has been consumed.
+            assertThat(selector.selectNow(), is(0));
+
+            //  And the next command is signaled again.
+            mailbox.send(new Command(null, Command.Type.ACTIVATE_READ, 100));
+            assertThat(selector.selectNow(), is(1));
+            Command cmd = mailbox.recv(0);
+            assertThat(cmd, notNullValue());
+            assertThat(cmd.arg, is((Object) 100));
+        }
+        finally {
+            ctx.closeSelector(selector);
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testManyWriters() throws InterruptedException
+    {
+        final int writers = 16;
+        final int count = 20000;
+
+        Thread[] threads = new Thread[writers];
+        for (int writer = 0; writer < writers; ++writer) {
+            final int id = writer;
+            threads[writer] = new Thread(() -> {
+                for (int idx = 0; idx < count; ++idx) {
+                    mailbox.send(new Command(null, Command.Type.ACTIVATE_READ, new int[] { id, idx }));
+                }
+            });
+            threads[writer].start();
+        }
+
+        //  Commands of each writer are received in order.
+        int[] next = new int[writers];
+        for (int received = 0; received < writers * count; ++received) {
+            Command cmd = mailbox.recv(-1);
+            assertThat(cmd, notNullValue());
+            int[] arg = (int[]) cmd.arg;
+            assertThat(arg[1], is(next[arg[0]]));
+            next[arg[0]]++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(mailbox.recv(0), nullValue());
+    }
+}
@@ -0,0 +1,83 @@
+package zmq;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+
+//  Measures the throughput of commands posted to a single mailbox by several threads,
+//  as when sockets and sessions feed one I/O thread.
+public class MailboxThr
+{
+    private MailboxThr()
+    {
+    }
+
+    public static void main(String[] argv) throws InterruptedException, IOException
+    {
+        if (argv.length != 2) {
+            printf("usage: mailbox_thr <thread-count> <command-count>\n");
+            return;
+        }
+
+        final int threadCount = atoi(argv[0]);
+        final int commandCount = atoi(argv[1]);
+
+        Ctx ctx = ZMQ.init(1);
+        final Mailbox mailbox = new Mailbox(ctx, "mailbox-thr", -1);
+
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] producers = new Thread[threadCount];
+        for (int idx = 0; idx < threadCount; ++idx) {
+            producers[idx] = new Thread(() -> {
+                Command cmd = new Command(null, Command.Type.ACTIVATE_READ);
+                try {
+                    start.await();
+                }
+                catch (InterruptedException e) {
+                    return;
+                }
+                for (int count = 0; count < commandCount; ++count) {
+                    mailbox.send(cmd);
+                }
+            });
+            producers[idx].start();
+        }
+
+        printf("thread count: %d\n", threadCount);
+        printf("command count: %d\n", commandCount);
+
+        long total = (long) threadCount * commandCount;
+        long watch = ZMQ.startStopwatch();
+        start.countDown();
+
+        for (long received = 0; received < total; ++received) {
+            Command cmd = mailbox.recv(-1);
+            assert (cmd != null);
+        }
+
+        long elapsed = ZMQ.stopStopwatch(watch);
+        if (elapsed == 0) {
+            elapsed = 1;
+        }
+
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        long throughput = total * 1000000L / elapsed;
+
+        printf("mean throughput: %d [cmd/s]\n", throughput);
+
+        mailbox.close();
+        ZMQ.term(ctx);
+    }
+
+    private static int atoi(String string)
+    {
+        return Integer.parseInt(string);
+    }
+
+    private static void printf(String string, Object... args)
+    {
+        System.out.print(String.format(string, args));
+    }
+}
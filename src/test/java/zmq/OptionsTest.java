@@ -69,6 +69,23 @@ public class OptionsTest
         assertThat(options.getSocketOpt(ZMQ.ZMQ_CONFLATE), is((Object) true));
     }
 
+    @Test
+    public void testWaitStrategy()
+    {
+        options.setSocketOpt(ZMQ.ZMQ_WAIT_SPIN, 1000);
+        options.setSocketOpt(ZMQ.ZMQ_WAIT_YIELD, 10);
+        options.setSocketOpt(ZMQ.ZMQ_WAIT_PARK, 50);
+        assertThat(options.getSocketOpt(ZMQ.ZMQ_WAIT_SPIN), is((Object) 1000));
+        assertThat(options.getSocketOpt(ZMQ.ZMQ_WAIT_YIELD), is((Object) 10));
+        assertThat(options.getSocketOpt(ZMQ.ZMQ_WAIT_PARK), is((Object) 50));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWaitSpinNegative()
+    {
+        options.setSocketOpt(ZMQ.ZMQ_WAIT_SPIN, -1);
+    }
+
     @Test
     public void testRate()
     {
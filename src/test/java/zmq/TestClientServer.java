@@ -1,5 +1,8 @@
 package zmq;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
 
 import zmq.util.Utils;
@@ -7,6 +10,7 @@ import zmq.util.Utils;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 public class TestClientServer
@@ -236,4 +240,160 @@ public class TestClientServer
         ZMQ.close(server);
         ZMQ.term(context);
     }
+
+    @Test(timeout = 30000)
+    public void testManyThreadsSharingClient() throws Exception
+    {
+        Ctx context = ZMQ.createContext();
+        assertThat(context, notNullValue());
+
+        SocketBase server = ZMQ.socket(context, ZMQ.ZMQ_SERVER);
+        assertThat(server, notNullValue());
+        boolean rc = ZMQ.bind(server, "inproc://client-server-threads");
+        assertThat(rc, is(true));
+
+        final SocketBase client = ZMQ.socket(context, ZMQ.ZMQ_CLIENT);
+        assertThat(client, notNullValue());
+        //  A small high water mark makes senders wait for the server.
+        ZMQ.setSocketOption(client, ZMQ.ZMQ_SNDHWM, 10);
+        rc = ZMQ.connect(client, "inproc://client-server-threads");
+        assertThat(rc, is(true));
+
+        final int threads = 16;
+        final int count = 2000;
+        final AtomicInteger failures = new AtomicInteger();
+        Thread[] senders = new Thread[threads];
+        for (int thread = 0; thread < threads; ++thread) {
+            final int id = thread;
+            senders[thread] = new Thread(() -> {
+                for (int idx = 0; idx < count; ++idx) {
+                    byte[] data = new byte[] { (byte) id, (byte) (idx >> 8), (byte) idx };
+                    if (ZMQ.send(client, new Msg(data), 0) != data.length) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+            senders[thread].start();
+        }
+
+        //  Messages of each thread are received in order.
+        int[] next = new int[threads];
+        for (int received = 0; received < threads * count; ++received) {
+            Msg msg = ZMQ.recv(server, 0);
+            assertThat(msg, notNullValue());
+            byte[] data = msg.data();
+            int id = data[0];
+            int idx = ((data[1] & 0xff) << 8) | (data[2] & 0xff);
+            assertThat(idx, is(next[id]));
+            next[id]++;
+        }
+        for (Thread sender : senders) {
+            sender.join();
+        }
+        assertThat(failures.get(), is(0));
+
+        ZMQ.close(client);
+        ZMQ.close(server);
+        ZMQ.term(context);
+    }
+
+    @Test(timeout = 10000)
+    public void testManyThreadsSendingWithoutWaiting() throws Exception
+    {
+        Ctx context = ZMQ.createContext();
+        assertThat(context, notNullValue());
+
+        SocketBase server = ZMQ.socket(context, ZMQ.ZMQ_SERVER);
+        assertThat(server, notNullValue());
+        ZMQ.setSocketOption(server, ZMQ.ZMQ_RCVHWM, 5);
+        boolean rc = ZMQ.bind(server, "inproc://client-server-dontwait");
+        assertThat(rc, is(true));
+
+        final SocketBase client = ZMQ.socket(context, ZMQ.ZMQ_CLIENT);
+        assertThat(client, notNullValue());
+        ZMQ.setSocketOption(client, ZMQ.ZMQ_SNDHWM, 5);
+        rc = ZMQ.connect(client, "inproc://client-server-dontwait");
+        assertThat(rc, is(true));
+
+        final int threads = 8;
+        final AtomicInteger sent = new AtomicInteger();
+        final AtomicInteger again = new AtomicInteger();
+        Thread[] senders = new Thread[threads];
+        for (int thread = 0; thread < threads; ++thread) {
+            senders[thread] = new Thread(() -> {
+                for (int idx = 0; idx < 100; ++idx) {
+                    if (ZMQ.send(client, new Msg(1), ZMQ.ZMQ_DONTWAIT) == 1) {
+                        sent.incrementAndGet();
+                    }
+                    else if (client.errno() == ZError.EAGAIN) {
+                        again.incrementAndGet();
+                    }
+                }
+            });
+            senders[thread].start();
+        }
+        for (Thread sender : senders) {
+            sender.join();
+        }
+
+        //  The messages beyond the high water marks were refused.
+        assertThat(sent.get() + again.get(), is(threads * 100));
+        assertThat(sent.get() <= 10, is(true));
+
+        for (int idx = 0; idx < sent.get(); ++idx) {
+            Msg msg = ZMQ.recv(server, 0);
+            assertThat(msg, notNullValue());
+        }
+
+        ZMQ.close(client);
+        ZMQ.close(server);
+        ZMQ.term(context);
+    }
+
+    @Test(timeout = 30000)
+    public void testReceiverKeepsItsErrnoWhileQueuedSendsFail() throws Exception
+    {
+        Ctx context = ZMQ.createContext();
+        assertThat(context, notNullValue());
+
+        final SocketBase server = ZMQ.socket(context, ZMQ.ZMQ_SERVER);
+        assertThat(server, notNullValue());
+        boolean rc = ZMQ.bind(server, "inproc://client-server-errno");
+        assertThat(rc, is(true));
+
+        //  The senders target an unknown peer, their sends fail while the receiver holds the socket.
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicInteger unreachable = new AtomicInteger();
+        Thread[] senders = new Thread[4];
+        for (int thread = 0; thread < senders.length; ++thread) {
+            senders[thread] = new Thread(() -> {
+                while (!done.get()) {
+                    Msg msg = new Msg(1);
+                    msg.setRoutingId(42);
+                    if (ZMQ.send(server, msg, ZMQ.ZMQ_DONTWAIT) < 0 && server.errno() == ZError.EHOSTUNREACH) {
+                        unreachable.incrementAndGet();
+                    }
+                }
+            });
+            senders[thread].start();
+        }
+
+        try {
+            for (int idx = 0; idx < 200000; ++idx) {
+                Msg msg = ZMQ.recv(server, ZMQ.ZMQ_DONTWAIT);
+                assertThat(msg, nullValue());
+                assertThat(server.errno(), is(ZError.EAGAIN));
+            }
+        }
+        finally {
+            done.set(true);
+            for (Thread sender : senders) {
+                sender.join();
+            }
+        }
+        assertThat(unreachable.get() > 0, is(true));
+
+        ZMQ.close(server);
+        ZMQ.term(context);
+    }
 }
@@ -229,4 +229,33 @@ public class TestMsg
 
         assertThat(msg.data(), sameInstance(data));
     }
+
+    @Test
+    public void testFrameHeader()
+    {
+        Msg msg = new Msg("abc".getBytes(ZMQ.CHARSET));
+        ByteBuffer header = msg.frameHeader();
+        assertThat(header.isDirect(), is(false));
+        assertThat(header.remaining(), is(2));
+        assertThat(header.get(0), is((byte) 0));
+        assertThat(header.get(1), is((byte) 3));
+        ByteBuffer body = msg.frameBody();
+        assertThat(body.remaining(), is(3));
+        assertThat(body.get(0), is((byte) 'a'));
+
+        //  Views of the header are independent
+        header.position(2);
+        assertThat(msg.frameHeader().remaining(), is(2));
+
+        //  The header follows the flags of the message
+        msg.setFlags(Msg.MORE);
+        assertThat(msg.frameHeader().get(0), is((byte) 1));
+
+        msg = new Msg(300);
+        header = msg.frameHeader();
+        assertThat(header.remaining(), is(9));
+        assertThat(header.get(0), is((byte) 2));
+        assertThat(header.getLong(1), is(300L));
+        assertThat(msg.frameBody().remaining(), is(300));
+    }
 }
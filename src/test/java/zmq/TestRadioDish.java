@@ -1,7 +1,11 @@
 package zmq;
 
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+
 import org.junit.Test;
 
+import zmq.socket.radiodish.Group;
 import zmq.util.Utils;
 
 import static org.hamcrest.CoreMatchers.is;
@@ -101,4 +105,73 @@ public class TestRadioDish
         ZMQ.close(radio);
         ZMQ.term(context);
     }
+
+    @Test(timeout = 10000)
+    public void testUdp() throws Exception
+    {
+        int port = Utils.findOpenPort();
+        checkUdp("udp://127.0.0.1:" + port, "udp://127.0.0.1:" + port);
+    }
+
+    @Test(timeout = 10000)
+    public void testUdpMulticast() throws Exception
+    {
+        int port = Utils.findOpenPort();
+        String loopback = NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress()).getName();
+        checkUdp("udp://" + loopback + ";239.0.0.1:" + port, "udp://" + loopback + ";239.0.0.1:" + port);
+    }
+
+    private void checkUdp(String bind, String connect) throws Exception
+    {
+        Ctx context = ZMQ.createContext();
+        assertThat(context, notNullValue());
+
+        SocketBase radio = ZMQ.socket(context, ZMQ.ZMQ_RADIO);
+        assertThat(radio, notNullValue());
+        SocketBase dish = ZMQ.socket(context, ZMQ.ZMQ_DISH);
+        assertThat(dish, notNullValue());
+
+        //  Only the receiver can bind a datagram address
+        boolean rc = ZMQ.bind(radio, bind);
+        assertThat(rc, is(false));
+        assertThat(radio.errno(), is(ZError.ENOCOMPATPROTO));
+
+        rc = dish.join("Movies");
+        assertThat(rc, is(true));
+
+        rc = ZMQ.bind(dish, bind);
+        assertThat(rc, is(true));
+
+        rc = ZMQ.connect(radio, connect);
+        assertThat(rc, is(true));
+
+        ZMQ.setSocketOption(dish, ZMQ.ZMQ_RCVTIMEO, 100);
+
+        //  Datagrams sent before the receiver is ready are lost, so the messages are sent until one arrives
+        Msg msg = null;
+        for (int attempt = 0; attempt < 50 && msg == null; ++attempt) {
+            // This is not going to be received as dish only joined "Movies"
+            msg = new Msg("Friends".getBytes(ZMQ.CHARSET));
+            msg.setGroup("TV");
+            rc = radio.send(msg, 0);
+            assertThat(rc, is(true));
+
+            msg = new Msg("Godfather".getBytes(ZMQ.CHARSET));
+            msg.setGroup("Movies");
+            rc = radio.send(msg, 0);
+            assertThat(rc, is(true));
+
+            msg = dish.recv(0);
+        }
+        assertThat(msg, notNullValue());
+        assertThat(msg.getGroup(), is("Movies"));
+        assertThat(new String(msg.data(), ZMQ.CHARSET), is("Godfather"));
+
+        //  Joined groups are interned
+        assertThat(msg.group() == Group.of("Movies"), is(true));
+
+        ZMQ.close(dish);
+        ZMQ.close(radio);
+        ZMQ.term(context);
+    }
 }
@@ -0,0 +1,147 @@
+package zmq;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+public class TestSendRecvMany
+{
+    @Test
+    public void testPushPullSingleParts()
+    {
+        Ctx ctx = ZMQ.init(1);
+        assertThat(ctx, notNullValue());
+
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(pull, notNullValue());
+        boolean rc = ZMQ.bind(pull, "inproc://many");
+        assertThat(rc, is(true));
+
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(push, notNullValue());
+        rc = ZMQ.connect(push, "inproc://many");
+        assertThat(rc, is(true));
+
+        Msg[] msgs = new Msg[10];
+        for (int idx = 0; idx < msgs.length; ++idx) {
+            msgs[idx] = new Msg(new byte[] { (byte) idx });
+        }
+        int sent = ZMQ.sendMany(push, msgs, 2, 8, 0);
+        assertThat(sent, is(8));
+
+        Msg[] received = new Msg[16];
+        int count = ZMQ.recvMany(pull, received, received.length, 0);
+        assertThat(count, is(8));
+        for (int idx = 0; idx < count; ++idx) {
+            assertThat(received[idx].get(0), is((byte) (idx + 2)));
+            assertThat(received[idx].hasMore(), is(false));
+        }
+
+        count = ZMQ.recvMany(pull, received, received.length, ZMQ.ZMQ_DONTWAIT);
+        assertThat(count, is(-1));
+        assertThat(pull.errno(), is(ZError.EAGAIN));
+
+        ZMQ.close(push);
+        ZMQ.close(pull);
+        ZMQ.term(ctx);
+    }
+
+    @Test
+    public void testDealerRouterMultipart()
+    {
+        Ctx ctx = ZMQ.init(1);
+        assertThat(ctx, notNullValue());
+
+        SocketBase router = ZMQ.socket(ctx, ZMQ.ZMQ_ROUTER);
+        assertThat(router, notNullValue());
+        boolean rc = ZMQ.bind(router, "inproc://many");
+        assertThat(rc, is(true));
+
+        SocketBase dealer = ZMQ.socket(ctx, ZMQ.ZMQ_DEALER);
+        assertThat(dealer, notNullValue());
+        rc = ZMQ.connect(dealer, "inproc://many");
+        assertThat(rc, is(true));
+
+        Msg[] msgs = new Msg[] { new Msg("A".getBytes(ZMQ.CHARSET)), new Msg("B".getBytes(ZMQ.CHARSET)) };
+        int sent = ZMQ.sendMany(dealer, msgs, 0, msgs.length, ZMQ.ZMQ_SNDMORE);
+        assertThat(sent, is(2));
+
+        //  Identity comes first, then the two parts of the message body.
+        Msg[] received = new Msg[3];
+        int count = 0;
+        while (count < received.length) {
+            Msg[] batch = new Msg[received.length];
+            int rcvd = ZMQ.recvMany(router, batch, received.length - count, 0);
+            assertThat(rcvd > 0, is(true));
+            System.arraycopy(batch, 0, received, count, rcvd);
+            count += rcvd;
+        }
+        assertThat(received[0].hasMore(), is(true));
+        assertThat(received[1].hasMore(), is(true));
+        assertThat(new String(received[1].data(), ZMQ.CHARSET), is("A"));
+        assertThat(received[2].hasMore(), is(false));
+        assertThat(new String(received[2].data(), ZMQ.CHARSET), is("B"));
+        assertThat(ZMQ.getSocketOption(router, ZMQ.ZMQ_RCVMORE), is(0));
+
+        ZMQ.close(router);
+        ZMQ.close(dealer);
+        ZMQ.term(ctx);
+    }
+
+    @Test
+    public void testSendManyPartialOnHwm()
+    {
+        Ctx ctx = ZMQ.init(1);
+        assertThat(ctx, notNullValue());
+
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(pull, notNullValue());
+        ZMQ.setSocketOption(pull, ZMQ.ZMQ_RCVHWM, 2);
+        boolean rc = ZMQ.bind(pull, "inproc://many");
+        assertThat(rc, is(true));
+
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(push, notNullValue());
+        ZMQ.setSocketOption(push, ZMQ.ZMQ_SNDHWM, 2);
+        rc = ZMQ.connect(push, "inproc://many");
+        assertThat(rc, is(true));
+
+        Msg[] msgs = new Msg[10];
+        for (int idx = 0; idx < msgs.length; ++idx) {
+            msgs[idx] = new Msg(new byte[] { (byte) idx });
+        }
+        int sent = ZMQ.sendMany(push, msgs, 0, msgs.length, ZMQ.ZMQ_DONTWAIT);
+        assertThat(sent, is(4));
+
+        sent = ZMQ.sendMany(push, msgs, sent, msgs.length - sent, ZMQ.ZMQ_DONTWAIT);
+        assertThat(sent, is(-1));
+        assertThat(push.errno(), is(ZError.EAGAIN));
+
+        ZMQ.close(push);
+        ZMQ.close(pull);
+        ZMQ.term(ctx);
+    }
+
+    @Test
+    public void testInvalidArguments()
+    {
+        Ctx ctx = ZMQ.init(1);
+        assertThat(ctx, notNullValue());
+
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(push, notNullValue());
+
+        int rc = ZMQ.sendMany(push, new Msg[2], 1, 2, 0);
+        assertThat(rc, is(-1));
+        assertThat(push.errno(), is(ZError.EINVAL));
+
+        rc = ZMQ.recvMany(push, new Msg[2], 3, 0);
+        assertThat(rc, is(-1));
+        assertThat(push.errno(), is(ZError.EINVAL));
+
+        ZMQ.close(push);
+        ZMQ.term(ctx);
+    }
+}
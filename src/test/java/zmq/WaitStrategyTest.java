@@ -0,0 +1,95 @@
+package zmq;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+public class WaitStrategyTest
+{
+    @Test
+    public void testSocketInheritsContextDefaults()
+    {
+        Ctx ctx = ZMQ.createContext();
+        assertThat(ctx.set(ZMQ.ZMQ_WAIT_SPIN, 100), is(true));
+        assertThat(ctx.set(ZMQ.ZMQ_WAIT_YIELD, 10), is(true));
+        assertThat(ctx.set(ZMQ.ZMQ_WAIT_PARK, 20), is(true));
+        assertThat(ctx.set(ZMQ.ZMQ_WAIT_PARK, -1), is(false));
+
+        SocketBase socket = ZMQ.socket(ctx, ZMQ.ZMQ_PAIR);
+        assertThat(socket, notNullValue());
+        assertThat(ZMQ.getSocketOption(socket, ZMQ.ZMQ_WAIT_SPIN), is(100));
+        assertThat(ZMQ.getSocketOption(socket, ZMQ.ZMQ_WAIT_YIELD), is(10));
+        assertThat(ZMQ.getSocketOption(socket, ZMQ.ZMQ_WAIT_PARK), is(20));
+
+        ZMQ.close(socket);
+        ZMQ.term(ctx);
+    }
+
+    @Test(timeout = 10000)
+    public void testBounceWithoutSelecting() throws InterruptedException
+    {
+        Ctx ctx = ZMQ.createContext();
+        //  Park long enough for the signals to be caught before selecting.
+        ctx.set(ZMQ.ZMQ_WAIT_SPIN, 1000);
+        ctx.set(ZMQ.ZMQ_WAIT_YIELD, 100);
+        ctx.set(ZMQ.ZMQ_WAIT_PARK, 1000000);
+
+        final SocketBase server = ZMQ.socket(ctx, ZMQ.ZMQ_PAIR);
+        assertThat(server, notNullValue());
+        boolean rc = ZMQ.bind(server, "inproc://wait-strategy");
+        assertThat(rc, is(true));
+
+        SocketBase client = ZMQ.socket(ctx, ZMQ.ZMQ_PAIR);
+        assertThat(client, notNullValue());
+        rc = ZMQ.connect(client, "inproc://wait-strategy");
+        assertThat(rc, is(true));
+
+        final int count = 1000;
+        Thread echo = new Thread(() -> {
+            for (int idx = 0; idx < count; ++idx) {
+                Msg msg = ZMQ.recv(server, 0);
+                ZMQ.send(server, msg, 0);
+            }
+        });
+        echo.start();
+
+        for (int idx = 0; idx < count; ++idx) {
+            int sent = ZMQ.send(client, Integer.toString(idx), 0);
+            assertThat(sent, is(Integer.toString(idx).length()));
+            Msg msg = ZMQ.recv(client, 0);
+            assertThat(msg, notNullValue());
+            assertThat(new String(msg.data(), ZMQ.CHARSET), is(Integer.toString(idx)));
+        }
+        echo.join();
+
+        ZMQ.close(client);
+        ZMQ.close(server);
+        ZMQ.term(ctx);
+    }
+
+    @Test(timeout = 5000)
+    public void testTimeoutIncludesWaiting()
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase socket = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(socket, notNullValue());
+        ZMQ.setSocketOption(socket, ZMQ.ZMQ_WAIT_SPIN, 1000);
+        ZMQ.setSocketOption(socket, ZMQ.ZMQ_WAIT_PARK, 5000000);
+        ZMQ.setSocketOption(socket, ZMQ.ZMQ_RCVTIMEO, 100);
+
+        long start = System.currentTimeMillis();
+        Msg msg = ZMQ.recv(socket, 0);
+        long elapsed = System.currentTimeMillis() - start;
+        assertThat(msg, nullValue());
+        assertThat(socket.errno(), is(ZError.EAGAIN));
+        assertThat(elapsed >= 100, is(true));
+        assertThat(elapsed < 2000, is(true));
+
+        ZMQ.close(socket);
+        ZMQ.term(ctx);
+    }
+}
@@ -0,0 +1,67 @@
+package zmq.io;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+public class AdaptiveBatchTest
+{
+    @Test(timeout = 20000)
+    public void testMessagesOfAllSizes()
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase server = ZMQ.socket(ctx, ZMQ.ZMQ_DEALER);
+        assertThat(ZMQ.setSocketOption(server, ZMQ.ZMQ_BATCH_SIZE_MIN, 64), is(true));
+        assertThat(ZMQ.setSocketOption(server, ZMQ.ZMQ_BATCH_SIZE_MAX, 256 * 1024), is(true));
+        assertThat(ZMQ.getSocketOption(server, ZMQ.ZMQ_BATCH_SIZE_MAX), is(256 * 1024));
+        assertThat(ZMQ.bind(server, "tcp://127.0.0.1:*"), is(true));
+        String endpoint = (String) ZMQ.getSocketOptionExt(server, ZMQ.ZMQ_LAST_ENDPOINT);
+
+        SocketBase client = ZMQ.socket(ctx, ZMQ.ZMQ_DEALER);
+        ZMQ.setSocketOption(client, ZMQ.ZMQ_BATCH_SIZE_MIN, 64);
+        ZMQ.setSocketOption(client, ZMQ.ZMQ_BATCH_SIZE_MAX, 256 * 1024);
+        assertThat(ZMQ.connect(client, endpoint), is(true));
+
+        //  Bursts of messages grow the buffers, the quiet periods shrink them.
+        Random random = new Random(42);
+        for (int round = 0; round < 20; ++round) {
+            int count = round % 2 == 0 ? 200 : 20;
+            int max = round % 4 == 0 ? 20000 : 100;
+            int[] sizes = new int[count];
+            for (int idx = 0; idx < count; ++idx) {
+                sizes[idx] = random.nextInt(max);
+                assertThat(ZMQ.send(client, message(round, idx, sizes[idx]), 0), is(sizes[idx]));
+            }
+            for (int idx = 0; idx < count; ++idx) {
+                Msg msg = ZMQ.recv(server, 0);
+                assertThat(msg, notNullValue());
+                assertThat(msg.data(), is(message(round, idx, sizes[idx]).data()));
+                assertThat(ZMQ.send(server, msg, 0), is(sizes[idx]));
+                assertThat(ZMQ.recv(client, 0).size(), is(sizes[idx]));
+            }
+        }
+
+        ZMQ.close(client);
+        ZMQ.close(server);
+        ZMQ.term(ctx);
+    }
+
+    private Msg message(int round, int idx, int size)
+    {
+        byte[] data = new byte[size];
+        for (int pos = 0; pos < size; ++pos) {
+            data[pos] = (byte) (round + idx + pos);
+        }
+        return new Msg(data);
+    }
+}
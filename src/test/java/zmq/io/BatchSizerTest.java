@@ -0,0 +1,53 @@
+package zmq.io;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+public class BatchSizerTest
+{
+    @Test
+    public void testGrowsWhenFull()
+    {
+        BatchSizer sizer = new BatchSizer(1000, 10000);
+        assertThat(sizer.size(), is(1024));
+
+        sizer.update(1024);
+        assertThat(sizer.size(), is(2048));
+        sizer.update(1500);
+        assertThat(sizer.size(), is(2048));
+        for (int idx = 0; idx < 10; ++idx) {
+            sizer.update(sizer.size());
+        }
+        assertThat(sizer.size(), is(16384));
+    }
+
+    @Test
+    public void testShrinksAfterSmallAmounts()
+    {
+        BatchSizer sizer = new BatchSizer(1024, 8192);
+        for (int idx = 0; idx < 3; ++idx) {
+            sizer.update(sizer.size());
+        }
+        assertThat(sizer.size(), is(8192));
+
+        for (int idx = 0; idx < 15; ++idx) {
+            sizer.update(100);
+        }
+        assertThat(sizer.size(), is(8192));
+        //  A medium amount breaks the series.
+        sizer.update(4000);
+        for (int idx = 0; idx < 15; ++idx) {
+            sizer.update(100);
+        }
+        assertThat(sizer.size(), is(8192));
+        sizer.update(100);
+        assertThat(sizer.size(), is(4096));
+
+        for (int idx = 0; idx < 100; ++idx) {
+            sizer.update(1);
+        }
+        assertThat(sizer.size(), is(1024));
+    }
+}
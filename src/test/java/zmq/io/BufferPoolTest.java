@@ -0,0 +1,59 @@
+package zmq.io;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class BufferPoolTest
+{
+    @Test
+    public void testSizesAreRoundedUp()
+    {
+        BufferPool pool = new BufferPool(1024 * 1024);
+        assertThat(pool.acquire(1).capacity(), is(1));
+        assertThat(pool.acquire(1000).capacity(), is(1024));
+        assertThat(pool.acquire(1024).capacity(), is(1024));
+        assertThat(pool.acquire(1025).capacity(), is(2048));
+    }
+
+    @Test
+    public void testReleasedBufferIsReused()
+    {
+        BufferPool pool = new BufferPool(1024 * 1024);
+        ByteBuffer buffer = pool.acquire(4096);
+        buffer.put((byte) 1);
+        pool.release(buffer);
+        assertThat(pool.pooled(), is(4096L));
+
+        ByteBuffer reused = pool.acquire(3000);
+        assertThat(reused, sameInstance(buffer));
+        assertThat(reused.position(), is(0));
+        assertThat(reused.limit(), is(4096));
+        assertThat(pool.pooled(), is(0L));
+
+        //  Another size class gets a new buffer.
+        pool.release(reused);
+        assertThat(pool.acquire(8192), not(sameInstance(buffer)));
+    }
+
+    @Test
+    public void testCapacityIsBounded()
+    {
+        BufferPool pool = new BufferPool(8192);
+        pool.release(pool.acquire(4096));
+        pool.release(pool.acquire(4096));
+        pool.release(ByteBuffer.allocateDirect(4096));
+        assertThat(pool.pooled(), is(8192L));
+
+        //  Buffers not allocated by a pool are ignored.
+        pool = new BufferPool(8192);
+        pool.release(ByteBuffer.allocate(4096));
+        pool.release(ByteBuffer.allocateDirect(3000));
+        assertThat(pool.pooled(), is(0L));
+    }
+}
@@ -0,0 +1,95 @@
+package zmq.io;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+public class CoalesceTest
+{
+    @Test(timeout = 10000)
+    public void testSmallMessagesWaitForLatencyBudget()
+    {
+        Ctx ctx = ZMQ.createContext();
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        SocketBase push = connect(ctx, pull, 200000);
+
+        long start = System.currentTimeMillis();
+        for (int idx = 0; idx < 10; ++idx) {
+            assertThat(ZMQ.send(push, Integer.toString(idx), 0), is(1));
+        }
+        for (int idx = 0; idx < 10; ++idx) {
+            assertThat(new String(ZMQ.recv(pull, 0).data(), ZMQ.CHARSET), is(Integer.toString(idx)));
+        }
+        long elapsed = System.currentTimeMillis() - start;
+
+        //  The messages are written together once the budget of 200 ms expired.
+        assertThat("Received too fast: " + elapsed + " ms", elapsed >= 150, is(true));
+
+        ZMQ.close(push);
+        ZMQ.close(pull);
+        ZMQ.term(ctx);
+    }
+
+    @Test(timeout = 10000)
+    public void testFullBatchIsWrittenEarly()
+    {
+        Ctx ctx = ZMQ.createContext();
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        SocketBase push = connect(ctx, pull, 60000000);
+
+        //  The messages fill more than a batch, that is written without waiting for the budget.
+        int size = 1000;
+        for (int idx = 0; idx < 20; ++idx) {
+            assertThat(ZMQ.send(push, new Msg(size), 0), is(size));
+        }
+        ZMQ.setSocketOption(pull, ZMQ.ZMQ_RCVTIMEO, 2000);
+        for (int idx = 0; idx < 5; ++idx) {
+            Msg msg = ZMQ.recv(pull, 0);
+            assertThat(msg, notNullValue());
+            assertThat(msg.size(), is(size));
+        }
+
+        ZMQ.close(push);
+        ZMQ.close(pull);
+        ZMQ.term(ctx);
+    }
+
+    @Test(timeout = 10000)
+    public void testOpenBatchIsWrittenOnClose()
+    {
+        Ctx ctx = ZMQ.createContext();
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        SocketBase push = connect(ctx, pull, 60000000);
+
+        assertThat(ZMQ.send(push, "last", 0), is(4));
+        ZMQ.close(push);
+
+        ZMQ.setSocketOption(pull, ZMQ.ZMQ_RCVTIMEO, 2000);
+        Msg msg = ZMQ.recv(pull, 0);
+        assertThat(msg, notNullValue());
+        assertThat(new String(msg.data(), ZMQ.CHARSET), is("last"));
+
+        ZMQ.close(pull);
+        ZMQ.term(ctx);
+    }
+
+    private SocketBase connect(Ctx ctx, SocketBase pull, int micros)
+    {
+        assertThat(ZMQ.bind(pull, "tcp://127.0.0.1:*"), is(true));
+        String endpoint = (String) ZMQ.getSocketOptionExt(pull, ZMQ.ZMQ_LAST_ENDPOINT);
+
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(ZMQ.setSocketOption(push, ZMQ.ZMQ_SNDCOALESCE, micros), is(true));
+        assertThat(ZMQ.getSocketOption(push, ZMQ.ZMQ_SNDCOALESCE), is(micros));
+        assertThat(ZMQ.connect(push, endpoint), is(true));
+        ZMQ.msleep(200);
+        return push;
+    }
+}
@@ -0,0 +1,75 @@
+package zmq.io;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+public class IdleReleaseTest
+{
+    @Test(timeout = 10000)
+    public void testFixedBuffersAreTakenAgainAfterIdle()
+    {
+        exchange(0);
+    }
+
+    @Test(timeout = 10000)
+    public void testAdaptedBuffersAreTakenAgainAfterIdle()
+    {
+        exchange(64 * 1024);
+    }
+
+    private void exchange(int batchSizeMax)
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase server = ZMQ.socket(ctx, ZMQ.ZMQ_DEALER);
+        assertThat(ZMQ.setSocketOption(server, ZMQ.ZMQ_IDLE_RELEASE, 50), is(true));
+        assertThat(ZMQ.getSocketOption(server, ZMQ.ZMQ_IDLE_RELEASE), is(50));
+        ZMQ.setSocketOption(server, ZMQ.ZMQ_BATCH_SIZE_MAX, batchSizeMax);
+        assertThat(ZMQ.bind(server, "tcp://127.0.0.1:*"), is(true));
+        String endpoint = (String) ZMQ.getSocketOptionExt(server, ZMQ.ZMQ_LAST_ENDPOINT);
+
+        SocketBase client = ZMQ.socket(ctx, ZMQ.ZMQ_DEALER);
+        ZMQ.setSocketOption(client, ZMQ.ZMQ_IDLE_RELEASE, 50);
+        ZMQ.setSocketOption(client, ZMQ.ZMQ_BATCH_SIZE_MAX, batchSizeMax);
+        assertThat(ZMQ.connect(client, endpoint), is(true));
+
+        //  The connection goes idle between the rounds, and releases its buffers.
+        for (int round = 0; round < 5; ++round) {
+            int size = round % 2 == 0 ? 10 : 100000;
+            for (int idx = 0; idx < 10; ++idx) {
+                assertThat(ZMQ.send(client, message(round + idx, size), 0), is(size));
+            }
+            for (int idx = 0; idx < 10; ++idx) {
+                Msg msg = ZMQ.recv(server, 0);
+                assertThat(msg, notNullValue());
+                assertThat(msg.data(), is(message(round + idx, size).data()));
+                assertThat(ZMQ.send(server, msg, 0), is(size));
+            }
+            for (int idx = 0; idx < 10; ++idx) {
+                assertThat(ZMQ.recv(client, 0).data(), is(message(round + idx, size).data()));
+            }
+            ZMQ.msleep(200);
+        }
+
+        ZMQ.close(client);
+        ZMQ.close(server);
+        ZMQ.term(ctx);
+    }
+
+    private Msg message(int seed, int size)
+    {
+        byte[] data = new byte[size];
+        for (int pos = 0; pos < size; ++pos) {
+            data[pos] = (byte) (seed + pos);
+        }
+        return new Msg(data);
+    }
+}
@@ -0,0 +1,112 @@
+package zmq.io;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+public class RateLimitTest
+{
+    @Test(timeout = 10000)
+    public void testReceiveRateMsgs()
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(ZMQ.setSocketOption(pull, ZMQ.ZMQ_RCVRATE_MSGS, 100), is(true));
+        assertThat(ZMQ.getSocketOption(pull, ZMQ.ZMQ_RCVRATE_MSGS), is(100));
+        assertThat(ZMQ.bind(pull, "tcp://127.0.0.1:*"), is(true));
+        String endpoint = (String) ZMQ.getSocketOptionExt(pull, ZMQ.ZMQ_LAST_ENDPOINT);
+        assertThat(ZMQ.monitorSocket(pull, "inproc://monitor-rcvrate", ZMQ.ZMQ_EVENT_RATE_LIMITED), is(true));
+        SocketBase monitor = ZMQ.socket(ctx, ZMQ.ZMQ_PAIR);
+        assertThat(ZMQ.connect(monitor, "inproc://monitor-rcvrate"), is(true));
+
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(ZMQ.connect(push, endpoint), is(true));
+
+        long start = System.currentTimeMillis();
+        for (int idx = 0; idx < 50; ++idx) {
+            ZMQ.send(push, "part", ZMQ.ZMQ_SNDMORE);
+            ZMQ.send(push, Integer.toString(idx), 0);
+        }
+        for (int idx = 0; idx < 50; ++idx) {
+            assertThat(new String(ZMQ.recv(pull, 0).data(), ZMQ.CHARSET), is("part"));
+            Msg msg = ZMQ.recv(pull, 0);
+            assertThat(new String(msg.data(), ZMQ.CHARSET), is(Integer.toString(idx)));
+        }
+        long elapsed = System.currentTimeMillis() - start;
+
+        //  After a burst of 10 messages, the messages are received at 100 per second.
+        assertThat("Received too fast: " + elapsed + " ms", elapsed >= 350, is(true));
+
+        ZMQ.Event event = ZMQ.Event.read(monitor);
+        assertThat(event, notNullValue());
+        assertThat(event.event, is(ZMQ.ZMQ_EVENT_RATE_LIMITED));
+        assertThat(event.arg, is((Object) ZMQ.ZMQ_POLLIN));
+
+        ZMQ.close(push);
+        ZMQ.close(pull);
+        ZMQ.close(monitor);
+        ZMQ.term(ctx);
+    }
+
+    @Test(timeout = 10000)
+    public void testSendRateBytesPerConnection()
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase limited = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(ZMQ.bind(limited, "tcp://127.0.0.1:*"), is(true));
+        String limitedEndpoint = (String) ZMQ.getSocketOptionExt(limited, ZMQ.ZMQ_LAST_ENDPOINT);
+        SocketBase unlimited = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(ZMQ.bind(unlimited, "tcp://127.0.0.1:*"), is(true));
+        String unlimitedEndpoint = (String) ZMQ.getSocketOptionExt(unlimited, ZMQ.ZMQ_LAST_ENDPOINT);
+
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(ZMQ.monitorSocket(push, "inproc://monitor-sndrate", ZMQ.ZMQ_EVENT_RATE_LIMITED), is(true));
+        SocketBase monitor = ZMQ.socket(ctx, ZMQ.ZMQ_PAIR);
+        assertThat(ZMQ.connect(monitor, "inproc://monitor-sndrate"), is(true));
+
+        //  The limit only applies to the connections established after it is set.
+        assertThat(ZMQ.connect(push, unlimitedEndpoint), is(true));
+        assertThat(ZMQ.setSocketOption(push, ZMQ.ZMQ_SNDRATE_BYTES, 10000), is(true));
+        assertThat(ZMQ.connect(push, limitedEndpoint), is(true));
+        ZMQ.msleep(200);
+
+        long start = System.currentTimeMillis();
+        byte[] data = new byte[1000];
+        for (int idx = 0; idx < 40; ++idx) {
+            assertThat(ZMQ.send(push, data, 0), is(1000));
+        }
+        //  The messages are sent in turn to both peers.
+        for (int idx = 0; idx < 20; ++idx) {
+            assertThat(ZMQ.recv(unlimited, 0).size(), is(1000));
+        }
+        long fast = System.currentTimeMillis() - start;
+        for (int idx = 0; idx < 20; ++idx) {
+            assertThat(ZMQ.recv(limited, 0).size(), is(1000));
+        }
+        long slow = System.currentTimeMillis() - start;
+
+        //  Each batch of 8 KB waits until the previous one is paid back at 10000 bytes per second.
+        assertThat("Sent too fast: " + slow + " ms", slow >= 1200, is(true));
+        assertThat("Unlimited connection paced: " + fast + " ms", fast < 500, is(true));
+
+        ZMQ.Event event = ZMQ.Event.read(monitor);
+        assertThat(event, notNullValue());
+        assertThat(event.event, is(ZMQ.ZMQ_EVENT_RATE_LIMITED));
+        assertThat(event.arg, is((Object) ZMQ.ZMQ_POLLOUT));
+
+        ZMQ.close(push);
+        ZMQ.close(limited);
+        ZMQ.close(unlimited);
+        ZMQ.close(monitor);
+        ZMQ.term(ctx);
+    }
+}
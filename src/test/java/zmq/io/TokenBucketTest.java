@@ -0,0 +1,51 @@
+package zmq.io;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+public class TokenBucketTest
+{
+    private static final long MS = 1000000L;
+
+    @Test
+    public void testBurstThenDebt()
+    {
+        TokenBucket bucket = new TokenBucket(1000, 0);
+        assertThat(bucket.delay(0), is(0L));
+
+        //  A burst of 100 milliseconds of traffic is allowed.
+        bucket.consume(100, 0);
+        assertThat(bucket.delay(0), is(1L));
+
+        //  The debt is paid back over time.
+        bucket.consume(900, 0);
+        assertThat(bucket.delay(0), is(901L));
+        assertThat(bucket.delay(500 * MS), is(401L));
+        assertThat(bucket.delay(901 * MS), is(0L));
+    }
+
+    @Test
+    public void testRefillIsCappedToTheBurst()
+    {
+        TokenBucket bucket = new TokenBucket(1000, 0);
+        assertThat(bucket.delay(10000 * MS), is(0L));
+
+        bucket.consume(100, 10000 * MS);
+        assertThat(bucket.delay(10000 * MS), is(1L));
+    }
+
+    @Test
+    public void testLowRate()
+    {
+        TokenBucket bucket = new TokenBucket(2, 0);
+        bucket.consume(1, 0);
+        assertThat(bucket.delay(0), is(1L));
+
+        bucket.consume(1, 0);
+        assertThat(bucket.delay(0), is(501L));
+        assertThat(bucket.delay(500 * MS), is(1L));
+        assertThat(bucket.delay(501 * MS), is(0L));
+    }
+}
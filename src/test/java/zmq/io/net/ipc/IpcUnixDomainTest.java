@@ -0,0 +1,85 @@
+package zmq.io.net.ipc;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import zmq.Ctx;
+import zmq.Helper;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+public class IpcUnixDomainTest
+{
+    @Before
+    public void setUp()
+    {
+        Assume.assumeTrue(IpcUtils.isUnixDomainEnabled());
+    }
+
+    @Test(timeout = 5000)
+    public void testBindWildcard()
+    {
+        Ctx ctx = ZMQ.init(1);
+        assertThat(ctx, notNullValue());
+
+        SocketBase pairBind = ZMQ.socket(ctx, ZMQ.ZMQ_PAIR);
+        assertThat(pairBind, notNullValue());
+        boolean rc = ZMQ.bind(pairBind, "ipc://*");
+        assertThat(rc, is(true));
+
+        String endpoint = (String) ZMQ.getSocketOptionExt(pairBind, ZMQ.ZMQ_LAST_ENDPOINT);
+        assertThat(endpoint.startsWith("ipc://"), is(true));
+
+        File file = new File(endpoint.substring("ipc://".length()));
+        assertThat(file.exists(), is(true));
+
+        SocketBase pairConnect = ZMQ.socket(ctx, ZMQ.ZMQ_PAIR);
+        assertThat(pairConnect, notNullValue());
+        rc = ZMQ.connect(pairConnect, endpoint);
+        assertThat(rc, is(true));
+
+        Helper.bounce(pairBind, pairConnect);
+
+        ZMQ.close(pairConnect);
+        ZMQ.close(pairBind);
+        ZMQ.term(ctx);
+
+        //  The socket file is removed when the listener is closed.
+        assertThat(file.exists(), is(false));
+    }
+
+    @Test(timeout = 5000)
+    public void testRebindStaleFile() throws Exception
+    {
+        File file = File.createTempFile("zmq-", ".ipc");
+        assertThat(file.exists(), is(true));
+
+        Ctx ctx = ZMQ.init(1);
+        assertThat(ctx, notNullValue());
+
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(pull, notNullValue());
+        boolean rc = ZMQ.bind(pull, "ipc://" + file.getAbsolutePath());
+        assertThat(rc, is(true));
+
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(push, notNullValue());
+        rc = ZMQ.connect(push, "ipc://" + file.getAbsolutePath());
+        assertThat(rc, is(true));
+
+        int sent = ZMQ.send(push, "hello", 0);
+        assertThat(sent, is(5));
+        assertThat(ZMQ.recv(pull, 0).size(), is(5));
+
+        ZMQ.close(push);
+        ZMQ.close(pull);
+        ZMQ.term(ctx);
+    }
+}
@@ -0,0 +1,158 @@
+package zmq.io.net.shm;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import zmq.Ctx;
+import zmq.Helper;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+public class ShmTransportTest
+{
+    @Before
+    public void setUp()
+    {
+        Assume.assumeTrue(ShmListener.isSupported());
+    }
+
+    @Test(timeout = 5000)
+    public void testPairBounce()
+    {
+        Ctx ctx = ZMQ.init(1);
+        assertThat(ctx, notNullValue());
+
+        SocketBase pairBind = ZMQ.socket(ctx, ZMQ.ZMQ_PAIR);
+        assertThat(pairBind, notNullValue());
+        boolean rc = ZMQ.bind(pairBind, "shm://*");
+        assertThat(rc, is(true));
+
+        String endpoint = (String) ZMQ.getSocketOptionExt(pairBind, ZMQ.ZMQ_LAST_ENDPOINT);
+        assertThat(endpoint.startsWith("shm://"), is(true));
+
+        SocketBase pairConnect = ZMQ.socket(ctx, ZMQ.ZMQ_PAIR);
+        assertThat(pairConnect, notNullValue());
+        rc = ZMQ.connect(pairConnect, endpoint);
+        assertThat(rc, is(true));
+
+        Helper.bounce(pairBind, pairConnect);
+
+        ZMQ.close(pairConnect);
+        ZMQ.close(pairBind);
+        ZMQ.term(ctx);
+    }
+
+    @Test(timeout = 20000)
+    public void testPushPullWrapsAroundRings()
+    {
+        Ctx ctx = ZMQ.init(1);
+        assertThat(ctx, notNullValue());
+
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(pull, notNullValue());
+        boolean rc = ZMQ.bind(pull, "shm://*");
+        assertThat(rc, is(true));
+        String endpoint = (String) ZMQ.getSocketOptionExt(pull, ZMQ.ZMQ_LAST_ENDPOINT);
+
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(push, notNullValue());
+        rc = ZMQ.connect(push, endpoint);
+        assertThat(rc, is(true));
+
+        //  Far more than the capacity of a ring, so that the producer has to wait for the consumer.
+        final int count = 20000;
+        final int size = 1000;
+        Thread sender = new Thread(() -> {
+            for (int idx = 0; idx < count; ++idx) {
+                byte[] data = new byte[size];
+                data[0] = (byte) idx;
+                data[size - 1] = (byte) (idx >> 8);
+                ZMQ.send(push, data, 0);
+            }
+        });
+        sender.start();
+
+        for (int idx = 0; idx < count; ++idx) {
+            Msg msg = ZMQ.recv(pull, 0);
+            assertThat(msg, notNullValue());
+            assertThat(msg.size(), is(size));
+            assertThat(msg.get(0), is((byte) idx));
+            assertThat(msg.get(size - 1), is((byte) (idx >> 8)));
+        }
+
+        ZMQ.close(push);
+        ZMQ.close(pull);
+        ZMQ.term(ctx);
+    }
+
+    @Test(timeout = 5000)
+    public void testReqRepWithSpin()
+    {
+        Ctx ctx = ZMQ.init(1);
+        assertThat(ctx, notNullValue());
+
+        SocketBase rep = ZMQ.socket(ctx, ZMQ.ZMQ_REP);
+        assertThat(rep, notNullValue());
+        ZMQ.setSocketOption(rep, ZMQ.ZMQ_SHM_SPIN, 100);
+        assertThat(ZMQ.getSocketOption(rep, ZMQ.ZMQ_SHM_SPIN), is(100));
+        boolean rc = ZMQ.bind(rep, "shm://*");
+        assertThat(rc, is(true));
+        String endpoint = (String) ZMQ.getSocketOptionExt(rep, ZMQ.ZMQ_LAST_ENDPOINT);
+
+        SocketBase req = ZMQ.socket(ctx, ZMQ.ZMQ_REQ);
+        assertThat(req, notNullValue());
+        ZMQ.setSocketOption(req, ZMQ.ZMQ_SHM_SPIN, 100);
+        rc = ZMQ.connect(req, endpoint);
+        assertThat(rc, is(true));
+
+        for (int idx = 0; idx < 100; ++idx) {
+            Helper.bounce(rep, req);
+        }
+
+        ZMQ.close(req);
+        ZMQ.close(rep);
+        ZMQ.term(ctx);
+    }
+
+    @Test
+    public void testRingRefusesSymbolicLink() throws IOException
+    {
+        Path dir = Files.createTempDirectory("zmq-shm-test");
+        File file = dir.resolve("ring").toFile();
+        Path link = dir.resolve("link");
+        try {
+            ShmRing.create(file, 1024).close();
+            try {
+                Files.createSymbolicLink(link, file.toPath());
+            }
+            catch (IOException | UnsupportedOperationException e) {
+                Assume.assumeNoException(e);
+            }
+            try {
+                ShmRing.open(link.toFile());
+                fail("A symbolic link should not be mapped");
+            }
+            catch (IOException e) {
+                assertThat(e.getMessage().startsWith("Invalid shared memory ring"), is(true));
+            }
+            ShmRing.open(file).close();
+        }
+        finally {
+            Files.deleteIfExists(link);
+            Files.deleteIfExists(file.toPath());
+            Files.deleteIfExists(dir);
+        }
+    }
+}
@@ -51,4 +51,41 @@ public class ConflateTest
 
         ZMQ.term(ctx);
     }
+
+    @Test
+    public void testMultipart() throws IOException, InterruptedException
+    {
+        Ctx ctx = ZMQ.init(1);
+        assert (ctx != null);
+
+        SocketBase in = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assert (in != null);
+
+        ZMQ.setSocketOption(in, ZMQ.ZMQ_CONFLATE, 1);
+
+        boolean rc = ZMQ.bind(in, "tcp://localhost:*");
+        assert (rc);
+
+        SocketBase out = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assert (out != null);
+
+        String ep = (String) ZMQ.getSocketOptionExt(in, ZMQ.ZMQ_LAST_ENDPOINT);
+        rc = ZMQ.connect(out, ep);
+        assert (rc);
+
+        int messageCount = 20;
+        for (int j = 0; j < messageCount; ++j) {
+            Helper.sendSeq(out, "gauge", Integer.toString(j), "end");
+        }
+        Thread.sleep(200);
+
+        //  The parts of the latest message are received together.
+        Helper.recvSeq(in, "gauge", "19", "end");
+        Assert.assertNull(ZMQ.recv(in, ZMQ.ZMQ_DONTWAIT));
+
+        ZMQ.close(in);
+        ZMQ.close(out);
+
+        ZMQ.term(ctx);
+    }
 }
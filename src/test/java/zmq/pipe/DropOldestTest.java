@@ -0,0 +1,161 @@
+package zmq.pipe;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZError;
+import zmq.ZMQ;
+
+public class DropOldestTest
+{
+    @Test
+    public void testPubDropsOldestMessages()
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase pub = ZMQ.socket(ctx, ZMQ.ZMQ_PUB);
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_SNDHWM, 5);
+        assertThat(ZMQ.setSocketOption(pub, ZMQ.ZMQ_OVERFLOW_POLICY, ZMQ.ZMQ_OVERFLOW_DROP_OLDEST), is(true));
+        assertThat(ZMQ.bind(pub, "inproc://drop-oldest"), is(true));
+
+        SocketBase sub = ZMQ.socket(ctx, ZMQ.ZMQ_SUB);
+        ZMQ.setSocketOption(sub, ZMQ.ZMQ_RCVHWM, 5);
+        ZMQ.setSocketOption(sub, ZMQ.ZMQ_SUBSCRIBE, new byte[0]);
+        assertThat(ZMQ.connect(sub, "inproc://drop-oldest"), is(true));
+
+        //  The high watermarks of both sides add up to 10 messages.
+        for (int idx = 0; idx < 15; ++idx) {
+            assertThat(ZMQ.send(pub, Integer.toString(idx), ZMQ.ZMQ_SNDMORE), is(Integer.toString(idx).length()));
+            assertThat(ZMQ.send(pub, "payload", 0), is(7));
+        }
+        assertThat(ZMQ.getSocketOptionExt(pub, ZMQ.ZMQ_OVERFLOW_DROPPED), is(5L));
+
+        //  The freshest messages are received, with all their parts.
+        for (int idx = 5; idx < 15; ++idx) {
+            Msg msg = ZMQ.recv(sub, ZMQ.ZMQ_DONTWAIT);
+            assertThat(new String(msg.data(), ZMQ.CHARSET), is(Integer.toString(idx)));
+            assertThat(msg.hasMore(), is(true));
+            msg = ZMQ.recv(sub, ZMQ.ZMQ_DONTWAIT);
+            assertThat(new String(msg.data(), ZMQ.CHARSET), is("payload"));
+            assertThat(msg.hasMore(), is(false));
+        }
+        assertThat(ZMQ.recv(sub, ZMQ.ZMQ_DONTWAIT), nullValue());
+
+        ZMQ.close(sub);
+        ZMQ.close(pub);
+        ZMQ.term(ctx);
+    }
+
+    @Test
+    public void testPushStopsWhenReaderLags()
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        ZMQ.setSocketOption(pull, ZMQ.ZMQ_RCVHWM, 5);
+        assertThat(ZMQ.bind(pull, "inproc://drop-oldest-lag"), is(true));
+
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        ZMQ.setSocketOption(push, ZMQ.ZMQ_SNDHWM, 5);
+        ZMQ.setSocketOption(push, ZMQ.ZMQ_OVERFLOW_POLICY, ZMQ.ZMQ_OVERFLOW_DROP_OLDEST);
+        assertThat(ZMQ.connect(push, "inproc://drop-oldest-lag"), is(true));
+
+        //  The reader does not drop any message while not reading,
+        //  the pipe stops at twice the high watermark.
+        int sent = 0;
+        while (ZMQ.send(push, Integer.toString(sent), ZMQ.ZMQ_DONTWAIT) > 0) {
+            sent++;
+        }
+        assertThat(push.errno(), is(ZError.EAGAIN));
+        assertThat(sent, is(20));
+        assertThat(ZMQ.getSocketOptionExt(push, ZMQ.ZMQ_OVERFLOW_DROPPED), is(10L));
+
+        for (int idx = 10; idx < 20; ++idx) {
+            Msg msg = ZMQ.recv(pull, ZMQ.ZMQ_DONTWAIT);
+            assertThat(new String(msg.data(), ZMQ.CHARSET), is(Integer.toString(idx)));
+        }
+        assertThat(ZMQ.recv(pull, ZMQ.ZMQ_DONTWAIT), nullValue());
+
+        //  Once read, the pipe takes messages again.
+        assertThat(ZMQ.send(push, "again", ZMQ.ZMQ_DONTWAIT), is(5));
+        assertThat(new String(ZMQ.recv(pull, 0).data(), ZMQ.CHARSET), is("again"));
+
+        ZMQ.close(push);
+        ZMQ.close(pull);
+        ZMQ.term(ctx);
+    }
+
+    @Test
+    public void testRouterDropsOldestMessages()
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase router = ZMQ.socket(ctx, ZMQ.ZMQ_ROUTER);
+        ZMQ.setSocketOption(router, ZMQ.ZMQ_SNDHWM, 2);
+        ZMQ.setSocketOption(router, ZMQ.ZMQ_OVERFLOW_POLICY, ZMQ.ZMQ_OVERFLOW_DROP_OLDEST);
+        assertThat(ZMQ.bind(router, "inproc://drop-oldest-router"), is(true));
+
+        SocketBase dealer = ZMQ.socket(ctx, ZMQ.ZMQ_DEALER);
+        ZMQ.setSocketOption(dealer, ZMQ.ZMQ_RCVHWM, 2);
+        ZMQ.setSocketOption(dealer, ZMQ.ZMQ_IDENTITY, "dealer");
+        assertThat(ZMQ.connect(dealer, "inproc://drop-oldest-router"), is(true));
+
+        //  Let the router learn the identity of the dealer.
+        assertThat(ZMQ.send(dealer, "hello", 0), is(5));
+        assertThat(ZMQ.recv(router, 0).size(), is(6));
+        assertThat(ZMQ.recv(router, 0).size(), is(5));
+
+        //  The high watermarks of both sides add up to 4 messages.
+        for (int idx = 0; idx < 8; ++idx) {
+            assertThat(ZMQ.send(router, "dealer", ZMQ.ZMQ_SNDMORE), is(6));
+            assertThat(ZMQ.send(router, Integer.toString(idx), 0), is(1));
+        }
+        for (int idx = 4; idx < 8; ++idx) {
+            assertThat(new String(ZMQ.recv(dealer, ZMQ.ZMQ_DONTWAIT).data(), ZMQ.CHARSET), is(Integer.toString(idx)));
+        }
+        assertThat(ZMQ.recv(dealer, ZMQ.ZMQ_DONTWAIT), nullValue());
+        assertThat(ZMQ.getSocketOptionExt(router, ZMQ.ZMQ_OVERFLOW_DROPPED), is(4L));
+
+        ZMQ.close(dealer);
+        ZMQ.close(router);
+        ZMQ.term(ctx);
+    }
+
+    @Test(timeout = 10000)
+    public void testPolicyIsCapturedOnBind()
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase pub = ZMQ.socket(ctx, ZMQ.ZMQ_XPUB);
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_SNDHWM, 5);
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_SNDBUF, 4096);
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_OVERFLOW_POLICY, ZMQ.ZMQ_OVERFLOW_DROP_OLDEST);
+        assertThat(ZMQ.bind(pub, "tcp://127.0.0.1:*"), is(true));
+        String endpoint = (String) ZMQ.getSocketOptionExt(pub, ZMQ.ZMQ_LAST_ENDPOINT);
+        //  The connections accepted afterwards keep the policy set when binding.
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_OVERFLOW_POLICY, ZMQ.ZMQ_OVERFLOW_DEFAULT);
+
+        SocketBase sub = ZMQ.socket(ctx, ZMQ.ZMQ_SUB);
+        ZMQ.setSocketOption(sub, ZMQ.ZMQ_RCVHWM, 5);
+        ZMQ.setSocketOption(sub, ZMQ.ZMQ_RCVBUF, 4096);
+        ZMQ.setSocketOption(sub, ZMQ.ZMQ_SUBSCRIBE, new byte[0]);
+        assertThat(ZMQ.connect(sub, endpoint), is(true));
+        assertThat(ZMQ.recv(pub, 0).size(), is(1));
+
+        //  The subscriber does not read, the pipe of the connection overflows.
+        for (int idx = 0; idx < 10000; ++idx) {
+            assertThat(ZMQ.send(pub, new Msg(1000), 0), is(1000));
+        }
+        assertThat((Long) ZMQ.getSocketOptionExt(pub, ZMQ.ZMQ_OVERFLOW_DROPPED) > 0, is(true));
+
+        ZMQ.close(sub);
+        ZMQ.close(pub);
+        ZMQ.term(ctx);
+    }
+}
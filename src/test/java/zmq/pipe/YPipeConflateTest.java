@@ -0,0 +1,96 @@
+package zmq.pipe;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+import zmq.Msg;
+
+public class YPipeConflateTest
+{
+    @Test
+    public void testMultipartMessagesReplacedAsAWhole()
+    {
+        YPipeConflate<Msg> pipe = new YPipeConflate<>();
+
+        Msg first = part(true);
+        pipe.write(first, true);
+        pipe.write(part(false), false);
+
+        Msg[] latest = { part(true), part(true), part(false) };
+        pipe.write(latest[0], true);
+        pipe.write(latest[1], true);
+        //  Incomplete messages are not visible.
+        assertThat(pipe.probe(), sameInstance(first));
+        pipe.write(latest[2], false);
+
+        //  The message being read is not replaced.
+        assertThat(pipe.read(), sameInstance(first));
+        pipe.write(part(false), false);
+        assertThat(pipe.read().hasMore(), is(false));
+
+        Msg single = part(false);
+        pipe.write(single, false);
+        assertThat(pipe.read(), sameInstance(single));
+        assertThat(pipe.read(), nullValue());
+
+        pipe.write(latest[0], true);
+        pipe.write(latest[1], true);
+        pipe.write(latest[2], false);
+        for (Msg msg : latest) {
+            assertThat(pipe.probe(), sameInstance(msg));
+            assertThat(pipe.read(), sameInstance(msg));
+        }
+        assertThat(pipe.checkRead(), is(false));
+    }
+
+    @Test
+    public void testUnwrite()
+    {
+        YPipeConflate<Msg> pipe = new YPipeConflate<>();
+
+        Msg msg = part(false);
+        pipe.write(msg, false);
+        Msg incomplete = part(true);
+        pipe.write(incomplete, true);
+
+        assertThat(pipe.unwrite(), sameInstance(incomplete));
+        assertThat(pipe.unwrite(), nullValue());
+        assertThat(pipe.read(), sameInstance(msg));
+    }
+
+    @Test
+    public void testReaderWokenUpOncePerSleep()
+    {
+        YPipeConflate<Msg> pipe = new YPipeConflate<>();
+
+        //  The reader is awake at first.
+        pipe.write(part(false), false);
+        assertThat(pipe.flush(), is(true));
+        assertThat(pipe.read().hasMore(), is(false));
+
+        //  The reader goes to sleep on an empty pipe.
+        assertThat(pipe.checkRead(), is(false));
+        pipe.write(part(false), false);
+        assertThat(pipe.flush(), is(false));
+        //  It has already been woken up.
+        pipe.write(part(false), false);
+        assertThat(pipe.flush(), is(true));
+
+        assertThat(pipe.checkRead(), is(true));
+        assertThat(pipe.read().hasMore(), is(false));
+        assertThat(pipe.read(), nullValue());
+    }
+
+    private static Msg part(boolean more)
+    {
+        Msg msg = new Msg(1);
+        if (more) {
+            msg.setFlags(Msg.MORE);
+        }
+        return msg;
+    }
+}
@@ -0,0 +1,188 @@
+package zmq.poll;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+public class PollSetTest
+{
+    private Ctx      ctx;
+    private Selector selector;
+
+    @Before
+    public void setUp()
+    {
+        ctx = ZMQ.createContext();
+        selector = ctx.createSelector();
+    }
+
+    @After
+    public void tearDown()
+    {
+        ctx.closeSelector(selector);
+        ZMQ.term(ctx);
+    }
+
+    @Test(timeout = 5000)
+    public void testSocketsKeepRegistrations()
+    {
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(pull, notNullValue());
+        boolean rc = ZMQ.bind(pull, "inproc://pollset");
+        assertThat(rc, is(true));
+
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(push, notNullValue());
+        rc = ZMQ.connect(push, "inproc://pollset");
+        assertThat(rc, is(true));
+
+        PollSet pollset = new PollSet(selector);
+        PollItem[] items = new PollItem[] { new PollItem(pull, ZMQ.ZMQ_POLLIN), new PollItem(push, ZMQ.ZMQ_POLLOUT) };
+
+        int events = pollset.poll(items, 0);
+        assertThat(events, is(1));
+        assertThat(items[0].isReadable(), is(false));
+        assertThat(items[1].isWritable(), is(true));
+
+        SelectionKey key = pull.getFD().keyFor(selector);
+        assertThat(key, notNullValue());
+
+        ZMQ.send(push, "hello", 0);
+
+        events = pollset.poll(items, 1000);
+        assertThat(events, is(2));
+        assertThat(items[0].isReadable(), is(true));
+
+        Msg msg = ZMQ.recv(pull, 0);
+        assertThat(msg, notNullValue());
+        assertThat(new String(msg.data(), ZMQ.CHARSET), is("hello"));
+
+        events = pollset.poll(items, 0);
+        assertThat(events, is(1));
+        assertThat(items[0].isReadable(), is(false));
+
+        //  The registration was kept between the polls.
+        assertThat(pull.getFD().keyFor(selector), sameInstance(key));
+        assertThat(selector.keys().size(), is(2));
+
+        //  Removing an item cancels its registration only.
+        events = pollset.poll(new PollItem[] { items[1] }, 0);
+        assertThat(events, is(1));
+        assertThat(key.isValid(), is(false));
+        assertThat(push.getFD().keyFor(selector).isValid(), is(true));
+
+        //  And the item can be polled again afterwards.
+        events = pollset.poll(items, 0);
+        assertThat(events, is(1));
+        assertThat(pull.getFD().keyFor(selector).isValid(), is(true));
+
+        pollset.clear();
+        assertThat(pull.getFD().keyFor(selector).isValid(), is(false));
+        assertThat(push.getFD().keyFor(selector).isValid(), is(false));
+
+        ZMQ.close(push);
+        ZMQ.close(pull);
+    }
+
+    @Test(timeout = 5000)
+    public void testChannelsSharingRegistration() throws IOException
+    {
+        Pipe pipe = Pipe.open();
+        pipe.sink().configureBlocking(false);
+        pipe.source().configureBlocking(false);
+
+        try {
+            PollSet pollset = new PollSet(selector);
+            PollItem[] items = new PollItem[] {
+                    new PollItem(pipe.source(), ZMQ.ZMQ_POLLIN),
+                    new PollItem(pipe.sink(), ZMQ.ZMQ_POLLOUT),
+                    new PollItem(pipe.source(), ZMQ.ZMQ_POLLIN) };
+
+            int events = pollset.poll(items, 0);
+            assertThat(events, is(1));
+            assertThat(items[1].isWritable(), is(true));
+
+            pipe.sink().write(ByteBuffer.wrap(new byte[] { 1 }));
+
+            events = pollset.poll(items, 1000);
+            assertThat(events, is(3));
+            assertThat(items[0].isReadable(), is(true));
+            assertThat(items[2].isReadable(), is(true));
+
+            pipe.source().read(ByteBuffer.allocate(1));
+
+            //  Readiness of the previous selection is not reported again.
+            events = pollset.poll(items, 0);
+            assertThat(events, is(1));
+            assertThat(items[0].isReadable(), is(false));
+            assertThat(items[2].isReadable(), is(false));
+        }
+        finally {
+            pipe.sink().close();
+            pipe.source().close();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testChangedInterestUpdatesRegistration() throws IOException
+    {
+        Pipe pipe = Pipe.open();
+        pipe.sink().configureBlocking(false);
+
+        try {
+            PollSet pollset = new PollSet(selector);
+            PollItem[] items = new PollItem[] { new PollItem(pipe.sink(), ZMQ.ZMQ_POLLERR) };
+
+            int events = pollset.poll(items, 0);
+            assertThat(events, is(0));
+            SelectionKey key = pipe.sink().keyFor(selector);
+            assertThat(key, notNullValue());
+            assertThat(key.interestOps(), is(0));
+
+            //  The new interest of the item is written to its registration.
+            items[0].interestOps(ZMQ.ZMQ_POLLOUT);
+            events = pollset.poll(items, 0);
+            assertThat(events, is(1));
+            assertThat(items[0].isWritable(), is(true));
+            assertThat(pipe.sink().keyFor(selector), sameInstance(key));
+            assertThat(key.interestOps(), is(SelectionKey.OP_WRITE));
+        }
+        finally {
+            pipe.sink().close();
+            pipe.source().close();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testTimeout()
+    {
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(pull, notNullValue());
+
+        PollSet pollset = new PollSet(selector);
+        PollItem[] items = new PollItem[] { new PollItem(pull, ZMQ.ZMQ_POLLIN) };
+
+        long start = System.currentTimeMillis();
+        int events = pollset.poll(items, 100);
+        assertThat(events, is(0));
+        assertThat(System.currentTimeMillis() - start >= 100, is(true));
+
+        ZMQ.close(pull);
+    }
+}
@@ -0,0 +1,102 @@
+package zmq.poll;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZMQ;
+import zmq.util.Utils;
+
+public class PollerSpinTest
+{
+    @Test(timeout = 10000)
+    public void testBusyPollingFindsEvents() throws IOException
+    {
+        Ctx ctx = ZMQ.createContext();
+        assertThat(ctx.set(ZMQ.ZMQ_IO_SPIN, 10000), is(true));
+        assertThat(ctx.get(ZMQ.ZMQ_IO_SPIN), is(10000));
+
+        SocketBase rep = ZMQ.socket(ctx, ZMQ.ZMQ_REP);
+        assertThat(rep, notNullValue());
+        boolean rc = ZMQ.bind(rep, "tcp://127.0.0.1:*");
+        assertThat(rc, is(true));
+        String endpoint = (String) ZMQ.getSocketOptionExt(rep, ZMQ.ZMQ_LAST_ENDPOINT);
+
+        SocketBase req = ZMQ.socket(ctx, ZMQ.ZMQ_REQ);
+        assertThat(req, notNullValue());
+        rc = ZMQ.connect(req, endpoint);
+        assertThat(rc, is(true));
+
+        for (int idx = 0; idx < 100; ++idx) {
+            int sent = ZMQ.send(req, "ping", 0);
+            assertThat(sent, is(4));
+            Msg msg = ZMQ.recv(rep, 0);
+            assertThat(msg, notNullValue());
+            sent = ZMQ.send(rep, msg, 0);
+            assertThat(sent, is(4));
+            msg = ZMQ.recv(req, 0);
+            assertThat(msg, notNullValue());
+        }
+        assertThat(ctx.getIoSpinHits() > 0, is(true));
+
+        ZMQ.close(req);
+        ZMQ.close(rep);
+        ZMQ.term(ctx);
+    }
+
+    @Test(timeout = 10000)
+    public void testTimersWhileSpinning() throws IOException
+    {
+        Ctx ctx = ZMQ.createContext();
+        ctx.set(ZMQ.ZMQ_IO_SPIN, 1000000);
+
+        //  The connection is retried with a timer of the spinning I/O thread.
+        int port = Utils.findOpenPort();
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(push, notNullValue());
+        boolean rc = ZMQ.connect(push, "tcp://127.0.0.1:" + port);
+        assertThat(rc, is(true));
+
+        ZMQ.sleep(1);
+
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(pull, notNullValue());
+        rc = ZMQ.bind(pull, "tcp://127.0.0.1:" + port);
+        assertThat(rc, is(true));
+
+        int sent = ZMQ.send(push, "hello", 0);
+        assertThat(sent, is(5));
+        Msg msg = ZMQ.recv(pull, 0);
+        assertThat(msg, notNullValue());
+        assertThat(new String(msg.data(), ZMQ.CHARSET), is("hello"));
+
+        ZMQ.close(push);
+        ZMQ.close(pull);
+        ZMQ.term(ctx);
+    }
+
+    @Test
+    public void testNoBusyPollingByDefault()
+    {
+        Ctx ctx = ZMQ.createContext();
+        assertThat(ctx.get(ZMQ.ZMQ_IO_SPIN), is(0));
+        assertThat(ctx.get(ZMQ.ZMQ_IO_SPIN_AFFINITY), is(0));
+
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(pull, notNullValue());
+        boolean rc = ZMQ.bind(pull, "tcp://127.0.0.1:*");
+        assertThat(rc, is(true));
+
+        assertThat(ctx.getIoSpinHits(), is(0L));
+
+        ZMQ.close(pull);
+        ZMQ.term(ctx);
+    }
+}
@@ -0,0 +1,111 @@
+package zmq.proxy;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+public class ProxyForwardTest
+{
+    @Test
+    public void testForwardInBatches()
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase frontend = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(ZMQ.bind(frontend, "inproc://frontend"), is(true));
+        SocketBase backend = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(ZMQ.bind(backend, "inproc://backend"), is(true));
+        SocketBase capture = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(ZMQ.bind(capture, "inproc://capture"), is(true));
+
+        SocketBase client = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(ZMQ.connect(client, "inproc://frontend"), is(true));
+        SocketBase worker = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(ZMQ.connect(worker, "inproc://backend"), is(true));
+        SocketBase monitor = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(ZMQ.connect(monitor, "inproc://capture"), is(true));
+
+        for (int idx = 0; idx < 100; ++idx) {
+            assertThat(ZMQ.send(client, "head" + idx, ZMQ.ZMQ_SNDMORE), is(4 + Integer.toString(idx).length()));
+            assertThat(ZMQ.send(client, "body" + idx, 0), is(4 + Integer.toString(idx).length()));
+        }
+        //  Let the sockets attach their peers.
+        ZMQ.getSocketOption(backend, ZMQ.ZMQ_EVENTS);
+        ZMQ.getSocketOption(capture, ZMQ.ZMQ_EVENTS);
+
+        //  Whole messages are moved, up to the given count.
+        assertThat(ZMQ.forward(frontend, backend, capture, 30), is(30));
+        assertThat(ZMQ.forward(frontend, backend, capture, 100), is(70));
+
+        for (int idx = 0; idx < 100; ++idx) {
+            for (String part : new String[] { "head", "body" }) {
+                Msg msg = ZMQ.recv(worker, ZMQ.ZMQ_DONTWAIT);
+                assertThat(msg, notNullValue());
+                assertThat(new String(msg.data(), ZMQ.CHARSET), is(part + idx));
+                assertThat(msg.hasMore(), is("head".equals(part)));
+
+                //  The capture shares the payload of the forwarded message.
+                Msg copy = ZMQ.recv(monitor, ZMQ.ZMQ_DONTWAIT);
+                assertThat(copy, notNullValue());
+                assertThat(copy.data(), sameInstance(msg.data()));
+                assertThat(copy.hasMore(), is(msg.hasMore()));
+            }
+        }
+        assertThat(ZMQ.recv(worker, ZMQ.ZMQ_DONTWAIT), nullValue());
+        assertThat(ZMQ.recv(monitor, ZMQ.ZMQ_DONTWAIT), nullValue());
+
+        ZMQ.close(client);
+        ZMQ.close(worker);
+        ZMQ.close(monitor);
+        ZMQ.close(frontend);
+        ZMQ.close(backend);
+        ZMQ.close(capture);
+        ZMQ.term(ctx);
+    }
+
+    @Test
+    public void testForwardStopsWhenDestinationIsFull()
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase frontend = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(ZMQ.bind(frontend, "inproc://frontend"), is(true));
+        SocketBase backend = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        ZMQ.setSocketOption(backend, ZMQ.ZMQ_SNDHWM, 10);
+        assertThat(ZMQ.bind(backend, "inproc://backend"), is(true));
+
+        SocketBase client = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(ZMQ.connect(client, "inproc://frontend"), is(true));
+        SocketBase worker = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        ZMQ.setSocketOption(worker, ZMQ.ZMQ_RCVHWM, 10);
+        assertThat(ZMQ.connect(worker, "inproc://backend"), is(true));
+
+        for (int idx = 0; idx < 50; ++idx) {
+            assertThat(ZMQ.send(client, Integer.toString(idx), 0), is(Integer.toString(idx).length()));
+        }
+        ZMQ.getSocketOption(backend, ZMQ.ZMQ_EVENTS);
+
+        //  The batch ends when the destination cannot take more messages, instead of blocking.
+        int moved = ZMQ.forward(frontend, backend, null, 50);
+        assertThat(moved < 50, is(true));
+        for (int idx = 0; idx < moved; ++idx) {
+            Msg msg = ZMQ.recv(worker, ZMQ.ZMQ_DONTWAIT);
+            assertThat(new String(msg.data(), ZMQ.CHARSET), is(Integer.toString(idx)));
+        }
+
+        ZMQ.close(client);
+        ZMQ.close(worker);
+        ZMQ.close(frontend);
+        ZMQ.close(backend);
+        ZMQ.term(ctx);
+    }
+}
@@ -0,0 +1,150 @@
+package zmq.socket;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import zmq.Msg;
+import zmq.ZMQ;
+
+public class SpillQueueTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSegmentsAreReclaimed() throws IOException
+    {
+        File dir = folder.newFolder();
+        SpillQueue queue = new SpillQueue(dir.getPath(), 64, false);
+
+        //  Each segment holds two records of 20 bytes.
+        for (int idx = 0; idx < 10; ++idx) {
+            queue.write(msg("message-" + String.format("%011d", idx), false));
+        }
+        assertThat(queue.messages(), is(10L));
+        assertThat(dir.list().length, is(5));
+
+        for (int idx = 0; idx < 9; ++idx) {
+            assertThat(text(queue.read()), is("message-" + String.format("%011d", idx)));
+        }
+        assertThat(dir.list().length, is(1));
+        assertThat(text(queue.read()), is("message-" + String.format("%011d", 9)));
+        assertThat(queue.read(), nullValue());
+        assertThat(queue.hasMessage(), is(false));
+
+        //  Messages larger than a segment get one of their own.
+        queue.write(new Msg(1000));
+        assertThat(queue.read().size(), is(1000));
+
+        queue.close();
+        assertThat(dir.list().length, is(0));
+    }
+
+    @Test
+    public void testPersistentQueue() throws IOException
+    {
+        File dir = folder.newFolder();
+        SpillQueue queue = new SpillQueue(dir.getPath(), 64, true);
+        queue.write(msg("A", true));
+        queue.write(msg("B", false));
+        queue.write(msg("C", false));
+        queue.write(msg("D", false));
+        assertThat(text(queue.read()), is("A"));
+        assertThat(text(queue.read()), is("B"));
+        //  The last message is incomplete.
+        queue.write(msg("E", true));
+        queue.close();
+
+        //  The messages not read are found back, except the incomplete one.
+        queue = new SpillQueue(dir.getPath(), 64, true);
+        assertThat(queue.messages(), is(2L));
+        queue.write(msg("F", false));
+        assertThat(text(queue.read()), is("C"));
+        assertThat(text(queue.read()), is("D"));
+        assertThat(text(queue.read()), is("F"));
+        assertThat(queue.read(), nullValue());
+        queue.close();
+
+        //  A queue that is not persistent starts empty.
+        queue = new SpillQueue(dir.getPath(), 64, false);
+        assertThat(queue.hasMessage(), is(false));
+        queue.close();
+        assertThat(dir.list().length, is(0));
+    }
+
+    @Test
+    public void testIncompleteMessageIsOverwritten() throws IOException
+    {
+        File dir = folder.newFolder();
+        SpillQueue queue = new SpillQueue(dir.getPath(), 64, true);
+        queue.write(msg("X", false));
+        //  The last message is incomplete, with several parts.
+        queue.write(msg("A", true));
+        queue.write(msg("B", true));
+        queue.write(msg("C", true));
+        queue.close();
+
+        //  The parts of the incomplete message are not read back after a message of the same size.
+        queue = new SpillQueue(dir.getPath(), 64, true);
+        assertThat(queue.messages(), is(1L));
+        queue.write(msg("D", true));
+        queue.write(msg("E", false));
+        assertThat(text(queue.read()), is("X"));
+        assertThat(text(queue.read()), is("D"));
+        assertThat(text(queue.read()), is("E"));
+        assertThat(queue.read(), nullValue());
+        assertThat(queue.hasMessage(), is(false));
+        queue.close();
+
+        //  Nor after reopening the queue once more.
+        queue = new SpillQueue(dir.getPath(), 64, true);
+        assertThat(queue.messages(), is(0L));
+        assertThat(queue.read(), nullValue());
+        queue.close();
+    }
+
+    @Test
+    public void testPersistentSegmentsAreMappedWhenRead() throws IOException
+    {
+        File dir = folder.newFolder();
+        SpillQueue queue = new SpillQueue(dir.getPath(), 64, true);
+        for (int idx = 0; idx < 10; ++idx) {
+            queue.write(msg("message-" + String.format("%011d", idx), false));
+        }
+        assertThat(text(queue.read()), is("message-" + String.format("%011d", 0)));
+        queue.close();
+        assertThat(dir.list().length, is(5));
+
+        //  The segments between the first and the last ones are only mapped once read.
+        queue = new SpillQueue(dir.getPath(), 64, true);
+        assertThat(queue.messages(), is(9L));
+        queue.write(msg("message-" + String.format("%011d", 10), false));
+        for (int idx = 1; idx < 11; ++idx) {
+            assertThat(text(queue.read()), is("message-" + String.format("%011d", idx)));
+        }
+        assertThat(queue.read(), nullValue());
+        queue.close();
+    }
+
+    private static Msg msg(String text, boolean more)
+    {
+        Msg msg = new Msg(text.getBytes(ZMQ.CHARSET));
+        if (more) {
+            msg.setFlags(Msg.MORE);
+        }
+        return msg;
+    }
+
+    private static String text(Msg msg)
+    {
+        return new String(msg.data(), ZMQ.CHARSET);
+    }
+}
@@ -0,0 +1,185 @@
+package zmq.socket.pipeline;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+import zmq.Ctx;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+public class PushPullPolicyTest
+{
+    @Test
+    public void testLeastQueued()
+    {
+        assertLeastLoadedWorkerServed(ZMQ.ZMQ_LB_LEAST_QUEUED, 3);
+    }
+
+    @Test
+    public void testPowerOfTwoChoices()
+    {
+        //  With two workers, both are always compared.
+        assertLeastLoadedWorkerServed(ZMQ.ZMQ_LB_POWER_OF_TWO, 2);
+    }
+
+    private void assertLeastLoadedWorkerServed(int policy, int count)
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(ZMQ.setSocketOption(push, ZMQ.ZMQ_LB_POLICY, policy), is(true));
+        assertThat(ZMQ.bind(push, "inproc://policy"), is(true));
+
+        SocketBase[] workers = new SocketBase[count];
+        for (int idx = 0; idx < count; ++idx) {
+            workers[idx] = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+            assertThat(ZMQ.connect(workers[idx], "inproc://policy"), is(true));
+        }
+
+        //  Only the first worker keeps up, the others are busy with their first message.
+        int fast = 0;
+        for (int idx = 0; idx < 100; ++idx) {
+            assertThat(ZMQ.send(push, "work", 0), is(4));
+            while (ZMQ.recv(workers[0], ZMQ.ZMQ_DONTWAIT) != null) {
+                fast++;
+            }
+        }
+        int slow = 0;
+        for (int idx = 1; idx < count; ++idx) {
+            while (ZMQ.recv(workers[idx], ZMQ.ZMQ_DONTWAIT) != null) {
+                slow++;
+            }
+        }
+        assertThat(fast + slow, is(100));
+        assertThat("Slow workers received " + slow + " messages", slow < count, is(true));
+
+        for (SocketBase worker : workers) {
+            ZMQ.close(worker);
+        }
+        ZMQ.close(push);
+        ZMQ.term(ctx);
+    }
+
+    @Test
+    public void testWeightedRoundRobin()
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase heavy = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(ZMQ.bind(heavy, "tcp://127.0.0.1:*"), is(true));
+        String heavyEndpoint = (String) ZMQ.getSocketOptionExt(heavy, ZMQ.ZMQ_LAST_ENDPOINT);
+        SocketBase light = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(ZMQ.bind(light, "tcp://127.0.0.1:*"), is(true));
+        String lightEndpoint = (String) ZMQ.getSocketOptionExt(light, ZMQ.ZMQ_LAST_ENDPOINT);
+
+        //  The weight applies to the connections made after it is set.
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(ZMQ.setSocketOption(push, ZMQ.ZMQ_LB_POLICY, ZMQ.ZMQ_LB_WEIGHTED), is(true));
+        assertThat(ZMQ.setSocketOption(push, ZMQ.ZMQ_PIPE_WEIGHT, 3), is(true));
+        assertThat(ZMQ.connect(push, heavyEndpoint), is(true));
+        assertThat(ZMQ.setSocketOption(push, ZMQ.ZMQ_PIPE_WEIGHT, 1), is(true));
+        assertThat(ZMQ.connect(push, lightEndpoint), is(true));
+        ZMQ.msleep(200);
+
+        for (int idx = 0; idx < 40; ++idx) {
+            assertThat(ZMQ.send(push, Integer.toString(idx), 0), is(Integer.toString(idx).length()));
+        }
+        for (int idx = 0; idx < 30; ++idx) {
+            assertThat(ZMQ.recv(heavy, 0), notNullValue());
+        }
+        for (int idx = 0; idx < 10; ++idx) {
+            assertThat(ZMQ.recv(light, 0), notNullValue());
+        }
+        ZMQ.setSocketOption(heavy, ZMQ.ZMQ_RCVTIMEO, 100);
+        assertThat(ZMQ.recv(heavy, 0), nullValue());
+
+        ZMQ.close(push);
+        ZMQ.close(heavy);
+        ZMQ.close(light);
+        ZMQ.term(ctx);
+    }
+
+    @Test
+    public void testWeightedFairQueuing()
+    {
+        Ctx ctx = ZMQ.createContext();
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(ZMQ.setSocketOption(pull, ZMQ.ZMQ_FQ_POLICY, ZMQ.ZMQ_FQ_WEIGHTED), is(true));
+
+        String[] senders = receive(ctx, pull, 8);
+        int heavy = 0;
+        for (String sender : senders) {
+            if ("heavy".equals(sender)) {
+                heavy++;
+            }
+        }
+        //  Three messages of the heavy sender are read for each of the light one.
+        assertThat(heavy, is(6));
+
+        ZMQ.close(pull);
+        ZMQ.term(ctx);
+    }
+
+    @Test
+    public void testPriorityFairQueuing()
+    {
+        Ctx ctx = ZMQ.createContext();
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(ZMQ.setSocketOption(pull, ZMQ.ZMQ_FQ_POLICY, ZMQ.ZMQ_FQ_PRIORITY), is(true));
+
+        //  The messages of the light sender are only read once the heavy one has no more.
+        String[] senders = receive(ctx, pull, 20);
+        for (int idx = 0; idx < senders.length; ++idx) {
+            assertThat(senders[idx], is(idx < 10 ? "heavy" : "light"));
+        }
+
+        ZMQ.close(pull);
+        ZMQ.term(ctx);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownPolicy()
+    {
+        Ctx ctx = ZMQ.createContext();
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        try {
+            ZMQ.setSocketOption(push, ZMQ.ZMQ_LB_POLICY, 42);
+        }
+        finally {
+            ZMQ.close(push);
+            ZMQ.term(ctx);
+        }
+    }
+
+    //  Connects the pull socket to a heavy sender of weight 3 and a light one of weight 1,
+    //  each sending 10 messages, and returns the names of the senders of the messages received.
+    private String[] receive(Ctx ctx, SocketBase pull, int count)
+    {
+        SocketBase heavy = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(ZMQ.bind(heavy, "inproc://heavy"), is(true));
+        SocketBase light = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(ZMQ.bind(light, "inproc://light"), is(true));
+
+        assertThat(ZMQ.setSocketOption(pull, ZMQ.ZMQ_PIPE_WEIGHT, 3), is(true));
+        assertThat(ZMQ.connect(pull, "inproc://heavy"), is(true));
+        assertThat(ZMQ.setSocketOption(pull, ZMQ.ZMQ_PIPE_WEIGHT, 1), is(true));
+        assertThat(ZMQ.connect(pull, "inproc://light"), is(true));
+
+        for (int idx = 0; idx < 10; ++idx) {
+            ZMQ.send(heavy, "heavy", 0);
+            ZMQ.send(light, "light", 0);
+        }
+        String[] senders = new String[count];
+        for (int idx = 0; idx < count; ++idx) {
+            senders[idx] = new String(ZMQ.recv(pull, 0).data(), ZMQ.CHARSET);
+        }
+
+        ZMQ.close(heavy);
+        ZMQ.close(light);
+        return senders;
+    }
+}
@@ -0,0 +1,93 @@
+package zmq.socket.pipeline;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+public class PushSpillTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSpillBeyondHwm() throws IOException
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        ZMQ.setSocketOption(pull, ZMQ.ZMQ_RCVHWM, 5);
+        assertThat(ZMQ.bind(pull, "inproc://spill"), is(true));
+
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        ZMQ.setSocketOption(push, ZMQ.ZMQ_SNDHWM, 5);
+        ZMQ.setSocketOption(push, ZMQ.ZMQ_SPILL_SEGMENT_SIZE, 1024);
+        assertThat(ZMQ.setSocketOption(push, ZMQ.ZMQ_SPILL_DIR, folder.newFolder().getPath()), is(true));
+        assertThat(ZMQ.connect(push, "inproc://spill"), is(true));
+
+        //  The messages beyond the high water marks are spilled instead of being refused.
+        for (int idx = 0; idx < 100; ++idx) {
+            assertThat(ZMQ.send(push, "head" + idx, ZMQ.ZMQ_SNDMORE | ZMQ.ZMQ_DONTWAIT), is(("head" + idx).length()));
+            assertThat(ZMQ.send(push, "body" + idx, ZMQ.ZMQ_DONTWAIT), is(("body" + idx).length()));
+        }
+
+        //  And they are sent in order as the receiver drains the pipe.
+        for (int idx = 0; idx < 100; ++idx) {
+            Msg msg = ZMQ.recv(pull, 0);
+            assertThat(new String(msg.data(), ZMQ.CHARSET), is("head" + idx));
+            assertThat(msg.hasMore(), is(true));
+            msg = ZMQ.recv(pull, 0);
+            assertThat(new String(msg.data(), ZMQ.CHARSET), is("body" + idx));
+            assertThat(msg.hasMore(), is(false));
+            //  The sender moves the spilled messages when the pipe is reactivated.
+            ZMQ.getSocketOption(push, ZMQ.ZMQ_EVENTS);
+        }
+
+        ZMQ.close(push);
+        ZMQ.close(pull);
+        ZMQ.term(ctx);
+    }
+
+    @Test
+    public void testSpillSurvivesRestart() throws IOException
+    {
+        String dir = folder.newFolder().getPath();
+        Ctx ctx = ZMQ.createContext();
+
+        //  Without any peer, all the messages are spilled and kept when the socket is closed.
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        ZMQ.setSocketOption(push, ZMQ.ZMQ_SPILL_PERSISTENT, true);
+        assertThat(ZMQ.setSocketOption(push, ZMQ.ZMQ_SPILL_DIR, dir), is(true));
+        for (int idx = 0; idx < 10; ++idx) {
+            assertThat(ZMQ.send(push, Integer.toString(idx), ZMQ.ZMQ_DONTWAIT), is(1));
+        }
+        ZMQ.close(push);
+
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(ZMQ.bind(pull, "inproc://restart"), is(true));
+
+        //  The next socket spilling to the directory sends them first.
+        push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        ZMQ.setSocketOption(push, ZMQ.ZMQ_SPILL_PERSISTENT, true);
+        assertThat(ZMQ.setSocketOption(push, ZMQ.ZMQ_SPILL_DIR, dir), is(true));
+        assertThat(ZMQ.connect(push, "inproc://restart"), is(true));
+        assertThat(ZMQ.send(push, "10", 0), is(2));
+        for (int idx = 0; idx <= 10; ++idx) {
+            Msg msg = ZMQ.recv(pull, 0);
+            assertThat(new String(msg.data(), ZMQ.CHARSET), is(Integer.toString(idx)));
+        }
+
+        ZMQ.close(push);
+        ZMQ.close(pull);
+        ZMQ.term(ctx);
+    }
+}
@@ -0,0 +1,213 @@
+package zmq.socket.pubsub;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZError;
+import zmq.ZMQ;
+
+public class PubSubFanoutTest
+{
+    @Test
+    public void testFanoutFiltersOnSubscribers()
+    {
+        Ctx ctx = ZMQ.createContext();
+        SocketBase pub = ZMQ.socket(ctx, ZMQ.ZMQ_PUB);
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_INPROC_FANOUT, 1024);
+        assertThat(ZMQ.bind(pub, "inproc://fanout"), is(true));
+
+        String[] topics = { "", "a", "b" };
+        SocketBase[] subs = new SocketBase[topics.length];
+        for (int idx = 0; idx < subs.length; ++idx) {
+            subs[idx] = ZMQ.socket(ctx, ZMQ.ZMQ_SUB);
+            ZMQ.setSocketOption(subs[idx], ZMQ.ZMQ_SUBSCRIBE, topics[idx]);
+            assertThat(ZMQ.connect(subs[idx], "inproc://fanout"), is(true));
+        }
+        //  Let the publisher attach the subscribers.
+        ZMQ.getSocketOption(pub, ZMQ.ZMQ_EVENTS);
+
+        for (int idx = 0; idx < 300; ++idx) {
+            String topic = idx % 3 == 0 ? "a" : idx % 3 == 1 ? "b" : "c";
+            assertThat(ZMQ.send(pub, topic + idx, ZMQ.ZMQ_SNDMORE), is(topic.length() + Integer.toString(idx).length()));
+            assertThat(ZMQ.send(pub, "body" + idx, 0), is(4 + Integer.toString(idx).length()));
+        }
+
+        for (int sub = 0; sub < subs.length; ++sub) {
+            for (int idx = 0; idx < 300; ++idx) {
+                String topic = idx % 3 == 0 ? "a" : idx % 3 == 1 ? "b" : "c";
+                if (!topic.startsWith(topics[sub])) {
+                    continue;
+                }
+                Msg msg = ZMQ.recv(subs[sub], ZMQ.ZMQ_DONTWAIT);
+                assertThat(msg, notNullValue());
+                assertThat(new String(msg.data(), ZMQ.CHARSET), is(topic + idx));
+                assertThat(msg.hasMore(), is(true));
+                msg = ZMQ.recv(subs[sub], ZMQ.ZMQ_DONTWAIT);
+                assertThat(new String(msg.data(), ZMQ.CHARSET), is("body" + idx));
+                assertThat(msg.hasMore(), is(false));
+            }
+            assertThat(ZMQ.recv(subs[sub], ZMQ.ZMQ_DONTWAIT), nullValue());
+        }
+
+        for (SocketBase sub : subs) {
+            ZMQ.close(sub);
+        }
+        ZMQ.close(pub);
+        ZMQ.term(ctx);
+    }
+
+    @Test
+    public void testFanoutPublisherConnecting()
+    {
+        Ctx ctx = ZMQ.createContext();
+        SocketBase sub = ZMQ.socket(ctx, ZMQ.ZMQ_SUB);
+        ZMQ.setSocketOption(sub, ZMQ.ZMQ_SUBSCRIBE, "a");
+        assertThat(ZMQ.bind(sub, "inproc://fanout"), is(true));
+
+        SocketBase pub = ZMQ.socket(ctx, ZMQ.ZMQ_PUB);
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_INPROC_FANOUT, 64);
+        assertThat(ZMQ.connect(pub, "inproc://fanout"), is(true));
+
+        assertThat(ZMQ.send(pub, "b", 0), is(1));
+        assertThat(ZMQ.send(pub, "a", 0), is(1));
+
+        Msg msg = ZMQ.recv(sub, 0);
+        assertThat(new String(msg.data(), ZMQ.CHARSET), is("a"));
+        assertThat(ZMQ.recv(sub, ZMQ.ZMQ_DONTWAIT), nullValue());
+
+        ZMQ.close(pub);
+        ZMQ.close(sub);
+        ZMQ.term(ctx);
+    }
+
+    @Test
+    public void testFanoutSlowSubscriberSkipsOverwrittenMessages()
+    {
+        Ctx ctx = ZMQ.createContext();
+        SocketBase pub = ZMQ.socket(ctx, ZMQ.ZMQ_PUB);
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_INPROC_FANOUT, 16);
+        assertThat(ZMQ.bind(pub, "inproc://fanout"), is(true));
+
+        SocketBase sub = ZMQ.socket(ctx, ZMQ.ZMQ_SUB);
+        ZMQ.setSocketOption(sub, ZMQ.ZMQ_SUBSCRIBE, "");
+        assertThat(ZMQ.connect(sub, "inproc://fanout"), is(true));
+        ZMQ.getSocketOption(pub, ZMQ.ZMQ_EVENTS);
+
+        for (int idx = 0; idx < 100; ++idx) {
+            assertThat(ZMQ.send(pub, Integer.toString(idx), 0), is(Integer.toString(idx).length()));
+        }
+
+        //  The ring only holds the latest messages.
+        Msg msg = ZMQ.recv(sub, ZMQ.ZMQ_DONTWAIT);
+        assertThat(msg, notNullValue());
+        int first = Integer.parseInt(new String(msg.data(), ZMQ.CHARSET));
+        assertThat(first >= 100 - 16, is(true));
+        for (int idx = first + 1; idx < 100; ++idx) {
+            msg = ZMQ.recv(sub, ZMQ.ZMQ_DONTWAIT);
+            assertThat(new String(msg.data(), ZMQ.CHARSET), is(Integer.toString(idx)));
+        }
+        assertThat(ZMQ.recv(sub, ZMQ.ZMQ_DONTWAIT), nullValue());
+
+        //  The subscriber goes on with the next messages.
+        assertThat(ZMQ.send(pub, "next", 0), is(4));
+        msg = ZMQ.recv(sub, 0);
+        assertThat(new String(msg.data(), ZMQ.CHARSET), is("next"));
+
+        ZMQ.close(sub);
+        ZMQ.close(pub);
+        ZMQ.term(ctx);
+    }
+
+    @Test
+    public void testFanoutNoDropGatesOnSlowestSubscriber()
+    {
+        Ctx ctx = ZMQ.createContext();
+        SocketBase pub = ZMQ.socket(ctx, ZMQ.ZMQ_PUB);
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_INPROC_FANOUT, 16);
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_XPUB_NODROP, true);
+        assertThat(ZMQ.bind(pub, "inproc://fanout"), is(true));
+
+        SocketBase fast = ZMQ.socket(ctx, ZMQ.ZMQ_SUB);
+        ZMQ.setSocketOption(fast, ZMQ.ZMQ_SUBSCRIBE, "");
+        assertThat(ZMQ.connect(fast, "inproc://fanout"), is(true));
+        SocketBase slow = ZMQ.socket(ctx, ZMQ.ZMQ_SUB);
+        ZMQ.setSocketOption(slow, ZMQ.ZMQ_SUBSCRIBE, "");
+        assertThat(ZMQ.connect(slow, "inproc://fanout"), is(true));
+        ZMQ.getSocketOption(pub, ZMQ.ZMQ_EVENTS);
+
+        int sent = 0;
+        while (ZMQ.send(pub, "msg", ZMQ.ZMQ_DONTWAIT) == 3) {
+            assertThat(ZMQ.recv(fast, ZMQ.ZMQ_DONTWAIT), notNullValue());
+            sent++;
+        }
+        assertThat(pub.errno(), is(ZError.EAGAIN));
+        assertThat(sent, is(16));
+
+        //  Reading from the slowest subscriber makes room in the ring.
+        assertThat(ZMQ.recv(slow, ZMQ.ZMQ_DONTWAIT), notNullValue());
+        assertThat(ZMQ.send(pub, "msg", ZMQ.ZMQ_DONTWAIT), is(3));
+
+        ZMQ.close(fast);
+        ZMQ.close(slow);
+        ZMQ.close(pub);
+        ZMQ.term(ctx);
+    }
+
+    @Test(timeout = 30000)
+    public void testFanoutWakesUpSubscribers() throws Exception
+    {
+        final int count = 20000;
+        Ctx ctx = ZMQ.createContext();
+        SocketBase pub = ZMQ.socket(ctx, ZMQ.ZMQ_PUB);
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_INPROC_FANOUT, 64);
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_XPUB_NODROP, true);
+        assertThat(ZMQ.bind(pub, "inproc://fanout"), is(true));
+
+        SocketBase[] subs = new SocketBase[4];
+        for (int idx = 0; idx < subs.length; ++idx) {
+            subs[idx] = ZMQ.socket(ctx, ZMQ.ZMQ_SUB);
+            ZMQ.setSocketOption(subs[idx], ZMQ.ZMQ_SUBSCRIBE, "");
+            assertThat(ZMQ.connect(subs[idx], "inproc://fanout"), is(true));
+        }
+        ZMQ.getSocketOption(pub, ZMQ.ZMQ_EVENTS);
+
+        ExecutorService executor = Executors.newFixedThreadPool(subs.length);
+        Future<?>[] readers = new Future<?>[subs.length];
+        for (int idx = 0; idx < subs.length; ++idx) {
+            final SocketBase sub = subs[idx];
+            readers[idx] = executor.submit(() -> {
+                for (int seq = 0; seq < count; ++seq) {
+                    Msg msg = ZMQ.recv(sub, 0);
+                    assertThat(new String(msg.data(), ZMQ.CHARSET), is(Integer.toString(seq)));
+                }
+            });
+        }
+        //  The sends block while the slowest subscriber lags a whole ring behind.
+        for (int seq = 0; seq < count; ++seq) {
+            assertThat(ZMQ.send(pub, Integer.toString(seq), 0), is(Integer.toString(seq).length()));
+        }
+        for (Future<?> reader : readers) {
+            reader.get();
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS), is(true));
+
+        for (SocketBase sub : subs) {
+            ZMQ.close(sub);
+        }
+        ZMQ.close(pub);
+        ZMQ.term(ctx);
+    }
+}
@@ -63,4 +63,69 @@ public class TestPubsubTcp
         ZMQ.term(ctx);
         System.out.println("Done.");
     }
+
+    @Test(timeout = 20000)
+    public void testPubsubTcpSharedFrames() throws Exception
+    {
+        Ctx ctx = ZMQ.createContext();
+        assertThat(ctx, notNullValue());
+
+        SocketBase pub = ZMQ.socket(ctx, ZMQ.ZMQ_PUB);
+        assertThat(pub, notNullValue());
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_SNDHWM, 0);
+        boolean rc = ZMQ.bind(pub, "tcp://127.0.0.1:*");
+        assertThat(rc, is(true));
+
+        String host = (String) ZMQ.getSocketOptionExt(pub, ZMQ.ZMQ_LAST_ENDPOINT);
+        assertThat(host, notNullValue());
+
+        //  Messages of a topic matching several subscribers are shared, the others are not
+        String[] topics = { "", "a", "b" };
+        SocketBase[] subs = new SocketBase[topics.length];
+        for (int idx = 0; idx < subs.length; ++idx) {
+            subs[idx] = ZMQ.socket(ctx, ZMQ.ZMQ_SUB);
+            assertThat(subs[idx], notNullValue());
+            ZMQ.setSocketOption(subs[idx], ZMQ.ZMQ_RCVHWM, 0);
+            rc = subs[idx].setSocketOpt(ZMQ.ZMQ_SUBSCRIBE, topics[idx]);
+            assertThat(rc, is(true));
+            rc = ZMQ.connect(subs[idx], host);
+            assertThat(rc, is(true));
+        }
+
+        ZMQ.msleep(300);
+
+        int count = 3000;
+        for (int idx = 0; idx < count; ++idx) {
+            String topic = "abc".substring(idx % 3, idx % 3 + 1);
+            rc = pub.send(new Msg((topic + idx).getBytes(ZMQ.CHARSET)), ZMQ.ZMQ_SNDMORE);
+            assertThat(rc, is(true));
+            //  Large bodies are encoded on 64-bit sizes
+            rc = pub.send(new Msg(new byte[idx % 500]), 0);
+            assertThat(rc, is(true));
+        }
+
+        for (int sub = 0; sub < subs.length; ++sub) {
+            for (int idx = 0; idx < count; ++idx) {
+                String topic = "abc".substring(idx % 3, idx % 3 + 1);
+                if (!topic.startsWith(topics[sub])) {
+                    continue;
+                }
+                Msg msg = subs[sub].recv(0);
+                assertThat(msg, notNullValue());
+                assertThat(new String(msg.data(), ZMQ.CHARSET), is(topic + idx));
+                assertThat(msg.hasMore(), is(true));
+
+                msg = subs[sub].recv(0);
+                assertThat(msg, notNullValue());
+                assertThat(msg.size(), is(idx % 500));
+                assertThat(msg.hasMore(), is(false));
+            }
+        }
+
+        for (SocketBase sub : subs) {
+            ZMQ.close(sub);
+        }
+        ZMQ.close(pub);
+        ZMQ.term(ctx);
+    }
 }
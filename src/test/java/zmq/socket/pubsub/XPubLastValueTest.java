@@ -0,0 +1,103 @@
+package zmq.socket.pubsub;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+public class XPubLastValueTest
+{
+    @Test
+    public void testLastValueSentToNewSubscriber()
+    {
+        Ctx ctx = ZMQ.createContext();
+        SocketBase pub = ZMQ.socket(ctx, ZMQ.ZMQ_PUB);
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_XPUB_LAST_VALUE, true);
+        assertThat(ZMQ.bind(pub, "inproc://lvc"), is(true));
+
+        send(pub, "a", "1");
+        send(pub, "ab", "2");
+        send(pub, "a", "3");
+        send(pub, "b", "4");
+        assertThat(ZMQ.send(pub, "a-single", 0), is(8));
+
+        SocketBase sub = ZMQ.socket(ctx, ZMQ.ZMQ_SUB);
+        ZMQ.setSocketOption(sub, ZMQ.ZMQ_SUBSCRIBE, "a");
+        assertThat(ZMQ.connect(sub, "inproc://lvc"), is(true));
+        //  Let the publisher process the subscription.
+        ZMQ.getSocketOption(pub, ZMQ.ZMQ_EVENTS);
+
+        //  The latest message of each matching topic, in no specific order.
+        String first = recv(sub);
+        String second = recv(sub);
+        assertThat(first.equals("a:3") ? second : first, is("ab:2"));
+        assertThat(first.equals("a:3") || second.equals("a:3"), is(true));
+        assertThat(ZMQ.recv(sub, ZMQ.ZMQ_DONTWAIT), nullValue());
+
+        //  The next messages are published as usual.
+        send(pub, "a", "5");
+        assertThat(recv(sub), is("a:5"));
+
+        ZMQ.close(sub);
+        ZMQ.close(pub);
+        ZMQ.term(ctx);
+    }
+
+    @Test
+    public void testConflateTopicsForSlowSubscriber()
+    {
+        Ctx ctx = ZMQ.createContext();
+        SocketBase pub = ZMQ.socket(ctx, ZMQ.ZMQ_PUB);
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_XPUB_CONFLATE_TOPICS, true);
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_SNDHWM, 1);
+        assertThat(ZMQ.bind(pub, "inproc://conflate"), is(true));
+
+        SocketBase sub = ZMQ.socket(ctx, ZMQ.ZMQ_SUB);
+        ZMQ.setSocketOption(sub, ZMQ.ZMQ_RCVHWM, 1);
+        ZMQ.setSocketOption(sub, ZMQ.ZMQ_SUBSCRIBE, "");
+        assertThat(ZMQ.connect(sub, "inproc://conflate"), is(true));
+        ZMQ.getSocketOption(pub, ZMQ.ZMQ_EVENTS);
+
+        for (int idx = 0; idx < 10; ++idx) {
+            send(pub, "a", Integer.toString(idx));
+            send(pub, "b", Integer.toString(idx));
+            send(pub, "c", Integer.toString(idx));
+        }
+
+        //  Once the pipe is full, only the latest message of each topic is kept.
+        String[] expected = { "a:0", "b:0", "c:9", "a:9", "b:9" };
+        for (String message : expected) {
+            ZMQ.getSocketOption(pub, ZMQ.ZMQ_EVENTS);
+            assertThat(recv(sub), is(message));
+        }
+        ZMQ.getSocketOption(pub, ZMQ.ZMQ_EVENTS);
+        assertThat(ZMQ.recv(sub, ZMQ.ZMQ_DONTWAIT), nullValue());
+
+        ZMQ.close(sub);
+        ZMQ.close(pub);
+        ZMQ.term(ctx);
+    }
+
+    private void send(SocketBase pub, String topic, String value)
+    {
+        assertThat(ZMQ.send(pub, topic, ZMQ.ZMQ_SNDMORE), is(topic.length()));
+        assertThat(ZMQ.send(pub, value, 0), is(value.length()));
+    }
+
+    private String recv(SocketBase sub)
+    {
+        Msg topic = ZMQ.recv(sub, ZMQ.ZMQ_DONTWAIT);
+        assertThat(topic, notNullValue());
+        assertThat(topic.hasMore(), is(true));
+        Msg value = ZMQ.recv(sub, ZMQ.ZMQ_DONTWAIT);
+        assertThat(value.hasMore(), is(false));
+        return new String(topic.data(), ZMQ.CHARSET) + ":" + new String(value.data(), ZMQ.CHARSET);
+    }
+}
@@ -98,4 +98,79 @@ public class XPubManualTest
         ZMQ.close(subConnect2);
         ZMQ.term(ctx);
     }
+
+    @Test
+    public void testXpubManualNonAsciiTopic()
+    {
+        Ctx ctx = ZMQ.init(1);
+        assertThat(ctx, notNullValue());
+
+        SocketBase pub = ZMQ.socket(ctx, ZMQ.ZMQ_XPUB);
+        assertThat(pub, notNullValue());
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_XPUB_MANUAL, 1);
+        boolean rc = ZMQ.bind(pub, "inproc://manual-non-ascii");
+        assertThat(rc, is(true));
+
+        SocketBase sub = ZMQ.socket(ctx, ZMQ.ZMQ_SUB);
+        assertThat(sub, notNullValue());
+        ZMQ.setSocketOption(sub, ZMQ.ZMQ_SUBSCRIBE, "\u00e9t\u00e9");
+        rc = ZMQ.connect(sub, "inproc://manual-non-ascii");
+        assertThat(rc, is(true));
+
+        //  The subscription is forwarded as a string, encoded as the messages are.
+        Msg subMsg = ZMQ.recv(pub, ZMQ.ZMQ_DONTWAIT);
+        assertThat(subMsg, notNullValue());
+        String subscription = new String(subMsg.data(), ZMQ.CHARSET);
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_SUBSCRIBE, subscription);
+
+        int ret = ZMQ.send(pub, "\u00e9t\u00e9-2024", 0);
+        assertThat(ret, is("\u00e9t\u00e9-2024".getBytes(ZMQ.CHARSET).length));
+
+        Msg msg = ZMQ.recv(sub, ZMQ.ZMQ_DONTWAIT);
+        assertThat(msg, notNullValue());
+        assertThat(new String(msg.data(), ZMQ.CHARSET), is("\u00e9t\u00e9-2024"));
+
+        ZMQ.close(sub);
+        ZMQ.close(pub);
+        ZMQ.term(ctx);
+    }
+
+    @Test
+    public void testXpubManualLastValue()
+    {
+        Ctx ctx = ZMQ.init(1);
+        assertThat(ctx, notNullValue());
+
+        SocketBase pub = ZMQ.socket(ctx, ZMQ.ZMQ_XPUB);
+        assertThat(pub, notNullValue());
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_XPUB_MANUAL, 1);
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_XPUB_LAST_VALUE, true);
+        boolean rc = ZMQ.bind(pub, "inproc://manual-last-value");
+        assertThat(rc, is(true));
+
+        assertThat(ZMQ.send(pub, "A", ZMQ.ZMQ_SNDMORE), is(1));
+        assertThat(ZMQ.send(pub, "1", 0), is(1));
+
+        SocketBase sub = ZMQ.socket(ctx, ZMQ.ZMQ_SUB);
+        assertThat(sub, notNullValue());
+        ZMQ.setSocketOption(sub, ZMQ.ZMQ_SUBSCRIBE, "A");
+        rc = ZMQ.connect(sub, "inproc://manual-last-value");
+        assertThat(rc, is(true));
+
+        //  Accepting the subscription sends the last value of the topic.
+        Msg subMsg = ZMQ.recv(pub, ZMQ.ZMQ_DONTWAIT);
+        assertThat(subMsg, notNullValue());
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_SUBSCRIBE, subMsg.data());
+
+        Msg topic = ZMQ.recv(sub, ZMQ.ZMQ_DONTWAIT);
+        assertThat(topic, notNullValue());
+        assertThat(new String(topic.data(), ZMQ.CHARSET), is("A"));
+        Msg value = ZMQ.recv(sub, ZMQ.ZMQ_DONTWAIT);
+        assertThat(value, notNullValue());
+        assertThat(new String(value.data(), ZMQ.CHARSET), is("1"));
+
+        ZMQ.close(sub);
+        ZMQ.close(pub);
+        ZMQ.term(ctx);
+    }
 }
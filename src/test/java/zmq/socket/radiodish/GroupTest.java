@@ -0,0 +1,83 @@
+package zmq.socket.radiodish;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import zmq.Msg;
+import zmq.ZMQ;
+
+public class GroupTest
+{
+    @Test
+    public void testGroupsAreComparedByContent()
+    {
+        Group group = Group.of("not-interned-" + System.nanoTime());
+        byte[] bytes = group.name().getBytes(ZMQ.CHARSET);
+        byte[] padded = new byte[bytes.length + 2];
+        System.arraycopy(bytes, 0, padded, 1, bytes.length);
+
+        Group other = Group.of(padded, 1, bytes.length);
+        assertThat(other, not(sameInstance(group)));
+        assertThat(other, is(group));
+        assertThat(other.hashCode(), is(group.hashCode()));
+        assertThat(other.name(), is(group.name()));
+        assertThat(Arrays.equals(other.data(), bytes), is(true));
+    }
+
+    @Test
+    public void testInternedGroupsAreShared()
+    {
+        String name = "interned-" + System.nanoTime();
+        Group group = Group.intern(Group.of(name));
+
+        assertThat(Group.intern(Group.of(name)), sameInstance(group));
+        assertThat(Group.of(name), sameInstance(group));
+
+        byte[] bytes = name.getBytes(ZMQ.CHARSET);
+        assertThat(Group.of(bytes, 0, bytes.length), sameInstance(group));
+
+        Group.release(group);
+        Group.release(group);
+    }
+
+    @Test
+    public void testGroupIsEvictedWhenLeftByAll()
+    {
+        String name = "evicted-" + System.nanoTime();
+        Group group = Group.intern(Group.of(name));
+        assertThat(Group.intern(Group.of(name)), sameInstance(group));
+
+        //  Still joined once.
+        Group.release(group);
+        assertThat(Group.of(name), sameInstance(group));
+
+        Group.release(group);
+        Group other = Group.of(name);
+        assertThat(other, not(sameInstance(group)));
+        assertThat(other, is(group));
+
+        //  Releasing a group that is not interned has no effect.
+        Group.release(other);
+        assertThat(Group.intern(other), sameInstance(other));
+        Group.release(other);
+    }
+
+    @Test
+    public void testGroupTooLong()
+    {
+        char[] name = new char[Msg.MAX_GROUP_LENGTH + 1];
+        Arrays.fill(name, 'a');
+        assertThat(Group.of(new String(name)), nullValue());
+
+        Msg msg = new Msg();
+        assertThat(msg.setGroup(new String(name)), is(false));
+        assertThat(msg.getGroup(), nullValue());
+    }
+}